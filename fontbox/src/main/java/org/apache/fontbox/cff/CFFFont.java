@@ -16,8 +16,11 @@
  */
 package org.apache.fontbox.cff;
 
+import java.awt.geom.GeneralPath;
 import java.io.IOException;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 import org.apache.fontbox.cff.charset.CFFCharset;
 import org.apache.fontbox.cff.encoding.CFFEncoding;
@@ -40,7 +43,9 @@ public class CFFFont implements Type1CharStringReader
     private Map<String, byte[]> charStringsDict = new LinkedHashMap<String, byte[]>();
     private IndexData globalSubrIndex = null;
     private IndexData localSubrIndex = null;
-    private Map<String, Type2CharString> charStringCache = new HashMap<String, Type2CharString>();
+    // the cache is filled lazily, maybe by several threads rendering pages concurrently
+    private final ConcurrentMap<String, Type2CharString> charStringCache =
+            new ConcurrentHashMap<String, Type2CharString>();
 
     /**
      * The name of the font.
@@ -357,11 +362,35 @@ public class CFFFont implements Type1CharStringReader
             Type2CharStringParser parser = new Type2CharStringParser();
             List<Object> type2seq = parser.parse(charStringsDict.get(name), globalSubrIndex, localSubrIndex);
             type2 = new Type2CharString(this, fontname, name, type2seq, getDefaultWidthX(sid), getNominalWidthX(sid));
-            charStringCache.put(name, type2);
+            Type2CharString cached = charStringCache.putIfAbsent(name, type2);
+            if (cached != null)
+            {
+                type2 = cached;
+            }
         }
         return type2;
     }
 
+    /**
+     * Returns the path of the glyph with the given name. The path is rendered directly from
+     * the Type 2 CharString, which is faster than rendering the {@link Type1CharString}. It is
+     * rendered for each call and isn't kept by the font, callers such as the renderer cache the
+     * paths they need.
+     *
+     * @param name the name of the glyph
+     * @return the path of the glyph, or null if the font has no glyph with the given name
+     * @throws IOException if the CharString is invalid
+     */
+    public GeneralPath getGlyphPath(String name) throws IOException
+    {
+        byte[] bytes = charStringsDict.get(name);
+        if (bytes == null)
+        {
+            return null;
+        }
+        return new Type2CharStringRenderer(this, globalSubrIndex, localSubrIndex).render(name, bytes);
+    }
+
     /**
      * Returns the defaultWidthX for the given SID.
      *
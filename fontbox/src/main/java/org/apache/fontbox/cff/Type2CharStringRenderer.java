@@ -0,0 +1,591 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.fontbox.cff;
+
+import java.awt.geom.AffineTransform;
+import java.awt.geom.GeneralPath;
+import java.io.IOException;
+import java.util.Random;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.apache.fontbox.encoding.StandardEncoding;
+
+/**
+ * Renders a Type 2 CharString to a GeneralPath while it is read, without creating a Type 2
+ * sequence and converting it into a Type 1 sequence like {@link Type2CharString}. The operands
+ * are kept on a stack of floats and subroutines are executed when they are called.
+ *
+ * A renderer is used for a single glyph, as the glyphs of an accented character are rendered
+ * by other renderers of the same font.
+ */
+final class Type2CharStringRenderer
+{
+    private static final Log LOG = LogFactory.getLog(Type2CharStringRenderer.class);
+
+    // the limits given by the Type 2 specification
+    private static final int MAX_STACK = 48;
+    private static final int MAX_SUBR_DEPTH = 10;
+    private static final int TRANSIENT_SIZE = 32;
+
+    private final CFFFont font;
+    private final IndexData globalSubrIndex;
+    private final IndexData localSubrIndex;
+
+    private final float[] stack = new float[MAX_STACK];
+    private int count = 0;
+    private final float[] transientArray = new float[TRANSIENT_SIZE];
+    private Random random = null;
+
+    private GeneralPath path = null;
+    private float x = 0;
+    private float y = 0;
+    private boolean hasMoveTo = false;
+    private boolean hasWidth = false;
+    private int stemCount = 0;
+    private boolean ended = false;
+
+    // the glyphs of the deprecated seac form of endchar
+    private float accentX = 0;
+    private float accentY = 0;
+    private int baseChar = -1;
+    private int accentChar = -1;
+
+    /**
+     * Constructor.
+     *
+     * @param font the font of the glyph, which provides the glyphs of accented characters
+     * @param globalSubrIndex the global subroutines or null
+     * @param localSubrIndex the local subroutines or null
+     */
+    Type2CharStringRenderer(CFFFont font, IndexData globalSubrIndex, IndexData localSubrIndex)
+    {
+        this.font = font;
+        this.globalSubrIndex = globalSubrIndex;
+        this.localSubrIndex = localSubrIndex;
+    }
+
+    /**
+     * Renders the given charstring.
+     *
+     * @param glyphName the name of the glyph, used in messages
+     * @param bytes the Type 2 charstring
+     * @return the path of the glyph
+     * @throws IOException if the charstring is invalid
+     */
+    GeneralPath render(String glyphName, byte[] bytes) throws IOException
+    {
+        path = new GeneralPath();
+        execute(bytes, 0);
+        closePath();
+        if (baseChar >= 0)
+        {
+            appendGlyph(glyphName, baseChar, null);
+            appendGlyph(glyphName, accentChar, AffineTransform.getTranslateInstance(accentX, accentY));
+        }
+        return path;
+    }
+
+    /**
+     * Executes a charstring or a subroutine, until it returns or the glyph ends.
+     */
+    private void execute(byte[] bytes, int depth) throws IOException
+    {
+        int position = 0;
+        while (position < bytes.length && !ended)
+        {
+            int b0 = bytes[position++] & 0xff;
+            if (b0 >= 32 && b0 <= 246)
+            {
+                push(b0 - 139);
+            }
+            else if (b0 >= 247 && b0 <= 250)
+            {
+                checkLength(bytes, position, 1);
+                push((b0 - 247) * 256 + (bytes[position++] & 0xff) + 108);
+            }
+            else if (b0 >= 251 && b0 <= 254)
+            {
+                checkLength(bytes, position, 1);
+                push(-(b0 - 251) * 256 - (bytes[position++] & 0xff) - 108);
+            }
+            else if (b0 == 255)
+            {
+                // a 16.16 fixed point number
+                checkLength(bytes, position, 4);
+                int value = (bytes[position] & 0xff) << 24 | (bytes[position + 1] & 0xff) << 16
+                        | (bytes[position + 2] & 0xff) << 8 | bytes[position + 3] & 0xff;
+                position += 4;
+                push(value / 65536f);
+            }
+            else if (b0 == 28)
+            {
+                checkLength(bytes, position, 2);
+                push((short) ((bytes[position] & 0xff) << 8 | bytes[position + 1] & 0xff));
+                position += 2;
+            }
+            else if (b0 == 11)
+            {
+                // return
+                return;
+            }
+            else if (b0 == 10 || b0 == 29)
+            {
+                callSubr(b0 == 10 ? localSubrIndex : globalSubrIndex, depth);
+            }
+            else if (b0 == 19 || b0 == 20)
+            {
+                // hintmask and cntrmask, with optional vstem hints
+                addStems();
+                int maskLength = (stemCount + 7) / 8;
+                checkLength(bytes, position, maskLength);
+                position += maskLength;
+            }
+            else if (b0 == 12)
+            {
+                checkLength(bytes, position, 1);
+                executeEscape(bytes[position++] & 0xff);
+            }
+            else
+            {
+                executeOperator(b0);
+            }
+        }
+    }
+
+    private void executeOperator(int operator)
+    {
+        switch (operator)
+        {
+            case 1: // hstem
+            case 3: // vstem
+            case 18: // hstemhm
+            case 23: // vstemhm
+                addStems();
+                break;
+            case 21: // rmoveto
+                readWidth(count > 2);
+                moveTo(arg(0), arg(1));
+                break;
+            case 22: // hmoveto
+                readWidth(count > 1);
+                moveTo(arg(0), 0);
+                break;
+            case 4: // vmoveto
+                readWidth(count > 1);
+                moveTo(0, arg(0));
+                break;
+            case 5: // rlineto
+                for (int i = 0; i + 2 <= count; i += 2)
+                {
+                    lineTo(stack[i], stack[i + 1]);
+                }
+                break;
+            case 6: // hlineto
+            case 7: // vlineto
+                boolean horizontal = operator == 6;
+                for (int i = 0; i < count; i++)
+                {
+                    if (horizontal)
+                    {
+                        lineTo(stack[i], 0);
+                    }
+                    else
+                    {
+                        lineTo(0, stack[i]);
+                    }
+                    horizontal = !horizontal;
+                }
+                break;
+            case 8: // rrcurveto
+                curves(0, count);
+                break;
+            case 24: // rcurveline
+                int lineIndex = count - 2 - (count - 2) % 6;
+                curves(0, lineIndex);
+                if (lineIndex + 2 <= count)
+                {
+                    lineTo(stack[lineIndex], stack[lineIndex + 1]);
+                }
+                break;
+            case 25: // rlinecurve
+                int curveIndex = count < 6 ? count : (count - 6) - (count - 6) % 2;
+                for (int i = 0; i + 2 <= curveIndex; i += 2)
+                {
+                    lineTo(stack[i], stack[i + 1]);
+                }
+                curves(curveIndex, count);
+                break;
+            case 26: // vvcurveto
+                int first = count % 4 == 1 ? 1 : 0;
+                float dx1 = first == 1 ? stack[0] : 0;
+                for (int i = first; i + 4 <= count; i += 4)
+                {
+                    curveTo(dx1, stack[i], stack[i + 1], stack[i + 2], 0, stack[i + 3]);
+                    dx1 = 0;
+                }
+                break;
+            case 27: // hhcurveto
+                first = count % 4 == 1 ? 1 : 0;
+                float dy1 = first == 1 ? stack[0] : 0;
+                for (int i = first; i + 4 <= count; i += 4)
+                {
+                    curveTo(stack[i], dy1, stack[i + 1], stack[i + 2], stack[i + 3], 0);
+                    dy1 = 0;
+                }
+                break;
+            case 30: // vhcurveto
+            case 31: // hvcurveto
+                horizontal = operator == 31;
+                for (int i = 0; i + 4 <= count; i += 4)
+                {
+                    // the last curve may have a fifth argument
+                    float last = count - i == 5 ? stack[i + 4] : 0;
+                    if (horizontal)
+                    {
+                        curveTo(stack[i], 0, stack[i + 1], stack[i + 2], last, stack[i + 3]);
+                    }
+                    else
+                    {
+                        curveTo(0, stack[i], stack[i + 1], stack[i + 2], stack[i + 3], last);
+                    }
+                    horizontal = !horizontal;
+                }
+                break;
+            case 14: // endchar
+                readWidth(count == 1 || count == 5);
+                if (count >= 4)
+                {
+                    // deprecated accented character
+                    accentX = stack[0];
+                    accentY = stack[1];
+                    baseChar = (int) stack[2];
+                    accentChar = (int) stack[3];
+                }
+                ended = true;
+                break;
+            default:
+                // reserved operators are ignored
+                break;
+        }
+        count = 0;
+    }
+
+    private void executeEscape(int operator)
+    {
+        float a;
+        float b;
+        switch (operator)
+        {
+            case 3: // and
+                b = pop();
+                a = pop();
+                push(a != 0 && b != 0 ? 1 : 0);
+                return;
+            case 4: // or
+                b = pop();
+                a = pop();
+                push(a != 0 || b != 0 ? 1 : 0);
+                return;
+            case 5: // not
+                push(pop() == 0 ? 1 : 0);
+                return;
+            case 9: // abs
+                push(Math.abs(pop()));
+                return;
+            case 10: // add
+                b = pop();
+                push(pop() + b);
+                return;
+            case 11: // sub
+                b = pop();
+                push(pop() - b);
+                return;
+            case 12: // div
+                b = pop();
+                a = pop();
+                push(b != 0 ? a / b : 0);
+                return;
+            case 14: // neg
+                push(-pop());
+                return;
+            case 15: // eq
+                b = pop();
+                push(pop() == b ? 1 : 0);
+                return;
+            case 18: // drop
+                pop();
+                return;
+            case 20: // put
+                int index = (int) pop();
+                a = pop();
+                if (index >= 0 && index < TRANSIENT_SIZE)
+                {
+                    transientArray[index] = a;
+                }
+                return;
+            case 21: // get
+                index = (int) pop();
+                push(index >= 0 && index < TRANSIENT_SIZE ? transientArray[index] : 0);
+                return;
+            case 22: // ifelse
+                float v2 = pop();
+                float v1 = pop();
+                float s2 = pop();
+                float s1 = pop();
+                push(v1 <= v2 ? s1 : s2);
+                return;
+            case 23: // random
+                if (random == null)
+                {
+                    random = new Random();
+                }
+                push(1 - random.nextFloat());
+                return;
+            case 24: // mul
+                b = pop();
+                push(pop() * b);
+                return;
+            case 26: // sqrt
+                push((float) Math.sqrt(Math.max(0, pop())));
+                return;
+            case 27: // dup
+                a = pop();
+                push(a);
+                push(a);
+                return;
+            case 28: // exch
+                b = pop();
+                a = pop();
+                push(b);
+                push(a);
+                return;
+            case 29: // index
+                index = (int) pop();
+                if (index < 0)
+                {
+                    index = 0;
+                }
+                push(index < count ? stack[count - 1 - index] : 0);
+                return;
+            case 30: // roll
+                int shift = (int) pop();
+                roll((int) pop(), shift);
+                return;
+            case 34: // hflex
+                if (count >= 7)
+                {
+                    curveTo(stack[0], 0, stack[1], stack[2], stack[3], 0);
+                    curveTo(stack[4], 0, stack[5], -stack[2], stack[6], 0);
+                }
+                break;
+            case 35: // flex
+                if (count >= 12)
+                {
+                    curves(0, 12);
+                }
+                break;
+            case 36: // hflex1
+                if (count >= 9)
+                {
+                    curveTo(stack[0], stack[1], stack[2], stack[3], stack[4], 0);
+                    curveTo(stack[5], 0, stack[6], stack[7], stack[8],
+                            -(stack[1] + stack[3] + stack[7]));
+                }
+                break;
+            case 37: // flex1
+                if (count >= 11)
+                {
+                    float dx = 0;
+                    float dy = 0;
+                    for (int i = 0; i < 10; i += 2)
+                    {
+                        dx += stack[i];
+                        dy += stack[i + 1];
+                    }
+                    curveTo(stack[0], stack[1], stack[2], stack[3], stack[4], stack[5]);
+                    if (Math.abs(dx) > Math.abs(dy))
+                    {
+                        curveTo(stack[6], stack[7], stack[8], stack[9], stack[10], -dy);
+                    }
+                    else
+                    {
+                        curveTo(stack[6], stack[7], stack[8], stack[9], -dx, stack[10]);
+                    }
+                }
+                break;
+            default:
+                // dotsection and reserved operators are ignored
+                break;
+        }
+        count = 0;
+    }
+
+    private void callSubr(IndexData subrIndex, int depth) throws IOException
+    {
+        int number = (int) pop();
+        if (subrIndex == null || depth >= MAX_SUBR_DEPTH)
+        {
+            return;
+        }
+        int subrCount = subrIndex.getCount();
+        int bias = subrCount < 1240 ? 107 : subrCount < 33900 ? 1131 : 32768;
+        number += bias;
+        if (number >= 0 && number < subrCount)
+        {
+            execute(subrIndex.getBytes(number), depth + 1);
+        }
+    }
+
+    /**
+     * Reads the optional width of the glyph, which is given before the arguments of the
+     * first stack clearing operator. Only the path is rendered, the width is dropped.
+     */
+    private void readWidth(boolean present)
+    {
+        if (!hasWidth)
+        {
+            hasWidth = true;
+            if (present && count > 0)
+            {
+                System.arraycopy(stack, 1, stack, 0, --count);
+            }
+        }
+    }
+
+    private void addStems()
+    {
+        readWidth(count % 2 != 0);
+        stemCount += count / 2;
+        count = 0;
+    }
+
+    private void curves(int start, int end)
+    {
+        for (int i = start; i + 6 <= end; i += 6)
+        {
+            curveTo(stack[i], stack[i + 1], stack[i + 2], stack[i + 3], stack[i + 4], stack[i + 5]);
+        }
+    }
+
+    private void moveTo(float dx, float dy)
+    {
+        closePath();
+        x += dx;
+        y += dy;
+        path.moveTo(x, y);
+        hasMoveTo = true;
+    }
+
+    private void lineTo(float dx, float dy)
+    {
+        startPath();
+        x += dx;
+        y += dy;
+        path.lineTo(x, y);
+    }
+
+    private void curveTo(float dx1, float dy1, float dx2, float dy2, float dx3, float dy3)
+    {
+        startPath();
+        float x1 = x + dx1;
+        float y1 = y + dy1;
+        float x2 = x1 + dx2;
+        float y2 = y1 + dy2;
+        x = x2 + dx3;
+        y = y2 + dy3;
+        path.curveTo(x1, y1, x2, y2, x, y);
+    }
+
+    /**
+     * Starts a path at the current point if a glyph draws without a moveto.
+     */
+    private void startPath()
+    {
+        if (!hasMoveTo)
+        {
+            path.moveTo(x, y);
+            hasMoveTo = true;
+        }
+    }
+
+    private void closePath()
+    {
+        if (hasMoveTo)
+        {
+            path.closePath();
+        }
+    }
+
+    private void appendGlyph(String glyphName, int code, AffineTransform transform) throws IOException
+    {
+        String name = StandardEncoding.INSTANCE.getName(code);
+        GeneralPath glyph = name != null ? font.getGlyphPath(name) : null;
+        if (glyph == null)
+        {
+            LOG.warn("invalid seac character in glyph " + glyphName + " of font " + font.getName());
+            return;
+        }
+        path.append(glyph.getPathIterator(transform), false);
+    }
+
+    private void push(float value)
+    {
+        // the values above the limit of the stack are dropped
+        if (count < MAX_STACK)
+        {
+            stack[count++] = value;
+        }
+    }
+
+    private float pop()
+    {
+        return count > 0 ? stack[--count] : 0;
+    }
+
+    private float arg(int index)
+    {
+        return index < count ? stack[index] : 0;
+    }
+
+    /**
+     * Rolls the top n values of the stack by j positions.
+     */
+    private void roll(int n, int j)
+    {
+        if (n <= 0 || n > count)
+        {
+            return;
+        }
+        int start = count - n;
+        j = ((j % n) + n) % n;
+        float[] values = new float[n];
+        for (int i = 0; i < n; i++)
+        {
+            values[(i + j) % n] = stack[start + i];
+        }
+        System.arraycopy(values, 0, stack, start, n);
+    }
+
+    private static void checkLength(byte[] bytes, int position, int length) throws IOException
+    {
+        if (position + length > bytes.length)
+        {
+            throw new IOException("Unexpected end of the charstring");
+        }
+    }
+}
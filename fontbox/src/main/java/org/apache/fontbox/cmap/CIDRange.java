@@ -34,6 +34,33 @@ class CIDRange {
         this.cid = cid;
     }
 
+    /**
+     * Returns the first Unicode character of this range.
+     *
+     * @return the first character
+     */
+    char getFrom() {
+        return from;
+    }
+
+    /**
+     * Returns the last Unicode character of this range.
+     *
+     * @return the last character
+     */
+    char getTo() {
+        return to;
+    }
+
+    /**
+     * Returns the CID of the first character of this range.
+     *
+     * @return the first CID
+     */
+    int getCID() {
+        return cid;
+    }
+
     /**
      * Maps the given Unicode character to the corresponding CID in this range.
      *
@@ -20,7 +20,6 @@ import java.io.IOException;
 
 import java.util.ArrayList;
 import java.util.HashMap;
-import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
 import java.util.Iterator;
@@ -44,12 +43,17 @@ public class CMap
     private int supplement = 0;
     
     private List<CodespaceRange> codeSpaceRanges = new ArrayList<CodespaceRange>();
-    private Map<Integer,String> singleByteMappings = new HashMap<Integer,String>();
-    private Map<Integer,String> doubleByteMappings = new HashMap<Integer,String>();
+    private final String[] singleByteMappings = new String[256];
+    private int singleByteMappingCount = 0;
+    private final CodeTable doubleByteMappings = new CodeTable();
 
-    private final Map<Integer,String> cid2charMappings = new HashMap<Integer,String>();
+    private final CodeTable cid2charMappings = new CodeTable();
     private final Map<String,Integer> char2CIDMappings = new HashMap<String,Integer>();
-    private final List<CIDRange> cidRanges = new LinkedList<CIDRange>();
+    // CID ranges in the order of addition, later ranges take precedence
+    private final List<CIDRange> cidRanges = new ArrayList<CIDRange>();
+    // indexes of the CID ranges, created by the first lookup
+    private RangeIndex charToCIDRanges = null;
+    private RangeIndex cidToCharRanges = null;
 
     private static final String SPACE = " ";
     private int spaceMapping = -1;
@@ -69,7 +73,7 @@ public class CMap
      */
     public boolean hasOneByteMappings()
     {
-        return singleByteMappings.size() > 0;
+        return singleByteMappingCount > 0;
     }
     
     /**
@@ -79,7 +83,7 @@ public class CMap
      */
     public boolean hasTwoByteMappings()
     {
-        return doubleByteMappings.size() > 0;
+        return !doubleByteMappings.isEmpty();
     }
 
     /**
@@ -119,7 +123,10 @@ public class CMap
         String result = null;
         if( length == 1 )
         {
-            result = singleByteMappings.get( code );
+            if( code >= 0 && code < singleByteMappings.length )
+            {
+                result = singleByteMappings[code];
+            }
         }
         else if( length == 2 )
         {
@@ -137,22 +144,16 @@ public class CMap
      */
     public String lookupCID(int cid) 
     {
-        if (cid2charMappings.containsKey(cid)) 
+        String mapping = cid2charMappings.get(cid);
+        if (mapping == null) 
         {
-            return cid2charMappings.get(cid);
-        } 
-        else 
-        {
-            for (CIDRange range : cidRanges) 
+            int ch = getCIDToCharRanges().lookup(cid);
+            if (ch != -1) 
             {
-                int ch = range.unmap(cid);
-                if (ch != -1) 
-                {
-                    return Character.toString((char) ch);
-                }
+                mapping = Character.toString((char) ch);
             }
-            return null;
         }
+        return mapping;
     }
 
     /**
@@ -176,15 +177,7 @@ public class CMap
             } 
             else 
             {
-                for (CIDRange range : cidRanges) 
-                {
-                    int ch = range.map((char)codeAsInt);
-                    if (ch != -1) 
-                    {
-                        return ch;
-                    }
-                }
-                return -1;
+                return getCharToCIDRanges().lookup((char)codeAsInt);
             }
         }
         return -1;
@@ -249,7 +242,11 @@ public class CMap
         }
         if( srcLength == 1 )
         {
-            singleByteMappings.put( intSrc, dest );
+            if( singleByteMappings[intSrc] == null )
+            {
+                singleByteMappingCount++;
+            }
+            singleByteMappings[intSrc] = dest;
         }
         else if( srcLength == 2 )
         {
@@ -283,9 +280,57 @@ public class CMap
      * @param cid the cid to be started with.
      *
      */
-    public void addCIDRange(char from, char to, int cid) 
+    public synchronized void addCIDRange(char from, char to, int cid) 
+    {
+        cidRanges.add(new CIDRange(from, to, cid));
+        charToCIDRanges = null;
+        cidToCharRanges = null;
+    }
+
+    /**
+     * Returns the index mapping characters to CIDs, created on first use.
+     */
+    private synchronized RangeIndex getCharToCIDRanges()
+    {
+        if (charToCIDRanges == null)
+        {
+            int count = cidRanges.size();
+            int[] first = new int[count];
+            int[] last = new int[count];
+            int[] cids = new int[count];
+            for (int i = 0; i < count; i++)
+            {
+                CIDRange range = cidRanges.get(i);
+                first[i] = range.getFrom();
+                last[i] = range.getTo();
+                cids[i] = range.getCID();
+            }
+            charToCIDRanges = new RangeIndex(first, last, cids, count);
+        }
+        return charToCIDRanges;
+    }
+
+    /**
+     * Returns the index mapping CIDs to characters, created on first use.
+     */
+    private synchronized RangeIndex getCIDToCharRanges()
     {
-        cidRanges.add(0, new CIDRange(from, to, cid));
+        if (cidToCharRanges == null)
+        {
+            int count = cidRanges.size();
+            int[] first = new int[count];
+            int[] last = new int[count];
+            int[] chars = new int[count];
+            for (int i = 0; i < count; i++)
+            {
+                CIDRange range = cidRanges.get(i);
+                first[i] = range.getCID();
+                last[i] = range.getCID() + range.getTo() - range.getFrom();
+                chars[i] = range.getFrom();
+            }
+            cidToCharRanges = new RangeIndex(first, last, chars, count);
+        }
+        return cidToCharRanges;
     }
 
     /**
@@ -317,7 +362,17 @@ public class CMap
     public void useCmap( CMap cmap )
     {
         this.codeSpaceRanges.addAll( cmap.codeSpaceRanges );
-        this.singleByteMappings.putAll( cmap.singleByteMappings );
+        for( int i = 0; i < cmap.singleByteMappings.length; i++ )
+        {
+            if( cmap.singleByteMappings[i] != null )
+            {
+                if( singleByteMappings[i] == null )
+                {
+                    singleByteMappingCount++;
+                }
+                singleByteMappings[i] = cmap.singleByteMappings[i];
+            }
+        }
         this.doubleByteMappings.putAll( cmap.doubleByteMappings );
     }
 
@@ -507,4 +562,54 @@ public class CMap
     {
         return spaceMapping;
     }
+
+    /**
+     * Sets the mapping for the space character.
+     *
+     * @param code the mapped code for the space character
+     */
+    void setSpaceMapping(int code)
+    {
+        spaceMapping = code;
+    }
+
+    /**
+     * Returns the two byte mappings, used to read and write compiled CMaps.
+     *
+     * @return the two byte mappings
+     */
+    CodeTable getDoubleByteMappings()
+    {
+        return doubleByteMappings;
+    }
+
+    /**
+     * Returns the mappings from CIDs to characters, used to read and write compiled CMaps.
+     *
+     * @return the CID mappings
+     */
+    CodeTable getCIDToCharMappings()
+    {
+        return cid2charMappings;
+    }
+
+    /**
+     * Returns the mappings from characters to CIDs, used to read and write compiled CMaps.
+     *
+     * @return the character mappings
+     */
+    Map<String,Integer> getCharToCIDMappings()
+    {
+        return char2CIDMappings;
+    }
+
+    /**
+     * Returns the CID ranges in the order of addition, used to write compiled CMaps.
+     *
+     * @return the CID ranges
+     */
+    List<CIDRange> getCIDRanges()
+    {
+        return cidRanges;
+    }
 }
\ No newline at end of file
@@ -124,13 +124,7 @@ public class CMapParser
                 if (op.op.equals(USECMAP))
                 {
                     LiteralName useCmapName = (LiteralName) previousToken;
-                    InputStream useStream = ResourceLoader.loadResource(resourceRoot + useCmapName.name);
-                    if (useStream == null)
-                    {
-                        throw new IOException("Error: Could not find referenced cmap stream " + useCmapName.name);
-                    }
-                    CMap useCMap = parse(resourceRoot, useStream);
-                    result.useCmap(useCMap);
+                    result.useCmap(parseReferencedCMap(resourceRoot, useCmapName.name));
                 }
                 else if (op.op.equals(END_CMAP))
                 {
@@ -386,6 +380,39 @@ public class CMapParser
         return result;
     }
 
+    /**
+     * Parses a CMap referenced by the usecmap operator, the compiled form of the CMap is
+     * used if available.
+     */
+    private CMap parseReferencedCMap(String resourceRoot, String name) throws IOException
+    {
+        InputStream compiledStream = ResourceLoader.loadResource(resourceRoot + name + CompiledCMap.SUFFIX);
+        if (compiledStream != null)
+        {
+            try
+            {
+                return CompiledCMap.read(compiledStream);
+            }
+            finally
+            {
+                compiledStream.close();
+            }
+        }
+        InputStream useStream = ResourceLoader.loadResource(resourceRoot + name);
+        if (useStream == null)
+        {
+            throw new IOException("Error: Could not find referenced cmap stream " + name);
+        }
+        try
+        {
+            return parse(resourceRoot, useStream);
+        }
+        finally
+        {
+            useStream.close();
+        }
+    }
+
     private Object parseNextToken(PushbackInputStream is) throws IOException
     {
         Object retval = null;
@@ -0,0 +1,339 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.fontbox.cmap;
+
+import java.util.Arrays;
+
+/**
+ * A mapping from int codes to strings, kept in sorted primitive arrays which are searched
+ * binary. Runs of consecutive codes which are mapped to consecutive single characters, as
+ * created by bfrange and cidrange operators, are stored as ranges without any string objects.
+ *
+ * Mappings are collected unsorted while the CMap is built and merged into the lookup arrays by
+ * the first lookup after a change, so a table may be looked up by several threads once it has
+ * been built.
+ *
+ * @version $Revision$
+ */
+final class CodeTable
+{
+
+    private static final int[] EMPTY_INTS = new int[0];
+    private static final String[] EMPTY_STRINGS = new String[0];
+
+    // runs of codes mapped to single characters, rangeChars contains the character of the start
+    private int[] rangeStarts = EMPTY_INTS;
+    private int[] rangeEnds = EMPTY_INTS;
+    private int[] rangeChars = EMPTY_INTS;
+
+    // other mappings
+    private int[] codes = EMPTY_INTS;
+    private String[] values = EMPTY_STRINGS;
+
+    // mappings added since the last lookup, in the order of addition
+    private int[] pendingCodes = EMPTY_INTS;
+    private String[] pendingValues = EMPTY_STRINGS;
+    private int pendingCount;
+    private volatile boolean dirty;
+
+    /**
+     * Adds a mapping, replacing a previous mapping of the code.
+     *
+     * @param code the code
+     * @param value the mapped string
+     */
+    synchronized void put(int code, String value)
+    {
+        if (pendingCount == pendingCodes.length)
+        {
+            int length = Math.max(16, pendingCount * 2);
+            pendingCodes = Arrays.copyOf(pendingCodes, length);
+            pendingValues = Arrays.copyOf(pendingValues, length);
+        }
+        pendingCodes[pendingCount] = code;
+        pendingValues[pendingCount] = value;
+        pendingCount++;
+        dirty = true;
+    }
+
+    /**
+     * Adds all mappings of the given table, replacing previous mappings of the same codes.
+     *
+     * @param table the table to be copied
+     */
+    void putAll(CodeTable table)
+    {
+        for (int code : table.getCodes())
+        {
+            put(code, table.get(code));
+        }
+    }
+
+    /**
+     * Returns the string the given code is mapped to.
+     *
+     * @param code the code
+     * @return the mapped string or null if the code isn't mapped
+     */
+    String get(int code)
+    {
+        if (dirty)
+        {
+            merge();
+        }
+        int index = Arrays.binarySearch(codes, code);
+        if (index >= 0)
+        {
+            return values[index];
+        }
+        index = findRange(code);
+        if (index >= 0)
+        {
+            return String.valueOf((char) (rangeChars[index] + code - rangeStarts[index]));
+        }
+        return null;
+    }
+
+    /**
+     * Tells whether the table doesn't contain any mapping.
+     *
+     * @return true if the table is empty
+     */
+    boolean isEmpty()
+    {
+        if (dirty)
+        {
+            merge();
+        }
+        return codes.length == 0 && rangeStarts.length == 0;
+    }
+
+    /**
+     * Returns all mapped codes in ascending order.
+     *
+     * @return the codes
+     */
+    int[] getCodes()
+    {
+        if (dirty)
+        {
+            merge();
+        }
+        int count = codes.length;
+        for (int i = 0; i < rangeStarts.length; i++)
+        {
+            count += rangeEnds[i] - rangeStarts[i] + 1;
+        }
+        int[] allCodes = new int[count];
+        System.arraycopy(codes, 0, allCodes, 0, codes.length);
+        int index = codes.length;
+        for (int i = 0; i < rangeStarts.length; i++)
+        {
+            for (int code = rangeStarts[i]; code <= rangeEnds[i]; code++)
+            {
+                allCodes[index++] = code;
+            }
+        }
+        Arrays.sort(allCodes);
+        return allCodes;
+    }
+
+    /**
+     * Returns the ranges as triples of start code, end code and character of the start code,
+     * used to write compiled CMaps.
+     *
+     * @return the ranges
+     */
+    int[][] getRanges()
+    {
+        if (dirty)
+        {
+            merge();
+        }
+        return new int[][] { rangeStarts, rangeEnds, rangeChars };
+    }
+
+    /**
+     * Returns the mappings which aren't part of a range, used to write compiled CMaps.
+     *
+     * @return the codes, sorted
+     */
+    int[] getSingleCodes()
+    {
+        if (dirty)
+        {
+            merge();
+        }
+        return codes;
+    }
+
+    /**
+     * Sets the content of an empty table, used to read compiled CMaps.
+     *
+     * @param starts the start codes of the ranges, sorted
+     * @param ends the end codes of the ranges
+     * @param chars the characters of the start codes
+     * @param singleCodes the codes which aren't part of a range, sorted
+     * @param singleValues the strings of these codes
+     */
+    synchronized void set(int[] starts, int[] ends, int[] chars, int[] singleCodes,
+            String[] singleValues)
+    {
+        rangeStarts = starts;
+        rangeEnds = ends;
+        rangeChars = chars;
+        codes = singleCodes;
+        values = singleValues;
+    }
+
+    private int findRange(int code)
+    {
+        int index = Arrays.binarySearch(rangeStarts, code);
+        if (index < 0)
+        {
+            // the range starting before the code
+            index = -index - 2;
+        }
+        if (index >= 0 && code <= rangeEnds[index])
+        {
+            return index;
+        }
+        return -1;
+    }
+
+    /**
+     * Merges the pending mappings into the lookup arrays and rebuilds the ranges.
+     */
+    private synchronized void merge()
+    {
+        if (!dirty)
+        {
+            return;
+        }
+        // all mappings, the character of each mapping to a single character or -1
+        int count = codes.length + pendingCount;
+        for (int i = 0; i < rangeStarts.length; i++)
+        {
+            count += rangeEnds[i] - rangeStarts[i] + 1;
+        }
+        long[] order = new long[count];
+        int[] allCodes = new int[count];
+        int[] allChars = new int[count];
+        String[] allValues = new String[count];
+        int index = 0;
+        for (int i = 0; i < rangeStarts.length; i++)
+        {
+            for (int code = rangeStarts[i]; code <= rangeEnds[i]; code++)
+            {
+                allCodes[index] = code;
+                allChars[index] = rangeChars[i] + code - rangeStarts[i];
+                index++;
+            }
+        }
+        for (int i = 0; i < codes.length; i++)
+        {
+            allCodes[index] = codes[i];
+            allValues[index] = values[i];
+            allChars[index] = values[i].length() == 1 ? values[i].charAt(0) : -1;
+            index++;
+        }
+        for (int i = 0; i < pendingCount; i++)
+        {
+            allCodes[index] = pendingCodes[i];
+            allValues[index] = pendingValues[i];
+            allChars[index] = pendingValues[i].length() == 1 ? pendingValues[i].charAt(0) : -1;
+            index++;
+        }
+        // sort by code and order of addition, so that the last mapping of a code wins
+        for (int i = 0; i < count; i++)
+        {
+            order[i] = ((long) allCodes[i] << 32) | i;
+        }
+        Arrays.sort(order);
+
+        int[] newStarts = new int[count];
+        int[] newEnds = new int[count];
+        int[] newChars = new int[count];
+        int rangeCount = 0;
+        int[] newCodes = new int[count];
+        String[] newValues = new String[count];
+        int singleCount = 0;
+        int i = 0;
+        while (i < count)
+        {
+            int start = lastOfCode(order, i, count);
+            int entry = (int) order[start];
+            int code = allCodes[entry];
+            int character = allChars[entry];
+            int next = start + 1;
+            int end = code;
+            if (character >= 0)
+            {
+                // extend the run of consecutive codes and characters
+                while (next < count)
+                {
+                    int last = lastOfCode(order, next, count);
+                    int nextEntry = (int) order[last];
+                    if (allCodes[nextEntry] != end + 1
+                            || allChars[nextEntry] != character + end + 1 - code)
+                    {
+                        break;
+                    }
+                    end++;
+                    next = last + 1;
+                }
+            }
+            if (end > code)
+            {
+                newStarts[rangeCount] = code;
+                newEnds[rangeCount] = end;
+                newChars[rangeCount] = character;
+                rangeCount++;
+            }
+            else
+            {
+                newCodes[singleCount] = code;
+                newValues[singleCount] = allValues[entry] != null
+                        ? allValues[entry] : String.valueOf((char) character);
+                singleCount++;
+            }
+            i = next;
+        }
+        rangeStarts = Arrays.copyOf(newStarts, rangeCount);
+        rangeEnds = Arrays.copyOf(newEnds, rangeCount);
+        rangeChars = Arrays.copyOf(newChars, rangeCount);
+        codes = Arrays.copyOf(newCodes, singleCount);
+        values = Arrays.copyOf(newValues, singleCount);
+        pendingCodes = EMPTY_INTS;
+        pendingValues = EMPTY_STRINGS;
+        pendingCount = 0;
+        dirty = false;
+    }
+
+    /**
+     * Returns the index of the last mapping of the code at the given index.
+     */
+    private static int lastOfCode(long[] order, int index, int count)
+    {
+        int code = (int) (order[index] >> 32);
+        while (index + 1 < count && (int) (order[index + 1] >> 32) == code)
+        {
+            index++;
+        }
+        return index;
+    }
+}
@@ -0,0 +1,319 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.fontbox.cmap;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Reads and writes the compiled form of a CMap. The predefined CMaps are compiled when PDFBox
+ * is built, loading a compiled CMap is much faster than parsing the PostScript text of the
+ * CMap with the {@link CMapParser}.
+ *
+ * The compiled form is a binary serialization of a parsed CMap, with referenced CMaps already
+ * merged. Runs of codes which are mapped to consecutive characters are stored as ranges.
+ *
+ * @version $Revision$
+ */
+public final class CompiledCMap
+{
+    /**
+     * The suffix of the name of a compiled CMap, appended to the name of the CMap.
+     */
+    public static final String SUFFIX = ".bin";
+
+    // "CMap" followed by the version of the format
+    private static final int MAGIC = 0x434D6170;
+    private static final int VERSION = 2;
+
+    private CompiledCMap()
+    {
+    }
+
+    /**
+     * Writes the compiled form of the given CMap.
+     *
+     * @param cmap the CMap
+     * @param output the stream to write to, it is not closed
+     * @throws IOException if the CMap can't be written
+     */
+    public static void write(CMap cmap, OutputStream output) throws IOException
+    {
+        DataOutputStream out = new DataOutputStream(new BufferedOutputStream(output));
+        out.writeInt(MAGIC);
+        out.writeInt(VERSION);
+        writeString(out, cmap.getName());
+        writeString(out, cmap.getVersion());
+        out.writeInt(cmap.getType());
+        out.writeInt(cmap.getWMode());
+        writeString(out, cmap.getRegistry());
+        writeString(out, cmap.getOrdering());
+        out.writeInt(cmap.getSupplement());
+        out.writeInt(cmap.getSpaceMapping());
+
+        List<CodespaceRange> codespaceRanges = cmap.getCodeSpaceRanges();
+        out.writeInt(codespaceRanges.size());
+        for (CodespaceRange range : codespaceRanges)
+        {
+            writeBytes(out, range.getStart());
+            writeBytes(out, range.getEnd());
+        }
+
+        List<Integer> singleByteCodes = new ArrayList<Integer>();
+        for (int code = 0; code < 256; code++)
+        {
+            if (cmap.lookup(code, 1) != null)
+            {
+                singleByteCodes.add(code);
+            }
+        }
+        out.writeInt(singleByteCodes.size());
+        for (int code : singleByteCodes)
+        {
+            out.writeByte(code);
+            out.writeUTF(cmap.lookup(code, 1));
+        }
+        writeTable(out, cmap.getDoubleByteMappings());
+
+        CodeTable cidToChar = cmap.getCIDToCharMappings();
+        writeTable(out, cidToChar);
+        // the inverse mappings are rebuilt when reading, only the ones which differ are stored
+        Map<String, Integer> charToCID = new HashMap<String, Integer>();
+        for (int cid : cidToChar.getCodes())
+        {
+            charToCID.put(cidToChar.get(cid), cid);
+        }
+        List<Map.Entry<String, Integer>> differences = new ArrayList<Map.Entry<String, Integer>>();
+        for (Map.Entry<String, Integer> entry : cmap.getCharToCIDMappings().entrySet())
+        {
+            if (!entry.getValue().equals(charToCID.get(entry.getKey())))
+            {
+                differences.add(entry);
+            }
+        }
+        out.writeInt(differences.size());
+        for (Map.Entry<String, Integer> entry : differences)
+        {
+            out.writeUTF(entry.getKey());
+            out.writeInt(entry.getValue());
+        }
+
+        List<CIDRange> cidRanges = cmap.getCIDRanges();
+        out.writeInt(cidRanges.size());
+        for (CIDRange range : cidRanges)
+        {
+            out.writeChar(range.getFrom());
+            out.writeChar(range.getTo());
+            out.writeInt(range.getCID());
+        }
+        out.flush();
+    }
+
+    /**
+     * Reads a compiled CMap.
+     *
+     * @param input the stream to read from, it is not closed
+     * @return the CMap
+     * @throws IOException if the stream doesn't contain a compiled CMap
+     */
+    public static CMap read(InputStream input) throws IOException
+    {
+        DataInputStream in = new DataInputStream(new BufferedInputStream(input));
+        if (in.readInt() != MAGIC || in.readInt() != VERSION)
+        {
+            throw new IOException("Error: Not a compiled CMap or unsupported version");
+        }
+        CMap cmap = new CMap();
+        cmap.setName(readString(in));
+        cmap.setVersion(readString(in));
+        cmap.setType(in.readInt());
+        cmap.setWMode(in.readInt());
+        cmap.setRegistry(readString(in));
+        cmap.setOrdering(readString(in));
+        cmap.setSupplement(in.readInt());
+        int spaceMapping = in.readInt();
+
+        int codespaceRangeCount = in.readInt();
+        for (int i = 0; i < codespaceRangeCount; i++)
+        {
+            CodespaceRange range = new CodespaceRange();
+            range.setStart(readBytes(in));
+            range.setEnd(readBytes(in));
+            cmap.addCodespaceRange(range);
+        }
+
+        int singleByteCount = in.readInt();
+        for (int i = 0; i < singleByteCount; i++)
+        {
+            byte[] code = new byte[] { in.readByte() };
+            cmap.addMapping(code, in.readUTF());
+        }
+        cmap.setSpaceMapping(spaceMapping);
+        readTable(in, cmap.getDoubleByteMappings());
+
+        CodeTable cidToChar = cmap.getCIDToCharMappings();
+        readTable(in, cidToChar);
+        Map<String, Integer> charToCID = cmap.getCharToCIDMappings();
+        for (int cid : cidToChar.getCodes())
+        {
+            charToCID.put(cidToChar.get(cid), cid);
+        }
+        int differenceCount = in.readInt();
+        for (int i = 0; i < differenceCount; i++)
+        {
+            String character = in.readUTF();
+            charToCID.put(character, in.readInt());
+        }
+
+        int cidRangeCount = in.readInt();
+        for (int i = 0; i < cidRangeCount; i++)
+        {
+            char from = in.readChar();
+            char to = in.readChar();
+            cmap.addCIDRange(from, to, in.readInt());
+        }
+        return cmap;
+    }
+
+    /**
+     * Writes a table of mappings, runs of codes mapped to consecutive characters are written
+     * as ranges.
+     */
+    private static void writeTable(DataOutputStream out, CodeTable table) throws IOException
+    {
+        int[][] ranges = table.getRanges();
+        out.writeInt(ranges[0].length);
+        for (int i = 0; i < ranges[0].length; i++)
+        {
+            out.writeInt(ranges[0][i]);
+            out.writeInt(ranges[1][i]);
+            out.writeChar(ranges[2][i]);
+        }
+        int[] codes = table.getSingleCodes();
+        out.writeInt(codes.length);
+        for (int code : codes)
+        {
+            out.writeInt(code);
+            out.writeUTF(table.get(code));
+        }
+    }
+
+    private static void readTable(DataInputStream in, CodeTable table) throws IOException
+    {
+        int rangeCount = in.readInt();
+        int[] starts = new int[rangeCount];
+        int[] ends = new int[rangeCount];
+        int[] chars = new int[rangeCount];
+        for (int i = 0; i < rangeCount; i++)
+        {
+            starts[i] = in.readInt();
+            ends[i] = in.readInt();
+            chars[i] = in.readChar();
+        }
+        int singleCount = in.readInt();
+        int[] codes = new int[singleCount];
+        String[] values = new String[singleCount];
+        for (int i = 0; i < singleCount; i++)
+        {
+            codes[i] = in.readInt();
+            values[i] = in.readUTF();
+        }
+        table.set(starts, ends, chars, codes, values);
+    }
+
+    private static void writeString(DataOutputStream out, String value) throws IOException
+    {
+        out.writeBoolean(value != null);
+        if (value != null)
+        {
+            out.writeUTF(value);
+        }
+    }
+
+    private static String readString(DataInputStream in) throws IOException
+    {
+        return in.readBoolean() ? in.readUTF() : null;
+    }
+
+    private static void writeBytes(DataOutputStream out, byte[] bytes) throws IOException
+    {
+        out.writeByte(bytes.length);
+        out.write(bytes);
+    }
+
+    private static byte[] readBytes(DataInputStream in) throws IOException
+    {
+        byte[] bytes = new byte[in.readUnsignedByte()];
+        in.readFully(bytes);
+        return bytes;
+    }
+
+    /**
+     * Compiles all CMaps of a directory, used when building PDFBox.
+     * Usage: CompiledCMap &lt;source directory&gt; &lt;target directory&gt;
+     *
+     * @param args the directory containing the CMaps and the directory of the compiled CMaps
+     * @throws IOException if a CMap can't be compiled
+     */
+    public static void main(String[] args) throws IOException
+    {
+        if (args.length != 2)
+        {
+            System.err.println("usage: java " + CompiledCMap.class.getName()
+                    + " <source directory> <target directory>");
+            System.exit(1);
+        }
+        File targetDir = new File(args[1]);
+        if (!targetDir.isDirectory() && !targetDir.mkdirs())
+        {
+            throw new IOException("Error: Could not create directory " + targetDir);
+        }
+        File[] files = new File(args[0]).listFiles();
+        if (files == null)
+        {
+            throw new IOException("Error: Could not list directory " + args[0]);
+        }
+        for (File file : files)
+        {
+            if (!file.isFile() || file.getName().endsWith(SUFFIX))
+            {
+                continue;
+            }
+            CMap cmap = new CMapParser().parse(file);
+            OutputStream output = new FileOutputStream(new File(targetDir, file.getName() + SUFFIX));
+            try
+            {
+                write(cmap, output);
+            }
+            finally
+            {
+                output.close();
+            }
+        }
+    }
+}
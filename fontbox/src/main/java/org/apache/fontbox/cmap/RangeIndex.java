@@ -0,0 +1,149 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.fontbox.cmap;
+
+import java.util.Arrays;
+import java.util.TreeSet;
+
+/**
+ * An index of ranges mapping consecutive keys to consecutive values, searched binary. The
+ * ranges may overlap, a key is mapped by the last range containing it. The overlapping ranges
+ * are split into disjoint segments when the index is built.
+ *
+ * @version $Revision$
+ */
+final class RangeIndex
+{
+
+    // disjoint segments sorted by their first key, values contains the value of the first key
+    private final int[] starts;
+    private final int[] ends;
+    private final int[] values;
+
+    /**
+     * Creates the index of the given ranges.
+     *
+     * @param firstKeys the first key of each range
+     * @param lastKeys the last key of each range
+     * @param firstValues the value of the first key of each range
+     * @param count the number of ranges, later ranges take precedence
+     */
+    RangeIndex(int[] firstKeys, int[] lastKeys, int[] firstValues, int count)
+    {
+        // events sorted by position, a range starts at its first key and ends after its last key
+        long[] events = new long[count * 2];
+        int eventCount = 0;
+        for (int i = 0; i < count; i++)
+        {
+            if (firstKeys[i] <= lastKeys[i])
+            {
+                events[eventCount++] = event(firstKeys[i], i);
+                events[eventCount++] = event(lastKeys[i] + 1L, i);
+            }
+        }
+        Arrays.sort(events, 0, eventCount);
+
+        int[] segmentStarts = new int[eventCount];
+        int[] segmentEnds = new int[eventCount];
+        int[] segmentValues = new int[eventCount];
+        int segmentCount = 0;
+        TreeSet<Integer> active = new TreeSet<Integer>();
+        int index = 0;
+        while (index < eventCount)
+        {
+            long position = position(events[index]);
+            while (index < eventCount && position(events[index]) == position)
+            {
+                Integer range = range(events[index]);
+                if (!active.remove(range))
+                {
+                    active.add(range);
+                }
+                index++;
+            }
+            if (!active.isEmpty())
+            {
+                // the segment up to the next event belongs to the last of the active ranges
+                int range = active.last();
+                int start = (int) position;
+                int end = (int) (position(events[index]) - 1);
+                int value = firstValues[range] + start - firstKeys[range];
+                if (segmentCount > 0 && segmentEnds[segmentCount - 1] == start - 1
+                        && segmentValues[segmentCount - 1] + start - segmentStarts[segmentCount - 1] == value)
+                {
+                    segmentEnds[segmentCount - 1] = end;
+                }
+                else
+                {
+                    segmentStarts[segmentCount] = start;
+                    segmentEnds[segmentCount] = end;
+                    segmentValues[segmentCount] = value;
+                    segmentCount++;
+                }
+            }
+        }
+        starts = Arrays.copyOf(segmentStarts, segmentCount);
+        ends = Arrays.copyOf(segmentEnds, segmentCount);
+        values = Arrays.copyOf(segmentValues, segmentCount);
+    }
+
+    /**
+     * Returns the value of the given key.
+     *
+     * @param key the key
+     * @return the value or -1 if no range contains the key
+     */
+    int lookup(int key)
+    {
+        int index = Arrays.binarySearch(starts, key);
+        if (index < 0)
+        {
+            index = -index - 2;
+        }
+        if (index >= 0 && key <= ends[index])
+        {
+            return values[index] + key - starts[index];
+        }
+        return -1;
+    }
+
+    /**
+     * Returns the number of disjoint segments.
+     *
+     * @return the number of segments
+     */
+    int size()
+    {
+        return starts.length;
+    }
+
+    // positions are less than 2^32, ranges less than 2^31
+    private static long event(long position, int range)
+    {
+        return (position << 31) | range;
+    }
+
+    private static long position(long event)
+    {
+        return event >> 31;
+    }
+
+    private static Integer range(long event)
+    {
+        return Integer.valueOf((int) (event & 0x7FFFFFFFL));
+    }
+}
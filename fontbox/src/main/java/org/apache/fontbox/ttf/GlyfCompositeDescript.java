@@ -20,8 +20,10 @@ package org.apache.fontbox.ttf;
 
 import java.io.IOException;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
 
 /**
  * Glyph description for composite glyphs. Composite glyphs are made up of one or more simple glyphs, usually with some
@@ -34,7 +36,9 @@ public class GlyfCompositeDescript extends GlyfDescript
 {
 
     private List<GlyfCompositeComp> components = new ArrayList<GlyfCompositeComp>();
-    private GlyphData[] glyphs = null;
+    private GlyphTable glyphTable = null;
+    // the descriptions of the components, read when the glyph is resolved
+    private Map<Integer, GlyphDescription> descriptions = new HashMap<Integer, GlyphDescription>();
     private boolean beingResolved = false;
     private boolean resolved = false;
 
@@ -49,7 +53,7 @@ public class GlyfCompositeDescript extends GlyfDescript
     {
         super((short) -1, bais);
 
-        glyphs = glyphTable.getGlyphs();
+        this.glyphTable = glyphTable;
 
         // Get all of the composite components
         GlyfCompositeComp comp;
@@ -92,8 +96,21 @@ public class GlyfCompositeDescript extends GlyfDescript
             comp.setFirstIndex(firstIndex);
             comp.setFirstContour(firstContour);
 
-            GlyphDescription desc;
-            desc = getGlypDescription(comp.getGlyphIndex());
+            GlyphDescription desc = null;
+            try
+            {
+                GlyphData glyph = glyphTable.getGlyph(comp.getGlyphIndex());
+                if (glyph != null)
+                {
+                    desc = glyph.getDescription();
+                    descriptions.put(comp.getGlyphIndex(), desc);
+                }
+            }
+            catch (IOException e)
+            {
+                System.err.println("Error reading component " + comp.getGlyphIndex()
+                        + " of GlyfCompositeDescript: " + e.getMessage());
+            }
             if (desc != null)
             {
                 desc.resolve();
@@ -245,14 +262,6 @@ public class GlyfCompositeDescript extends GlyfDescript
 
     private GlyphDescription getGlypDescription(int index)
     {
-        if (glyphs != null && index < glyphs.length)
-        {
-            GlyphData glyph = glyphs[index];
-            if (glyph != null)
-            {
-                return glyph.getDescription();
-            }
-        }
-        return null;
+        return descriptions.get(index);
     }
 }
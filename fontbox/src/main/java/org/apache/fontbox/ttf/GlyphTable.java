@@ -17,10 +17,17 @@
 package org.apache.fontbox.ttf;
 
 import java.io.IOException;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
 
 /**
  * A table in a true type font.
  * 
+ * The glyphs are read on demand using the offsets of the loca table, so that opening a font only
+ * costs the glyphs which are actually used. The most recently used glyphs are kept in a bounded
+ * cache.
+ * 
  * @author Ben Litchfield (ben@benlitchfield.com)
  * 
  */
@@ -31,10 +38,32 @@ public class GlyphTable extends TTFTable
      */
     public static final String TAG = "glyf";
 
+    // the maximum number of glyphs kept in the cache
+    private static final int MAX_CACHED_GLYPHS = 500;
+
+    private TrueTypeFont font;
+    private TTFDataStream data;
+    private long[] offsets;
+    private int numGlyphs;
+    // the glyphs starting at this index aren't defined
+    private int endOfGlyphs;
+
+    // all glyphs, if they were requested or set
     private GlyphData[] glyphs;
+    // the recently used glyphs and the glyphs which are being resolved
+    private final Map<Integer, GlyphData> cache = new LinkedHashMap<Integer, GlyphData>(64, 0.75f, true)
+    {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Integer, GlyphData> eldest)
+        {
+            return size() > MAX_CACHED_GLYPHS;
+        }
+    };
+    private final Map<Integer, GlyphData> resolving = new HashMap<Integer, GlyphData>();
 
     /**
-     * This will read the required data from the stream.
+     * This will read the required data from the stream. The glyphs aren't read until they are
+     * requested, the stream has to be kept open until the font is closed.
      * 
      * @param ttf The font that is being read.
      * @param data The stream to read the data from.
@@ -44,59 +73,120 @@ public class GlyphTable extends TTFTable
     {
         MaximumProfileTable maxp = ttf.getMaximumProfile();
         IndexToLocationTable loc = ttf.getIndexToLocation();
+        font = ttf;
+        this.data = data;
         // the glyph offsets
-        long[] offsets = loc.getOffsets();
+        offsets = loc.getOffsets();
         // number of glyphs
-        int numGlyphs = maxp.getNumGlyphs();
+        numGlyphs = maxp.getNumGlyphs();
         // the end of the glyph table
         // should not be 0, but sometimes is, see PDFBOX-2044
         // structure of this table: see
         // https://developer.apple.com/fonts/TTRefMan/RM06/Chap6loca.html
-        long endOfGlyphs = offsets[numGlyphs]; 
-        long offset = getOffset();
-        glyphs = new GlyphData[numGlyphs];
-        for (int i = 0; i < numGlyphs; i++)
+        long endOffset = offsets[numGlyphs];
+        endOfGlyphs = numGlyphs;
+        if (endOffset != 0)
         {
-            // end of glyphs reached?
-            if (endOfGlyphs != 0 &&
-                    endOfGlyphs == offsets[i]) 
-            {
-                break;
-            }
-            // the current glyph isn't defined
-            // if the next offset is equal or smaller to the current offset
-            if (offsets[i + 1] <= offsets[i])
+            for (int i = 0; i < numGlyphs; i++)
             {
-                continue;
+                // end of glyphs reached?
+                if (endOffset == offsets[i])
+                {
+                    endOfGlyphs = i;
+                    break;
+                }
             }
-            glyphs[i] = new GlyphData();
-            data.seek(offset + offsets[i]);
-            glyphs[i].initData(ttf, data);
         }
-        for (int i = 0; i < numGlyphs; i++)
+    }
+
+    /**
+     * Returns the number of glyphs of the font.
+     * 
+     * @return the number of glyphs
+     */
+    public int getNumberOfGlyphs()
+    {
+        return glyphs != null ? glyphs.length : numGlyphs;
+    }
+
+    /**
+     * Returns the glyph with the given id, the glyph is read if it isn't cached. Composite
+     * glyphs are returned resolved.
+     * 
+     * @param gid the id of the glyph
+     * @return the glyph or null if the glyph isn't defined
+     * @throws IOException If there is an error reading the glyph.
+     */
+    public synchronized GlyphData getGlyph(int gid) throws IOException
+    {
+        if (glyphs != null)
+        {
+            return gid >= 0 && gid < glyphs.length ? glyphs[gid] : null;
+        }
+        // the current glyph isn't defined
+        // if the next offset is equal or smaller to the current offset
+        if (gid < 0 || gid >= endOfGlyphs || offsets[gid + 1] <= offsets[gid])
+        {
+            return null;
+        }
+        Integer key = Integer.valueOf(gid);
+        GlyphData glyph = cache.get(key);
+        if (glyph == null)
         {
-            GlyphData glyph = glyphs[i];
+            // a composite glyph referring to itself gets the glyph being resolved
+            glyph = resolving.get(key);
+        }
+        if (glyph == null)
+        {
+            glyph = new GlyphData();
+            data.seek(getOffset() + offsets[gid]);
+            glyph.initData(font, data);
             // resolve composite glyphs
-            if (glyph != null && glyph.getDescription().isComposite())
+            if (glyph.getDescription().isComposite())
             {
-                glyph.getDescription().resolve();
+                resolving.put(key, glyph);
+                try
+                {
+                    glyph.getDescription().resolve();
+                }
+                finally
+                {
+                    resolving.remove(key);
+                }
             }
+            cache.put(key, glyph);
         }
+        return glyph;
     }
 
     /**
+     * Returns all glyphs, reading the ones which haven't been read yet. Use
+     * {@link #getGlyph(int)} to read only the glyphs which are needed.
+     * 
      * @return Returns the glyphs.
+     * @throws IOException If there is an error reading the glyphs.
      */
-    public GlyphData[] getGlyphs()
+    public synchronized GlyphData[] getGlyphs() throws IOException
     {
+        if (glyphs == null)
+        {
+            GlyphData[] allGlyphs = new GlyphData[numGlyphs];
+            for (int i = 0; i < numGlyphs; i++)
+            {
+                allGlyphs[i] = getGlyph(i);
+            }
+            glyphs = allGlyphs;
+            cache.clear();
+        }
         return glyphs;
     }
 
     /**
      * @param glyphsValue The glyphs to set.
      */
-    public void setGlyphs(GlyphData[] glyphsValue)
+    public synchronized void setGlyphs(GlyphData[] glyphsValue)
     {
         glyphs = glyphsValue;
+        cache.clear();
     }
 }
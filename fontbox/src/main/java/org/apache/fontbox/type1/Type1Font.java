@@ -27,10 +27,11 @@ import java.io.InputStream;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
-import java.util.HashMap;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 /**
  * Represents an Adobe Type 1 (.pfb) font.
@@ -108,8 +109,9 @@ public final class Type1Font implements Type1CharStringReader
     final List<byte[]> subrs = new ArrayList<byte[]>();
     final Map<String, byte[]> charstrings = new LinkedHashMap<String, byte[]>();
 
-    // private caches
-    private final Map<String, Type1CharString> charStringCache = new HashMap<String, Type1CharString>();
+    // private caches, filled lazily, maybe by several threads rendering pages concurrently
+    private final ConcurrentMap<String, Type1CharString> charStringCache =
+            new ConcurrentHashMap<String, Type1CharString>();
     private Collection<Mapping> mappings;
 
     /**
@@ -150,7 +152,11 @@ public final class Type1Font implements Type1CharStringReader
             Type1CharStringParser parser = new Type1CharStringParser(fontName, name);
             List<Object> sequence = parser.parse(charstrings.get(name), subrs);
             type1 = new Type1CharString(this, fontName, name, sequence);
-            charStringCache.put(name, type1);
+            Type1CharString cached = charStringCache.putIfAbsent(name, type1);
+            if (cached != null)
+            {
+                type1 = cached;
+            }
         }
         return type1;
     }
@@ -0,0 +1,265 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.fontbox.cff;
+
+import java.awt.geom.GeneralPath;
+import java.awt.geom.PathIterator;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import junit.framework.TestCase;
+
+/**
+ * Tests the {@link Type2CharStringRenderer}.
+ *
+ * @version $Revision$
+ */
+public class TestType2CharStringRenderer extends TestCase
+{
+
+    /**
+     * Tests that the glyphs are rendered like their conversions into Type 1 CharStrings.
+     * @throws IOException if an error occurs
+     */
+    public void testSameAsType1CharString() throws IOException
+    {
+        IndexData localSubrs = createIndex(new CharString().numbers(10, 20, 30, 40, 50, 60)
+                .operator(8).operator(11).toByteArray());
+
+        List<byte[]> glyphs = new ArrayList<byte[]>();
+        // width, hints, hintmask and two paths of lines
+        glyphs.add(new CharString().numbers(500, 10, 20, 30, 40).operator(18).numbers(5, 6)
+                .operator(21).operator(19).mask(0xc0).numbers(100, 0, 0, 100).operator(5)
+                .numbers(-50, 30, -20).operator(6).numbers(300).operator(22).numbers(40, 50)
+                .operator(7).operator(14).toByteArray());
+        // curves of all kinds
+        glyphs.add(new CharString().numbers(0, 0).operator(21).numbers(1, 2, 3, 4, 5, 6, 7, 8)
+                .operator(24).numbers(1, 2, 3, 4, 5, 6, 7, 8).operator(25).numbers(9, 1, 2, 3, 4)
+                .operator(26).numbers(9, 1, 2, 3, 4, 5, 6, 7, 8).operator(27)
+                .numbers(1, 2, 3, 4, 5, 6, 7, 8, 9).operator(30).numbers(1, 2, 3, 4).operator(31)
+                .operator(14).toByteArray());
+        // a subroutine and flex
+        glyphs.add(new CharString().numbers(50).operator(4).numbers(-107).operator(10)
+                .numbers(10, 5, 10, 5, 10, 0, 10, -5, 10, -5, 10, 0, 50).escape(35)
+                .numbers(10, 10, 5, 10, 10, 5, 10).escape(34).operator(14).toByteArray());
+
+        for (byte[] glyph : glyphs)
+        {
+            List<Object> sequence = new Type2CharStringParser().parse(glyph, null, localSubrs);
+            GeneralPath expected = new Type2CharString(null, "Font", "glyph", sequence, 0, 0).getPath();
+            GeneralPath actual = new Type2CharStringRenderer(null, null, localSubrs).render("glyph", glyph);
+            assertEquals(toString(expected), toString(actual));
+        }
+    }
+
+    /**
+     * Tests that fixed point numbers and arithmetic operators keep fractions.
+     * @throws IOException if an error occurs
+     */
+    public void testFractions() throws IOException
+    {
+        // 0.5 0.25 rmoveto 3 2 div 0 rlineto endchar
+        byte[] glyph = new CharString().fixed(0x8000).fixed(0x4000).operator(21).numbers(3, 2)
+                .escape(12).numbers(0).operator(5).operator(14).toByteArray();
+        GeneralPath path = new Type2CharStringRenderer(null, null, null).render("glyph", glyph);
+        assertEquals("M 0.5 0.25 L 2.0 0.25 Z ", toString(path));
+    }
+
+    /**
+     * Tests that hflex1 ends at the vertical position it started at.
+     * @throws IOException if an error occurs
+     */
+    public void testHFlex1() throws IOException
+    {
+        byte[] glyph = new CharString().numbers(0, 0).operator(21)
+                .numbers(10, 5, 10, 5, 10, 10, 10, -5, 10).escape(36).operator(14).toByteArray();
+        GeneralPath path = new Type2CharStringRenderer(null, null, null).render("glyph", glyph);
+        assertEquals("M 0.0 0.0 C 10.0 5.0 20.0 10.0 30.0 10.0 C 40.0 10.0 50.0 5.0 60.0 0.0 Z ",
+                toString(path));
+    }
+
+    /**
+     * Tests that threads rendering the glyphs of a font concurrently get the same paths.
+     * @throws Exception if an error occurs
+     */
+    public void testConcurrentGlyphPaths() throws Exception
+    {
+        final CFFFont font = new CFFFont();
+        final int glyphCount = 500;
+        for (int i = 0; i < glyphCount; i++)
+        {
+            font.getCharStringsDict().put("g" + i, new CharString().numbers(i, 0).operator(21)
+                    .numbers(100, i).operator(5).operator(14).toByteArray());
+        }
+        Callable<GeneralPath[]> task = new Callable<GeneralPath[]>()
+        {
+            public GeneralPath[] call() throws IOException
+            {
+                GeneralPath[] paths = new GeneralPath[glyphCount];
+                for (int i = 0; i < glyphCount; i++)
+                {
+                    paths[i] = font.getGlyphPath("g" + i);
+                }
+                return paths;
+            }
+        };
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try
+        {
+            List<Future<GeneralPath[]>> results = new ArrayList<Future<GeneralPath[]>>();
+            for (int i = 0; i < 8; i++)
+            {
+                results.add(executor.submit(task));
+            }
+            GeneralPath[] expected = results.get(0).get();
+            for (Future<GeneralPath[]> result : results)
+            {
+                GeneralPath[] paths = result.get();
+                for (int i = 0; i < glyphCount; i++)
+                {
+                    assertEquals(toString(expected[i]), toString(paths[i]));
+                }
+            }
+            assertEquals("M 7.0 0.0 L 107.0 7.0 Z ", toString(expected[7]));
+        }
+        finally
+        {
+            executor.shutdown();
+        }
+    }
+
+    private static IndexData createIndex(byte[] data)
+    {
+        IndexData index = new IndexData(1);
+        index.setOffset(0, 1);
+        index.setOffset(1, 1 + data.length);
+        index.initData(data.length);
+        for (int i = 0; i < data.length; i++)
+        {
+            index.setData(i, data[i] & 0xff);
+        }
+        return index;
+    }
+
+    /**
+     * Describes the segments of a path, leaving out a final moveto.
+     */
+    private static String toString(GeneralPath path)
+    {
+        List<String> segments = new ArrayList<String>();
+        float[] coords = new float[6];
+        for (PathIterator iterator = path.getPathIterator(null); !iterator.isDone(); iterator.next())
+        {
+            int type = iterator.currentSegment(coords);
+            StringBuilder segment = new StringBuilder();
+            int points = 0;
+            switch (type)
+            {
+                case PathIterator.SEG_MOVETO:
+                    segment.append("M ");
+                    points = 1;
+                    break;
+                case PathIterator.SEG_LINETO:
+                    segment.append("L ");
+                    points = 1;
+                    break;
+                case PathIterator.SEG_CUBICTO:
+                    segment.append("C ");
+                    points = 3;
+                    break;
+                default:
+                    segment.append("Z ");
+                    break;
+            }
+            for (int i = 0; i < points * 2; i++)
+            {
+                segment.append(coords[i]).append(' ');
+            }
+            segments.add(segment.toString());
+        }
+        // the Type 1 CharString moves to the current point after closing a path
+        if (!segments.isEmpty() && segments.get(segments.size() - 1).startsWith("M "))
+        {
+            segments.remove(segments.size() - 1);
+        }
+        StringBuilder description = new StringBuilder();
+        for (String segment : segments)
+        {
+            description.append(segment);
+        }
+        return description.toString();
+    }
+
+    /**
+     * Writes the bytes of a Type 2 CharString.
+     */
+    private static final class CharString
+    {
+        private final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+
+        CharString numbers(int... values)
+        {
+            for (int value : values)
+            {
+                bytes.write(28);
+                bytes.write(value >> 8 & 0xff);
+                bytes.write(value & 0xff);
+            }
+            return this;
+        }
+
+        CharString fixed(int value)
+        {
+            bytes.write(255);
+            bytes.write(value >> 24 & 0xff);
+            bytes.write(value >> 16 & 0xff);
+            bytes.write(value >> 8 & 0xff);
+            bytes.write(value & 0xff);
+            return this;
+        }
+
+        CharString operator(int operator)
+        {
+            bytes.write(operator);
+            return this;
+        }
+
+        CharString escape(int operator)
+        {
+            bytes.write(12);
+            bytes.write(operator);
+            return this;
+        }
+
+        CharString mask(int mask)
+        {
+            bytes.write(mask);
+            return this;
+        }
+
+        byte[] toByteArray()
+        {
+            return bytes.toByteArray();
+        }
+    }
+}
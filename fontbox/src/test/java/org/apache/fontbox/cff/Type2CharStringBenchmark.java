@@ -0,0 +1,110 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.fontbox.cff;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.List;
+
+/**
+ * Compares the time needed to render the glyphs of CFF fonts by converting their Type 2
+ * CharStrings into Type 1 CharStrings with the time needed by the {@link Type2CharStringRenderer}.
+ * Usage: Type2CharStringBenchmark &lt;CFF font file&gt;... , e.g. the FontFile3 streams of PDF
+ * documents.
+ *
+ * @version $Revision$
+ */
+public class Type2CharStringBenchmark
+{
+
+    private static final int ROUNDS = 20;
+
+    private Type2CharStringBenchmark()
+    {
+    }
+
+    /**
+     * Runs the benchmark.
+     * @param args the CFF font files
+     * @throws IOException if a font can't be parsed
+     */
+    public static void main(String[] args) throws IOException
+    {
+        for (String arg : args)
+        {
+            byte[] bytes = readFile(new File(arg));
+            long converted = Long.MAX_VALUE;
+            long rendered = Long.MAX_VALUE;
+            int glyphs = 0;
+            for (int round = 0; round < ROUNDS; round++)
+            {
+                // the fonts are parsed again as they cache the glyphs
+                List<CFFFont> fonts = new CFFParser().parse(bytes);
+                long start = System.nanoTime();
+                glyphs = 0;
+                for (CFFFont font : fonts)
+                {
+                    for (CFFFont.Mapping mapping : font.getMappings())
+                    {
+                        mapping.getType1CharString().getPath();
+                        glyphs++;
+                    }
+                }
+                converted = Math.min(converted, System.nanoTime() - start);
+
+                fonts = new CFFParser().parse(bytes);
+                start = System.nanoTime();
+                for (CFFFont font : fonts)
+                {
+                    for (CFFFont.Mapping mapping : font.getMappings())
+                    {
+                        font.getGlyphPath(mapping.getName());
+                    }
+                }
+                rendered = Math.min(rendered, System.nanoTime() - start);
+            }
+            if (glyphs > 0)
+            {
+                System.out.println(arg + ": " + glyphs + " glyphs, converted " + converted / 1000 / glyphs
+                        + " us/glyph, rendered " + rendered / 1000 / glyphs + " us/glyph");
+            }
+        }
+    }
+
+    private static byte[] readFile(File file) throws IOException
+    {
+        InputStream input = new FileInputStream(file);
+        try
+        {
+            ByteArrayOutputStream output = new ByteArrayOutputStream();
+            byte[] buffer = new byte[8192];
+            int read;
+            while ((read = input.read(buffer)) != -1)
+            {
+                output.write(buffer, 0, read);
+            }
+            return output.toByteArray();
+        }
+        finally
+        {
+            input.close();
+        }
+    }
+}
@@ -0,0 +1,117 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.fontbox.cmap;
+
+import java.io.File;
+import java.io.IOException;
+
+/**
+ * Measures the memory used by parsed CMaps and the time needed by their lookups.
+ * Usage: CMapBenchmark &lt;CMap file&gt;... , e.g. the predefined CMaps of PDFBox in
+ * pdfbox/src/main/resources/org/apache/pdfbox/resources/cmap
+ *
+ * @version $Revision$
+ */
+public class CMapBenchmark
+{
+
+    private static final int COPIES = 10;
+    private static final int ROUNDS = 5;
+
+    private CMapBenchmark()
+    {
+    }
+
+    /**
+     * Runs the benchmark.
+     * @param args the CMap files
+     * @throws IOException if a CMap can't be parsed
+     */
+    public static void main(String[] args) throws IOException
+    {
+        for (String arg : args)
+        {
+            File file = new File(arg);
+            long before = usedMemory();
+            CMap[] cmaps = new CMap[COPIES];
+            for (int i = 0; i < COPIES; i++)
+            {
+                cmaps[i] = new CMapParser().parse(file);
+            }
+            // build the lookup structures
+            lookup(cmaps[0]);
+            for (int i = 1; i < COPIES; i++)
+            {
+                cmaps[i].lookup(0, 2);
+                cmaps[i].lookupCID(0);
+                cmaps[i].lookupCID(new byte[2], 0, 2);
+            }
+            long memory = (usedMemory() - before) / COPIES;
+            long time = Long.MAX_VALUE;
+            for (int round = 0; round < ROUNDS; round++)
+            {
+                time = Math.min(time, lookup(cmaps[round % COPIES]));
+            }
+            System.out.println(file.getName() + ": " + memory / 1024 + " KB, "
+                    + time / (3 * 65536) + " ns/lookup");
+        }
+    }
+
+    /**
+     * Looks up all two byte codes and CIDs up to 65535, returns the time needed.
+     */
+    private static long lookup(CMap cmap)
+    {
+        byte[] code = new byte[2];
+        int found = 0;
+        long start = System.nanoTime();
+        for (int i = 0; i < 65536; i++)
+        {
+            code[0] = (byte) (i >> 8);
+            code[1] = (byte) i;
+            if (cmap.lookup(i, 2) != null)
+            {
+                found++;
+            }
+            if (cmap.lookupCID(i) != null)
+            {
+                found++;
+            }
+            if (cmap.lookupCID(code, 0, 2) != -1)
+            {
+                found++;
+            }
+        }
+        long time = System.nanoTime() - start;
+        // keep the JIT from dropping the lookups
+        if (found == -1)
+        {
+            System.out.println(found);
+        }
+        return time;
+    }
+
+    private static long usedMemory()
+    {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 3; i++)
+        {
+            System.gc();
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+}
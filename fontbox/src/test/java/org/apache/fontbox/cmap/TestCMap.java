@@ -41,4 +41,60 @@ public class TestCMap extends TestCase
         cMap.addMapping(bs, "a");
         assertTrue("a".equals(cMap.lookup(bs, 0, 1)));
     }
+
+    /**
+     * Check the lookup of two byte codes mapped by ranges and single mappings.
+     * @throws IOException If something went wrong during adding a mapping
+     */
+    public void testTwoByteLookup() throws IOException
+    {
+        CMap cMap = new CMap();
+        for (int i = 0; i < 10; i++)
+        {
+            cMap.addMapping(new byte[] { 1, (byte) i }, String.valueOf((char) ('A' + i)));
+        }
+        cMap.addMapping(new byte[] { 1, 5 }, "fi");
+        cMap.addMapping(new byte[] { 2, 0 }, "x");
+        assertEquals("A", cMap.lookup(0x0100, 2));
+        assertEquals("E", cMap.lookup(0x0104, 2));
+        assertEquals("fi", cMap.lookup(0x0105, 2));
+        assertEquals("J", cMap.lookup(0x0109, 2));
+        assertEquals("x", cMap.lookup(0x0200, 2));
+        assertNull(cMap.lookup(0x010A, 2));
+        assertNull(cMap.lookup(0x0100, 1));
+
+        // adding mappings after a lookup
+        cMap.addMapping(new byte[] { 1, 5 }, "F");
+        assertEquals("F", cMap.lookup(0x0105, 2));
+    }
+
+    /**
+     * Check that overlapping CID ranges are looked up in the order of precedence, the last
+     * added range wins.
+     */
+    public void testOverlappingCIDRanges()
+    {
+        CMap cMap = new CMap();
+        CodespaceRange codespace = new CodespaceRange();
+        codespace.setStart(new byte[] { 0, 0 });
+        codespace.setEnd(new byte[] { (byte) 0xFF, (byte) 0xFF });
+        cMap.addCodespaceRange(codespace);
+        cMap.addCIDRange('a', 'z', 100);
+        cMap.addCIDRange('m', 'n', 500);
+        // maps CIDs 110 - 111 to another character
+        cMap.addCIDRange('1', '2', 110);
+
+        assertEquals(100, cMap.lookupCID(new byte[] { 0, 'a' }, 0, 2));
+        assertEquals(500, cMap.lookupCID(new byte[] { 0, 'm' }, 0, 2));
+        assertEquals(501, cMap.lookupCID(new byte[] { 0, 'n' }, 0, 2));
+        assertEquals(114, cMap.lookupCID(new byte[] { 0, 'o' }, 0, 2));
+        assertEquals(-1, cMap.lookupCID(new byte[] { 0, '!' }, 0, 2));
+
+        assertEquals("a", cMap.lookupCID(100));
+        assertEquals("m", cMap.lookupCID(112));
+        assertEquals("1", cMap.lookupCID(110));
+        assertEquals("2", cMap.lookupCID(111));
+        assertEquals("n", cMap.lookupCID(501));
+        assertNull(cMap.lookupCID(502));
+    }
 }
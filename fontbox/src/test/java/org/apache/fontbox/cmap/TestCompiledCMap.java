@@ -0,0 +1,107 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.fontbox.cmap;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.util.Arrays;
+
+import junit.framework.TestCase;
+
+/**
+ * This will test the compiled form of CMaps.
+ *
+ * @version $Revision$
+ */
+public class TestCompiledCMap extends TestCase
+{
+
+    /**
+     * A compiled CMap is the same as the parsed one.
+     * @throws IOException If something went wrong
+     */
+    public void testReadWrite() throws IOException
+    {
+        CMap parsed = new CMapParser().parse(new File("src/test/resources/cmap/CMapTest"));
+        parsed.addCIDMapping(1000, "\u00e4");
+        parsed.addCIDMapping(1001, "\u00e4");
+        parsed.addCIDMapping(1001, "\u00f6");
+
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        CompiledCMap.write(parsed, output);
+        CMap compiled = CompiledCMap.read(new ByteArrayInputStream(output.toByteArray()));
+
+        assertEquals(parsed.getName(), compiled.getName());
+        assertEquals(parsed.getVersion(), compiled.getVersion());
+        assertEquals(parsed.getType(), compiled.getType());
+        assertEquals(parsed.getWMode(), compiled.getWMode());
+        assertEquals(parsed.getRegistry(), compiled.getRegistry());
+        assertEquals(parsed.getOrdering(), compiled.getOrdering());
+        assertEquals(parsed.getSupplement(), compiled.getSupplement());
+        assertEquals(parsed.getSpaceMapping(), compiled.getSpaceMapping());
+        assertEquals(1, compiled.getCodeSpaceRanges().size());
+        CodespaceRange range = compiled.getCodeSpaceRanges().get(0);
+        assertTrue(Arrays.equals(parsed.getCodeSpaceRanges().get(0).getStart(), range.getStart()));
+        assertTrue(Arrays.equals(parsed.getCodeSpaceRanges().get(0).getEnd(), range.getEnd()));
+        for (int code = 0; code < 256; code++)
+        {
+            assertEquals(parsed.lookup(code, 1), compiled.lookup(code, 1));
+        }
+        assertEquals(parsed.getDoubleByteMappings(), compiled.getDoubleByteMappings());
+        assertEquals(parsed.getCIDToCharMappings(), compiled.getCIDToCharMappings());
+        assertEquals(parsed.getCharToCIDMappings(), compiled.getCharToCIDMappings());
+        assertEquals(parsed.getCIDRanges().size(), compiled.getCIDRanges().size());
+        for (int i = 0; i < parsed.getCIDRanges().size(); i++)
+        {
+            CIDRange expected = parsed.getCIDRanges().get(i);
+            CIDRange actual = compiled.getCIDRanges().get(i);
+            assertEquals(expected.getFrom(), actual.getFrom());
+            assertEquals(expected.getTo(), actual.getTo());
+            assertEquals(expected.getCID(), actual.getCID());
+        }
+        assertEquals("A", compiled.lookupCID(65));
+        assertEquals(1001, compiled.lookupCID(new byte[] { 0, (byte) 0xe4 }, 0, 2));
+    }
+
+    private static void assertEquals(CodeTable expected, CodeTable actual)
+    {
+        int[] codes = expected.getCodes();
+        assertTrue(Arrays.equals(codes, actual.getCodes()));
+        for (int code : codes)
+        {
+            assertEquals(expected.get(code), actual.get(code));
+        }
+    }
+
+    /**
+     * Other data is rejected.
+     */
+    public void testInvalid()
+    {
+        try
+        {
+            CompiledCMap.read(new ByteArrayInputStream(new byte[] { '%', '!', 'P', 'S', 0, 0, 0, 0 }));
+            fail("IOException expected");
+        }
+        catch (IOException e)
+        {
+            // expected
+        }
+    }
+}
@@ -30,7 +30,8 @@ import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
 import org.apache.pdfbox.io.RandomAccess;
 import org.apache.pdfbox.io.RandomAccessBuffer;
-import org.apache.pdfbox.io.RandomAccessFile;
+import org.apache.pdfbox.io.RandomAccessRead;
+import org.apache.pdfbox.io.ScratchFile;
 import org.apache.pdfbox.pdfparser.NonSequentialPDFParser;
 import org.apache.pdfbox.pdfparser.PDFObjectStreamParser;
 import org.apache.pdfbox.pdmodel.interactive.digitalsignature.SignatureInterface;
@@ -66,6 +67,12 @@ public class COSDocument extends COSBase implements Closeable
     private final Map<COSObjectKey, Long> xrefTable =
         new HashMap<COSObjectKey, Long>();
 
+    /**
+     * The number of bytes of stream data which a scratch file in a directory keeps in memory
+     * before it writes to the temporary file.
+     */
+    private static final long SCRATCH_FILE_MAIN_MEMORY = 1024 * 1024;
+
     /**
      * Document trailer dictionary.
      */
@@ -81,7 +88,10 @@ public class COSDocument extends COSBase implements Closeable
      */
     private final RandomAccess scratchFile;
 
-    private final File tmpFile;
+    /**
+     * The source of the parsed document if the stream data is read from it on demand.
+     */
+    private RandomAccessRead streamSource;
 
     private String headerString = "%PDF-" + version;
 
@@ -114,14 +124,15 @@ public class COSDocument extends COSBase implements Closeable
     public COSDocument(RandomAccess scratchFileValue, boolean forceParsingValue) 
     {
         scratchFile = scratchFileValue;
-        tmpFile = null;
         forceParsing = forceParsingValue;
     }
 
     /**
      * Constructor that will use a temporary file in the given directory
-     * for storage of the PDF streams. The temporary file is automatically
-     * removed when this document gets closed.
+     * for storage of the PDF streams. The first megabyte of stream data is
+     * kept in memory, the temporary file is only created if the streams need
+     * more space, and it is automatically removed when this document gets
+     * closed. The space of replaced stream data is reused, see {@link ScratchFile}.
      *
      * @param scratchDir directory for the temporary file,
      *                   or <code>null</code> to use the system default
@@ -131,8 +142,7 @@ public class COSDocument extends COSBase implements Closeable
      */
     public COSDocument(File scratchDir, boolean forceParsingValue) throws IOException 
     {
-        tmpFile = File.createTempFile("pdfbox-", ".tmp", scratchDir);
-        scratchFile = new RandomAccessFile(tmpFile, "rw");
+        scratchFile = new ScratchFile(scratchDir, SCRATCH_FILE_MAIN_MEMORY);
         forceParsing = forceParsingValue;
     }
 
@@ -193,6 +203,29 @@ public class COSDocument extends COSBase implements Closeable
         }
     }
 
+    /**
+     * Returns the source the stream data is read from on demand.
+     *
+     * @return the source of the stream data or null if all streams are stored
+     * in the scratch file
+     */
+    public RandomAccessRead getStreamSource()
+    {
+        return streamSource;
+    }
+
+    /**
+     * Sets the source the stream data of the parsed streams is read from on demand,
+     * see {@link COSStream#setFilteredSource(RandomAccessRead, long, long)}. The
+     * source is closed when this document is closed.
+     *
+     * @param source the source of the stream data
+     */
+    public void setStreamSource(RandomAccessRead source)
+    {
+        streamSource = source;
+    }
+
     /**
      * Create a new COSStream using the underlying scratch file.
      * 
@@ -565,9 +598,10 @@ public class COSDocument extends COSBase implements Closeable
         if (!closed) 
         {
             scratchFile.close();
-            if (tmpFile != null) 
+            if (streamSource != null)
             {
-                tmpFile.delete();
+                streamSource.close();
+                streamSource = null;
             }
             if (trailer != null)
             {
@@ -33,9 +33,10 @@ import org.apache.pdfbox.filter.FilterFactory;
 import org.apache.pdfbox.io.IOUtils;
 import org.apache.pdfbox.io.RandomAccess;
 import org.apache.pdfbox.io.RandomAccessBuffer;
-import org.apache.pdfbox.io.RandomAccessFile;
 import org.apache.pdfbox.io.RandomAccessFileInputStream;
 import org.apache.pdfbox.io.RandomAccessFileOutputStream;
+import org.apache.pdfbox.io.RandomAccessRead;
+import org.apache.pdfbox.io.ScratchFile;
 import org.apache.pdfbox.pdfparser.PDFStreamParser;
 
 /**
@@ -64,13 +65,27 @@ public class COSStream extends COSDictionary implements Closeable
     private RandomAccessFileOutputStream unFilteredStream;
     private DecodeResult decodeResult;
 
+    /**
+     * The source of the filtered data if it is read on demand instead of being
+     * copied to the scratch file, see {@link #setFilteredSource(RandomAccessRead, long, long)}.
+     */
+    private RandomAccessRead filteredSource;
+    private long filteredSourceOffset;
+    private long filteredSourceLength;
+
+    /**
+     * True if the data in the scratch file is shared with another stream, see
+     * {@link #replaceWithStream(COSStream)}, so that it must not be released.
+     */
+    private boolean sharedData;
+
     private RandomAccess clone (RandomAccess file) {
         if (file == null) {
             return null;
-        } else if (file instanceof RandomAccessFile) {
-            return file;
-        } else {
+        } else if (file instanceof RandomAccessBuffer) {
             return ((RandomAccessBuffer)file).clone();
+        } else {
+            return file;
         }
     }
 
@@ -111,6 +126,11 @@ public class COSStream extends COSDictionary implements Closeable
         file = stream.file;
         filteredStream = stream.filteredStream;
         unFilteredStream = stream.unFilteredStream;
+        filteredSource = stream.filteredSource;
+        filteredSourceOffset = stream.filteredSourceOffset;
+        filteredSourceLength = stream.filteredSourceLength;
+        sharedData = true;
+        stream.sharedData = true;
     }
 
     /**
@@ -146,16 +166,24 @@ public class COSStream extends COSDictionary implements Closeable
      */
     public InputStream getFilteredStream() throws IOException
     {
-        if( filteredStream == null )
+        synchronized( getLock() )
         {
-            doEncode();
-        }
-        long position = filteredStream.getPosition();
-        long length = filteredStream.getLength();
+            if( filteredStream == null )
+            {
+                if( filteredSource != null )
+                {
+                    return new BufferedInputStream( new RandomAccessFileInputStream(
+                            filteredSource, filteredSourceOffset, filteredSourceLength ), BUFFER_SIZE );
+                }
+                doEncode();
+            }
+            long position = filteredStream.getPosition();
+            long length = filteredStream.getLength();
 
-        RandomAccessFileInputStream input =
-            new RandomAccessFileInputStream( file, position, length );
-        return new BufferedInputStream( input, BUFFER_SIZE );
+            RandomAccessFileInputStream input =
+                new RandomAccessFileInputStream( file, position, length );
+            return new BufferedInputStream( input, BUFFER_SIZE );
+        }
     }
 
     /**
@@ -167,11 +195,18 @@ public class COSStream extends COSDictionary implements Closeable
      */
     public long getFilteredLength() throws IOException
     {
-        if (filteredStream == null)
+        synchronized (getLock())
         {
-            doEncode();
+            if (filteredStream == null)
+            {
+                if (filteredSource != null)
+                {
+                    return filteredSourceLength;
+                }
+                doEncode();
+            }
+            return filteredStream.getLength();
         }
-        return filteredStream.getLength();
     }
     
     /**
@@ -182,8 +217,92 @@ public class COSStream extends COSDictionary implements Closeable
      * @throws IOException when encoding/decoding causes an exception
      */
     public InputStream  getUnfilteredStream() throws IOException
+    {
+        synchronized( getLock() )
+        {
+            return getUnfilteredStreamLocked();
+        }
+    }
+
+    /**
+     * This will get the logical content stream with none of the filters, without keeping
+     * the decoded data. The data is decoded while it is read, so nothing is written to the
+     * scratch file. This is meant for data which is read only once, e.g. the content
+     * stream of a page when extracting text, reading it again decodes it again.
+     *
+     * If the stream has already been decoded, or if one of its filters is unable to decode
+     * while reading, this returns the same data as {@link #getUnfilteredStream()}. Errors
+     * in the encoded data are reported while reading, the stream isn't repaired like it is
+     * when it's decoded to the scratch file.
+     *
+     * @return the bytes of the logical (decoded) stream
+     *
+     * @throws IOException when decoding causes an exception
+     */
+    public InputStream createUnfilteredInputStream() throws IOException
+    {
+        synchronized( getLock() )
+        {
+            COSBase filters = getFilters();
+            InputStream input = null;
+            if( unFilteredStream == null && filters != null )
+            {
+                input = openEncodedStream();
+            }
+            if( input == null )
+            {
+                return getUnfilteredStreamLocked();
+            }
+            COSArray filterArray;
+            if( filters instanceof COSArray )
+            {
+                filterArray = (COSArray)filters;
+            }
+            else
+            {
+                filterArray = new COSArray();
+                filterArray.add( filters );
+            }
+            boolean success = false;
+            try
+            {
+                for( int i=0; i<filterArray.size(); i++ )
+                {
+                    COSBase filterName = filterArray.getObject( i );
+                    if( !(filterName instanceof COSName) )
+                    {
+                        throw new IOException( "Error: Unknown filter type:" + filterName );
+                    }
+                    Filter filter = FilterFactory.INSTANCE.getFilter( (COSName)filterName );
+                    InputStream decoded = filter.decodeStream( input, this, i );
+                    if( decoded == null )
+                    {
+                        return getUnfilteredStreamLocked();
+                    }
+                    input = decoded;
+                }
+                success = true;
+                return input;
+            }
+            finally
+            {
+                if( !success )
+                {
+                    IOUtils.closeQuietly(input);
+                }
+            }
+        }
+    }
+
+    private InputStream getUnfilteredStreamLocked() throws IOException
     {
         InputStream retval;
+        if( unFilteredStream == null && filteredStream == null && filteredSource != null
+                && getFilters() == null )
+        {
+            // there is nothing to decode, read the data directly from the source
+            return getFilteredStream();
+        }
         if( unFilteredStream == null )
         {
             doDecode();
@@ -230,21 +349,38 @@ public class COSStream extends COSDictionary implements Closeable
      */
     public DecodeResult getDecodeResult() throws IOException
     {
-        if (unFilteredStream == null)
+        synchronized (getLock())
         {
-            doDecode();
-        }
+            if (unFilteredStream == null)
+            {
+                doDecode();
+            }
 
-        if (unFilteredStream == null || decodeResult == null)
-        {
-            throw new IOException("Stream was not read");
-        }
-        else
-        {
-            return decodeResult;
+            if (unFilteredStream == null || decodeResult == null)
+            {
+                throw new IOException("Stream was not read");
+            }
+            else
+            {
+                return decodeResult;
+            }
         }
     }
 
+    /**
+     * Returns the lock guarding the decoding and encoding of this stream. The decoded and
+     * encoded data is appended to the scratch file, which may be shared by all streams of
+     * a document, so the scratch file itself is used as lock. This allows several threads
+     * to read the streams of a document at the same time, e.g. when rendering pages in
+     * parallel.
+     *
+     * @return the lock object
+     */
+    private Object getLock()
+    {
+        return file != null ? file : this;
+    }
+
     /**
      * visitor pattern double dispatch method.
      *
@@ -272,6 +408,11 @@ public class COSStream extends COSDictionary implements Closeable
         {
             //then do nothing
             decodeResult = DecodeResult.DEFAULT;
+            if( unFilteredStream == null && filteredSource != null )
+            {
+                copyFilteredSource();
+                unFilteredStream = filteredStream;
+            }
         }
         else if( filters instanceof COSName )
         {
@@ -280,10 +421,13 @@ public class COSStream extends COSDictionary implements Closeable
         else if( filters instanceof COSArray )
         {
             COSArray filterArray = (COSArray)filters;
-            for( int i=0; i<filterArray.size(); i++ )
+            if( filterArray.size() < 2 || !doPipelinedDecode( filterArray ) )
             {
-                COSName filterName = (COSName)filterArray.get( i );
-                doDecode( filterName, i );
+                for( int i=0; i<filterArray.size(); i++ )
+                {
+                    COSName filterName = (COSName)filterArray.get( i );
+                    doDecode( filterName, i );
+                }
             }
         }
         else
@@ -292,6 +436,95 @@ public class COSStream extends COSDictionary implements Closeable
         }
     }
 
+    /**
+     * This will decode applying all filters of the array at once, the filters are chained
+     * so that only the output of the last filter is written to the scratch file. This is
+     * only possible if all but the last filter are able to decode while reading, see
+     * {@link Filter#decodeStream(InputStream, COSDictionary, int)}.
+     *
+     * @param filterArray The filters of the stream.
+     *
+     * @return true if the stream was decoded, false if the filters have to be applied
+     * one by one, e.g. to repair a stream which is too long.
+     *
+     * @throws IOException If there is an error reading the filtered data.
+     */
+    private boolean doPipelinedDecode( COSArray filterArray ) throws IOException
+    {
+        InputStream input = openEncodedStream();
+        if( input == null )
+        {
+            return false;
+        }
+        RandomAccessFileOutputStream output = null;
+        try
+        {
+            int last = filterArray.size() - 1;
+            for( int i=0; i<last; i++ )
+            {
+                Filter filter = FilterFactory.INSTANCE.getFilter( (COSName)filterArray.get( i ) );
+                InputStream decoded = filter.decodeStream( input, this, i );
+                if( decoded == null )
+                {
+                    return false;
+                }
+                input = decoded;
+            }
+            Filter filter = FilterFactory.INSTANCE.getFilter( (COSName)filterArray.get( last ) );
+            output = new RandomAccessFileOutputStream( file );
+            DecodeResult result = filter.decode( input, output, this, last );
+            unFilteredStream = output;
+            decodeResult = result;
+            output = null;
+            return true;
+        }
+        catch( IOException exception )
+        {
+            LOG.debug( "Decoding the filters one by one after an error", exception );
+            return false;
+        }
+        finally
+        {
+            IOUtils.closeQuietly(input);
+            release(output);
+        }
+    }
+
+    /**
+     * Opens the filtered data, either the range of the source or the data in the
+     * scratch file.
+     *
+     * @return the filtered data, or null if there is none
+     */
+    private InputStream openEncodedStream()
+    {
+        RandomAccessRead source;
+        long position;
+        long length;
+        if( filteredStream == null && filteredSource != null )
+        {
+            source = filteredSource;
+            position = filteredSourceOffset;
+            length = filteredSourceLength;
+        }
+        else if( filteredStream != null )
+        {
+            source = file;
+            position = filteredStream.getPosition();
+            length = filteredStream.getLength();
+        }
+        else
+        {
+            return null;
+        }
+        if( length == 0 )
+        {
+            return null;
+        }
+        return new BufferedInputStream(
+            new RandomAccessFileInputStream( source, position, length ), BUFFER_SIZE );
+    }
+
     /**
      * This will decode applying a single filter on the stream.
      *
@@ -304,19 +537,35 @@ public class COSStream extends COSDictionary implements Closeable
     {
         Filter filter = FilterFactory.INSTANCE.getFilter( filterName );
 
+        // the output of the previous filter, released once it has been decoded
+        RandomAccessFileOutputStream previous = unFilteredStream;
         boolean done = false;
         IOException exception = null;
-        long position = unFilteredStream.getPosition();
-        long length = unFilteredStream.getLength();
+        RandomAccessRead source = file;
+        long position;
+        long length;
         // in case we need it later
-        long writtenLength = unFilteredStream.getLengthWritten();  
+        long writtenLength;
+        if( unFilteredStream == null && filteredSource != null )
+        {
+            // the first filter reads the encoded data directly from the source
+            source = filteredSource;
+            position = filteredSourceOffset;
+            length = filteredSourceLength;
+            writtenLength = filteredSourceLength;
+        }
+        else
+        {
+            position = unFilteredStream.getPosition();
+            length = unFilteredStream.getLength();
+            writtenLength = unFilteredStream.getLengthWritten();
+        }
 
         if( length == 0 )
         {
             //if the length is zero then don't bother trying to decode
             //some filters don't work when attempting to decode
             //with a zero length stream.  See zlib_error_01.pdf
-            IOUtils.closeQuietly(unFilteredStream);
             unFilteredStream = new RandomAccessFileOutputStream( file );
             done = true;
         }
@@ -331,8 +580,8 @@ public class COSStream extends COSDictionary implements Closeable
                 try
                 {
                     input = new BufferedInputStream(
-                        new RandomAccessFileInputStream( file, position, length ), BUFFER_SIZE );
-                    IOUtils.closeQuietly(unFilteredStream);
+                        new RandomAccessFileInputStream( source, position, length ), BUFFER_SIZE );
+                    releaseAttempt( previous );
                     unFilteredStream = new RandomAccessFileOutputStream( file );
                     decodeResult = filter.decode( input, unFilteredStream, this, filterIndex );
                     done = true;
@@ -359,8 +608,8 @@ public class COSStream extends COSDictionary implements Closeable
                     try
                     {
                         input = new BufferedInputStream(
-                            new RandomAccessFileInputStream( file, position, length ), BUFFER_SIZE );
-                        IOUtils.closeQuietly(unFilteredStream);
+                            new RandomAccessFileInputStream( source, position, length ), BUFFER_SIZE );
+                        releaseAttempt( previous );
                         unFilteredStream = new RandomAccessFileOutputStream( file );
                         decodeResult = filter.decode( input, unFilteredStream, this, filterIndex);
                         done = true;
@@ -381,6 +630,59 @@ public class COSStream extends COSDictionary implements Closeable
         {
             throw exception;
         }
+        if( previous != filteredStream )
+        {
+            release( previous );
+        }
+    }
+
+    /**
+     * Releases the output of a failed decoding attempt, which is neither the filtered
+     * data nor the output of the previous filter.
+     */
+    private void releaseAttempt( RandomAccessFileOutputStream previous )
+    {
+        if( unFilteredStream != previous && unFilteredStream != filteredStream )
+        {
+            release( unFilteredStream );
+        }
+    }
+
+    /**
+     * Releases the space of data in the scratch file which isn't used anymore, if the
+     * scratch file is able to reuse it.
+     *
+     * @param stream The data which isn't used anymore, may be null.
+     */
+    private void release( RandomAccessFileOutputStream stream )
+    {
+        if( stream != null && file instanceof ScratchFile )
+        {
+            try
+            {
+                ((ScratchFile)file).release( stream.getPosition(), stream.getLengthWritten() );
+            }
+            catch( IOException exception )
+            {
+                LOG.debug( "Can't release the data of the stream", exception );
+            }
+        }
+    }
+
+    /**
+     * Releases the filtered and the unfiltered data, which are replaced.
+     */
+    private void releaseData()
+    {
+        if( !sharedData )
+        {
+            release( filteredStream );
+            if( unFilteredStream != filteredStream )
+            {
+                release( unFilteredStream );
+            }
+        }
+        sharedData = false;
     }
 
     /**
@@ -428,10 +730,15 @@ public class COSStream extends COSDictionary implements Closeable
         InputStream input = new BufferedInputStream(
             new RandomAccessFileInputStream( file, filteredStream.getPosition(),
                                                    filteredStream.getLength() ), BUFFER_SIZE );
-        IOUtils.closeQuietly(filteredStream);
+        RandomAccessFileOutputStream previous = filteredStream;
         filteredStream = new RandomAccessFileOutputStream( file );
         filter.encode( input, filteredStream, this, filterIndex );
         IOUtils.closeQuietly(input);
+        if( previous != unFilteredStream )
+        {
+            // the output of the previous filter
+            release( previous );
+        }
     }
 
     /**
@@ -459,11 +766,12 @@ public class COSStream extends COSDictionary implements Closeable
      */
     public OutputStream createFilteredStream() throws IOException
     {
-        IOUtils.closeQuietly(unFilteredStream);
+        filteredSource = null;
+        RandomAccessFileOutputStream output = new RandomAccessFileOutputStream( file );
+        OutputStream stream = new ReplacingOutputStream( output );
         unFilteredStream = null;
-        IOUtils.closeQuietly(filteredStream);
-        filteredStream = new RandomAccessFileOutputStream( file );
-        return new BufferedOutputStream( filteredStream, BUFFER_SIZE );
+        filteredStream = output;
+        return stream;
     }
 
     /**
@@ -479,12 +787,13 @@ public class COSStream extends COSDictionary implements Closeable
      */
     public OutputStream createFilteredStream( COSBase expectedLength ) throws IOException
     {
-        IOUtils.closeQuietly(unFilteredStream);
+        filteredSource = null;
+        RandomAccessFileOutputStream output = new RandomAccessFileOutputStream( file );
+        output.setExpectedLength( expectedLength );
+        OutputStream stream = new ReplacingOutputStream( output );
         unFilteredStream = null;
-        IOUtils.closeQuietly(filteredStream);
-        filteredStream = new RandomAccessFileOutputStream( file );
-        filteredStream.setExpectedLength( expectedLength );
-        return new BufferedOutputStream( filteredStream, BUFFER_SIZE );
+        filteredStream = output;
+        return stream;
     }
 
     /**
@@ -496,9 +805,18 @@ public class COSStream extends COSDictionary implements Closeable
      */
     public void setFilters(COSBase filters) throws IOException
     {
+        if (unFilteredStream == null && filteredSource != null)
+        {
+            // decode with the current filters first, the source data can't be used anymore
+            doDecode();
+        }
+        filteredSource = null;
         setItem(COSName.FILTER, filters);
         // kill cached filtered streams
-        IOUtils.closeQuietly(filteredStream);
+        if( filteredStream != unFilteredStream && !sharedData )
+        {
+            release( filteredStream );
+        }
         filteredStream = null;
     }
 
@@ -511,13 +829,90 @@ public class COSStream extends COSDictionary implements Closeable
      */
     public OutputStream createUnfilteredStream() throws IOException
     {
-        IOUtils.closeQuietly(filteredStream);
+        filteredSource = null;
+        RandomAccessFileOutputStream output = new RandomAccessFileOutputStream( file );
+        OutputStream stream = new ReplacingOutputStream( output );
         filteredStream = null;
-        IOUtils.closeQuietly(unFilteredStream);
-        unFilteredStream = new RandomAccessFileOutputStream( file );
-        return new BufferedOutputStream( unFilteredStream, BUFFER_SIZE );
+        unFilteredStream = output;
+        return stream;
     }
-    
+
+    /**
+     * Sets the filtered (encoded) data of this stream to a range of the given source.
+     * The data is read from the source on demand instead of being copied to the
+     * scratch file. A copy is only made when the stream is modified. The source has
+     * to stay open as long as this stream is used.
+     *
+     * @param source the source to read the filtered data from
+     * @param offset the offset of the filtered data within the source
+     * @param length the length of the filtered data
+     */
+    public void setFilteredSource( RandomAccessRead source, long offset, long length )
+    {
+        releaseData();
+        unFilteredStream = null;
+        filteredStream = null;
+        filteredSource = source;
+        filteredSourceOffset = offset;
+        filteredSourceLength = length;
+    }
+
+    /**
+     * Copies the filtered data from the source to the scratch file.
+     */
+    private void copyFilteredSource() throws IOException
+    {
+        InputStream input = getFilteredStream();
+        try
+        {
+            filteredStream = new RandomAccessFileOutputStream( file );
+            IOUtils.copy( input, filteredStream );
+        }
+        finally
+        {
+            IOUtils.closeQuietly(input);
+        }
+        filteredSource = null;
+    }
+
+    /**
+     * The stream to write new data to, which replaces the current data of this stream. The
+     * current data is released when the stream is closed, as it may still be read while the
+     * new data is written, e.g. when the data is encrypted.
+     */
+    private final class ReplacingOutputStream extends BufferedOutputStream
+    {
+        private RandomAccessFileOutputStream replacedFiltered;
+        private RandomAccessFileOutputStream replacedUnfiltered;
+
+        private ReplacingOutputStream( RandomAccessFileOutputStream output )
+        {
+            super( output, BUFFER_SIZE );
+            if( !sharedData )
+            {
+                replacedFiltered = filteredStream;
+                if( unFilteredStream != filteredStream )
+                {
+                    replacedUnfiltered = unFilteredStream;
+                }
+            }
+            sharedData = false;
+        }
+
+        @Override
+        public void close() throws IOException
+        {
+            super.close();
+            synchronized( getLock() )
+            {
+                release( replacedFiltered );
+                release( replacedUnfiltered );
+                replacedFiltered = null;
+                replacedUnfiltered = null;
+            }
+        }
+    }
+
     public void close()
     {
         try
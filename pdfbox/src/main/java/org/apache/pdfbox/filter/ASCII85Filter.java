@@ -52,6 +52,12 @@ final class ASCII85Filter extends Filter
         return new DecodeResult(parameters);
     }
 
+    @Override
+    protected final InputStream decodeStream(InputStream encoded, COSDictionary parameters)
+    {
+        return new ASCII85InputStream(encoded);
+    }
+
     @Override
     protected final void encode(InputStream input, OutputStream encoded, COSDictionary parameters)
         throws IOException
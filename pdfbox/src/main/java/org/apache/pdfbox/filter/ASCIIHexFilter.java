@@ -16,6 +16,7 @@
  */
 package org.apache.pdfbox.filter;
 
+import java.io.FilterInputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
@@ -52,33 +53,68 @@ final class ASCIIHexFilter extends Filter
     protected final DecodeResult decode(InputStream encoded, OutputStream decoded,
                                          COSDictionary parameters) throws IOException
     {
-        int value, firstByte, secondByte;
-        while ((firstByte = encoded.read()) != -1)
+        // the encoded stream isn't closed
+        InputStream is = new ASCIIHexInputStream(encoded);
+        byte[] buffer = new byte[1024];
+        int amountRead;
+        while ((amountRead = is.read(buffer, 0, 1024)) != -1)
         {
+            decoded.write(buffer, 0, amountRead);
+        }
+        decoded.flush();
+        return new DecodeResult(parameters);
+    }
+
+    @Override
+    protected final InputStream decodeStream(InputStream encoded, COSDictionary parameters)
+    {
+        return new ASCIIHexInputStream(encoded);
+    }
+
+    /**
+     * Decodes the hex digits while they are read.
+     */
+    private final class ASCIIHexInputStream extends FilterInputStream
+    {
+        private boolean eod;
+
+        private ASCIIHexInputStream(InputStream encoded)
+        {
+            super(encoded);
+        }
+
+        @Override
+        public int read() throws IOException
+        {
+            if (eod)
+            {
+                return -1;
+            }
+            int firstByte = in.read();
             // always after first char
             while (isWhitespace(firstByte))
             {
-                firstByte = encoded.read();
+                firstByte = in.read();
             }
-            if (isEOD(firstByte))
+            if (firstByte == -1 || isEOD(firstByte))
             {
-                break;
+                eod = true;
+                return -1;
             }
-       
+
             if (REVERSE_HEX[firstByte] == -1)
             {
                 log.error("Invalid hex, int: " + firstByte + " char: " + (char)firstByte);
             }
-            value = REVERSE_HEX[firstByte] * 16;
-            secondByte = encoded.read();
-       
-            if (isEOD(secondByte)) 
+            int value = REVERSE_HEX[firstByte] * 16;
+            int secondByte = in.read();
+
+            if (isEOD(secondByte))
             {
                 // second value behaves like 0 in case of EOD
-                decoded.write(value);
-                break;
+                eod = true;
             }
-            if (secondByte >= 0) 
+            else if (secondByte >= 0)
             {
                 if (REVERSE_HEX[secondByte] == -1)
                 {
@@ -86,10 +122,47 @@ final class ASCIIHexFilter extends Filter
                 }
                 value += REVERSE_HEX[secondByte];
             }
-            decoded.write(value);
+            return value & 0xFF;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException
+        {
+            int count = 0;
+            while (count < len)
+            {
+                int value = read();
+                if (value == -1)
+                {
+                    break;
+                }
+                b[off + count++] = (byte) value;
+            }
+            return count == 0 && len > 0 ? -1 : count;
+        }
+
+        @Override
+        public long skip(long n) throws IOException
+        {
+            long count = 0;
+            while (count < n && read() != -1)
+            {
+                count++;
+            }
+            return count;
+        }
+
+        @Override
+        public int available()
+        {
+            return 0;
+        }
+
+        @Override
+        public boolean markSupported()
+        {
+            return false;
         }
-        decoded.flush();
-        return new DecodeResult(parameters);
     }
 
     // whitespace
@@ -62,6 +62,32 @@ public abstract class Filter
     protected abstract DecodeResult decode(InputStream encoded, OutputStream decoded,
                                    COSDictionary parameters) throws IOException;
 
+    /**
+     * Returns a stream which decodes the data while it is read, so that several filters can
+     * be chained without buffering the output of each filter. Closing the returned stream
+     * closes the encoded stream.
+     * @param encoded the encoded byte stream
+     * @param parameters the parameters used for decoding
+     * @param index the index of this filter in the filter array of the stream
+     * @return the decoding stream, or null if this filter can only decode to an output stream
+     * @throws IOException if the stream cannot be decoded
+     */
+    public final InputStream decodeStream(InputStream encoded, COSDictionary parameters,
+                                          int index) throws IOException
+    {
+        COSDictionary params = new COSDictionary();
+        params.addAll(parameters);
+        params.setItem(COSName.DECODE_PARMS, getDecodeParams(params, index));
+        return decodeStream(encoded, params.asUnmodifiableDictionary());
+    }
+
+    // overridden in subclasses which are able to decode while reading
+    protected InputStream decodeStream(InputStream encoded, COSDictionary parameters)
+            throws IOException
+    {
+        return null;
+    }
+
     /**
      * Encodes data.
      * @param input the byte stream to encode
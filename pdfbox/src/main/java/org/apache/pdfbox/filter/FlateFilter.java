@@ -16,8 +16,7 @@
  */
 package org.apache.pdfbox.filter;
 
-import java.io.ByteArrayInputStream;
-import java.io.ByteArrayOutputStream;
+import java.io.FilterInputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
@@ -65,232 +64,169 @@ final class FlateFilter extends Filter
             }
         }
 
-        ByteArrayInputStream bais = null;
-        ByteArrayOutputStream baos = null;
-        try
+        PredictorOutputStream predictorOut = null;
+        if (predictor > 1)
         {
-            baos = decompress(encoded);
-
-            // decode data using given predictor
-            if (predictor == -1 || predictor == 1)
+            // reverting back to default values
+            if (colors == -1)
             {
-                decoded.write(baos.toByteArray());
+                colors = 1;
             }
-            else
-            {
-                // reverting back to default values
-                if (colors == -1)
-                {
-                    colors = 1;
-                }
-
-                if (bitsPerPixel == -1)
-                {
-                    bitsPerPixel = 8;
-                }
-
-                if (columns == -1)
-                {
-                    columns = 1;
-                }
-
-                // copy data to ByteArrayInputStream for reading
-                bais = new ByteArrayInputStream(baos.toByteArray());
 
-                byte[] decodedData = decodePredictor(predictor, colors, bitsPerPixel, columns, bais);
-                bais.close();
-                bais = null;
+            if (bitsPerPixel == -1)
+            {
+                bitsPerPixel = 8;
+            }
 
-                decoded.write(decodedData);
+            if (columns == -1)
+            {
+                columns = 1;
             }
-            decoded.flush();
-        } 
-        catch (DataFormatException e)
-        {
-            // if the stream is corrupt a DataFormatException may occur
-            LOG.error("FlateFilter: stop reading corrupt stream due to a DataFormatException");
 
-            // re-throw the exception
-            throw new IOException(e);
+            // the predictor is applied row by row while the data is inflated
+            predictorOut = new PredictorOutputStream(decoded, predictor, colors, bitsPerPixel, columns);
         }
-        finally
+
+        InflatingInputStream inflated = new InflatingInputStream(encoded);
+        try
         {
-            if (bais != null)
+            OutputStream out = predictorOut == null ? decoded : predictorOut;
+            byte[] res = new byte[2048];
+            int resRead;
+            while ((resRead = inflated.read(res)) != -1)
             {
-                bais.close();
+                out.write(res, 0, resRead);
             }
-            if (baos != null)
+            if (predictorOut != null)
             {
-                baos.close();
+                // writes an incomplete last row, if any
+                predictorOut.finish();
             }
+            decoded.flush();
+        }
+        finally
+        {
+            // the encoded stream isn't closed
+            inflated.end();
         }
         return new DecodeResult(parameters);
     }
 
-    // Use Inflater instead of InflateInputStream to avoid an EOFException due to a probably
-    // missing Z_STREAM_END, see PDFBOX-1232 for details
-    private ByteArrayOutputStream decompress(InputStream in) throws IOException, DataFormatException 
-    { 
-        ByteArrayOutputStream out = new ByteArrayOutputStream(); 
-        byte[] buf = new byte[2048]; 
-        int read = in.read(buf); 
-        if (read > 0) 
-        { 
-            Inflater inflater = new Inflater(); 
-            inflater.setInput(buf,0,read); 
-            byte[] res = new byte[2048]; 
-            while (true) 
-            { 
-                int resRead = inflater.inflate(res); 
-                if (resRead != 0) 
-                { 
-                    out.write(res,0,resRead); 
-                    continue; 
-                } 
-                if (inflater.finished() || inflater.needsDictionary() || in.available() == 0) 
-                {
-                    break;
-                } 
-                read = in.read(buf); 
-                inflater.setInput(buf,0,read); 
-            }
-        }
-        out.close();
-        return out;
-    } 
-    
-    private byte[] decodePredictor(int predictor, int colors, int bitsPerComponent, int columns, InputStream data)
-        throws IOException
+    @Override
+    protected final InputStream decodeStream(InputStream encoded, COSDictionary parameters)
     {
-        ByteArrayOutputStream baos = new ByteArrayOutputStream();
-        byte[] buffer = new byte[2048];
-        if (predictor == 1)
+        COSDictionary decodeParams = (COSDictionary)
+                parameters.getDictionaryObject(COSName.DECODE_PARMS, COSName.DP);
+        if (decodeParams != null && decodeParams.getInt(COSName.PREDICTOR) > 1)
         {
-            // no prediction
-            int i;
-            while ((i = data.read(buffer)) != -1)
-            {
-                baos.write(buffer, 0, i);
-            }
+            // the predictor is only implemented as output stream
+            return null;
         }
-        else
+        return new InflatingInputStream(encoded);
+    }
+
+    // Use Inflater instead of InflaterInputStream to avoid an EOFException due to a probably
+    // missing Z_STREAM_END, see PDFBOX-1232 for details
+    private static final class InflatingInputStream extends FilterInputStream
+    {
+        private final byte[] buf = new byte[2048];
+        private Inflater inflater = new Inflater();
+
+        private InflatingInputStream(InputStream in)
         {
-            // calculate sizes
-            int bitsPerPixel = colors * bitsPerComponent;
-            int bytesPerPixel = (bitsPerPixel + 7) / 8;
-            int rowlength = (columns * bitsPerPixel + 7) / 8;
-            byte[] actline = new byte[rowlength];
-            byte[] lastline = new byte[rowlength];
+            super(in);
+        }
 
-            boolean done = false;
-            int linepredictor = predictor;
+        @Override
+        public int read() throws IOException
+        {
+            byte[] b = new byte[1];
+            return read(b, 0, 1) == -1 ? -1 : b[0] & 0xFF;
+        }
 
-            while (!done && data.available() > 0)
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException
+        {
+            if (inflater == null)
+            {
+                return -1;
+            }
+            if (len == 0)
             {
-                // test for PNG predictor; each value >= 10 (not only 15) indicates usage of PNG predictor
-                if (predictor >= 10)
+                return 0;
+            }
+            try
+            {
+                while (true)
                 {
-                    // PNG predictor; each row starts with predictor type (0, 1, 2, 3, 4)
-                    linepredictor = data.read();// read per line predictor
-                    if (linepredictor == -1)
+                    int resRead = inflater.inflate(b, off, len);
+                    if (resRead != 0)
                     {
-                        done = true;// reached EOF
-                        break;
+                        return resRead;
                     }
-                    else
+                    if (inflater.finished() || inflater.needsDictionary())
                     {
-                        linepredictor += 10; // add 10 to tread value 0 as 10, 1 as 11, ...
+                        return -1;
                     }
+                    int read = in.read(buf);
+                    if (read == -1)
+                    {
+                        return -1;
+                    }
+                    inflater.setInput(buf, 0, read);
                 }
+            }
+            catch (DataFormatException e)
+            {
+                // if the stream is corrupt a DataFormatException may occur
+                LOG.error("FlateFilter: stop reading corrupt stream due to a DataFormatException");
 
-                // read line
-                int i, offset = 0;
-                while (offset < rowlength && ((i = data.read(actline, offset, rowlength - offset)) != -1))
-                {
-                    offset += i;
-                }
+                // re-throw the exception
+                throw new IOException(e);
+            }
+        }
 
-                // do prediction as specified in PNG-Specification 1.2
-                switch (linepredictor)
-                {
-                    case 2:// PRED TIFF SUB
-                        // TODO decode tiff with bitsPerComponent != 8;
-                        // e.g. for 4 bpc each nibble must be subtracted separately
-                        if (bitsPerComponent != 8)
-                        {
-                            throw new IOException("TIFF-Predictor with " + bitsPerComponent
-                                    + " bits per component not supported");
-                        }
-                        // for 8 bits per component it is the same algorithm as PRED SUB of PNG format
-                        for (int p = 0; p < rowlength; p++)
-                        {
-                            int sub = actline[p] & 0xff;
-                            int left = p - bytesPerPixel >= 0 ? actline[p - bytesPerPixel] & 0xff : 0;
-                            actline[p] = (byte) (sub + left);
-                        }
-                        break;
-                    case 10:// PRED NONE
-                        // do nothing
-                        break;
-                    case 11:// PRED SUB
-                        for (int p = 0; p < rowlength; p++)
-                        {
-                            int sub = actline[p];
-                            int left = p - bytesPerPixel >= 0 ? actline[p - bytesPerPixel]: 0;
-                            actline[p] = (byte) (sub + left);
-                        }
-                        break;
-                    case 12:// PRED UP
-                        for (int p = 0; p < rowlength; p++)
-                        {
-                            int up = actline[p] & 0xff;
-                            int prior = lastline[p] & 0xff;
-                            actline[p] = (byte) ((up + prior) & 0xff);
-                        }
-                        break;
-                    case 13:// PRED AVG
-                        for (int p = 0; p < rowlength; p++)
-                        {
-                            int avg = actline[p] & 0xff;
-                            int left = p - bytesPerPixel >= 0 ? actline[p - bytesPerPixel] & 0xff: 0;
-                            int up = lastline[p] & 0xff;
-                            actline[p] = (byte) ((avg +  (int)Math.floor((left + up)/2)) & 0xff);
-                        }
-                        break;
-                    case 14:// PRED PAETH
-                        for (int p = 0; p < rowlength; p++)
-                        {
-                            int paeth = actline[p] & 0xff;
-                            int a = p - bytesPerPixel >= 0 ? actline[p - bytesPerPixel] & 0xff : 0;// left
-                            int b = lastline[p] & 0xff;// upper
-                            int c = p - bytesPerPixel >= 0 ? lastline[p - bytesPerPixel] & 0xff : 0;// upperleft
-                            int value = a + b - c;
-                            int absa = Math.abs(value - a);
-                            int absb = Math.abs(value - b);
-                            int absc = Math.abs(value - c);
+        @Override
+        public long skip(long n) throws IOException
+        {
+            byte[] b = new byte[(int) Math.min(n, buf.length)];
+            long count = 0;
+            int read;
+            while (count < n && (read = read(b, 0, (int) Math.min(n - count, b.length))) != -1)
+            {
+                count += read;
+            }
+            return count;
+        }
 
-                            if (absa <= absb && absa <= absc)
-                            {
-                                actline[p] = (byte) ((paeth + a) & 0xff);
-                            }
-                            else if (absb <= absc)
-                            {
-                                actline[p] = (byte) ((paeth + b) & 0xff);
-                            }
-                            else
-                            {
-                                actline[p] = (byte) ((paeth + c) & 0xff);
-                            }
-                        }
-                        break;
-                    default:
-                        break;
-                }
-                lastline = actline.clone();
-                baos.write(actline, 0, actline.length);
+        @Override
+        public int available()
+        {
+            return 0;
+        }
+
+        @Override
+        public boolean markSupported()
+        {
+            return false;
+        }
+
+        @Override
+        public void close() throws IOException
+        {
+            end();
+            super.close();
+        }
+
+        // releases the inflater without closing the encoded stream
+        private void end()
+        {
+            if (inflater != null)
+            {
+                inflater.end();
+                inflater = null;
             }
         }
-        return baos.toByteArray();
     }
 
     @Override
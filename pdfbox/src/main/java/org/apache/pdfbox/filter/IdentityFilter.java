@@ -46,6 +46,12 @@ final class IdentityFilter extends Filter
         return new DecodeResult(parameters);
     }
 
+    @Override
+    protected final InputStream decodeStream(InputStream encoded, COSDictionary parameters)
+    {
+        return encoded;
+    }
+
     @Override
     protected final void encode(InputStream input, OutputStream encoded, COSDictionary parameters)
         throws IOException
@@ -0,0 +1,211 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.pdfbox.filter;
+
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * An output stream which reverts TIFF and PNG predictors row by row while the data
+ * is written to it. Only the current and the previous row are held in memory.
+ *
+ * {@link #finish()} has to be called after the last byte was written, so that an
+ * incomplete last row is written as well.
+ */
+final class PredictorOutputStream extends FilterOutputStream
+{
+    private final int predictor;
+    private final int bitsPerComponent;
+    private final int bytesPerPixel;
+    private final int rowLength;
+
+    private final byte[] actline;
+    private final byte[] lastline;
+
+    // number of bytes of the current row which were already written
+    private int offset = 0;
+    // predictor of the current row, -1 if not read yet
+    private int linepredictor = -1;
+
+    /**
+     * Constructor.
+     *
+     * @param out the stream to write the decoded data to
+     * @param predictor the value of the /Predictor entry, must be greater than 1
+     * @param colors the number of color components per sample
+     * @param bitsPerComponent the number of bits per color component
+     * @param columns the number of samples per row
+     */
+    PredictorOutputStream(OutputStream out, int predictor, int colors, int bitsPerComponent,
+            int columns)
+    {
+        super(out);
+        this.predictor = predictor;
+        this.bitsPerComponent = bitsPerComponent;
+        int bitsPerPixel = colors * bitsPerComponent;
+        bytesPerPixel = (bitsPerPixel + 7) / 8;
+        rowLength = (columns * bitsPerPixel + 7) / 8;
+        actline = new byte[rowLength];
+        lastline = new byte[rowLength];
+    }
+
+    @Override
+    public void write(int b) throws IOException
+    {
+        write(new byte[] { (byte) b }, 0, 1);
+    }
+
+    @Override
+    public void write(byte[] b, int off, int len) throws IOException
+    {
+        if (rowLength == 0 && predictor < 10)
+        {
+            // nothing to be decoded
+            return;
+        }
+        int end = off + len;
+        int pos = off;
+        while (pos < end)
+        {
+            // test for PNG predictor; each value >= 10 (not only 15) indicates usage of PNG predictor
+            if (predictor >= 10 && linepredictor == -1)
+            {
+                // PNG predictor; each row starts with predictor type (0, 1, 2, 3, 4)
+                // add 10 to tread value 0 as 10, 1 as 11, ...
+                linepredictor = (b[pos++] & 0xff) + 10;
+                continue;
+            }
+            int count = Math.min(rowLength - offset, end - pos);
+            System.arraycopy(b, pos, actline, offset, count);
+            offset += count;
+            pos += count;
+            if (offset == rowLength)
+            {
+                writeRow();
+            }
+        }
+    }
+
+    /**
+     * Writes the last row if it is incomplete. The missing bytes of the row are
+     * taken from the previous row.
+     *
+     * @throws IOException if the data can't be written
+     */
+    public void finish() throws IOException
+    {
+        if (offset > 0 || linepredictor != -1)
+        {
+            writeRow();
+        }
+        out.flush();
+    }
+
+    /**
+     * Reverts the predictor for the current row and writes it to the underlying
+     * stream.
+     */
+    private void writeRow() throws IOException
+    {
+        int currentPredictor = predictor >= 10 ? linepredictor : predictor;
+
+        // do prediction as specified in PNG-Specification 1.2
+        switch (currentPredictor)
+        {
+            case 2:// PRED TIFF SUB
+                // TODO decode tiff with bitsPerComponent != 8;
+                // e.g. for 4 bpc each nibble must be subtracted separately
+                if (bitsPerComponent != 8)
+                {
+                    throw new IOException("TIFF-Predictor with " + bitsPerComponent
+                            + " bits per component not supported");
+                }
+                // for 8 bits per component it is the same algorithm as PRED SUB of PNG format
+                for (int p = bytesPerPixel; p < rowLength; p++)
+                {
+                    actline[p] = (byte) (actline[p] + actline[p - bytesPerPixel]);
+                }
+                break;
+            case 10:// PRED NONE
+                // do nothing
+                break;
+            case 11:// PRED SUB
+                for (int p = bytesPerPixel; p < rowLength; p++)
+                {
+                    actline[p] = (byte) (actline[p] + actline[p - bytesPerPixel]);
+                }
+                break;
+            case 12:// PRED UP
+                for (int p = 0; p < rowLength; p++)
+                {
+                    actline[p] = (byte) (actline[p] + lastline[p]);
+                }
+                break;
+            case 13:// PRED AVG
+                for (int p = 0; p < rowLength; p++)
+                {
+                    int left = p - bytesPerPixel >= 0 ? actline[p - bytesPerPixel] & 0xff : 0;
+                    int up = lastline[p] & 0xff;
+                    actline[p] = (byte) (actline[p] + ((left + up) >> 1));
+                }
+                break;
+            case 14:// PRED PAETH
+                for (int p = 0; p < rowLength; p++)
+                {
+                    int paeth = actline[p] & 0xff;
+                    int a = p - bytesPerPixel >= 0 ? actline[p - bytesPerPixel] & 0xff : 0;// left
+                    int b = lastline[p] & 0xff;// upper
+                    int c = p - bytesPerPixel >= 0 ? lastline[p - bytesPerPixel] & 0xff : 0;// upperleft
+                    int value = a + b - c;
+                    int absa = Math.abs(value - a);
+                    int absb = Math.abs(value - b);
+                    int absc = Math.abs(value - c);
+
+                    if (absa <= absb && absa <= absc)
+                    {
+                        actline[p] = (byte) (paeth + a);
+                    }
+                    else if (absb <= absc)
+                    {
+                        actline[p] = (byte) (paeth + b);
+                    }
+                    else
+                    {
+                        actline[p] = (byte) (paeth + c);
+                    }
+                }
+                break;
+            default:
+                break;
+        }
+        out.write(actline, 0, rowLength);
+
+        // the decoded row becomes the prior row; the bytes of an incomplete
+        // following row are taken from it as well
+        System.arraycopy(actline, 0, lastline, 0, rowLength);
+        offset = 0;
+        linepredictor = -1;
+    }
+
+    @Override
+    public void close() throws IOException
+    {
+        finish();
+        super.close();
+    }
+}
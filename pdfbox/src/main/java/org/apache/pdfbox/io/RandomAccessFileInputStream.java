@@ -28,7 +28,7 @@ import java.io.IOException;
  */
 public class RandomAccessFileInputStream extends InputStream
 {
-    private RandomAccess file;
+    private RandomAccessRead file;
     private long currentPosition;
     private long endPosition;
 
@@ -39,7 +39,7 @@ public class RandomAccessFileInputStream extends InputStream
      * @param startPosition The position in the file that this stream starts.
      * @param length The length of the input stream.
      */
-    public RandomAccessFileInputStream( RandomAccess raFile, long startPosition, long length )
+    public RandomAccessFileInputStream( RandomAccessRead raFile, long startPosition, long length )
     {
         file = raFile;
         currentPosition = startPosition;
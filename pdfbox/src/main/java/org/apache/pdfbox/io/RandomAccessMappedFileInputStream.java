@@ -0,0 +1,221 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.pdfbox.io;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.RandomAccessFile;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+
+/**
+ * Provides {@link InputStream} access to a file which is memory mapped. Start of
+ * next bytes to read can be set via seek method.
+ *
+ * In contrast to {@link RandomAccessBufferedFileInputStream} no data is copied to
+ * the heap, all reads are served directly from the page cache of the operating
+ * system. As a single mapping is limited to 2GB the file is mapped in several
+ * segments, so that files of any size can be read.
+ */
+public class RandomAccessMappedFileInputStream
+extends InputStream implements RandomAccessRead
+{
+    /** Default segment size is 1GB. */
+    private static final int DEFAULT_SEGMENT_SIZE_SHIFT = 30;
+
+    private final int segmentSizeShift;
+    private final long segmentOffsetMask;
+
+    private final RandomAccessFile raFile;
+    private final long fileLength;
+    private MappedByteBuffer[] segments;
+    private long fileOffset = 0;
+
+    /**
+     * Create input stream instance for given file.
+     *
+     * @param file the file to be read
+     *
+     * @throws IOException if the file can't be opened or mapped
+     */
+    public RandomAccessMappedFileInputStream(File file) throws IOException
+    {
+        this(file, DEFAULT_SEGMENT_SIZE_SHIFT);
+    }
+
+    /**
+     * Create input stream instance for given file using the given segment size.
+     *
+     * @param file the file to be read
+     * @param segmentSizeShift the size of a segment as power of 2
+     *
+     * @throws IOException if the file can't be opened or mapped
+     */
+    RandomAccessMappedFileInputStream(File file, int segmentSizeShift) throws IOException
+    {
+        if (segmentSizeShift < 1 || segmentSizeShift > DEFAULT_SEGMENT_SIZE_SHIFT)
+        {
+            throw new IllegalArgumentException("Invalid segment size shift " + segmentSizeShift);
+        }
+        this.segmentSizeShift = segmentSizeShift;
+        segmentOffsetMask = (1L << segmentSizeShift) - 1;
+        raFile = new RandomAccessFile(file, "r");
+        try
+        {
+            fileLength = raFile.length();
+            segments = mapSegments(raFile.getChannel());
+        }
+        catch (IOException e)
+        {
+            raFile.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Maps the whole file using as many segments as needed.
+     */
+    private MappedByteBuffer[] mapSegments(FileChannel channel) throws IOException
+    {
+        long segmentSize = 1L << segmentSizeShift;
+        int numberOfSegments = (int) ((fileLength + segmentSize - 1) >> segmentSizeShift);
+        MappedByteBuffer[] mapped = new MappedByteBuffer[numberOfSegments];
+        for (int i = 0; i < numberOfSegments; i++)
+        {
+            long start = (long) i << segmentSizeShift;
+            long size = Math.min(segmentSize, fileLength - start);
+            mapped[i] = channel.map(FileChannel.MapMode.READ_ONLY, start, size);
+        }
+        return mapped;
+    }
+
+    private void checkClosed() throws IOException
+    {
+        if (segments == null)
+        {
+            throw new IOException("RandomAccessMappedFileInputStream already closed");
+        }
+    }
+
+    /**
+     * Returns offset in file at which next byte would be read.
+     *
+     * @return the current position
+     */
+    public long getPosition()
+    {
+        return fileOffset;
+    }
+
+    /**
+     * Seeks to new position. Seeking beyond the end of the file is allowed,
+     * the following reads will then return -1.
+     *
+     * @param newOffset the new position
+     *
+     * @throws IOException if the stream is already closed or the position is negative
+     */
+    public void seek(final long newOffset) throws IOException
+    {
+        checkClosed();
+        if (newOffset < 0)
+        {
+            throw new IOException("Invalid position " + newOffset);
+        }
+        fileOffset = newOffset;
+    }
+
+    @Override
+    public int read() throws IOException
+    {
+        checkClosed();
+        if (fileOffset >= fileLength)
+        {
+            return -1;
+        }
+        MappedByteBuffer segment = segments[(int) (fileOffset >> segmentSizeShift)];
+        int value = segment.get((int) (fileOffset & segmentOffsetMask)) & 0xff;
+        fileOffset++;
+        return value;
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * A single call never reads across a segment boundary, thus less than the
+     * requested number of bytes may be returned even if the end of the file
+     * wasn't reached.
+     */
+    @Override
+    public int read(byte[] b, int off, int len) throws IOException
+    {
+        checkClosed();
+        if (fileOffset >= fileLength)
+        {
+            return -1;
+        }
+        if (len == 0)
+        {
+            return 0;
+        }
+        MappedByteBuffer segment = segments[(int) (fileOffset >> segmentSizeShift)];
+        int offsetWithinSegment = (int) (fileOffset & segmentOffsetMask);
+        int commonLen = Math.min(segment.limit() - offsetWithinSegment, len);
+        segment.position(offsetWithinSegment);
+        segment.get(b, off, commonLen);
+        fileOffset += commonLen;
+        return commonLen;
+    }
+
+    @Override
+    public int available() throws IOException
+    {
+        checkClosed();
+        return (int) Math.max(0, Math.min(fileLength - fileOffset, Integer.MAX_VALUE));
+    }
+
+    @Override
+    public long skip(long n) throws IOException
+    {
+        checkClosed();
+        long toSkip = Math.max(0, Math.min(n, fileLength - fileOffset));
+        fileOffset += toSkip;
+        return toSkip;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    public long length() throws IOException
+    {
+        return fileLength;
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * The mapped segments are released by the garbage collector as soon as they
+     * are no longer referenced.
+     */
+    @Override
+    public void close() throws IOException
+    {
+        segments = null;
+        raFile.close();
+    }
+}
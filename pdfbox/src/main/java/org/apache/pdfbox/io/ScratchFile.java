@@ -0,0 +1,497 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.pdfbox.io;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * A scratch file which reuses the space of released data. The data is appended like it is
+ * to a {@link RandomAccessBuffer} or a {@link RandomAccessFile}, the positions of the data
+ * don't change. Internally the data is stored in pages, which are kept in memory up to a
+ * given size and in a temporary file beyond that. Once all data of a page has been released,
+ * see {@link #release(long, long)}, the page is used again for new data.
+ *
+ * The position of new data grows with every write, like the length of a file, but the
+ * storage only grows with the size of the data which hasn't been released.
+ *
+ * @version $Revision$
+ */
+public class ScratchFile implements RandomAccess, Closeable
+{
+    private static final int PAGE_SIZE = 4096;
+    // the number of pages of each block of the page table
+    private static final int BLOCK_SIZE = 1024;
+    private static final int UNMAPPED = -1;
+
+    private final File scratchDir;
+    private final int maxMemoryPages;
+    private final long maxPages;
+
+    // the blocks of the page table, a block is null if none of its pages is mapped
+    private final List<PageBlock> pageTable = new ArrayList<PageBlock>();
+
+    private final List<byte[]> memoryPages = new ArrayList<byte[]>();
+    private int[] freeMemoryPages = new int[16];
+    private int freeMemoryPageCount;
+
+    private File diskFile;
+    private java.io.RandomAccessFile disk;
+    private int diskPageCount;
+    private int[] freeDiskPages = new int[16];
+    private int freeDiskPageCount;
+
+    private long length;
+    private long pointer;
+    private long liveBytes;
+    private boolean closed;
+
+    /**
+     * Creates a scratch file which keeps all data in memory.
+     */
+    public ScratchFile()
+    {
+        this(null, -1, -1);
+    }
+
+    /**
+     * Creates a scratch file which keeps the given amount of data in memory and the rest in a
+     * temporary file.
+     *
+     * @param scratchDir the directory of the temporary file, or null to use the default
+     * temporary directory
+     * @param maxMainMemory the maximum number of bytes kept in memory, 0 to keep all data in
+     * the temporary file or -1 to keep all data in memory
+     */
+    public ScratchFile(File scratchDir, long maxMainMemory)
+    {
+        this(scratchDir, maxMainMemory, -1);
+    }
+
+    /**
+     * Creates a scratch file which keeps the given amount of data in memory and the rest in a
+     * temporary file, up to the given size.
+     *
+     * @param scratchDir the directory of the temporary file, or null to use the default
+     * temporary directory
+     * @param maxMainMemory the maximum number of bytes kept in memory, 0 to keep all data in
+     * the temporary file or -1 to keep all data in memory
+     * @param maxStorage the maximum number of bytes stored in memory and in the temporary
+     * file, or -1 if the size isn't limited. A write fails if it needs more space.
+     */
+    public ScratchFile(File scratchDir, long maxMainMemory, long maxStorage)
+    {
+        this.scratchDir = scratchDir;
+        if (maxMainMemory < 0)
+        {
+            maxMemoryPages = Integer.MAX_VALUE;
+        }
+        else
+        {
+            maxMemoryPages = (int) Math.min(maxMainMemory / PAGE_SIZE, Integer.MAX_VALUE);
+        }
+        maxPages = maxStorage < 0 ? Long.MAX_VALUE : maxStorage / PAGE_SIZE;
+    }
+
+    /**
+     * Releases the data in the given range, its space is used again for new data once all
+     * data of a page has been released. The data of the range must not be read anymore, and
+     * each range must only be released once.
+     *
+     * @param position the position of the data
+     * @param size the number of bytes to release
+     * @throws IOException if the scratch file is closed
+     */
+    public synchronized void release(long position, long size) throws IOException
+    {
+        checkClosed();
+        long end = Math.min(position + size, length);
+        long current = Math.max(position, 0);
+        while (current < end)
+        {
+            long page = current / PAGE_SIZE;
+            int count = (int) Math.min(end - current, PAGE_SIZE - current % PAGE_SIZE);
+            PageBlock block = getBlock(page);
+            int index = (int) (page % BLOCK_SIZE);
+            if (block != null && block.physical[index] != UNMAPPED)
+            {
+                count = Math.min(count, block.live[index]);
+                block.live[index] -= count;
+                liveBytes -= count;
+                if (block.live[index] == 0)
+                {
+                    freePage(block.physical[index]);
+                    block.physical[index] = UNMAPPED;
+                    if (--block.mappedCount == 0)
+                    {
+                        pageTable.set((int) (page / BLOCK_SIZE), null);
+                    }
+                }
+            }
+            current = (page + 1) * PAGE_SIZE;
+        }
+    }
+
+    /**
+     * Returns the number of bytes which have been written and not released.
+     *
+     * @return the number of live bytes
+     */
+    public synchronized long getLiveBytes()
+    {
+        return liveBytes;
+    }
+
+    /**
+     * Returns the number of bytes of storage which don't hold live data, i.e. the free pages
+     * and the released parts of pages which still hold other data.
+     *
+     * @return the number of dead bytes
+     */
+    public synchronized long getDeadBytes()
+    {
+        return getMemoryBytes() + getDiskBytes() - liveBytes;
+    }
+
+    /**
+     * Returns the number of bytes of storage in memory, including the free pages.
+     *
+     * @return the size of the data in memory
+     */
+    public synchronized long getMemoryBytes()
+    {
+        return (long) memoryPages.size() * PAGE_SIZE;
+    }
+
+    /**
+     * Returns the number of bytes of storage in the temporary file, including the free pages.
+     *
+     * @return the size of the temporary file
+     */
+    public synchronized long getDiskBytes()
+    {
+        return (long) diskPageCount * PAGE_SIZE;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public synchronized void close() throws IOException
+    {
+        if (closed)
+        {
+            return;
+        }
+        closed = true;
+        pageTable.clear();
+        memoryPages.clear();
+        freeMemoryPageCount = 0;
+        freeDiskPageCount = 0;
+        diskPageCount = 0;
+        length = 0;
+        pointer = 0;
+        liveBytes = 0;
+        if (disk != null)
+        {
+            try
+            {
+                disk.close();
+            }
+            finally
+            {
+                disk = null;
+                if (!diskFile.delete())
+                {
+                    diskFile.deleteOnExit();
+                }
+            }
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public synchronized void seek(long position) throws IOException
+    {
+        checkClosed();
+        if (position < 0)
+        {
+            throw new IOException("Invalid position " + position);
+        }
+        pointer = position;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public synchronized long getPosition() throws IOException
+    {
+        checkClosed();
+        return pointer;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public synchronized long length() throws IOException
+    {
+        checkClosed();
+        return length;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public synchronized int read() throws IOException
+    {
+        checkClosed();
+        if (pointer >= length)
+        {
+            return -1;
+        }
+        int physical = getPhysicalPage(pointer / PAGE_SIZE);
+        int pageOffset = (int) (pointer % PAGE_SIZE);
+        int b = 0;
+        if (physical >= 0)
+        {
+            b = memoryPages.get(physical)[pageOffset] & 0xff;
+        }
+        else if (physical != UNMAPPED)
+        {
+            disk.seek(toDiskPage(physical) * (long) PAGE_SIZE + pageOffset);
+            b = disk.read();
+        }
+        pointer++;
+        return b;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public synchronized int read(byte[] b, int offset, int len) throws IOException
+    {
+        checkClosed();
+        if (pointer >= length)
+        {
+            return -1;
+        }
+        int count = (int) Math.min(len, length - pointer);
+        int done = 0;
+        while (done < count)
+        {
+            long page = pointer / PAGE_SIZE;
+            int pageOffset = (int) (pointer % PAGE_SIZE);
+            int chunk = Math.min(count - done, PAGE_SIZE - pageOffset);
+            int physical = getPhysicalPage(page);
+            if (physical == UNMAPPED)
+            {
+                // released data
+                Arrays.fill(b, offset + done, offset + done + chunk, (byte) 0);
+            }
+            else if (physical >= 0)
+            {
+                System.arraycopy(memoryPages.get(physical), pageOffset, b, offset + done, chunk);
+            }
+            else
+            {
+                disk.seek(toDiskPage(physical) * (long) PAGE_SIZE + pageOffset);
+                disk.readFully(b, offset + done, chunk);
+            }
+            done += chunk;
+            pointer += chunk;
+        }
+        return count;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public synchronized void write(int b) throws IOException
+    {
+        write(new byte[] { (byte) b }, 0, 1);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public synchronized void write(byte[] b, int offset, int len) throws IOException
+    {
+        checkClosed();
+        int done = 0;
+        while (done < len)
+        {
+            long page = pointer / PAGE_SIZE;
+            int pageOffset = (int) (pointer % PAGE_SIZE);
+            int chunk = Math.min(len - done, PAGE_SIZE - pageOffset);
+            PageBlock block = getOrCreateBlock(page);
+            int index = (int) (page % BLOCK_SIZE);
+            if (block.physical[index] == UNMAPPED)
+            {
+                block.physical[index] = allocatePage();
+                block.mappedCount++;
+            }
+            int physical = block.physical[index];
+            if (physical >= 0)
+            {
+                System.arraycopy(b, offset + done, memoryPages.get(physical), pageOffset, chunk);
+            }
+            else
+            {
+                disk.seek(toDiskPage(physical) * (long) PAGE_SIZE + pageOffset);
+                disk.write(b, offset + done, chunk);
+            }
+            // only appended bytes are new data, overwritten bytes are counted already
+            long end = pointer + chunk;
+            if (end > length)
+            {
+                int appended = (int) (end - Math.max(pointer, length));
+                block.live[index] += appended;
+                liveBytes += appended;
+                length = end;
+            }
+            done += chunk;
+            pointer = end;
+        }
+    }
+
+    private PageBlock getBlock(long page)
+    {
+        int blockIndex = (int) (page / BLOCK_SIZE);
+        return blockIndex < pageTable.size() ? pageTable.get(blockIndex) : null;
+    }
+
+    private PageBlock getOrCreateBlock(long page)
+    {
+        int blockIndex = (int) (page / BLOCK_SIZE);
+        while (pageTable.size() <= blockIndex)
+        {
+            pageTable.add(null);
+        }
+        PageBlock block = pageTable.get(blockIndex);
+        if (block == null)
+        {
+            block = new PageBlock();
+            pageTable.set(blockIndex, block);
+        }
+        return block;
+    }
+
+    private int getPhysicalPage(long page)
+    {
+        PageBlock block = getBlock(page);
+        return block == null ? UNMAPPED : block.physical[(int) (page % BLOCK_SIZE)];
+    }
+
+    /**
+     * Allocates a page, free pages are used first, then new pages in memory and then new
+     * pages in the temporary file. Memory pages are numbered from 0, the pages of the
+     * temporary file are negative numbers below {@link #UNMAPPED}.
+     */
+    private int allocatePage() throws IOException
+    {
+        if (freeMemoryPageCount > 0)
+        {
+            return freeMemoryPages[--freeMemoryPageCount];
+        }
+        if (freeDiskPageCount > 0)
+        {
+            return toPhysicalPage(freeDiskPages[--freeDiskPageCount]);
+        }
+        if ((long) memoryPages.size() + diskPageCount >= maxPages)
+        {
+            throw new IOException("Maximum size of the scratch file exceeded, "
+                    + maxPages * PAGE_SIZE + " bytes");
+        }
+        if (memoryPages.size() < maxMemoryPages)
+        {
+            memoryPages.add(new byte[PAGE_SIZE]);
+            return memoryPages.size() - 1;
+        }
+        if (disk == null)
+        {
+            diskFile = File.createTempFile("pdfbox-", ".tmp", scratchDir);
+            disk = new java.io.RandomAccessFile(diskFile, "rw");
+        }
+        return toPhysicalPage(diskPageCount++);
+    }
+
+    private void freePage(int physical)
+    {
+        if (physical >= 0)
+        {
+            if (freeMemoryPageCount == freeMemoryPages.length)
+            {
+                freeMemoryPages = Arrays.copyOf(freeMemoryPages, freeMemoryPages.length * 2);
+            }
+            freeMemoryPages[freeMemoryPageCount++] = physical;
+        }
+        else
+        {
+            if (freeDiskPageCount == freeDiskPages.length)
+            {
+                freeDiskPages = Arrays.copyOf(freeDiskPages, freeDiskPages.length * 2);
+            }
+            freeDiskPages[freeDiskPageCount++] = toDiskPage(physical);
+        }
+    }
+
+    private static int toPhysicalPage(int diskPage)
+    {
+        return UNMAPPED - 1 - diskPage;
+    }
+
+    private static int toDiskPage(int physical)
+    {
+        return UNMAPPED - 1 - physical;
+    }
+
+    private void checkClosed() throws IOException
+    {
+        if (closed)
+        {
+            throw new IOException("Scratch file already closed");
+        }
+    }
+
+    /**
+     * A block of the page table, which maps the pages of the data to the pages of the
+     * storage and counts the live bytes of each page.
+     */
+    private static final class PageBlock
+    {
+        private final int[] physical = new int[BLOCK_SIZE];
+        private final int[] live = new int[BLOCK_SIZE];
+        private int mappedCount;
+
+        private PageBlock()
+        {
+            Arrays.fill(physical, UNMAPPED);
+        }
+    }
+}
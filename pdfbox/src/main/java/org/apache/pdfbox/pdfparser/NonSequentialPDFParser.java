@@ -55,6 +55,8 @@ import org.apache.pdfbox.io.PushBackInputStream;
 import org.apache.pdfbox.io.RandomAccess;
 import org.apache.pdfbox.io.RandomAccessBuffer;
 import org.apache.pdfbox.io.RandomAccessBufferedFileInputStream;
+import org.apache.pdfbox.io.RandomAccessMappedFileInputStream;
+import org.apache.pdfbox.io.RandomAccessRead;
 import org.apache.pdfbox.pdfparser.XrefTrailerResolver.XRefType;
 import org.apache.pdfbox.pdmodel.PDPage;
 import org.apache.pdfbox.pdmodel.encryption.AccessPermission;
@@ -90,6 +92,8 @@ public class NonSequentialPDFParser extends PDFParser
 
     public static final String SYSPROP_PARSEMINIMAL = "org.apache.pdfbox.pdfparser.nonSequentialPDFParser.parseMinimal";
     public static final String SYSPROP_EOFLOOKUPRANGE = "org.apache.pdfbox.pdfparser.nonSequentialPDFParser.eofLookupRange";
+    public static final String SYSPROP_MEMORYMAPPED = "org.apache.pdfbox.pdfparser.nonSequentialPDFParser.memoryMapped";
+    public static final String SYSPROP_LAZYSTREAMS = "org.apache.pdfbox.pdfparser.nonSequentialPDFParser.lazyStreams";
 
     private static final InputStream EMPTY_INPUT_STREAM = new ByteArrayInputStream(new byte[0]);
 
@@ -109,7 +113,14 @@ public class NonSequentialPDFParser extends PDFParser
 
     private final File pdfFile;
     private long fileLen;
-    private final RandomAccessBufferedFileInputStream raStream;
+    private final InputStream raStream;
+    private final boolean useMemoryMapping;
+
+    /**
+     * If <code>true</code> the stream data isn't copied to the scratch file but read
+     * from the pdf file on demand.
+     */
+    private boolean lazyStreams = "true".equals(System.getProperty(SYSPROP_LAZYSTREAMS));
 
     /**
      * is parser using auto healing capacity ?
@@ -207,13 +218,44 @@ public class NonSequentialPDFParser extends PDFParser
      * @throws IOException If something went wrong.
      */
     public NonSequentialPDFParser(File file, RandomAccess raBuf, String decryptionPassword) throws IOException
+    {
+        this(file, raBuf, decryptionPassword, "true".equals(System.getProperty(SYSPROP_MEMORYMAPPED)));
+    }
+
+    /**
+     * Constructs parser for given file using given buffer for temporary
+     * storage.
+     * 
+     * @param file the pdf to be parsed
+     * @param raBuf the buffer to be used for parsing
+     * @param decryptionPassword password to be used for decryption
+     * @param useMemoryMapping if <code>true</code> the file is memory mapped instead
+     * of being read through a heap based page cache
+     * 
+     * @throws IOException If something went wrong.
+     */
+    public NonSequentialPDFParser(File file, RandomAccess raBuf, String decryptionPassword,
+            boolean useMemoryMapping) throws IOException
     {
         super(EMPTY_INPUT_STREAM, null, false);
         pdfFile = file;
-        raStream = new RandomAccessBufferedFileInputStream(pdfFile);
+        this.useMemoryMapping = useMemoryMapping;
+        raStream = createSourceStream(pdfFile, useMemoryMapping);
         init(file, raBuf, decryptionPassword);
     }
 
+    /**
+     * Creates the random access stream used to read the given pdf file.
+     */
+    private static InputStream createSourceStream(File file, boolean useMemoryMapping) throws IOException
+    {
+        if (useMemoryMapping)
+        {
+            return new RandomAccessMappedFileInputStream(file);
+        }
+        return new RandomAccessBufferedFileInputStream(file);
+    }
+
     private void init(File file, RandomAccess raBuf, String decryptionPassword) throws IOException
     {
         String eofLookupRangeStr = System.getProperty(SYSPROP_EOFLOOKUPRANGE);
@@ -257,10 +299,27 @@ public class NonSequentialPDFParser extends PDFParser
      * @throws IOException If something went wrong.
      */
     public NonSequentialPDFParser(InputStream input, RandomAccess raBuf, String decryptionPassword) throws IOException
+    {
+        this(input, raBuf, decryptionPassword, "true".equals(System.getProperty(SYSPROP_MEMORYMAPPED)));
+    }
+
+    /**
+     * Constructor.
+     * 
+     * @param input input stream representing the pdf.
+     * @param raBuf the buffer to be used for parsing
+     * @param decryptionPassword password to be used for decryption.
+     * @param useMemoryMapping if <code>true</code> the temporary copy of the pdf is
+     * memory mapped instead of being read through a heap based page cache
+     * @throws IOException If something went wrong.
+     */
+    public NonSequentialPDFParser(InputStream input, RandomAccess raBuf, String decryptionPassword,
+            boolean useMemoryMapping) throws IOException
     {
         super(EMPTY_INPUT_STREAM, null, false);
         pdfFile = createTmpFile(input);
-        raStream = new RandomAccessBufferedFileInputStream(pdfFile);
+        this.useMemoryMapping = useMemoryMapping;
+        raStream = createSourceStream(pdfFile, useMemoryMapping);
         init(pdfFile, raBuf, decryptionPassword);
     }
 
@@ -317,6 +376,29 @@ public class NonSequentialPDFParser extends PDFParser
         }
     }
 
+    // ------------------------------------------------------------------------
+    /**
+     * Sets whether the data of the parsed streams is read from the pdf file on
+     * demand instead of being copied to the scratch file. The pdf file is kept
+     * open until the document is closed and a stream is only copied when it is
+     * modified. This reduces I/O and scratch file usage for documents which are
+     * only read.
+     * 
+     * <p>This isn't supported if the parser was created with an
+     * {@link InputStream}, as the temporary copy of the pdf is deleted after
+     * parsing.</p>
+     * 
+     * <p>In case system property {@link #SYSPROP_LAZYSTREAMS} is set to
+     * <code>true</code> this value will be set on initialization but can be
+     * overwritten later.</p>
+     * 
+     * @param lazy <code>true</code> to read the stream data on demand
+     */
+    public void setLazyStreams(boolean lazy)
+    {
+        lazyStreams = lazy;
+    }
+
     // ------------------------------------------------------------------------
     /**
      * The initial parse will first parse only the trailer, the xrefstart and
@@ -1508,8 +1590,16 @@ public class NonSequentialPDFParser extends PDFParser
             }
 
             boolean useReadUntilEnd = false;
+            boolean isValidStreamLength = validateStreamLength(streamLengthObj.longValue());
+            if (isValidStreamLength && lazyStreams && !isTmpPDFFile)
+            {
+                // ---- remember the location of the data instead of copying it
+                long streamOffset = pdfSource.getOffset();
+                stream.setFilteredSource(getStreamSource(), streamOffset, streamLengthObj.longValue());
+                pdfSource.seek(streamOffset + streamLengthObj.longValue());
+            }
             // ---- get output stream to copy data to
-            if (validateStreamLength(streamLengthObj.longValue()))
+            else if (isValidStreamLength)
             {
                 out = stream.createFilteredStream(streamLengthObj);
 	            long remainBytes = streamLengthObj.longValue();
@@ -1556,6 +1646,28 @@ public class NonSequentialPDFParser extends PDFParser
         return stream;
     }
 
+    /**
+     * Returns the source the stream data is read from on demand. It is opened on
+     * first use and closed together with the document.
+     */
+    private RandomAccessRead getStreamSource() throws IOException
+    {
+        RandomAccessRead source = document.getStreamSource();
+        if (source == null)
+        {
+            if (useMemoryMapping)
+            {
+                source = new RandomAccessMappedFileInputStream(pdfFile);
+            }
+            else
+            {
+                source = new RandomAccessBufferedFileInputStream(pdfFile);
+            }
+            document.setStreamSource(source);
+        }
+        return source;
+    }
+
     private boolean validateStreamLength(long streamLength) throws IOException
     {
     	boolean streamLengthIsValid = true;
@@ -35,6 +35,7 @@ import org.apache.pdfbox.cos.COSObject;
 import org.apache.pdfbox.cos.COSStream;
 import org.apache.pdfbox.io.RandomAccess;
 import org.apache.pdfbox.pdmodel.common.PDStream;
+import org.apache.pdfbox.util.operator.OperandStack;
 import org.apache.pdfbox.util.operator.PDFOperator;
 
 /**
@@ -50,6 +51,12 @@ public class PDFStreamParser extends BaseParser
     private final int    maxBinCharTestLength = 5;
     private final byte[] binCharTestArr = new byte[maxBinCharTestLength];
 
+    // numbers with up to 15 digits and their powers of ten are represented exactly by a double
+    private static final int MAX_EXACT_DIGITS = 15;
+    private static final double[] POWERS_OF_TEN = { 1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7,
+            1e8, 1e9, 1e10, 1e11, 1e12, 1e13, 1e14, 1e15 };
+    private final StringBuilder numberBuffer = new StringBuilder();
+
     /**
      * Constructor that takes a stream to parse.
      *
@@ -219,6 +226,138 @@ public class PDFStreamParser extends BaseParser
         };
     }
 
+    /**
+     * This will parse the operands of the next operator into the given list and return that operator.
+     * Nothing is retained by the parser, so a caller consuming a stream operator by operator only
+     * holds the current operator and its operands in memory.
+     *
+     * @param arguments the list receiving the operands, it is cleared before parsing
+     * @return the next operator in the stream or null if there are no more operators in the stream
+     *
+     * @throws IOException If an io error occurs while parsing the stream.
+     */
+    public PDFOperator parseNextOperator(List<COSBase> arguments) throws IOException
+    {
+        arguments.clear();
+        Object token = null;
+        while( (token = parseNextToken()) != null )
+        {
+            if( token instanceof PDFOperator )
+            {
+                return (PDFOperator)token;
+            }
+            addOperand( arguments, token );
+        }
+        // operands without a following operator are dropped
+        arguments.clear();
+        return null;
+    }
+
+    /**
+     * This will parse the operands of the next operator onto the given stack and return that operator.
+     * Numeric operands are pushed as primitive values, no COSNumber is created for them.
+     *
+     * @param operands the stack receiving the operands, it is cleared before parsing
+     * @return the next operator in the stream or null if there are no more operators in the stream
+     *
+     * @throws IOException If an io error occurs while parsing the stream.
+     */
+    public PDFOperator parseNextOperator(OperandStack operands) throws IOException
+    {
+        operands.clear();
+        while( true )
+        {
+            skipSpaces();
+            int c = pdfSource.peek();
+            if( (c >= '0' && c <= '9') || c == '-' || c == '+' || c == '.' )
+            {
+                parseNumber( operands );
+                continue;
+            }
+            Object token = parseNextToken();
+            if( token == null )
+            {
+                break;
+            }
+            if( token instanceof PDFOperator )
+            {
+                return (PDFOperator)token;
+            }
+            addOperand( operands, token );
+        }
+        // operands without a following operator are dropped
+        operands.clear();
+        return null;
+    }
+
+    private void addOperand( List<COSBase> operands, Object token )
+    {
+        if( token instanceof COSObject )
+        {
+            operands.add( ((COSObject)token).getObject() );
+        }
+        else
+        {
+            operands.add( (COSBase)token );
+        }
+    }
+
+    /**
+     * This will parse a number and push its value onto the given stack. Numbers with more
+     * digits than a double holds exactly are handed over to COSNumber.
+     *
+     * @param operands the stack receiving the number
+     *
+     * @throws IOException If an io error occurs while parsing the stream.
+     */
+    private void parseNumber( OperandStack operands ) throws IOException
+    {
+        // same as in parseNextToken, only allow 1 "." and "-" and "+" at start of number
+        numberBuffer.setLength( 0 );
+        char c = (char)pdfSource.read();
+        numberBuffer.append( c );
+        boolean negative = c == '-';
+        boolean dotNotRead = c != '.';
+        long mantissa = 0;
+        int digits = 0;
+        int fractionDigits = 0;
+        if( c >= '0' && c <= '9' )
+        {
+            mantissa = c - '0';
+            digits++;
+        }
+        while( ((c = (char)pdfSource.peek()) >= '0' && c <= '9') || (dotNotRead && c == '.') )
+        {
+            pdfSource.read();
+            numberBuffer.append( c );
+            if( c == '.' )
+            {
+                dotNotRead = false;
+            }
+            else
+            {
+                mantissa = mantissa * 10 + (c - '0');
+                digits++;
+                if( !dotNotRead )
+                {
+                    fractionDigits++;
+                }
+            }
+        }
+        if( digits == 0 || digits > MAX_EXACT_DIGITS )
+        {
+            operands.push( COSNumber.get( numberBuffer.toString() ) );
+        }
+        else if( dotNotRead )
+        {
+            operands.pushInteger( negative ? -mantissa : mantissa );
+        }
+        else
+        {
+            operands.pushReal( (negative ? -mantissa : mantissa) / POWERS_OF_TEN[fractionDigits] );
+        }
+    }
+
     /**
      * This will parse the next token in the stream.
      *
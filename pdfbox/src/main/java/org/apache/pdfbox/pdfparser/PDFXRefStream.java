@@ -106,6 +106,12 @@ public class PDFXRefStream implements PDFXRef
         Set<COSName> keySet = stream.keySet();
         for ( COSName cosName : keySet )
         {
+            // the catalog, the info and the encryption dictionary remain indirect objects
+            if (COSName.ROOT.equals(cosName) || COSName.INFO.equals(cosName)
+                    || COSName.ENCRYPT.equals(cosName))
+            {
+                continue;
+            }
             COSBase dictionaryObject = stream.getDictionaryObject(cosName);
             dictionaryObject.setDirect(true);
         }
@@ -147,10 +153,17 @@ public class PDFXRefStream implements PDFXRef
             value.nextFree = entry.getKey().getNumber();
             streamData.put((int)value.nextFree, value);
         }
+        else if (entry.isCompressed())
+        {
+            // an object stored in an object stream
+            ObjectStreamReference value = new ObjectStreamReference();
+            value.objectNumberOfObjectStream = entry.getObjectStreamNumber();
+            value.offset = entry.getObjectStreamIndex();
+            streamData.put((int)entry.getKey().getNumber(), value);
+        }
         else
         {
-            // we don't care for ObjectStreamReferences for now and only handle
-            // normal references that would be f-Entrys in the xref table.
+            // normal references that would be n-Entrys in the xref table.
             NormalReference value = new NormalReference();
             value.genNumber = entry.getKey().getGeneration();
             value.offset = entry.getOffset();
@@ -186,8 +199,8 @@ public class PDFXRefStream implements PDFXRef
             {
                 ObjectStreamReference objStream = (ObjectStreamReference)entry;
                 wMax[0] = Math.max(wMax[0], ENTRY_OBJSTREAM); // the type field for a objstm reference
-                wMax[1] = Math.max(wMax[1], objStream.offset);
-                wMax[2] = Math.max(wMax[2], objStream.objectNumberOfObjectStream);
+                wMax[1] = Math.max(wMax[1], objStream.objectNumberOfObjectStream);
+                wMax[2] = Math.max(wMax[2], objStream.offset);
             }
             // TODO add here if new standard versions define new types
             else
@@ -292,8 +305,8 @@ public class PDFXRefStream implements PDFXRef
             {
                 ObjectStreamReference objStream = (ObjectStreamReference)entry;
                 writeNumber(os, ENTRY_OBJSTREAM, w[0]);
-                writeNumber(os, objStream.offset, w[1]);
-                writeNumber(os, objStream.objectNumberOfObjectStream, w[2]);
+                writeNumber(os, objStream.objectNumberOfObjectStream, w[1]);
+                writeNumber(os, objStream.offset, w[2]);
             }
             // TODO add here if new standard versions define new types
             else
@@ -312,6 +325,7 @@ public class PDFXRefStream implements PDFXRef
     class ObjectStreamReference
     {
         long objectNumberOfObjectStream;
+        // the index of the object within the object stream
         long offset;
     }
 
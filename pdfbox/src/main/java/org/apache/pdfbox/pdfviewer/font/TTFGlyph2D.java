@@ -21,8 +21,6 @@ package org.apache.pdfbox.pdfviewer.font;
 import java.awt.geom.AffineTransform;
 import java.awt.geom.GeneralPath;
 import java.io.IOException;
-import java.util.HashMap;
-import java.util.Map;
 
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
@@ -70,7 +68,6 @@ public class TTFGlyph2D implements Glyph2D
     private CMAPEncodingEntry cmapWinSymbol = null;
     private CMAPEncodingEntry cmapMacintoshSymbol = null;
     private boolean isSymbol = false;
-    private Map<Integer, GeneralPath> glyphs = new HashMap<Integer, GeneralPath>();
     private Encoding fontEncoding = null;
     private CMap fontCMap = null;
     private boolean isCIDFont = false;
@@ -193,7 +190,8 @@ public class TTFGlyph2D implements Glyph2D
     }
 
     /**
-     * Returns the path describing the glyph for the given glyphId.
+     * Returns the path describing the glyph for the given glyphId. The path is calculated for
+     * each call and isn't kept, callers such as the renderer cache the paths they need.
      *
      * @param glyphId the glyphId
      *
@@ -202,32 +200,31 @@ public class TTFGlyph2D implements Glyph2D
     public GeneralPath getPathForGlyphId(int glyphId)
     {
         GeneralPath glyphPath = null;
-        if (glyphs.containsKey(glyphId))
+        GlyphData glyph = null;
+        try
         {
-            glyphPath = glyphs.get(glyphId);
+            glyph = font.getGlyph().getGlyph(glyphId);
         }
-        else
+        catch (IOException exception)
         {
-            GlyphData[] glyphData = font.getGlyph().getGlyphs();
-            if (glyphId < glyphData.length && glyphData[glyphId] != null)
-            {
-                GlyphData glyph = glyphData[glyphId];
-                GlyphDescription gd = glyph.getDescription();
-                Point[] points = describe(gd);
-                glyphPath = calculatePath(points);
-                if (hasScaling)
-                {
-                    AffineTransform atScale = AffineTransform.getScaleInstance(scale, scale);
-                    glyphPath.transform(atScale);
-                }
-                glyphs.put(glyphId, glyphPath);
-            }
-            else
+            LOG.error("Caught an exception reading glyph " + glyphId + ": " + exception);
+        }
+        if (glyph != null)
+        {
+            GlyphDescription gd = glyph.getDescription();
+            Point[] points = describe(gd);
+            glyphPath = calculatePath(points);
+            if (hasScaling)
             {
-                LOG.debug(name + ": Glyph not found:" + glyphId);
+                AffineTransform atScale = AffineTransform.getScaleInstance(scale, scale);
+                glyphPath.transform(atScale);
             }
         }
-        return glyphPath != null ? (GeneralPath) glyphPath.clone() : null;
+        else
+        {
+            LOG.debug(name + ": Glyph not found:" + glyphId);
+        }
+        return glyphPath;
     }
 
     /*
@@ -574,7 +571,7 @@ public class TTFGlyph2D implements Glyph2D
     @Override
     public int getNumberOfGlyphs()
     {
-        return font != null ? font.getGlyph().getGlyphs().length : 0;
+        return font != null ? font.getGlyph().getNumberOfGlyphs() : 0;
     }
 
     @Override
@@ -587,9 +584,5 @@ public class TTFGlyph2D implements Glyph2D
         descendantFont = null;
         fontCMap = null;
         fontEncoding = null;
-        if (glyphs != null)
-        {
-            glyphs.clear();
-        }
     }
 }
@@ -20,17 +20,24 @@ import java.awt.geom.GeneralPath;
 import java.io.IOException;
 import java.util.Collection;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
 import org.apache.fontbox.cff.CFFFont;
+import org.apache.fontbox.cff.Type1CharString;
+import org.apache.fontbox.cff.Type1CharStringParser;
 import org.apache.fontbox.type1.Type1Font;
 import org.apache.fontbox.type1.Type1Mapping;
 import org.apache.pdfbox.encoding.Encoding;
 
 /**
- * This class provides a glyph to GeneralPath conversion for Type 1 PFB and CFF fonts.
+ * This class provides a glyph to GeneralPath conversion for Type 1 PFB and CFF fonts. The paths
+ * are rendered for each call and aren't kept, callers such as the renderer cache the paths they
+ * need.
  */
 public class Type1Glyph2D implements Glyph2D
 {
@@ -39,9 +46,12 @@ public class Type1Glyph2D implements Glyph2D
      */
     private static final Log LOG = LogFactory.getLog(Type1Glyph2D.class);
 
-    private HashMap<String, GeneralPath> glyphs = new HashMap<String, GeneralPath>();
+    private Set<String> glyphNames = new HashSet<String>();
     private Map<Integer, String> codeToName = new HashMap<Integer, String>();
     private String fontName = null;
+    // the font rendering the glyphs, one of them is null
+    private CFFFont cffFont;
+    private Type1Font type1Font;
 
     /**
      * Constructs a new Type1Glyph2D object for a CFF/Type2 font.
@@ -51,7 +61,7 @@ public class Type1Glyph2D implements Glyph2D
      */
     public Type1Glyph2D(CFFFont font, Encoding encoding)
     {
-        this(font.getName(), font.getType1Mappings(), encoding);
+        this(font.getName(), font.getType1Mappings(), encoding, font, null);
     }
 
     /**
@@ -62,19 +72,26 @@ public class Type1Glyph2D implements Glyph2D
      */
     public Type1Glyph2D(Type1Font font, Encoding encoding)
     {
-        this(font.getFontName(), font.getType1Mappings(), encoding);
+        this(font.getFontName(), font.getType1Mappings(), encoding, null, font);
     }
 
     /**
      * Private constructor.
+     *
+     * @param cffFont the CFF font rendering the glyphs of the mappings, or null for a Type 1 font
+     * @param type1Font the Type 1 font rendering the glyphs of the mappings, or null for a CFF font
      */
-    private Type1Glyph2D(String fontName, Collection<? extends Type1Mapping> mappings, Encoding encoding)
+    private Type1Glyph2D(String fontName, Collection<? extends Type1Mapping> mappings, Encoding encoding,
+            CFFFont cffFont, Type1Font type1Font)
     {
         this.fontName = fontName;
+        this.cffFont = cffFont;
+        this.type1Font = type1Font;
         // start with built-in encoding
         for (Type1Mapping mapping : mappings)
         {
             codeToName.put(mapping.getCode(), mapping.getName());
+            glyphNames.add(mapping.getName());
         }
         // override existing entries with an optional PDF Encoding
         if (encoding != null) 
@@ -85,19 +102,6 @@ public class Type1Glyph2D implements Glyph2D
                 codeToName.put(key, encodingCodeToName.get(key));
             }
         }
-        for (Type1Mapping mapping : mappings)
-        {
-            GeneralPath path;
-            try
-            {
-                path = mapping.getType1CharString().getPath();
-                glyphs.put(mapping.getName(), path);
-            }
-            catch (IOException exception)
-            {
-                LOG.error("Type 1 glyph rendering failed", exception);
-            }
-        }
     }
 
     /**
@@ -108,7 +112,27 @@ public class Type1Glyph2D implements Glyph2D
      */
     public GeneralPath getPathForGlyphName(String name)
     {
-        return glyphs.get(name);
+        if (!glyphNames.contains(name))
+        {
+            return null;
+        }
+        try
+        {
+            if (cffFont != null)
+            {
+                return cffFont.getGlyphPath(name);
+            }
+            // a new CharString, as the cached one of the font keeps its path
+            Type1CharStringParser parser = new Type1CharStringParser(fontName, name);
+            List<Object> sequence = parser.parse(type1Font.getCharStringsDict().get(name),
+                    type1Font.getSubrsArray());
+            return new Type1CharString(type1Font, fontName, name, sequence).getPath();
+        }
+        catch (IOException exception)
+        {
+            LOG.error("Type 1 glyph rendering failed", exception);
+        }
+        return null;
     }
 
     /**
@@ -120,7 +144,7 @@ public class Type1Glyph2D implements Glyph2D
         if (codeToName.containsKey(code))
         {
             String name = codeToName.get(code);
-            return glyphs.get(name);
+            return getPathForGlyphName(name);
         }
         else
         {
@@ -135,9 +159,9 @@ public class Type1Glyph2D implements Glyph2D
     @Override
     public int getNumberOfGlyphs()
     {
-        if (glyphs != null)
+        if (glyphNames != null)
         {
-            return glyphs.size();
+            return glyphNames.size();
         }
         return 0;
     }
@@ -148,13 +172,15 @@ public class Type1Glyph2D implements Glyph2D
     @Override
     public void dispose()
     {
-        if (glyphs != null)
+        if (glyphNames != null)
         {
-            glyphs.clear();
+            glyphNames.clear();
         }
         if (codeToName != null)
         {
             codeToName.clear();
         }
+        cffFont = null;
+        type1Font = null;
     }
 }
@@ -24,6 +24,8 @@ import org.apache.pdfbox.util.StringUtil;
 
 /**
  * simple output stream with some minor features for generating "pretty" PDF files.
+ * A buffered stream writes to the underlying stream when its buffer is full and when it is
+ * flushed or closed. Numbers are encoded as ASCII digits right into the buffer.
  *
  * @author Michael Traut
  */
@@ -44,12 +46,23 @@ public class COSStandardOutputStream extends FilterOutputStream
      */
     public static final byte[] EOL = StringUtil.getBytes("\n");
 
+    private static final int BUFFER_SIZE = 8192;
+
+    // the decimal digits of a long need at most 19 bytes, plus one for the sign
+    private static final int MAX_NUMBER_LENGTH = 20;
+
     // current byte position in the output stream
     private long position = 0;
 
     // flag to prevent generating two newlines in sequence
     private boolean onNewLine = false;
-    
+
+    // the bytes which haven't been written to the underlying stream yet,
+    // an unbuffered stream only uses it to encode numbers
+    private final boolean buffered;
+    private final byte[] buffer;
+    private int count = 0;
+
     /**
      * COSOutputStream constructor comment.
      *
@@ -57,7 +70,7 @@ public class COSStandardOutputStream extends FilterOutputStream
      */
     public COSStandardOutputStream(OutputStream out)
     {
-        super(out);
+        this(out, 0, false);
     }
 
     /**
@@ -67,9 +80,24 @@ public class COSStandardOutputStream extends FilterOutputStream
      * @param position The current position of output stream.
      */
     public COSStandardOutputStream(OutputStream out, int position)
+    {
+        this(out, position, false);
+    }
+
+    /**
+     * COSOutputStream constructor comment.
+     *
+     * @param out The underlying stream to write to.
+     * @param position The current position of output stream.
+     * @param buffered true if the output shall be buffered, the stream has to be flushed or
+     * closed to write the buffered bytes to the underlying stream.
+     */
+    public COSStandardOutputStream(OutputStream out, long position, boolean buffered)
     {
         super(out);
         this.position = position;
+        this.buffered = buffered;
+        buffer = new byte[buffered ? BUFFER_SIZE : MAX_NUMBER_LENGTH];
     }
     
     /**
@@ -114,7 +142,18 @@ public class COSStandardOutputStream extends FilterOutputStream
     public void write(byte[] b, int off, int len) throws IOException
     {
         setOnNewLine(false);
-        out.write(b, off, len);
+        if (!buffered || len > buffer.length - count)
+        {
+            flushBuffer();
+            if (!buffered || len >= buffer.length)
+            {
+                out.write(b, off, len);
+                position += len;
+                return;
+            }
+        }
+        System.arraycopy(b, off, buffer, count, len);
+        count += len;
         position += len;
     }
 
@@ -129,9 +168,136 @@ public class COSStandardOutputStream extends FilterOutputStream
     public void write(int b) throws IOException
     {
         setOnNewLine(false);
-        out.write(b);
+        if (!buffered)
+        {
+            out.write(b);
+            position++;
+            return;
+        }
+        if (count == buffer.length)
+        {
+            flushBuffer();
+        }
+        buffer[count++] = (byte) b;
         position++;
     }
+
+    /**
+     * This will write the decimal representation of a number, as written by
+     * {@link String#valueOf(long)}.
+     *
+     * @param value The number to write.
+     *
+     * @throws IOException If there is an error writing to the underlying stream.
+     */
+    public void writeNumber(long value) throws IOException
+    {
+        if (value == Long.MIN_VALUE)
+        {
+            write(String.valueOf(value).getBytes("ISO-8859-1"));
+            return;
+        }
+        int length = 1;
+        for (long rest = Math.abs(value) / 10; rest != 0; rest /= 10)
+        {
+            length++;
+        }
+        if (value < 0)
+        {
+            length++;
+        }
+        writeDigits(Math.abs(value), length, value < 0);
+    }
+
+    /**
+     * This will write the decimal representation of a non-negative number, padded with leading
+     * zeros to the given number of digits, as needed for cross reference table entries.
+     *
+     * @param value The number to write.
+     * @param digits The minimum number of digits.
+     *
+     * @throws IOException If there is an error writing to the underlying stream.
+     */
+    public void writeNumber(long value, int digits) throws IOException
+    {
+        if (value < 0)
+        {
+            throw new IllegalArgumentException("Negative number can't be padded: " + value);
+        }
+        int length = 1;
+        for (long rest = value / 10; rest != 0; rest /= 10)
+        {
+            length++;
+        }
+        writeDigits(value, Math.max(length, Math.min(digits, MAX_NUMBER_LENGTH)), false);
+    }
+
+    private void writeDigits(long value, int length, boolean negative) throws IOException
+    {
+        setOnNewLine(false);
+        if (buffer.length - count < MAX_NUMBER_LENGTH)
+        {
+            flushBuffer();
+        }
+        int end = count + length;
+        int index = end;
+        long rest = value;
+        do
+        {
+            buffer[--index] = (byte) ('0' + rest % 10);
+            rest /= 10;
+        }
+        while (index > count);
+        if (negative)
+        {
+            buffer[count] = '-';
+        }
+        count = end;
+        position += length;
+        if (!buffered)
+        {
+            flushBuffer();
+        }
+    }
+
+    /**
+     * This will write the buffered bytes and flush the underlying stream.
+     *
+     * @throws IOException If there is an error writing to the underlying stream.
+     */
+    @Override
+    public void flush() throws IOException
+    {
+        flushBuffer();
+        out.flush();
+    }
+
+    /**
+     * This will write the buffered bytes and close the underlying stream.
+     *
+     * @throws IOException If there is an error writing to or closing the underlying stream.
+     */
+    @Override
+    public void close() throws IOException
+    {
+        try
+        {
+            flushBuffer();
+        }
+        finally
+        {
+            out.close();
+        }
+    }
+
+    private void flushBuffer() throws IOException
+    {
+        if (count > 0)
+        {
+            out.write(buffer, 0, count);
+            count = 0;
+        }
+    }
     
     /**
      * This will write a CRLF to the stream.
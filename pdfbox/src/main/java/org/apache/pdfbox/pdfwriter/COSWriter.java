@@ -25,16 +25,14 @@ import java.io.OutputStream;
 import java.io.SequenceInputStream;
 import java.security.MessageDigest;
 import java.security.NoSuchAlgorithmException;
-import java.text.DecimalFormat;
-import java.text.NumberFormat;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
 import java.util.Collections;
-import java.util.HashSet;
-import java.util.Hashtable;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
 import java.util.Iterator;
-import java.util.LinkedList;
 import java.util.List;
-import java.util.Locale;
 import java.util.Map;
 import java.util.Set;
 
@@ -53,6 +51,7 @@ import org.apache.pdfbox.cos.COSStream;
 import org.apache.pdfbox.cos.COSString;
 import org.apache.pdfbox.cos.ICOSVisitor;
 import org.apache.pdfbox.io.IOUtils;
+import org.apache.pdfbox.io.RandomAccessBuffer;
 import org.apache.pdfbox.pdfparser.PDFXRefStream;
 import org.apache.pdfbox.pdmodel.PDDocument;
 import org.apache.pdfbox.pdmodel.encryption.SecurityHandler;
@@ -153,12 +152,12 @@ public class COSWriter implements ICOSVisitor, Closeable
      */
     public static final byte[] ENDSTREAM = StringUtil.getBytes("endstream");
 
-    private NumberFormat formatXrefOffset = new DecimalFormat("0000000000");
+    // the maximum number of objects stored in one object stream
+    private static final int OBJECTS_PER_STREAM = 100;
 
-    // the decimal format for the xref object generation number data
-    private NumberFormat formatXrefGeneration = new DecimalFormat("00000");
-
-    private NumberFormat formatDecimal = NumberFormat.getNumberInstance( Locale.US );
+    // the number of digits of the offset and the generation number of a xref entry
+    private static final int XREF_OFFSET_DIGITS = 10;
+    private static final int XREF_GENERATION_DIGITS = 5;
 
     // the stream where we create the pdf output
     private OutputStream output;
@@ -173,21 +172,21 @@ public class COSWriter implements ICOSVisitor, Closeable
     private long number = 0;
 
     // maps the object to the keys generated in the writer
-    // these are used for indirect references in other objects
-    //A hashtable is used on purpose over a hashmap
-    //so that null entries will not get added.
-    private Map<COSBase,COSObjectKey> objectKeys = new Hashtable<COSBase,COSObjectKey>();
-    private Map<COSObjectKey,COSBase> keyObject = new Hashtable<COSObjectKey,COSBase>();
+    // these are used for indirect references in other objects.
+    // The objects are identified by identity, equal strings or numbers
+    // which are different indirect objects keep their own keys.
+    private Map<COSBase,COSObjectKey> objectKeys = new IdentityHashMap<COSBase,COSObjectKey>();
+    private Map<COSObjectKey,COSBase> keyObject = new HashMap<COSObjectKey,COSBase>();
 
     // the list of x ref entries to be made so far
     private List<COSWriterXRefEntry> xRefEntries = new ArrayList<COSWriterXRefEntry>();
-    private HashSet<COSBase> objectsToWriteSet = new HashSet<COSBase>();
+    private Set<COSBase> objectsToWriteSet = newIdentitySet();
 
     //A list of objects to write.
-    private LinkedList<COSBase> objectsToWrite = new LinkedList<COSBase>();
+    private Deque<COSBase> objectsToWrite = new ArrayDeque<COSBase>();
 
     //a list of objects already written
-    private Set<COSBase> writtenObjects = new HashSet<COSBase>();
+    private Set<COSBase> writtenObjects = newIdentitySet();
 
     //An 'actual' is any COSBase that is not a COSObject.
     //need to keep a list of the actuals that are added
@@ -195,7 +194,7 @@ public class COSWriter implements ICOSVisitor, Closeable
     //when adding a COSObject and then later adding
     //the actual for that object, so we will track
     //actuals separately.
-    private Set<COSBase> actualsAdded = new HashSet<COSBase>();
+    private Set<COSBase> actualsAdded = newIdentitySet();
 
     private COSObjectKey currentObjectKey = null;
     private PDDocument document = null;
@@ -209,6 +208,15 @@ public class COSWriter implements ICOSVisitor, Closeable
     private InputStream incrementalInput;
     private OutputStream incrementalOutput;
 
+    // compression
+    private boolean compress = false;
+    private boolean useObjectStreams = false;
+    // the object stream being filled
+    private List<COSWriterXRefEntry> objectStreamEntries = new ArrayList<COSWriterXRefEntry>();
+    private StringBuilder objectStreamOffsets;
+    private ByteArrayOutputStream objectStreamData;
+    private COSStandardOutputStream objectStreamOutput;
+
     /**
      * COSWriter constructor comment.
      *
@@ -219,8 +227,6 @@ public class COSWriter implements ICOSVisitor, Closeable
         super();
         setOutput(os);
         setStandardOutput(new COSStandardOutputStream(output));
-        formatDecimal.setMaximumFractionDigits( 10 );
-        formatDecimal.setGroupingUsed( false );
     }
     
     /**
@@ -240,9 +246,11 @@ public class COSWriter implements ICOSVisitor, Closeable
         incrementalInput = input;
         incrementalOutput = output;
         incrementalUpdate = true;
+    }
 
-        formatDecimal.setMaximumFractionDigits( 10 );
-        formatDecimal.setGroupingUsed( false );
+    private static Set<COSBase> newIdentitySet()
+    {
+        return Collections.newSetFromMap(new IdentityHashMap<COSBase,Boolean>());
     }
 
     private void prepareIncrement(PDDocument doc)
@@ -282,6 +290,29 @@ public class COSWriter implements ICOSVisitor, Closeable
       }
     }
     
+    /**
+     * Sets whether the document shall be written compressed. Objects which aren't streams are
+     * then stored in compressed object streams, and a compressed cross-reference stream is
+     * written instead of a cross-reference table. The version of the document is raised to 1.5
+     * if necessary. Incremental updates and encrypted documents are written uncompressed.
+     *
+     * @param compress true if the document shall be written compressed
+     */
+    public void setCompress(boolean compress)
+    {
+        this.compress = compress;
+    }
+
+    /**
+     * Tells whether the document is written compressed.
+     *
+     * @return true if the document is written compressed
+     */
+    public boolean isCompress()
+    {
+        return compress;
+    }
+
     /**
      * add an entry in the x ref table for later dump.
      *
@@ -434,7 +465,7 @@ public class COSWriter implements ICOSVisitor, Closeable
               addObjectToWrite( info );
           }
 
-        while( objectsToWrite.size() > 0 )
+        while( !objectsToWrite.isEmpty() )
         {
             COSBase nextObject = objectsToWrite.removeFirst();
             objectsToWriteSet.remove(nextObject);
@@ -449,12 +480,17 @@ public class COSWriter implements ICOSVisitor, Closeable
             addObjectToWrite( encrypt );
         }
 
-        while( objectsToWrite.size() > 0 )
+        while( !objectsToWrite.isEmpty() )
         {
             COSBase nextObject = objectsToWrite.removeFirst();
             objectsToWriteSet.remove(nextObject);
             doWriteObject( nextObject );
         }
+
+        if (useObjectStreams)
+        {
+            doWriteObjectStream();
+        }
     }
 
     private void addObjectToWrite( COSBase object )
@@ -517,12 +553,17 @@ public class COSWriter implements ICOSVisitor, Closeable
 
         // find the physical reference
         currentObjectKey = getObjectKey( obj );
+        if (useObjectStreams && isCompressible(obj))
+        {
+            doWriteCompressedObject(obj);
+            return;
+        }
         // add a x ref entry
         addXRefEntry( new COSWriterXRefEntry(getStandardOutput().getPos(), obj, currentObjectKey));
         // write the object
-        getStandardOutput().write(String.valueOf(currentObjectKey.getNumber()).getBytes("ISO-8859-1"));
+        getStandardOutput().writeNumber(currentObjectKey.getNumber());
         getStandardOutput().write(SPACE);
-        getStandardOutput().write(String.valueOf(currentObjectKey.getGeneration()).getBytes("ISO-8859-1"));
+        getStandardOutput().writeNumber(currentObjectKey.getGeneration());
         getStandardOutput().write(SPACE);
         getStandardOutput().write(OBJ);
         getStandardOutput().writeEOL();
@@ -532,6 +573,106 @@ public class COSWriter implements ICOSVisitor, Closeable
         getStandardOutput().writeEOL();
     }
 
+    /**
+     * Tells whether the object may be stored in an object stream. Streams and objects with a
+     * generation number other than 0 may not, signatures are kept out of object streams so that
+     * the signed byte ranges can be computed.
+     */
+    private boolean isCompressible(COSBase obj)
+    {
+        COSBase actual = obj;
+        if (actual instanceof COSObject)
+        {
+            actual = ((COSObject) obj).getObject();
+        }
+        if (actual == null || actual instanceof COSStream || currentObjectKey.getGeneration() != 0)
+        {
+            return false;
+        }
+        if (actual instanceof COSDictionary)
+        {
+            COSBase type = ((COSDictionary) actual).getItem(COSName.TYPE);
+            return !COSName.SIG.equals(type) && !COSName.DOC_TIME_STAMP.equals(type);
+        }
+        return true;
+    }
+
+    /**
+     * Adds the object to the object stream being filled, the object stream is written once it
+     * is full.
+     */
+    private void doWriteCompressedObject(COSBase obj) throws IOException
+    {
+        if (objectStreamOutput == null)
+        {
+            objectStreamOffsets = new StringBuilder();
+            objectStreamData = new ByteArrayOutputStream();
+            objectStreamOutput = new COSStandardOutputStream(objectStreamData, 0, true);
+        }
+        objectStreamOffsets.append(currentObjectKey.getNumber()).append(' ')
+                .append(objectStreamOutput.getPos()).append(' ');
+        objectStreamEntries.add(new COSWriterXRefEntry(0, obj, currentObjectKey));
+
+        // the object is written without obj and endobj
+        COSStandardOutputStream output = getStandardOutput();
+        setStandardOutput(objectStreamOutput);
+        try
+        {
+            obj.accept(this);
+            getStandardOutput().writeEOL();
+        }
+        finally
+        {
+            setStandardOutput(output);
+        }
+
+        if (objectStreamEntries.size() == OBJECTS_PER_STREAM)
+        {
+            doWriteObjectStream();
+        }
+    }
+
+    /**
+     * Writes the object stream being filled, if it contains any object.
+     */
+    private void doWriteObjectStream() throws IOException
+    {
+        if (objectStreamEntries.isEmpty())
+        {
+            return;
+        }
+        objectStreamOutput.flush();
+        byte[] offsets = objectStreamOffsets.toString().getBytes("ISO-8859-1");
+        COSStream stream = new COSStream(new COSDictionary(), new RandomAccessBuffer());
+        stream.setItem(COSName.TYPE, COSName.OBJ_STM);
+        stream.setInt(COSName.N, objectStreamEntries.size());
+        stream.setInt(COSName.FIRST, offsets.length);
+        stream.setFilters(COSName.FLATE_DECODE);
+        OutputStream data = stream.createUnfilteredStream();
+        try
+        {
+            data.write(offsets);
+            objectStreamData.writeTo(data);
+        }
+        finally
+        {
+            data.close();
+        }
+
+        long number = getObjectKey(stream).getNumber();
+        doWriteObject(stream);
+        for (int i = 0; i < objectStreamEntries.size(); i++)
+        {
+            COSWriterXRefEntry entry = objectStreamEntries.get(i);
+            entry.setObjectStream(number, i);
+            addXRefEntry(entry);
+        }
+        objectStreamEntries.clear();
+        objectStreamOffsets = null;
+        objectStreamData = null;
+        objectStreamOutput = null;
+    }
+
     /**
      * This will write the header to the PDF document.
      *
@@ -654,6 +795,34 @@ public class COSWriter implements ICOSVisitor, Closeable
         }
     }
 
+    /**
+     * Writes a compressed cross-reference stream, which contains the trailer entries as well.
+     *
+     * @param doc The document to write the cross-reference stream for.
+     *
+     * @throws IOException If there is an error writing the data to the stream.
+     */
+    private void doWriteXRefStream(COSDocument doc) throws IOException
+    {
+        COSDictionary trailer = doc.getTrailer();
+        trailer.removeItem(COSName.PREV);
+        trailer.removeItem(COSName.DOC_CHECKSUM);
+
+        PDFXRefStream pdfxRefStream = new PDFXRefStream();
+        pdfxRefStream.addEntry(COSWriterXRefEntry.getNullEntry());
+        for (COSWriterXRefEntry entry : getXRefEntries())
+        {
+            pdfxRefStream.addEntry(entry);
+        }
+        // the cross-reference stream is the next object and is written right here
+        setStartxref(getStandardOutput().getPos());
+        COSObjectKey key = new COSObjectKey(getNumber() + 1, 0);
+        pdfxRefStream.addEntry(new COSWriterXRefEntry(getStartxref(), null, key));
+        pdfxRefStream.addTrailerInfo(trailer);
+        pdfxRefStream.setSize(getNumber() + 2);
+        doWriteObject(pdfxRefStream.getStream());
+    }
+
     private void doWriteXRefInc(COSDocument doc, long hybridPrev) throws IOException
     {
         if (doc.isXRefStream() || hybridPrev != -1)
@@ -749,8 +918,8 @@ public class COSWriter implements ICOSVisitor, Closeable
         }
 
         // copy the new incremental data into a buffer (e.g. signature dict, trailer)
+        getStandardOutput().flush();
         ByteArrayOutputStream byteOut = (ByteArrayOutputStream) output;
-        byteOut.flush();
         byte[] buffer = byteOut.toByteArray();
 
         // overwrite the ByteRange in the buffer
@@ -801,19 +970,17 @@ public class COSWriter implements ICOSVisitor, Closeable
     
     private void writeXrefRange(long x, long y) throws IOException
     {
-        getStandardOutput().write(String.valueOf(x).getBytes());
+        getStandardOutput().writeNumber(x);
         getStandardOutput().write(SPACE);
-        getStandardOutput().write(String.valueOf(y).getBytes());
+        getStandardOutput().writeNumber(y);
         getStandardOutput().writeEOL();
     }
 
     private void writeXrefEntry(COSWriterXRefEntry entry) throws IOException
     {
-        String offset = formatXrefOffset.format(entry.getOffset());
-        String generation = formatXrefGeneration.format(entry.getKey().getGeneration());
-        getStandardOutput().write(offset.getBytes("ISO-8859-1"));
+        getStandardOutput().writeNumber(entry.getOffset(), XREF_OFFSET_DIGITS);
         getStandardOutput().write(SPACE);
-        getStandardOutput().write(generation.getBytes("ISO-8859-1"));
+        getStandardOutput().writeNumber(entry.getKey().getGeneration(), XREF_GENERATION_DIGITS);
         getStandardOutput().write(SPACE);
         getStandardOutput().write(entry.isFree() ? XREF_FREE : XREF_USED);
         getStandardOutput().writeCRLF();
@@ -1103,13 +1270,17 @@ public class COSWriter implements ICOSVisitor, Closeable
         {
             doWriteXRefInc(doc, hybridPrev);
         }
+        else if (useObjectStreams)
+        {
+            doWriteXRefStream(doc);
+        }
         else
         {
             doWriteXRef(doc);
         }
 
         // the trailer section should only be used for xref tables not for xref streams
-        if (!incrementalUpdate || !doc.isXRefStream() || hybridPrev != -1)
+        if (!useObjectStreams && (!incrementalUpdate || !doc.isXRefStream() || hybridPrev != -1))
         {
             doWriteTrailer(doc);
         }
@@ -1117,7 +1288,7 @@ public class COSWriter implements ICOSVisitor, Closeable
         // write endof
         getStandardOutput().write(STARTXREF);
         getStandardOutput().writeEOL();
-        getStandardOutput().write(String.valueOf(getStartxref()).getBytes("ISO-8859-1"));
+        getStandardOutput().writeNumber(getStartxref());
         getStandardOutput().writeEOL();
         getStandardOutput().write(EOF);
         getStandardOutput().writeEOL();
@@ -1140,7 +1311,7 @@ public class COSWriter implements ICOSVisitor, Closeable
     @Override
     public Object visitFromInt(COSInteger obj) throws IOException
     {
-        obj.writePDF( getStandardOutput() );
+        getStandardOutput().writeNumber(obj.longValue());
         return null;
     }
 
@@ -1168,9 +1339,9 @@ public class COSWriter implements ICOSVisitor, Closeable
     public void writeReference(COSBase obj) throws IOException
     {
         COSObjectKey key = getObjectKey(obj);
-        getStandardOutput().write(String.valueOf(key.getNumber()).getBytes("ISO-8859-1"));
+        getStandardOutput().writeNumber(key.getNumber());
         getStandardOutput().write(SPACE);
-        getStandardOutput().write(String.valueOf(key.getGeneration()).getBytes("ISO-8859-1"));
+        getStandardOutput().writeNumber(key.getGeneration());
         getStandardOutput().write(SPACE);
         getStandardOutput().write(REFERENCE);
     }
@@ -1187,10 +1358,11 @@ public class COSWriter implements ICOSVisitor, Closeable
 
         COSObject lengthObject = null;
         // check if the length object is required to be direct, like in
-        // a cross reference stream dictionary
+        // a cross reference stream dictionary. Lengths are always direct if
+        // object streams are written, as readers can't take them from object streams
         COSBase lengthEntry = obj.getDictionaryObject(COSName.LENGTH);
         String type = obj.getNameAsString(COSName.TYPE);
-        if (lengthEntry != null && lengthEntry.isDirect() || "XRef".equals(type))
+        if (lengthEntry != null && lengthEntry.isDirect() || "XRef".equals(type) || useObjectStreams)
         {
             // the length might be the non encoded length,
             // set the real one as direct object
@@ -1319,6 +1491,12 @@ public class COSWriter implements ICOSVisitor, Closeable
         }
 
         COSDocument cosDoc = document.getDocument();
+        useObjectStreams = compress && !incrementalUpdate && !willEncrypt;
+        if (useObjectStreams && cosDoc.getVersion() < 1.5f)
+        {
+            // object streams and cross-reference streams require PDF 1.5
+            cosDoc.setVersion(1.5f);
+        }
         COSDictionary trailer = cosDoc.getTrailer();
         COSArray idArray = (COSArray)trailer.getDictionaryObject( COSName.ID );
         if( idArray == null || incrementalUpdate)
@@ -1353,6 +1531,10 @@ public class COSWriter implements ICOSVisitor, Closeable
             idArray.add( id );
             trailer.setItem( COSName.ID, idArray );
         }
+        // the document is written buffered, the buffer is flushed at the end as the caller
+        // may close the wrapped stream before this writer
+        setStandardOutput(new COSStandardOutputStream(getOutput(), getStandardOutput().getPos(), true));
         cosDoc.accept(this);
+        getStandardOutput().flush();
     }
 }
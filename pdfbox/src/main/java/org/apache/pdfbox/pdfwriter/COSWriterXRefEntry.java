@@ -33,6 +33,9 @@ public class COSWriterXRefEntry implements Comparable<COSWriterXRefEntry>
     private COSBase object;
     private COSObjectKey key;
     private boolean free = false;
+    // the object stream containing the object, or -1 if the object isn't compressed
+    private long objectStreamNumber = -1;
+    private int objectStreamIndex;
     private static COSWriterXRefEntry nullEntry;
 
 
@@ -106,6 +109,48 @@ public class COSWriterXRefEntry implements Comparable<COSWriterXRefEntry>
         free = newFree;
     }
 
+    /**
+     * Tells whether the object is stored in an object stream.
+     *
+     * @return true if the object is compressed
+     */
+    public boolean isCompressed()
+    {
+        return objectStreamNumber >= 0;
+    }
+
+    /**
+     * Returns the object number of the object stream containing the object.
+     *
+     * @return the object number of the object stream, or -1 if the object isn't compressed
+     */
+    public long getObjectStreamNumber()
+    {
+        return objectStreamNumber;
+    }
+
+    /**
+     * Returns the index of the object within its object stream.
+     *
+     * @return the index of the object
+     */
+    public int getObjectStreamIndex()
+    {
+        return objectStreamIndex;
+    }
+
+    /**
+     * Sets the object stream containing the object.
+     *
+     * @param number the object number of the object stream
+     * @param index the index of the object within the object stream
+     */
+    public void setObjectStream(long number, int index)
+    {
+        objectStreamNumber = number;
+        objectStreamIndex = index;
+    }
+
     /**
      * This will set the object key.
      *
@@ -1162,6 +1162,28 @@ public class PDDocument implements Closeable
         return parser.getPDDocument();
     }
 
+    /**
+     * Parses PDF with non sequential parser.
+     *
+     * @param file file to be loaded
+     * @param scratchFile location to store temp PDFBox data for this document
+     * @param password password to be used for decryption
+     * @param useMemoryMapping if <code>true</code> the file is memory mapped, which avoids
+     * copying the file data to the heap and is recommended for very large files
+     *
+     * @return loaded document
+     *
+     * @throws IOException in case of a file reading or parsing error
+     */
+    public static PDDocument loadNonSeq(File file, RandomAccess scratchFile, String password,
+            boolean useMemoryMapping) throws IOException
+    {
+        NonSequentialPDFParser parser = new NonSequentialPDFParser(file, scratchFile, password,
+                useMemoryMapping);
+        parser.parse();
+        return parser.getPDDocument();
+    }
+
     /**
      * Parses PDF with non sequential parser.
      * 
@@ -1228,6 +1250,22 @@ public class PDDocument implements Closeable
      * @throws IOException if the output could not be written
      */
     public void save(OutputStream output) throws IOException
+    {
+        save(output, false);
+    }
+
+    /**
+     * This will save the document to an output stream. If compress is true, the objects which
+     * aren't streams are packed into compressed object streams and a compressed cross-reference
+     * stream is written, which makes the output smaller. This requires PDF 1.5, the version of the
+     * document is raised if necessary. Encrypted documents are always written uncompressed.
+     * 
+     * @param output The stream to write to.
+     * @param compress true if object streams and a cross-reference stream shall be written
+     *
+     * @throws IOException if the output could not be written
+     */
+    public void save(OutputStream output, boolean compress) throws IOException
     {
         // update the count in case any pages have been added behind the scenes.
         getDocumentCatalog().getPages().updateCount();
@@ -1235,6 +1273,7 @@ public class PDDocument implements Closeable
         try
         {
             writer = new COSWriter(output);
+            writer.setCompress(compress);
             writer.write(this);
             writer.close();
         }
@@ -180,13 +180,10 @@ public class PDResources implements COSObjectable
             // at least an empty map will be returned
             // TODO we should return null instead of an empty map
             fonts = new HashMap<String, PDFont>();
+            // the font dictionary is created when the first font is added, the resources
+            // dictionary isn't modified here as it may be shared with other pages
             COSDictionary fontsDictionary = (COSDictionary) resources.getDictionaryObject(COSName.FONT);
-            if (fontsDictionary == null)
-            {
-                fontsDictionary = new COSDictionary();
-                resources.setItem(COSName.FONT, fontsDictionary);
-            }
-            else
+            if (fontsDictionary != null)
             {
                 for (COSName fontName : fontsDictionary.keySet())
                 {
@@ -229,14 +226,10 @@ public class PDResources implements COSObjectable
             // TODO we should return null instead of an empty map
             xobjects = new HashMap<String, PDXObject>();
 
+            // the xobject dictionary is created when the first xobject is added, the resources
+            // dictionary isn't modified here as it may be shared with other pages
             COSDictionary dict = (COSDictionary) resources.getDictionaryObject(COSName.XOBJECT);
-
-            if (dict == null)
-            {
-                dict = new COSDictionary();
-                resources.setItem(COSName.XOBJECT, dict);
-            }
-            else
+            if (dict != null)
             {
                 xobjects = new HashMap<String, PDXObject>();
                 for (COSName objName : dict.keySet())
@@ -579,6 +572,11 @@ public class PDResources implements COSObjectable
     private void addFontToDictionary(PDFont font, String fontName)
     {
         COSDictionary fontsDictionary = (COSDictionary) resources.getDictionaryObject(COSName.FONT);
+        if (fontsDictionary == null)
+        {
+            fontsDictionary = new COSDictionary();
+            resources.setItem(COSName.FONT, fontsDictionary);
+        }
         fontsDictionary.setItem(fontName, font);
     }
 
@@ -627,7 +625,10 @@ public class PDResources implements COSObjectable
     public void removeXObject(String xobjectName)
     {
         COSDictionary xobjectsDictionary = (COSDictionary) resources.getDictionaryObject(COSName.XOBJECT);
-        xobjectsDictionary.removeItem(COSName.getPDFName(xobjectName));
+        if (xobjectsDictionary != null)
+        {
+            xobjectsDictionary.removeItem(COSName.getPDFName(xobjectName));
+        }
         if (xobjects != null && xobjects.containsKey(xobjectName))
         {
         	xobjectMappings.remove(xobjects.get(xobjectName));
@@ -643,7 +644,10 @@ public class PDResources implements COSObjectable
     public void removeFont(String fontName)
     {
         COSDictionary xobjectsDictionary = (COSDictionary) resources.getDictionaryObject(COSName.FONT);
-        xobjectsDictionary.removeItem(COSName.getPDFName(fontName));
+        if (xobjectsDictionary != null)
+        {
+            xobjectsDictionary.removeItem(COSName.getPDFName(fontName));
+        }
         if (fonts != null && fonts.containsKey(fontName))
         {
         	fontMappings.remove(fonts.get(fontName));
@@ -654,6 +658,11 @@ public class PDResources implements COSObjectable
     private void addXObjectToDictionary(PDXObject xobject, String xobjectName)
     {
         COSDictionary xobjectsDictionary = (COSDictionary) resources.getDictionaryObject(COSName.XOBJECT);
+        if (xobjectsDictionary == null)
+        {
+            xobjectsDictionary = new COSDictionary();
+            resources.setItem(COSName.XOBJECT, xobjectsDictionary);
+        }
         xobjectsDictionary.setItem(xobjectName, xobject);
     }
 
@@ -186,6 +186,25 @@ public class COSStreamArray extends COSStream
      * @throws IOException when encoding/decoding causes an exception
      */
     public InputStream getUnfilteredStream() throws IOException
+    {
+        return concatenate( false );
+    }
+
+    /**
+     * This will get the logical content stream with none of the filters, decoding the
+     * streams of the array while they are read, see
+     * {@link COSStream#createUnfilteredInputStream()}.
+     *
+     * @return the bytes of the logical (decoded) stream
+     *
+     * @throws IOException when decoding causes an exception
+     */
+    public InputStream createUnfilteredInputStream() throws IOException
+    {
+        return concatenate( true );
+    }
+
+    private InputStream concatenate( boolean decodeWhileReading ) throws IOException
     {
         Vector<InputStream> inputStreams = new Vector<InputStream>();
         byte[] inbetweenStreamBytes = "\n".getBytes("ISO-8859-1");
@@ -193,7 +212,14 @@ public class COSStreamArray extends COSStream
         for( int i=0;i<streams.size(); i++ )
         {
             COSStream stream = (COSStream)streams.getObject( i );
-            inputStreams.add( stream.getUnfilteredStream() );
+            if( decodeWhileReading )
+            {
+                inputStreams.add( stream.createUnfilteredInputStream() );
+            }
+            else
+            {
+                inputStreams.add( stream.getUnfilteredStream() );
+            }
             //handle the case where there is no whitespace in the
             //between streams in the contents array, without this
             //it is possible that two operators will get concatenated
@@ -18,10 +18,12 @@ package org.apache.pdfbox.pdmodel.common.function;
 
 import org.apache.pdfbox.cos.COSBase;
 import org.apache.pdfbox.pdmodel.common.PDRange;
+import org.apache.pdfbox.pdmodel.common.function.type4.CompiledProgram;
 import org.apache.pdfbox.pdmodel.common.function.type4.ExecutionContext;
 import org.apache.pdfbox.pdmodel.common.function.type4.InstructionSequence;
 import org.apache.pdfbox.pdmodel.common.function.type4.InstructionSequenceBuilder;
 import org.apache.pdfbox.pdmodel.common.function.type4.Operators;
+import org.apache.pdfbox.pdmodel.common.function.type4.PrimitiveStack;
 
 import java.io.IOException;
 
@@ -37,7 +39,19 @@ public class PDFunctionType4 extends PDFunction
 
     private static final Operators OPERATORS = new Operators();
 
+    // operand stacks of the compiled programs, reused by all evaluations of a thread
+    private static final ThreadLocal<PrimitiveStack> STACKS = new ThreadLocal<PrimitiveStack>()
+    {
+        @Override
+        protected PrimitiveStack initialValue()
+        {
+            return new PrimitiveStack();
+        }
+    };
+
     private final InstructionSequence instructions;
+    // null if the function uses constructs not supported by the compiler
+    private final CompiledProgram program;
 
     /**
      * Constructor.
@@ -50,6 +64,7 @@ public class PDFunctionType4 extends PDFunction
         super( functionStream );
         this.instructions = InstructionSequenceBuilder.parse(
                 getPDStream().getInputStreamAsString());
+        this.program = CompiledProgram.compile(instructions);
     }
 
 
@@ -66,6 +81,11 @@ public class PDFunctionType4 extends PDFunction
     */
     public float[] eval(float[] input) throws IOException
     {
+        if (program != null)
+        {
+            return evalCompiled(input);
+        }
+
         //Setup the input values
         ExecutionContext context = new ExecutionContext(OPERATORS);
         for (int i = 0; i < input.length; i++)
@@ -99,4 +119,38 @@ public class PDFunctionType4 extends PDFunction
         //Return the resulting array
         return outputValues;
     }
+
+    /**
+     * Evaluates the function using the compiled program, which works on primitive values
+     * instead of the objects of an {@link ExecutionContext}.
+     */
+    private float[] evalCompiled(float[] input)
+    {
+        PrimitiveStack stack = STACKS.get();
+        stack.clear();
+        for (int i = 0; i < input.length; i++)
+        {
+            PDRange domain = getDomainForInput(i);
+            stack.pushReal(clipToRange(input[i], domain.getMin(), domain.getMax()));
+        }
+
+        program.execute(stack);
+
+        int numberOfOutputValues = getNumberOfOutputParameters();
+        int numberOfActualOutputValues = stack.size();
+        if (numberOfActualOutputValues < numberOfOutputValues)
+        {
+            throw new IllegalStateException("The type 4 function returned "
+                    + numberOfActualOutputValues
+                    + " values but the Range entry indicates that "
+                    + numberOfOutputValues + " values be returned.");
+        }
+        float[] outputValues = new float[numberOfOutputValues];
+        for (int i = numberOfOutputValues - 1; i >= 0; i--)
+        {
+            PDRange range = getRangeForOutput(i);
+            outputValues[i] = clipToRange(stack.popReal(), range.getMin(), range.getMax());
+        }
+        return outputValues;
+    }
 }
@@ -0,0 +1,632 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.pdfbox.pdmodel.common.function.type4;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * An instruction sequence compiled to a flat array of op codes, which is executed on a
+ * {@link PrimitiveStack}. Procs are only supported as operands of "if" and "ifelse", they are
+ * compiled to conditional jumps. The results are the same as the ones of
+ * {@link InstructionSequence#execute(ExecutionContext)}, including the int/real semantics of
+ * the operators.
+ *
+ * @version $Revision$
+ */
+public final class CompiledProgram
+{
+
+    private static final int PUSH_INT = 0;
+    private static final int PUSH_REAL = 1;
+    private static final int JUMP = 2;
+    private static final int JUMP_IF_FALSE = 3;
+    //Arithmetic operators
+    private static final int ABS = 4;
+    private static final int ADD = 5;
+    private static final int ATAN = 6;
+    private static final int CEILING = 7;
+    private static final int COS = 8;
+    private static final int CVI = 9;
+    private static final int CVR = 10;
+    private static final int DIV = 11;
+    private static final int EXP = 12;
+    private static final int FLOOR = 13;
+    private static final int IDIV = 14;
+    private static final int LN = 15;
+    private static final int LOG = 16;
+    private static final int MOD = 17;
+    private static final int MUL = 18;
+    private static final int NEG = 19;
+    private static final int ROUND = 20;
+    private static final int SIN = 21;
+    private static final int SQRT = 22;
+    private static final int SUB = 23;
+    private static final int TRUNCATE = 24;
+    //Relational, boolean and bitwise operators
+    private static final int AND = 25;
+    private static final int BITSHIFT = 26;
+    private static final int EQ = 27;
+    private static final int FALSE = 28;
+    private static final int GE = 29;
+    private static final int GT = 30;
+    private static final int LE = 31;
+    private static final int LT = 32;
+    private static final int NE = 33;
+    private static final int NOT = 34;
+    private static final int OR = 35;
+    private static final int TRUE = 36;
+    private static final int XOR = 37;
+    //Stack operators
+    private static final int COPY = 38;
+    private static final int DUP = 39;
+    private static final int EXCH = 40;
+    private static final int INDEX = 41;
+    private static final int POP = 42;
+    private static final int ROLL = 43;
+
+    private static final Map<String, Integer> OPCODES = new HashMap<String, Integer>();
+
+    static
+    {
+        OPCODES.put("abs", ABS);
+        OPCODES.put("add", ADD);
+        OPCODES.put("atan", ATAN);
+        OPCODES.put("ceiling", CEILING);
+        OPCODES.put("cos", COS);
+        OPCODES.put("cvi", CVI);
+        OPCODES.put("cvr", CVR);
+        OPCODES.put("div", DIV);
+        OPCODES.put("exp", EXP);
+        OPCODES.put("floor", FLOOR);
+        OPCODES.put("idiv", IDIV);
+        OPCODES.put("ln", LN);
+        OPCODES.put("log", LOG);
+        OPCODES.put("mod", MOD);
+        OPCODES.put("mul", MUL);
+        OPCODES.put("neg", NEG);
+        OPCODES.put("round", ROUND);
+        OPCODES.put("sin", SIN);
+        OPCODES.put("sqrt", SQRT);
+        OPCODES.put("sub", SUB);
+        OPCODES.put("truncate", TRUNCATE);
+
+        OPCODES.put("and", AND);
+        OPCODES.put("bitshift", BITSHIFT);
+        OPCODES.put("eq", EQ);
+        OPCODES.put("false", FALSE);
+        OPCODES.put("ge", GE);
+        OPCODES.put("gt", GT);
+        OPCODES.put("le", LE);
+        OPCODES.put("lt", LT);
+        OPCODES.put("ne", NE);
+        OPCODES.put("not", NOT);
+        OPCODES.put("or", OR);
+        OPCODES.put("true", TRUE);
+        OPCODES.put("xor", XOR);
+
+        OPCODES.put("copy", COPY);
+        OPCODES.put("dup", DUP);
+        OPCODES.put("exch", EXCH);
+        OPCODES.put("index", INDEX);
+        OPCODES.put("pop", POP);
+        OPCODES.put("roll", ROLL);
+    }
+
+    private int[] code = new int[64];
+    private int length;
+
+    private CompiledProgram()
+    {
+    }
+
+    /**
+     * Compiles the given instruction sequence.
+     * @param sequence the instruction sequence
+     * @return the compiled program or null if the sequence uses a construct which isn't supported
+     * by the compiler, such as procs being used as data or unknown names
+     */
+    public static CompiledProgram compile(InstructionSequence sequence)
+    {
+        CompiledProgram program = new CompiledProgram();
+        if (!program.compile(sequence.getInstructions(), true))
+        {
+            return null;
+        }
+        program.code = Arrays.copyOf(program.code, program.length);
+        return program;
+    }
+
+    private boolean compile(List<Object> instructions, boolean topLevel)
+    {
+        int count = instructions.size();
+        for (int i = 0; i < count; i++)
+        {
+            Object o = instructions.get(i);
+            if (o instanceof InstructionSequence)
+            {
+                List<Object> proc = ((InstructionSequence)o).getInstructions();
+                if (i + 1 < count && "if".equals(instructions.get(i + 1)))
+                {
+                    // bool proc if
+                    int jump = emitJump(JUMP_IF_FALSE);
+                    if (!compile(proc, false))
+                    {
+                        return false;
+                    }
+                    code[jump] = length;
+                    i++;
+                }
+                else if (i + 2 < count && instructions.get(i + 1) instanceof InstructionSequence
+                        && "ifelse".equals(instructions.get(i + 2)))
+                {
+                    // bool proc1 proc2 ifelse
+                    List<Object> elseProc = ((InstructionSequence)instructions.get(i + 1))
+                            .getInstructions();
+                    int jumpElse = emitJump(JUMP_IF_FALSE);
+                    if (!compile(proc, false))
+                    {
+                        return false;
+                    }
+                    int jumpEnd = emitJump(JUMP);
+                    code[jumpElse] = length;
+                    if (!compile(elseProc, false))
+                    {
+                        return false;
+                    }
+                    code[jumpEnd] = length;
+                    i += 2;
+                }
+                else if (topLevel && i == count - 1)
+                {
+                    // a top-level proc left on the stack is executed at the end
+                    if (!compile(proc, false))
+                    {
+                        return false;
+                    }
+                }
+                else
+                {
+                    return false;
+                }
+            }
+            else if (o instanceof String)
+            {
+                Integer opcode = OPCODES.get(o);
+                if (opcode == null)
+                {
+                    return false;
+                }
+                emit(opcode);
+            }
+            else if (o instanceof Integer)
+            {
+                emit(PUSH_INT);
+                emit((Integer)o);
+            }
+            else if (o instanceof Float)
+            {
+                emit(PUSH_REAL);
+                emit(Float.floatToIntBits((Float)o));
+            }
+            else if (o instanceof Boolean)
+            {
+                emit((Boolean)o ? TRUE : FALSE);
+            }
+            else
+            {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private void emit(int value)
+    {
+        if (length == code.length)
+        {
+            code = Arrays.copyOf(code, length * 2);
+        }
+        code[length++] = value;
+    }
+
+    private int emitJump(int opcode)
+    {
+        emit(opcode);
+        emit(-1);
+        return length - 1;
+    }
+
+    /**
+     * Executes the program.
+     * @param stack the operand stack holding the input values
+     */
+    public void execute(PrimitiveStack stack)
+    {
+        int[] ops = code;
+        int pc = 0;
+        while (pc < ops.length)
+        {
+            switch (ops[pc++])
+            {
+                case PUSH_INT:
+                    stack.pushInt(ops[pc++]);
+                    break;
+                case PUSH_REAL:
+                    stack.pushReal(Float.intBitsToFloat(ops[pc++]));
+                    break;
+                case JUMP:
+                    pc = ops[pc];
+                    break;
+                case JUMP_IF_FALSE:
+                    if (stack.popBoolean())
+                    {
+                        pc++;
+                    }
+                    else
+                    {
+                        pc = ops[pc];
+                    }
+                    break;
+                case ABS:
+                    if (stack.getType(0) == PrimitiveStack.INTEGER)
+                    {
+                        stack.pushInt(Math.abs(stack.popInt()));
+                    }
+                    else
+                    {
+                        stack.pushReal(Math.abs(stack.popReal()));
+                    }
+                    break;
+                case ADD:
+                    if (isIntegerPair(stack))
+                    {
+                        long int2 = stack.popInt();
+                        pushInteger(stack, stack.popInt() + int2);
+                    }
+                    else
+                    {
+                        float num2 = stack.popReal();
+                        stack.pushReal(stack.popReal() + num2);
+                    }
+                    break;
+                case ATAN:
+                {
+                    float den = stack.popReal();
+                    float num = stack.popReal();
+                    float atan = (float)Math.atan2(num, den);
+                    atan = (float)Math.toDegrees(atan) % 360;
+                    if (atan < 0)
+                    {
+                        atan = atan + 360;
+                    }
+                    stack.pushReal(atan);
+                    break;
+                }
+                case CEILING:
+                    if (stack.getType(0) != PrimitiveStack.INTEGER)
+                    {
+                        stack.pushReal((float)Math.ceil(stack.popNumber()));
+                    }
+                    break;
+                case COS:
+                    stack.pushReal((float)Math.cos(Math.toRadians(stack.popReal())));
+                    break;
+                case CVI:
+                    stack.pushInt((int)stack.popNumber());
+                    break;
+                case CVR:
+                    stack.pushReal(stack.popReal());
+                    break;
+                case DIV:
+                {
+                    float num2 = stack.popReal();
+                    stack.pushReal(stack.popReal() / num2);
+                    break;
+                }
+                case EXP:
+                {
+                    double exp = stack.popNumber();
+                    stack.pushReal((float)Math.pow(stack.popNumber(), exp));
+                    break;
+                }
+                case FLOOR:
+                    if (stack.getType(0) != PrimitiveStack.INTEGER)
+                    {
+                        stack.pushReal((float)Math.floor(stack.popNumber()));
+                    }
+                    break;
+                case IDIV:
+                {
+                    int int2 = stack.popInt();
+                    stack.pushInt(stack.popInt() / int2);
+                    break;
+                }
+                case LN:
+                    stack.pushReal((float)Math.log(stack.popNumber()));
+                    break;
+                case LOG:
+                    stack.pushReal((float)Math.log10(stack.popNumber()));
+                    break;
+                case MOD:
+                {
+                    int int2 = stack.popInt();
+                    stack.pushInt(stack.popInt() % int2);
+                    break;
+                }
+                case MUL:
+                    if (isIntegerPair(stack))
+                    {
+                        long int2 = stack.popInt();
+                        pushInteger(stack, stack.popInt() * int2);
+                    }
+                    else
+                    {
+                        double num2 = stack.popNumber();
+                        stack.pushReal((float)(stack.popNumber() * num2));
+                    }
+                    break;
+                case NEG:
+                    if (stack.getType(0) == PrimitiveStack.INTEGER)
+                    {
+                        pushInteger(stack, -(long)stack.popInt());
+                    }
+                    else
+                    {
+                        stack.pushReal(-stack.popReal());
+                    }
+                    break;
+                case ROUND:
+                    if (stack.getType(0) != PrimitiveStack.INTEGER)
+                    {
+                        stack.pushReal((float)Math.round(stack.popNumber()));
+                    }
+                    break;
+                case SIN:
+                    stack.pushReal((float)Math.sin(Math.toRadians(stack.popReal())));
+                    break;
+                case SQRT:
+                {
+                    float num = stack.popReal();
+                    if (num < 0)
+                    {
+                        throw new IllegalArgumentException("argument must be nonnegative");
+                    }
+                    stack.pushReal((float)Math.sqrt(num));
+                    break;
+                }
+                case SUB:
+                    if (isIntegerPair(stack))
+                    {
+                        long int2 = stack.popInt();
+                        pushInteger(stack, stack.popInt() - int2);
+                    }
+                    else
+                    {
+                        float num2 = stack.popReal();
+                        stack.pushReal(stack.popReal() - num2);
+                    }
+                    break;
+                case TRUNCATE:
+                    if (stack.getType(0) != PrimitiveStack.INTEGER)
+                    {
+                        stack.pushReal((float)(int)stack.popReal());
+                    }
+                    break;
+                case AND:
+                case OR:
+                case XOR:
+                    logical(stack, ops[pc - 1]);
+                    break;
+                case BITSHIFT:
+                {
+                    int shift = stack.popInt();
+                    int int1 = stack.popInt();
+                    stack.pushInt(shift < 0 ? int1 >> Math.abs(shift) : int1 << shift);
+                    break;
+                }
+                case EQ:
+                    stack.pushBoolean(isEqual(stack));
+                    break;
+                case NE:
+                    stack.pushBoolean(!isEqual(stack));
+                    break;
+                case FALSE:
+                    stack.pushBoolean(false);
+                    break;
+                case TRUE:
+                    stack.pushBoolean(true);
+                    break;
+                case GE:
+                {
+                    float num2 = stack.popReal();
+                    stack.pushBoolean(stack.popReal() >= num2);
+                    break;
+                }
+                case GT:
+                {
+                    float num2 = stack.popReal();
+                    stack.pushBoolean(stack.popReal() > num2);
+                    break;
+                }
+                case LE:
+                {
+                    float num2 = stack.popReal();
+                    stack.pushBoolean(stack.popReal() <= num2);
+                    break;
+                }
+                case LT:
+                {
+                    float num2 = stack.popReal();
+                    stack.pushBoolean(stack.popReal() < num2);
+                    break;
+                }
+                case NOT:
+                    if (stack.getType(0) == PrimitiveStack.BOOLEAN)
+                    {
+                        stack.pushBoolean(!stack.popBoolean());
+                    }
+                    else if (stack.getType(0) == PrimitiveStack.INTEGER)
+                    {
+                        stack.pushInt(-stack.popInt());
+                    }
+                    else
+                    {
+                        throw new ClassCastException("Operand must be bool or int");
+                    }
+                    break;
+                case COPY:
+                {
+                    int n = (int)stack.popNumber();
+                    for (int i = 0; i < n; i++)
+                    {
+                        stack.pushCopy(n - 1);
+                    }
+                    break;
+                }
+                case DUP:
+                    stack.pushCopy(0);
+                    break;
+                case EXCH:
+                    stack.rotate(2, 1);
+                    break;
+                case INDEX:
+                {
+                    int n = (int)stack.popNumber();
+                    if (n < 0)
+                    {
+                        throw new IllegalArgumentException("rangecheck: " + n);
+                    }
+                    stack.pushCopy(n);
+                    break;
+                }
+                case POP:
+                    stack.pop();
+                    break;
+                case ROLL:
+                    roll(stack);
+                    break;
+                default:
+                    throw new IllegalStateException("Unknown op code " + ops[pc - 1]);
+            }
+        }
+    }
+
+    private static boolean isIntegerPair(PrimitiveStack stack)
+    {
+        return stack.getType(0) == PrimitiveStack.INTEGER
+                && stack.getType(1) == PrimitiveStack.INTEGER;
+    }
+
+    /**
+     * Pushes the result of an int operation, which becomes a real if it exceeds the int range.
+     */
+    private static void pushInteger(PrimitiveStack stack, long value)
+    {
+        if (value < Integer.MIN_VALUE || value > Integer.MAX_VALUE)
+        {
+            stack.pushReal((float)value);
+        }
+        else
+        {
+            stack.pushInt((int)value);
+        }
+    }
+
+    private static void logical(PrimitiveStack stack, int opcode)
+    {
+        byte type2 = stack.getType(0);
+        byte type1 = stack.getType(1);
+        if (type1 == PrimitiveStack.BOOLEAN && type2 == PrimitiveStack.BOOLEAN)
+        {
+            boolean bool2 = stack.popBoolean();
+            boolean bool1 = stack.popBoolean();
+            switch (opcode)
+            {
+                case AND:
+                    stack.pushBoolean(bool1 & bool2);
+                    break;
+                case OR:
+                    stack.pushBoolean(bool1 | bool2);
+                    break;
+                default:
+                    stack.pushBoolean(bool1 ^ bool2);
+            }
+        }
+        else if (type1 == PrimitiveStack.INTEGER && type2 == PrimitiveStack.INTEGER)
+        {
+            int int2 = stack.popInt();
+            int int1 = stack.popInt();
+            switch (opcode)
+            {
+                case AND:
+                    stack.pushInt(int1 & int2);
+                    break;
+                case OR:
+                    stack.pushInt(int1 | int2);
+                    break;
+                default:
+                    stack.pushInt(int1 ^ int2);
+            }
+        }
+        else
+        {
+            throw new ClassCastException("Operands must be bool/bool or int/int");
+        }
+    }
+
+    private static boolean isEqual(PrimitiveStack stack)
+    {
+        boolean bool2 = stack.getType(0) == PrimitiveStack.BOOLEAN;
+        boolean bool1 = stack.getType(1) == PrimitiveStack.BOOLEAN;
+        double value2 = stack.peek(0);
+        double value1 = stack.peek(1);
+        stack.pop();
+        stack.pop();
+        if (bool1 || bool2)
+        {
+            // a bool is only equal to a bool
+            return bool1 && bool2 && value1 == value2;
+        }
+        return (float)value1 == (float)value2;
+    }
+
+    private static void roll(PrimitiveStack stack)
+    {
+        int j = (int)stack.popNumber();
+        int n = (int)stack.popNumber();
+        if (j == 0)
+        {
+            return; //Nothing to do
+        }
+        if (n < 0)
+        {
+            throw new IllegalArgumentException("rangecheck: " + n);
+        }
+        if (Math.abs(j) > n)
+        {
+            // the values are put back in their original order
+            stack.rotate(Math.abs(j), 0);
+        }
+        else
+        {
+            stack.rotate(n, j > 0 ? j : n + j);
+        }
+    }
+}
@@ -74,6 +74,15 @@ public class InstructionSequence
         this.instructions.add(child);
     }
 
+    /**
+     * Returns the instructions of this sequence.
+     * @return the instructions: Strings (names), Integers, Floats, Booleans and procs
+     */
+    List<Object> getInstructions()
+    {
+        return this.instructions;
+    }
+
     /**
      * Executes the instruction sequence.
      * @param context the execution context
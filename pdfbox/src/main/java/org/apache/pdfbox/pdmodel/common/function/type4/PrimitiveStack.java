@@ -0,0 +1,217 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.pdfbox.pdmodel.common.function.type4;
+
+import java.util.Arrays;
+import java.util.EmptyStackException;
+
+/**
+ * The operand stack of a {@link CompiledProgram}. Values are kept as primitive values together
+ * with their type (int, real or bool), so that executing a program doesn't create any objects.
+ * A stack may be reused for any number of executions.
+ *
+ * @version $Revision$
+ */
+public final class PrimitiveStack
+{
+
+    static final byte INTEGER = 0;
+    static final byte REAL = 1;
+    static final byte BOOLEAN = 2;
+
+    private byte[] types = new byte[32];
+    private double[] values = new double[32];
+    private int size;
+
+    /**
+     * Returns the number of values on the stack.
+     * @return the size of the stack
+     */
+    public int size()
+    {
+        return size;
+    }
+
+    /**
+     * Removes all values from the stack.
+     */
+    public void clear()
+    {
+        size = 0;
+    }
+
+    /**
+     * Pushes an int value.
+     * @param value the value
+     */
+    public void pushInt(int value)
+    {
+        push(INTEGER, value);
+    }
+
+    /**
+     * Pushes a real value.
+     * @param value the value
+     */
+    public void pushReal(float value)
+    {
+        push(REAL, value);
+    }
+
+    /**
+     * Pushes a bool value.
+     * @param value the value
+     */
+    public void pushBoolean(boolean value)
+    {
+        push(BOOLEAN, value ? 1 : 0);
+    }
+
+    /**
+     * Pops a number from the stack and returns it as a real value. If the value is not of a
+     * numeric type, a ClassCastException is thrown.
+     * @return the real value
+     */
+    public float popReal()
+    {
+        return (float) popNumber();
+    }
+
+    void push(byte type, double value)
+    {
+        if (size == types.length)
+        {
+            types = Arrays.copyOf(types, size * 2);
+            values = Arrays.copyOf(values, size * 2);
+        }
+        types[size] = type;
+        values[size] = value;
+        size++;
+    }
+
+    /**
+     * Returns the type of the value at the given depth, 0 being the top of the stack.
+     */
+    byte getType(int depth)
+    {
+        if (depth >= size)
+        {
+            throw new EmptyStackException();
+        }
+        return types[size - depth - 1];
+    }
+
+    /**
+     * Pops a number (int or real), reals are returned with float precision.
+     */
+    double popNumber()
+    {
+        if (getType(0) == BOOLEAN)
+        {
+            throw new ClassCastException("Operand must be int or real");
+        }
+        return values[--size];
+    }
+
+    int popInt()
+    {
+        if (getType(0) != INTEGER)
+        {
+            throw new ClassCastException("Operand must be int");
+        }
+        return (int) values[--size];
+    }
+
+    boolean popBoolean()
+    {
+        if (getType(0) != BOOLEAN)
+        {
+            throw new ClassCastException("Operand must be bool");
+        }
+        return values[--size] != 0;
+    }
+
+    /**
+     * Returns the value at the given depth without removing it.
+     */
+    double peek(int depth)
+    {
+        getType(depth);
+        return values[size - depth - 1];
+    }
+
+    void pop()
+    {
+        if (size == 0)
+        {
+            throw new EmptyStackException();
+        }
+        size--;
+    }
+
+    /**
+     * Pushes a copy of the value at the given depth.
+     */
+    void pushCopy(int depth)
+    {
+        push(getType(depth), values[size - depth - 1]);
+    }
+
+    /**
+     * Rotates the topmost n values by the given distance towards the top of the stack.
+     */
+    void rotate(int n, int distance)
+    {
+        if (n > size)
+        {
+            throw new EmptyStackException();
+        }
+        reverse(size - n, size);
+        reverse(size - n, size - n + distance);
+        reverse(size - n + distance, size);
+    }
+
+    private void reverse(int from, int to)
+    {
+        for (int i = from, j = to - 1; i < j; i++, j--)
+        {
+            byte type = types[i];
+            types[i] = types[j];
+            types[j] = type;
+            double value = values[i];
+            values[i] = values[j];
+            values[j] = value;
+        }
+    }
+
+    /**
+     * Returns the value at the given index as Integer, Float or Boolean, like the values of an
+     * {@link ExecutionContext} stack.
+     */
+    Object get(int index)
+    {
+        switch (types[index])
+        {
+            case INTEGER:
+                return Integer.valueOf((int) values[index]);
+            case REAL:
+                return Float.valueOf((float) values[index]);
+            default:
+                return Boolean.valueOf(values[index] != 0);
+        }
+    }
+}
@@ -415,7 +415,16 @@ public abstract class SecurityHandler
     {
         decryptDictionary(stream, objNum, genNum);
         InputStream encryptedStream = stream.getFilteredStream();
-        encryptData(objNum, genNum, encryptedStream, stream.createFilteredStream(), true /* decrypt */);
+        // closing the output releases the encrypted data
+        OutputStream output = stream.createFilteredStream();
+        try
+        {
+            encryptData(objNum, genNum, encryptedStream, output, true /* decrypt */);
+        }
+        finally
+        {
+            output.close();
+        }
     }
 
     /**
@@ -432,7 +441,15 @@ public abstract class SecurityHandler
     public void encryptStream(COSStream stream, long objNum, long genNum) throws IOException
     {
         InputStream encryptedStream = stream.getFilteredStream();
-        encryptData(objNum, genNum, encryptedStream, stream.createFilteredStream(), false /* encrypt */);
+        OutputStream output = stream.createFilteredStream();
+        try
+        {
+            encryptData(objNum, genNum, encryptedStream, output, false /* encrypt */);
+        }
+        finally
+        {
+            output.close();
+        }
     }
 
     /**
@@ -20,8 +20,9 @@ import java.awt.Font;
 import java.awt.GraphicsEnvironment;
 import java.io.IOException;
 import java.util.Enumeration;
-import java.util.HashMap;
+import java.util.Map;
 import java.util.Properties;
+import java.util.concurrent.ConcurrentHashMap;
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
 
@@ -40,8 +41,8 @@ public class FontManager
      */
     private static final Log LOG = LogFactory.getLog(FontManager.class);
 
-    // HashMap with all known fonts
-    private static HashMap<String,java.awt.Font> envFonts = new HashMap<String,java.awt.Font>();
+    // all known fonts, fonts may be looked up by several threads rendering pages concurrently
+    private static final Map<String,java.awt.Font> envFonts = new ConcurrentHashMap<String,java.awt.Font>();
     // the standard font
     private final static String standardFont = "helvetica";
     private static Properties fontMapping = new Properties(); 
@@ -17,10 +17,12 @@
 package org.apache.pdfbox.pdmodel.font;
 
 import java.io.IOException;
-import java.io.InputStream;
-import java.util.HashMap;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
 import java.util.Map;
 import java.util.StringTokenizer;
+import java.util.TreeMap;
 
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
@@ -30,9 +32,7 @@ import org.apache.pdfbox.cos.COSDictionary;
 import org.apache.pdfbox.cos.COSInteger;
 import org.apache.pdfbox.cos.COSName;
 import org.apache.pdfbox.cos.COSNumber;
-import org.apache.pdfbox.io.IOUtils;
 import org.apache.pdfbox.pdmodel.common.PDRectangle;
-import org.apache.pdfbox.util.ResourceLoader;
 
 /**
  * This is implementation for the CIDFontType0/CIDFontType2 Fonts.
@@ -47,7 +47,17 @@ public abstract class PDCIDFont extends PDSimpleFont
      */
     private static final Log LOG = LogFactory.getLog(PDCIDFont.class);
 
-    private Map<Integer, Float> widthCache = null;
+    private static final int[] NO_CODES = new int[0];
+    private static final float[] NO_WIDTHS = new float[0];
+
+    /**
+     * The widths of the W array as ranges of character codes, sorted by their first code and
+     * without overlaps, to be looked up with a binary search.
+     */
+    private int[] widthStarts = NO_CODES;
+    private int[] widthEnds = NO_CODES;
+    private float[] widths = NO_WIDTHS;
+    private int widthCount = 0;
 
     private long defaultWidth = 0;
 
@@ -130,58 +140,148 @@ public abstract class PDCIDFont extends PDSimpleFont
     @Override
     public float getFontWidth(byte[] c, int offset, int length) throws IOException
     {
+        return getFontWidth(getCodeFromArray(c, offset, length));
+    }
 
-        float retval = getDefaultWidth();
-        int code = getCodeFromArray(c, offset, length);
+    private void extractWidths()
+    {
+        widthCount = 0;
+        COSArray wArray = (COSArray) font.getDictionaryObject(COSName.W);
+        if (wArray == null)
+        {
+            widthStarts = NO_CODES;
+            widthEnds = NO_CODES;
+            widths = NO_WIDTHS;
+            return;
+        }
+        widthStarts = new int[16];
+        widthEnds = new int[16];
+        widths = new float[16];
+        boolean sorted = true;
+        int size = wArray.size();
+        int counter = 0;
+        while (counter < size)
+        {
+            COSNumber firstCode = (COSNumber) wArray.getObject(counter++);
+            COSBase next = wArray.getObject(counter++);
+            if (next instanceof COSArray)
+            {
+                COSArray array = (COSArray) next;
+                int startRange = firstCode.intValue();
+                int arraySize = array.size();
+                for (int i = 0; i < arraySize; i++)
+                {
+                    COSNumber width = (COSNumber) array.get(i);
+                    sorted &= addWidths(startRange + i, startRange + i, width.floatValue());
+                }
+            }
+            else
+            {
+                COSNumber secondCode = (COSNumber) next;
+                COSNumber rangeWidth = (COSNumber) wArray.getObject(counter++);
+                sorted &= addWidths(firstCode.intValue(), secondCode.intValue(), rangeWidth.floatValue());
+            }
+        }
+        if (!sorted)
+        {
+            sortWidths();
+        }
+        widthStarts = Arrays.copyOf(widthStarts, widthCount);
+        widthEnds = Arrays.copyOf(widthEnds, widthCount);
+        widths = Arrays.copyOf(widths, widthCount);
+    }
 
-        Float widthFloat = widthCache.get(code);
-        if (widthFloat != null)
+    /**
+     * Appends a range of character codes with the same width, joining it with the previous
+     * range if they are adjacent and have the same width.
+     *
+     * @return false if the range doesn't follow the previous range
+     */
+    private boolean addWidths(int start, int end, float width)
+    {
+        if (end < start)
         {
-            retval = widthFloat.floatValue();
+            return true;
         }
-        return retval;
+        if (widthCount > 0)
+        {
+            int last = widthCount - 1;
+            if (start == widthEnds[last] + 1 && width == widths[last])
+            {
+                widthEnds[last] = end;
+                return true;
+            }
+        }
+        if (widthCount == widthStarts.length)
+        {
+            int capacity = widthCount * 2;
+            widthStarts = Arrays.copyOf(widthStarts, capacity);
+            widthEnds = Arrays.copyOf(widthEnds, capacity);
+            widths = Arrays.copyOf(widths, capacity);
+        }
+        widthStarts[widthCount] = start;
+        widthEnds[widthCount] = end;
+        widths[widthCount] = width;
+        widthCount++;
+        return widthCount == 1 || start > widthEnds[widthCount - 2];
     }
 
-    private void extractWidths()
+    /**
+     * Sorts ranges which are given in any order. A code of overlapping ranges keeps the width
+     * of the last range, as if the ranges were applied one after the other.
+     */
+    private void sortWidths()
     {
-        if (widthCache == null)
+        // the parts of the ranges which aren't covered by a later range by their first code,
+        // each part is given by its last code and the index of its range
+        TreeMap<Integer, int[]> parts = new TreeMap<Integer, int[]>();
+        List<int[]> gaps = new ArrayList<int[]>();
+        for (int i = widthCount - 1; i >= 0; i--)
         {
-            widthCache = new HashMap<Integer, Float>();
-            COSArray widths = (COSArray) font.getDictionaryObject(COSName.W);
-            if (widths != null)
+            int end = widthEnds[i];
+            int from = widthStarts[i];
+            Map.Entry<Integer, int[]> covering = parts.floorEntry(from);
+            if (covering != null && covering.getValue()[0] >= from)
             {
-                int size = widths.size();
-                int counter = 0;
-                while (counter < size)
+                if (covering.getValue()[0] >= end)
                 {
-                    COSNumber firstCode = (COSNumber) widths.getObject(counter++);
-                    COSBase next = widths.getObject(counter++);
-                    if (next instanceof COSArray)
-                    {
-                        COSArray array = (COSArray) next;
-                        int startRange = firstCode.intValue();
-                        int arraySize = array.size();
-                        for (int i = 0; i < arraySize; i++)
-                        {
-                            COSNumber width = (COSNumber) array.get(i);
-                            widthCache.put(startRange + i, width.floatValue());
-                        }
-                    }
-                    else
-                    {
-                        COSNumber secondCode = (COSNumber) next;
-                        COSNumber rangeWidth = (COSNumber) widths.getObject(counter++);
-                        int startRange = firstCode.intValue();
-                        int endRange = secondCode.intValue();
-                        float width = rangeWidth.floatValue();
-                        for (int i = startRange; i <= endRange; i++)
-                        {
-                            widthCache.put(i, width);
-                        }
-                    }
+                    continue;
+                }
+                from = covering.getValue()[0] + 1;
+            }
+            gaps.clear();
+            while (from <= end)
+            {
+                Map.Entry<Integer, int[]> following = parts.ceilingEntry(from);
+                if (following == null || following.getKey() > end)
+                {
+                    gaps.add(new int[] { from, end });
+                    break;
+                }
+                if (following.getKey() > from)
+                {
+                    gaps.add(new int[] { from, following.getKey() - 1 });
                 }
+                if (following.getValue()[0] >= end)
+                {
+                    break;
+                }
+                from = following.getValue()[0] + 1;
+            }
+            for (int[] gap : gaps)
+            {
+                parts.put(gap[0], new int[] { gap[1], i });
             }
         }
+        float[] values = widths;
+        widthStarts = new int[parts.size() + 1];
+        widthEnds = new int[parts.size() + 1];
+        widths = new float[parts.size() + 1];
+        widthCount = 0;
+        for (Map.Entry<Integer, int[]> part : parts.entrySet())
+        {
+            addWidths(part.getKey(), part.getValue()[0], values[part.getValue()[1]]);
+        }
     }
 
     /**
@@ -282,12 +382,17 @@ public abstract class PDCIDFont extends PDSimpleFont
     @Override
     public float getFontWidth(int charCode)
     {
-        float width = getDefaultWidth();
-        if (widthCache.containsKey(charCode))
+        int index = Arrays.binarySearch(widthStarts, 0, widthCount, charCode);
+        if (index < 0)
         {
-            width = widthCache.get(charCode);
+            // the range starting before the code
+            index = -index - 2;
         }
-        return width;
+        if (index >= 0 && charCode <= widthEnds[index])
+        {
+            return widths[index];
+        }
+        return getDefaultWidth();
     }
 
     /**
@@ -329,20 +434,11 @@ public abstract class PDCIDFont extends PDSimpleFont
             cmap = cmapObjects.get(cidSystemInfo);
             if (cmap == null)
             {
-            	InputStream cmapStream = null;
                 try
                 {
                     // look for a predefined CMap with the given name
-                    cmapStream = ResourceLoader.loadResource(resourceRootCMAP + cidSystemInfo);
-                    if (cmapStream != null)
-                    {
-                    	cmap = parseCmap(resourceRootCMAP, cmapStream);
-                    	if (cmap == null)
-                    	{
-                    		LOG.error("Error: Could not parse predefined CMAP file for '" + cidSystemInfo + "'");
-                    	}
-                    }
-                    else
+                    cmap = loadPredefinedCmap(cidSystemInfo);
+                    if (cmap == null)
                     {
                 		LOG.debug("Debug: '" + cidSystemInfo + "' isn't a predefined CMap, most likely it's embedded in the pdf itself.");
                     }
@@ -351,10 +447,6 @@ public abstract class PDCIDFont extends PDSimpleFont
                 {
                     LOG.error("Error: Could not find predefined CMAP file for '" + cidSystemInfo + "'");
                 }
-                finally
-                {
-                	IOUtils.closeQuietly(cmapStream);
-                }
             }
         }
         else
@@ -402,11 +494,6 @@ public abstract class PDCIDFont extends PDSimpleFont
 
     public void resetFontWidths(COSArray wArray)
     {
-        if (font.getItem(COSName.W) != null)
-        {
-            font.removeItem(COSName.W);
-            widthCache = null;
-        }
         font.setItem(COSName.W, wArray);
         extractWidths();
     }
@@ -29,6 +29,7 @@ import org.apache.commons.logging.LogFactory;
 import org.apache.fontbox.afm.FontMetric;
 import org.apache.fontbox.cmap.CMap;
 import org.apache.fontbox.cmap.CMapParser;
+import org.apache.fontbox.cmap.CompiledCMap;
 import org.apache.pdfbox.cos.COSArray;
 import org.apache.pdfbox.cos.COSBase;
 import org.apache.pdfbox.cos.COSDictionary;
@@ -36,10 +37,12 @@ import org.apache.pdfbox.cos.COSFloat;
 import org.apache.pdfbox.cos.COSInteger;
 import org.apache.pdfbox.cos.COSName;
 import org.apache.pdfbox.encoding.Encoding;
+import org.apache.pdfbox.io.IOUtils;
 import org.apache.pdfbox.pdmodel.common.COSArrayList;
 import org.apache.pdfbox.pdmodel.common.COSObjectable;
 import org.apache.pdfbox.pdmodel.common.PDMatrix;
 import org.apache.pdfbox.pdmodel.common.PDRectangle;
+import org.apache.pdfbox.util.ResourceLoader;
 
 /**
  * This is the base class for all PDF fonts.
@@ -94,6 +97,11 @@ public abstract class PDFont implements COSObjectable
      */
     private List<Integer> widths = null;
 
+    /**
+     * The widths as primitive floats.
+     */
+    private float[] widthValues = null;
+
     protected static final String resourceRootCMAP = "org/apache/pdfbox/resources/cmap/";
 
     /**
@@ -501,6 +509,56 @@ public abstract class PDFont implements COSObjectable
         return targetCmap;
     }
 
+    /**
+     * Load the predefined CMap with the given name. The compiled form of the CMap, created when
+     * building PDFBox, is used if available, otherwise the CMap is parsed.
+     * 
+     * @param cmapName the name of the predefined CMap
+     * @return the CMap, or null if there isn't any predefined CMap with the given name or if it
+     * couldn't be parsed
+     * @throws IOException if the CMap couldn't be opened
+     */
+    protected CMap loadPredefinedCmap(String cmapName) throws IOException
+    {
+        InputStream compiledStream = ResourceLoader.loadResource(resourceRootCMAP + cmapName
+                + CompiledCMap.SUFFIX);
+        if (compiledStream != null)
+        {
+            try
+            {
+                CMap targetCmap = CompiledCMap.read(compiledStream);
+                cmapObjects.put(targetCmap.getName(), targetCmap);
+                return targetCmap;
+            }
+            catch (IOException exception)
+            {
+                LOG.error("An error occurs while reading a compiled CMap, parsing it instead", exception);
+            }
+            finally
+            {
+                IOUtils.closeQuietly(compiledStream);
+            }
+        }
+        InputStream cmapStream = ResourceLoader.loadResource(resourceRootCMAP + cmapName);
+        if (cmapStream == null)
+        {
+            return null;
+        }
+        try
+        {
+            CMap targetCmap = parseCmap(resourceRootCMAP, cmapStream);
+            if (targetCmap == null)
+            {
+                LOG.error("Error: Could not parse predefined CMAP file for '" + cmapName + "'");
+            }
+            return targetCmap;
+        }
+        finally
+        {
+            IOUtils.closeQuietly(cmapStream);
+        }
+    }
+
     /**
      * The will set the encoding for this font.
      * 
@@ -692,6 +750,25 @@ public abstract class PDFont implements COSObjectable
         return widths;
     }
 
+    /**
+     * The widths of the characters as primitive floats, which are neither boxed nor rounded
+     * like the values of {@link #getWidths()}. This will be null for the standard 14 fonts.
+     * 
+     * @return The widths of the characters.
+     */
+    public float[] getWidthValues()
+    {
+        if (widthValues == null)
+        {
+            COSArray array = (COSArray) font.getDictionaryObject(COSName.WIDTHS);
+            if (array != null)
+            {
+                widthValues = array.toFloatArray();
+            }
+        }
+        return widthValues;
+    }
+
     /**
      * Set the widths of the characters code.
      * 
@@ -700,6 +777,7 @@ public abstract class PDFont implements COSObjectable
     public void setWidths(List<Integer> widthsList)
     {
         widths = widthsList;
+        widthValues = null;
         font.setItem(COSName.WIDTHS, COSArrayList.converterToCOSArray(widths));
     }
 
@@ -771,10 +849,10 @@ public abstract class PDFont implements COSObjectable
         if (charCode >= firstChar && charCode <= lastChar)
         {
             // maybe the font doesn't provide any widths
-            getWidths();
-            if (widths != null)
+            float[] values = getWidthValues();
+            if (values != null && charCode - firstChar < values.length)
             {
-                width = widths.get(charCode - firstChar).floatValue();
+                width = values[charCode - firstChar];
             }
         }
         else
@@ -18,7 +18,9 @@ package org.apache.pdfbox.pdmodel.font;
 
 import java.io.IOException;
 import java.io.InputStream;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.Map;
 
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
@@ -34,7 +36,6 @@ import org.apache.pdfbox.encoding.Encoding;
 import org.apache.pdfbox.encoding.EncodingManager;
 import org.apache.pdfbox.io.IOUtils;
 import org.apache.pdfbox.pdmodel.common.PDRectangle;
-import org.apache.pdfbox.util.ResourceLoader;
 
 /**
  * This class contains implementation details of the simple pdf fonts.
@@ -44,7 +45,9 @@ import org.apache.pdfbox.util.ResourceLoader;
  */
 public abstract class PDSimpleFont extends PDFont
 {
-    private final HashMap<Integer, Float> mFontSizes = new HashMap<Integer, Float>(128);
+    // the widths are cached lazily, maybe by several threads rendering pages concurrently
+    private final Map<Integer, Float> mFontSizes =
+            Collections.synchronizedMap(new HashMap<Integer, Float>(128));
 
     private float avgFontWidth = 0.0f;
     private float avgFontHeight = 0.0f;
@@ -312,20 +315,11 @@ public abstract class PDSimpleFont extends PDFont
 
         if (cmap == null && cmapName != null)
         {
-        	InputStream cmapStream = null;
             try
             {
                 // look for a predefined CMap with the given name
-                cmapStream = ResourceLoader.loadResource(resourceRootCMAP + cmapName);
-                if (cmapStream != null)
-                {
-                	cmap = parseCmap(resourceRootCMAP, cmapStream);
-                	if (cmap == null && encodingName == null)
-                	{
-                		LOG.error("Error: Could not parse predefined CMAP file for '" + cmapName + "'");
-                	}
-                }
-                else
+                cmap = loadPredefinedCmap(cmapName);
+                if (cmap == null)
                 {
             		LOG.debug("Debug: '" + cmapName + "' isn't a predefined map, most likely it's embedded in the pdf itself.");
                 }
@@ -334,10 +328,6 @@ public abstract class PDSimpleFont extends PDFont
             {
                 LOG.error("Error: Could not find predefined CMAP file for '" + cmapName + "'");
             }
-            finally
-            {
-            	IOUtils.closeQuietly(cmapStream);
-            }
         }
     }
 
@@ -369,10 +359,9 @@ public abstract class PDSimpleFont extends PDFont
                 if (toUnicodeCmap == null)
                 {
                     cmapName = encodingName.getName();
-                    String resourceName = resourceRootCMAP + cmapName;
                     try
                     {
-                        toUnicodeCmap = parseCmap(resourceRootCMAP, ResourceLoader.loadResource(resourceName));
+                        toUnicodeCmap = loadPredefinedCmap(cmapName);
                     }
                     catch (IOException exception)
                     {
@@ -380,7 +369,7 @@ public abstract class PDSimpleFont extends PDFont
                     }
                     if (toUnicodeCmap == null)
                     {
-                        LOG.error("Error: Could not parse predefined ToUnicode CMap file for '" + cmapName + "'");
+                        LOG.error("Error: Could not find predefined ToUnicode CMap file for '" + cmapName + "'");
                     }
                 }
             }
@@ -30,7 +30,6 @@ import java.util.Properties;
 
 import org.apache.fontbox.ttf.CMAPEncodingEntry;
 import org.apache.fontbox.ttf.CMAPTable;
-import org.apache.fontbox.ttf.GlyphData;
 import org.apache.fontbox.ttf.GlyphTable;
 import org.apache.fontbox.ttf.HeaderTable;
 import org.apache.fontbox.ttf.HorizontalHeaderTable;
@@ -66,7 +65,7 @@ public class PDTrueTypeFont extends PDSimpleFont
     private static final String UNKNOWN_FONT = "UNKNOWN_FONT";
 
     private static Properties externalFonts = new Properties();
-    private static Map<String, TrueTypeFont> loadedExternalFonts = new HashMap<String, TrueTypeFont>();
+    private static final Map<String, TrueTypeFont> loadedExternalFonts = new HashMap<String, TrueTypeFont>();
 
     static
     {
@@ -286,7 +285,6 @@ public class PDTrueTypeFont extends PDSimpleFont
             fd.setDescent(hHeader.getDescender() * scaling);
 
             GlyphTable glyphTable = ttf.getGlyph();
-            GlyphData[] glyphs = glyphTable.getGlyphs();
 
             PostScriptTable ps = ttf.getPostScript();
             fd.setFixedPitch(ps.getIsFixedPitch() > 0);
@@ -302,11 +300,11 @@ public class PDTrueTypeFont extends PDSimpleFont
                     // tallest letter
                     if (names[i].equals("H"))
                     {
-                        fd.setCapHeight(glyphs[i].getBoundingBox().getUpperRightY() / scaling);
+                        fd.setCapHeight(glyphTable.getGlyph(i).getBoundingBox().getUpperRightY() / scaling);
                     }
                     if (names[i].equals("x"))
                     {
-                        fd.setXHeight(glyphs[i].getBoundingBox().getUpperRightY() / scaling);
+                        fd.setXHeight(glyphTable.getGlyph(i).getBoundingBox().getUpperRightY() / scaling);
                     }
                 }
             }
@@ -412,17 +410,21 @@ public class PDTrueTypeFont extends PDSimpleFont
         }
         if (fontResource != null)
         {
-            retval = (TrueTypeFont) loadedExternalFonts.get(baseFont);
-            if (retval == null)
+            // the loaded fonts are shared by all documents and threads
+            synchronized (loadedExternalFonts)
             {
-                TTFParser ttfParser = new TTFParser();
-                InputStream fontStream = ResourceLoader.loadResource(fontResource);
-                if (fontStream == null)
+                retval = (TrueTypeFont) loadedExternalFonts.get(baseFont);
+                if (retval == null)
                 {
-                    throw new IOException("Error missing font resource '" + externalFonts.get(baseFont) + "'");
+                    TTFParser ttfParser = new TTFParser();
+                    InputStream fontStream = ResourceLoader.loadResource(fontResource);
+                    if (fontStream == null)
+                    {
+                        throw new IOException("Error missing font resource '" + externalFonts.get(baseFont) + "'");
+                    }
+                    retval = ttfParser.parseTTF(fontStream);
+                    loadedExternalFonts.put(baseFont, retval);
                 }
-                retval = ttfParser.parseTTF(fontStream);
-                loadedExternalFonts.put(baseFont, retval);
             }
         }
         return retval;
@@ -325,7 +325,6 @@ public class PDType0TTFont extends PDType0Font
         fd.setDescent(Math.round(hHeader.getDescender() * scaling));
 
         GlyphTable glyphTable = ttf.getGlyph();
-        GlyphData[] glyphs = glyphTable.getGlyphs();
 
         PostScriptTable ps = ttf.getPostScript();
         fd.setFixedPitch(ps.getIsFixedPitch() > 0);
@@ -341,11 +340,11 @@ public class PDType0TTFont extends PDType0Font
                 // tallest letter
                 if (names[i].equals("H"))
                 {
-                    fd.setCapHeight(Math.round(glyphs[i].getBoundingBox().getUpperRightY() / scaling));
+                    fd.setCapHeight(Math.round(glyphTable.getGlyph(i).getBoundingBox().getUpperRightY() / scaling));
                 }
                 if (names[i].equals("x"))
                 {
-                    fd.setXHeight(Math.round(glyphs[i].getBoundingBox().getUpperRightY() / scaling));
+                    fd.setXHeight(Math.round(glyphTable.getGlyph(i).getBoundingBox().getUpperRightY() / scaling));
                 }
             }
         }
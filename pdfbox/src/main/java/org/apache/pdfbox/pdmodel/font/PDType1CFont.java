@@ -23,6 +23,7 @@ import java.io.IOException;
 import java.io.InputStream;
 import java.util.Arrays;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.LinkedHashMap;
 import java.util.List;
@@ -64,9 +65,9 @@ public class PDType1CFont extends PDSimpleFont
 
     private FontMetric fontMetric = null;
 
-    private Map<String, Float> glyphWidths = new HashMap<String, Float>();
+    private Map<String, Float> glyphWidths = Collections.synchronizedMap(new HashMap<String, Float>());
 
-    private Map<String, Float> glyphHeights = new HashMap<String, Float>();
+    private Map<String, Float> glyphHeights = Collections.synchronizedMap(new HashMap<String, Float>());
 
     private Float avgWidth = null;
 
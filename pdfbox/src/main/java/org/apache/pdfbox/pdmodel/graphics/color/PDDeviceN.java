@@ -28,6 +28,7 @@ import java.awt.Graphics2D;
 import java.awt.Point;
 import java.awt.image.BufferedImage;
 import java.awt.image.DataBuffer;
+import java.awt.image.DataBufferInt;
 import java.awt.image.Raster;
 import java.awt.image.WritableRaster;
 import java.io.IOException;
@@ -226,26 +227,37 @@ public class PDDeviceN extends PDSpecialColorSpace
             WritableRaster componentRaster = Raster.createBandedRaster(DataBuffer.TYPE_BYTE,
                 width, height, componentColorSpace.getNumberOfComponents(), new Point(0, 0));
 
-            int[] samples = new int[numColorants];
-            int[] componentSamples = new int[componentColorSpace.getNumberOfComponents()];
             boolean isProcessColorant = colorantToComponent[c] >= 0;
             int componentIndex = colorantToComponent[c];
-            for (int y = 0; y < height; y++)
+            byte[][] banks = getBankData(raster);
+            byte[][] componentBanks = getBankData(componentRaster);
+            if (banks != null && componentBanks != null)
             {
-                for (int x = 0; x < width; x++)
+                // copy the band directly
+                System.arraycopy(banks[c], 0, componentBanks[isProcessColorant ? componentIndex : 0],
+                        0, width * height);
+            }
+            else
+            {
+                int[] samples = new int[numColorants];
+                int[] componentSamples = new int[componentColorSpace.getNumberOfComponents()];
+                for (int y = 0; y < height; y++)
                 {
-                    raster.getPixel(x, y, samples);
-                    if (isProcessColorant)
-                    {
-                        // process color
-                        componentSamples[componentIndex] = samples[c];
-                    }
-                    else
+                    for (int x = 0; x < width; x++)
                     {
-                        // spot color
-                        componentSamples[0] = samples[c];
+                        raster.getPixel(x, y, samples);
+                        if (isProcessColorant)
+                        {
+                            // process color
+                            componentSamples[componentIndex] = samples[c];
+                        }
+                        else
+                        {
+                            // spot color
+                            componentSamples[0] = samples[c];
+                        }
+                        componentRaster.setPixel(x, y, componentSamples);
                     }
-                    componentRaster.setPixel(x, y, componentSamples);
                 }
             }
 
@@ -253,22 +265,23 @@ public class PDDeviceN extends PDSpecialColorSpace
             BufferedImage rgbComponentImage = componentColorSpace.toRGBImage(componentRaster);
             WritableRaster rgbComponentRaster = rgbComponentImage.getRaster();
 
-            // combine the RGB component with the RGB composite raster
-            int[] rgbChannel = new int[3];
-            int[] rgbComposite = new int[3];
+            // combine the RGB component with the RGB composite raster, row by row
+            int[] rgbChannels = new int[width * 3];
+            int[] rgbComposite = ((DataBufferInt) rgbRaster.getDataBuffer()).getData();
+            int offset = 0;
             for (int y = 0; y < height; y++)
             {
+                rgbComponentRaster.getPixels(0, y, width, 1, rgbChannels);
                 for (int x = 0; x < width; x++)
                 {
-                    rgbComponentRaster.getPixel(x, y, rgbChannel);
-                    rgbRaster.getPixel(x, y, rgbComposite);
+                    int composite = rgbComposite[offset];
 
                     // multiply (blend mode)
-                    rgbChannel[0] = rgbChannel[0] * rgbComposite[0] >> 8;
-                    rgbChannel[1] = rgbChannel[1] * rgbComposite[1] >> 8;
-                    rgbChannel[2] = rgbChannel[2] * rgbComposite[2] >> 8;
+                    int red = rgbChannels[x * 3] * (composite >> 16 & 0xFF) >> 8;
+                    int green = rgbChannels[x * 3 + 1] * (composite >> 8 & 0xFF) >> 8;
+                    int blue = rgbChannels[x * 3 + 2] * (composite & 0xFF) >> 8;
 
-                    rgbRaster.setPixel(x, y, rgbChannel);
+                    rgbComposite[offset++] = (red & 0xFF) << 16 | (green & 0xFF) << 8 | blue & 0xFF;
                 }
             }
         }
@@ -291,6 +304,16 @@ public class PDDeviceN extends PDSpecialColorSpace
 
         int numAltComponents = alternateColorSpace.getNumberOfComponents();
         int numSrcComponents = getColorantNames().size();
+
+        byte[][] banks = getBankData(raster);
+        byte[][] altBanks = getBankData(altRaster);
+        if (banks != null && altBanks != null && numSrcComponents == banks.length
+                && numSrcComponents <= 4)
+        {
+            toAlternate(banks, altBanks, width * height);
+            return alternateColorSpace.toRGBImage(altRaster);
+        }
+
         float[] src = new float[numSrcComponents];
         int[] alt = new int[numAltComponents];
         for (int y = 0; y < height; y++)
@@ -324,6 +347,109 @@ public class PDDeviceN extends PDSpecialColorSpace
         return alternateColorSpace.toRGBImage(altRaster);
     }
 
+    /**
+     * Converts the samples to the alternate color space, the tint transform is evaluated once
+     * for each color which occurs. The colors are kept in a hash table keyed by the packed
+     * samples of up to four components.
+     */
+    private void toAlternate(byte[][] banks, byte[][] altBanks, int count) throws IOException
+    {
+        int numSrcComponents = banks.length;
+        int numAltComponents = altBanks.length;
+        float[] src = new float[numSrcComponents];
+
+        // open addressing table from the packed samples to the index of the converted color + 1
+        int[] keys = new int[256];
+        int[] entries = new int[256];
+        byte[] altColors = new byte[64 * numAltComponents];
+        int colorCount = 0;
+
+        int lastKey = 0;
+        int lastOffset = -1;
+        for (int i = 0; i < count; i++)
+        {
+            int key = 0;
+            for (int s = 0; s < numSrcComponents; s++)
+            {
+                key = key << 8 | banks[s][i] & 0xFF;
+            }
+            int offset;
+            if (key == lastKey && lastOffset >= 0)
+            {
+                offset = lastOffset;
+            }
+            else
+            {
+                int mask = keys.length - 1;
+                int slot = slot(key, mask);
+                while (entries[slot] != 0 && keys[slot] != key)
+                {
+                    slot = (slot + 1) & mask;
+                }
+                if (entries[slot] == 0)
+                {
+                    // convert to alternate color space via tint transform
+                    for (int s = 0; s < numSrcComponents; s++)
+                    {
+                        // scale to 0..1
+                        src[s] = (float) (banks[s][i] & 0xFF) / 255;
+                    }
+                    float[] result = tintTransform.eval(src);
+                    if ((colorCount + 1) * numAltComponents > altColors.length)
+                    {
+                        altColors = Arrays.copyOf(altColors, altColors.length * 2);
+                    }
+                    for (int s = 0; s < numAltComponents; s++)
+                    {
+                        // scale to 0..255
+                        altColors[colorCount * numAltComponents + s] = (byte) (int) (result[s] * 255f);
+                    }
+                    colorCount++;
+                    keys[slot] = key;
+                    entries[slot] = colorCount;
+                    if (colorCount * 2 > keys.length)
+                    {
+                        int[] oldKeys = keys;
+                        int[] oldEntries = entries;
+                        keys = new int[oldKeys.length * 2];
+                        entries = new int[oldEntries.length * 2];
+                        mask = keys.length - 1;
+                        for (int j = 0; j < oldKeys.length; j++)
+                        {
+                            if (oldEntries[j] != 0)
+                            {
+                                int newSlot = slot(oldKeys[j], mask);
+                                while (entries[newSlot] != 0)
+                                {
+                                    newSlot = (newSlot + 1) & mask;
+                                }
+                                keys[newSlot] = oldKeys[j];
+                                entries[newSlot] = oldEntries[j];
+                            }
+                        }
+                    }
+                    offset = (colorCount - 1) * numAltComponents;
+                }
+                else
+                {
+                    offset = (entries[slot] - 1) * numAltComponents;
+                }
+                lastKey = key;
+                lastOffset = offset;
+            }
+            for (int s = 0; s < numAltComponents; s++)
+            {
+                altBanks[s][i] = altColors[offset + s];
+            }
+        }
+    }
+
+    private static int slot(int key, int mask)
+    {
+        int hash = key * 0x9E3779B9;
+        return (hash ^ (hash >>> 16)) & mask;
+    }
+
     @Override
     public float[] toRGB(float[] value) throws IOException
     {
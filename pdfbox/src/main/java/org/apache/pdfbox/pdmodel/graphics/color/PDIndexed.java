@@ -19,6 +19,7 @@ package org.apache.pdfbox.pdmodel.graphics.color;
 import java.awt.Point;
 import java.awt.image.BufferedImage;
 import java.awt.image.DataBuffer;
+import java.awt.image.DataBufferInt;
 import java.awt.image.Raster;
 import java.awt.image.WritableRaster;
 import java.io.IOException;
@@ -51,6 +52,8 @@ public final class PDIndexed extends PDSpecialColorSpace
     private float[][] colorTable;
     private int actualMaxIndex;
     private int[][] rgbColorTable;
+    // packed RGB of each of the 256 sample values
+    private int[] rgbLookup;
 
     /**
      * Creates a new Indexed color space.
@@ -135,6 +138,14 @@ public final class PDIndexed extends PDSpecialColorSpace
         {
             rgbColorTable[i] = rgbRaster.getPixel(i, 0, nil);
         }
+
+        // samples greater than hival are clamped
+        rgbLookup = new int[256];
+        for (int i = 0; i < 256; i++)
+        {
+            int[] rgb = rgbColorTable[Math.min(i, actualMaxIndex)];
+            rgbLookup[i] = (rgb[0] & 0xFF) << 16 | (rgb[1] & 0xFF) << 8 | rgb[2] & 0xFF;
+        }
     }
 
     //
@@ -171,6 +182,19 @@ public final class PDIndexed extends PDSpecialColorSpace
         BufferedImage rgbImage = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
         WritableRaster rgbRaster = rgbImage.getRaster();
 
+        byte[][] banks = getBankData(raster);
+        if (banks != null)
+        {
+            // convert the samples directly
+            byte[] samples = banks[0];
+            int[] rgb = ((DataBufferInt) rgbRaster.getDataBuffer()).getData();
+            for (int i = 0, n = width * height; i < n; i++)
+            {
+                rgb[i] = rgbLookup[samples[i] & 0xFF];
+            }
+            return rgbImage;
+        }
+
         int[] src = new int[1];
         for (int y = 0; y < height; y++)
         {
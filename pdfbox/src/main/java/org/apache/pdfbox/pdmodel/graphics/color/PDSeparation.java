@@ -120,6 +120,15 @@ public class PDSeparation extends PDSpecialColorSpace
         int numAltComponents = alternateColorSpace.getNumberOfComponents();
         int width = raster.getWidth();
         int height = raster.getHeight();
+
+        byte[][] banks = getBankData(raster);
+        byte[][] altBanks = getBankData(altRaster);
+        if (banks != null && altBanks != null)
+        {
+            toAlternate(banks[0], altBanks, width * height);
+            return alternateColorSpace.toRGBImage(altRaster);
+        }
+
         float[] samples = new float[1];
 
         Map<Integer, int[]> calculatedValues = new HashMap<Integer, int[]>();
@@ -144,6 +153,43 @@ public class PDSeparation extends PDSpecialColorSpace
         return alternateColorSpace.toRGBImage(altRaster);
     }
 
+    /**
+     * Converts the samples to the alternate color space using a lookup table of the 256 possible
+     * sample values, the tint transform is evaluated once for each value which occurs.
+     */
+    private void toAlternate(byte[] samples, byte[][] altBanks, int count) throws IOException
+    {
+        boolean[] used = new boolean[256];
+        for (int i = 0; i < count; i++)
+        {
+            used[samples[i] & 0xFF] = true;
+        }
+        byte[][] lookup = new byte[altBanks.length][256];
+        float[] sample = new float[1];
+        int[] alt = new int[altBanks.length];
+        for (int value = 0; value < 256; value++)
+        {
+            if (used[value])
+            {
+                sample[0] = value;
+                tintTransform(sample, alt);
+                for (int c = 0; c < alt.length; c++)
+                {
+                    lookup[c][value] = (byte) alt[c];
+                }
+            }
+        }
+        for (int c = 0; c < altBanks.length; c++)
+        {
+            byte[] altSamples = altBanks[c];
+            byte[] componentLookup = lookup[c];
+            for (int i = 0; i < count; i++)
+            {
+                altSamples[i] = componentLookup[samples[i] & 0xFF];
+            }
+        }
+    }
+
     protected void tintTransform(float samples[], int alt[]) throws IOException
     {
         samples[0] /= 255; // 0..1
@@ -16,6 +16,11 @@
  */
 package org.apache.pdfbox.pdmodel.graphics.color;
 
+import java.awt.image.BandedSampleModel;
+import java.awt.image.DataBuffer;
+import java.awt.image.DataBufferByte;
+import java.awt.image.Raster;
+
 import org.apache.pdfbox.cos.COSBase;
 
 /**
@@ -30,4 +35,41 @@ public abstract class PDSpecialColorSpace extends PDColorSpace
     {
         return array;
     }
+
+    /**
+     * Returns the banks of the given raster if it is a byte raster as created by
+     * Raster.createBandedRaster, with one bank of width * height samples per band. The samples
+     * of such a raster can be converted directly instead of pixel by pixel.
+     *
+     * @param raster the raster
+     * @return the banks, or null if the raster has another layout
+     */
+    static byte[][] getBankData(Raster raster)
+    {
+        DataBuffer dataBuffer = raster.getDataBuffer();
+        if (!(dataBuffer instanceof DataBufferByte) || raster.getParent() != null
+                || raster.getSampleModelTranslateX() != 0 || raster.getSampleModelTranslateY() != 0
+                || !(raster.getSampleModel() instanceof BandedSampleModel))
+        {
+            return null;
+        }
+        BandedSampleModel sampleModel = (BandedSampleModel) raster.getSampleModel();
+        if (sampleModel.getScanlineStride() != raster.getWidth()
+                || dataBuffer.getNumBanks() != raster.getNumBands())
+        {
+            return null;
+        }
+        int[] bankIndices = sampleModel.getBankIndices();
+        int[] bandOffsets = sampleModel.getBandOffsets();
+        int size = raster.getWidth() * raster.getHeight();
+        for (int b = 0; b < raster.getNumBands(); b++)
+        {
+            if (bankIndices[b] != b || bandOffsets[b] != 0 || dataBuffer.getOffsets()[b] != 0
+                    || dataBuffer.getSize() < size)
+            {
+                return null;
+            }
+        }
+        return ((DataBufferByte) dataBuffer).getBankData();
+    }
 }
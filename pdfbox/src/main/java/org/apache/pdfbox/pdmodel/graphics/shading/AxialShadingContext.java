@@ -27,8 +27,6 @@ import java.awt.image.Raster;
 import java.awt.image.WritableRaster;
 import java.io.IOException;
 
-import org.apache.commons.logging.Log;
-import org.apache.commons.logging.LogFactory;
 import org.apache.pdfbox.cos.COSArray;
 import org.apache.pdfbox.cos.COSBoolean;
 import org.apache.pdfbox.pdmodel.graphics.color.PDColorSpace;
@@ -39,8 +37,6 @@ import org.apache.pdfbox.util.Matrix;
  */
 class AxialShadingContext implements PaintContext
 {
-    private static final Log LOG = LogFactory.getLog(AxialShadingContext.class);
-
     private ColorModel outputColorModel;
     private PDColorSpace shadingColorSpace;
     private PDShadingType2 shading;
@@ -51,9 +47,12 @@ class AxialShadingContext implements PaintContext
     private boolean[] extend;
     private double x1x0;
     private double y1y0;
-    private float d1d0;
     private double denom;
 
+    // RGB values of the shading function
+    private ShadingColorTable colorTable;
+    private int rgbBackground;
+
     /**
      * Constructor creates an instance to be used for fill operations.
      * @param shading the shading type to be used
@@ -106,7 +105,6 @@ class AxialShadingContext implements PaintContext
         // calculate some constants to be used in getRaster
         x1x0 = coords[2] - coords[0];
         y1y0 = coords[3] - coords[1];
-        d1d0 = domain[1] - domain[0];
         denom = Math.pow(x1x0, 2) + Math.pow(y1y0, 2);
 
         // get background values if available
@@ -114,7 +112,11 @@ class AxialShadingContext implements PaintContext
         if (bg != null)
         {
             background = bg.toFloatArray();
+            rgbBackground = ShadingColorTable.convertToRGB(shadingColorSpace, background);
         }
+
+        // at least one step of the color table per device pixel along the axis
+        colorTable = new ShadingColorTable(shading, shadingColorSpace, domain, Math.sqrt(denom));
     }
 
     @Override
@@ -123,6 +125,7 @@ class AxialShadingContext implements PaintContext
         outputColorModel = null;
         shadingColorSpace = null;
         shading = null;
+        colorTable = null;
     }
 
     @Override
@@ -201,37 +204,21 @@ class AxialShadingContext implements PaintContext
                         }
                     }
                 }
-                float[] values = null;
-                int index = (j * w + i) * 4;
+                int value;
                 if (useBackground)
                 {
                     // use the given backgound color values
-                    values = background;
+                    value = rgbBackground;
                 }
                 else
                 {
-                    try
-                    {
-                        float input = (float) (domain[0] + (d1d0 * inputValue));
-                        values = shading.evalFunction(input);
-                    }
-                    catch (IOException exception)
-                    {
-                        LOG.error("error while processing a function", exception);
-                    }
-                }
-                // convert color values from shading color space to RGB if necessary
-                try
-                {
-                    values = shadingColorSpace.toRGB(values);
+                    // look up the nearest step of the color table
+                    value = colorTable.getRGB(inputValue);
                 }
-                catch (IOException exception)
-                {
-                    LOG.error("error processing color space", exception);
-                }
-                data[index] = (int) (values[0] * 255);
-                data[index + 1] = (int) (values[1] * 255);
-                data[index + 2] = (int) (values[2] * 255);
+                int index = (j * w + i) * 4;
+                data[index] = value >> 16 & 0xFF;
+                data[index + 1] = value >> 8 & 0xFF;
+                data[index + 2] = value & 0xFF;
                 data[index + 3] = 255;
             }
         }
@@ -27,8 +27,6 @@ import java.awt.image.Raster;
 import java.awt.image.WritableRaster;
 import java.io.IOException;
 
-import org.apache.commons.logging.Log;
-import org.apache.commons.logging.LogFactory;
 import org.apache.pdfbox.cos.COSArray;
 import org.apache.pdfbox.cos.COSBoolean;
 import org.apache.pdfbox.pdmodel.graphics.color.PDColorSpace;
@@ -39,8 +37,6 @@ import org.apache.pdfbox.util.Matrix;
  */
 class RadialShadingContext implements PaintContext
 {
-    private static final Log LOG = LogFactory.getLog(RadialShadingContext.class);
-
     private ColorModel outputColorModel;
     private PDColorSpace shadingColorSpace;
     private PDShadingType3 shading;
@@ -56,9 +52,12 @@ class RadialShadingContext implements PaintContext
     private double y1y0pow2;
     private double r0pow2;
 
-    private float d1d0;
     private double denom;
 
+    // RGB values of the shading function
+    private ShadingColorTable colorTable;
+    private int rgbBackground;
+
     /**
      * Constructor creates an instance to be used for fill operations.
      * @param shading the shading type to be used
@@ -126,14 +125,18 @@ class RadialShadingContext implements PaintContext
         y1y0pow2 = Math.pow(y1y0, 2);
         r0pow2 = Math.pow(coords[2], 2);
         denom = x1x0pow2 + y1y0pow2 - Math.pow(r1r0, 2);
-        d1d0 = domain[1] - domain[0];
 
         // get background values if available
         COSArray bg = shading.getBackground();
         if (bg != null)
         {
             background = bg.toFloatArray();
+            rgbBackground = ShadingColorTable.convertToRGB(shadingColorSpace, background);
         }
+
+        double longestDistance = Math.sqrt(x1x0pow2 + y1y0pow2) + Math.abs(r1r0);
+        // at least one step of the color table per device pixel the circles move or grow
+        colorTable = new ShadingColorTable(shading, shadingColorSpace, domain, longestDistance);
     }
 
     @Override
@@ -142,6 +145,7 @@ class RadialShadingContext implements PaintContext
         outputColorModel = null;
         shading = null;
         shadingColorSpace = null;
+        colorTable = null;
     }
 
     @Override
@@ -264,37 +268,21 @@ class RadialShadingContext implements PaintContext
                         }
                     }
                 }
-                float[] values = null;
-                int index = (j * w + i) * 4;
+                int value;
                 if (useBackground)
                 {
                     // use the given backgound color values
-                    values = background;
+                    value = rgbBackground;
                 }
                 else
                 {
-                    try
-                    {
-                        float input = (float) (domain[0] + (d1d0 * inputValue));
-                        values = shading.evalFunction(input);
-                    }
-                    catch (IOException exception)
-                    {
-                        LOG.error("error while processing a function", exception);
-                    }
-                }
-                // convert color values from shading color space to RGB
-                try
-                {
-                    values = shadingColorSpace.toRGB(values);
+                    // look up the nearest step of the color table
+                    value = colorTable.getRGB(inputValue);
                 }
-                catch (IOException exception)
-                {
-                    LOG.error("error processing color space", exception);
-                }
-                data[index] = (int) (values[0] * 255);
-                data[index + 1] = (int) (values[1] * 255);
-                data[index + 2] = (int) (values[2] * 255);
+                int index = (j * w + i) * 4;
+                data[index] = value >> 16 & 0xFF;
+                data[index + 1] = value >> 8 & 0xFF;
+                data[index + 2] = value & 0xFF;
                 data[index + 3] = 255;
             }
         }
@@ -0,0 +1,111 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.pdfbox.pdmodel.graphics.shading;
+
+import java.io.IOException;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.apache.pdfbox.pdmodel.graphics.color.PDColorSpace;
+
+/**
+ * RGB values of the function of an axial or radial shading, evaluated once for each step of its
+ * domain, so that the paint contexts only have to look up the color of a pixel instead of
+ * evaluating the function for each pixel.
+ */
+class ShadingColorTable
+{
+    private static final Log LOG = LogFactory.getLog(ShadingColorTable.class);
+
+    // upper limit of the size of the color table
+    private static final int MAX_FACTOR = 65536;
+
+    private final float[] domain;
+    private final float d1d0;
+    // number of steps of the color table
+    private final int factor;
+    // RGB values of the shading function for each step
+    private final int[] colorTable;
+
+    /**
+     * Constructor.
+     * @param shading the shading whose function is evaluated
+     * @param colorSpace the color space of the shading
+     * @param domain the domain of the shading
+     * @param length the length in device pixels along which the colors change, there is at
+     * least one step per pixel
+     */
+    ShadingColorTable(PDShading shading, PDColorSpace colorSpace, float[] domain, double length)
+    {
+        this.domain = domain;
+        d1d0 = domain[1] - domain[0];
+        factor = (int) Math.min(Math.ceil(length), MAX_FACTOR);
+        colorTable = new int[factor + 1];
+        for (int k = 0; k <= factor; k++)
+        {
+            float inputValue = factor == 0 ? domain[0] : domain[0] + d1d0 * k / factor;
+            try
+            {
+                float input = domain[0] + d1d0 * inputValue;
+                colorTable[k] = convertToRGB(colorSpace, shading.evalFunction(input));
+            }
+            catch (IOException exception)
+            {
+                LOG.error("error while processing a function", exception);
+            }
+        }
+    }
+
+    /**
+     * Returns the RGB value of the nearest step of the color table for the given input value.
+     * @param inputValue the input value within the domain
+     * @return the packed RGB value
+     */
+    int getRGB(double inputValue)
+    {
+        return colorTable[getKey(inputValue)];
+    }
+
+    /**
+     * Returns the index of the color table entry for the given input value.
+     */
+    private int getKey(double inputValue)
+    {
+        if (factor == 0 || d1d0 == 0)
+        {
+            return 0;
+        }
+        int key = (int) ((inputValue - domain[0]) / d1d0 * factor + 0.5);
+        return Math.max(0, Math.min(factor, key));
+    }
+
+    /**
+     * Converts the given color values from the shading color space to packed RGB values.
+     * @param colorSpace the color space of the shading
+     * @param values the color values of the shading color space
+     * @return the RGB value
+     * @throws IOException if the color values could not be converted
+     */
+    static int convertToRGB(PDColorSpace colorSpace, float[] values) throws IOException
+    {
+        float[] rgb = colorSpace.toRGB(values);
+        int r = (int) (rgb[0] * 255) & 0xFF;
+        int g = (int) (rgb[1] * 255) & 0xFF;
+        int b = (int) (rgb[2] * 255) & 0xFF;
+        return r << 16 | g << 8 | b;
+    }
+}
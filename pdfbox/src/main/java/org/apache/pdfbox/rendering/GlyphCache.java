@@ -0,0 +1,194 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.pdfbox.rendering;
+
+import java.awt.geom.GeneralPath;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.apache.pdfbox.cos.COSBase;
+import org.apache.pdfbox.pdfviewer.font.Glyph2D;
+
+/**
+ * Glyph outlines of a document, shared by all pages rendered by the same {@link PDFRenderer}.
+ * PDFont objects are created per page, so fonts are identified by their COS dictionary, which
+ * is the same object on every page using the font. Both the Glyph2D instances and the glyph
+ * outlines are kept in LRU order and the least recently used entries are dropped once the
+ * given limits are exceeded. The Glyph2D implementations don't keep the paths they create, so
+ * that the outlines of this cache are the only ones kept, and the outlines of a dropped font
+ * are dropped with it.
+ *
+ * The cache is thread-safe, as pages may be rendered concurrently.
+ */
+final class GlyphCache
+{
+    private final Map<COSBase, Glyph2D> fonts;
+    private final Map<GlyphKey, GeneralPath> glyphs;
+
+    /**
+     * Creates a new glyph cache.
+     *
+     * @param maxFonts the maximum number of fonts to be kept
+     * @param maxGlyphs the maximum number of glyph outlines to be kept
+     */
+    GlyphCache(final int maxFonts, final int maxGlyphs)
+    {
+        fonts = new LinkedHashMap<COSBase, Glyph2D>(16, 0.75f, true)
+        {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<COSBase, Glyph2D> eldest)
+            {
+                if (size() > maxFonts)
+                {
+                    removeGlyphs(eldest.getKey());
+                    return true;
+                }
+                return false;
+            }
+        };
+        glyphs = new LinkedHashMap<GlyphKey, GeneralPath>(256, 0.75f, true)
+        {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<GlyphKey, GeneralPath> eldest)
+            {
+                return size() > maxGlyphs;
+            }
+        };
+    }
+
+    /**
+     * Returns the Glyph2D of the given font.
+     *
+     * @param font the COS dictionary of the font
+     * @return the Glyph2D or null if there isn't any
+     */
+    synchronized Glyph2D getGlyph2D(COSBase font)
+    {
+        return fonts.get(font);
+    }
+
+    /**
+     * Adds the Glyph2D of the given font. Evicted instances aren't disposed, as they may still
+     * be used by a page being rendered, they are dropped once that page is done.
+     *
+     * @param font the COS dictionary of the font
+     * @param glyph2D the Glyph2D of the font
+     */
+    synchronized void putGlyph2D(COSBase font, Glyph2D glyph2D)
+    {
+        fonts.put(font, glyph2D);
+    }
+
+    /**
+     * Returns the outline of the given character code. The outline is created by the given
+     * Glyph2D if it isn't cached yet. The returned path is shared and must not be modified.
+     *
+     * @param font the COS dictionary of the font
+     * @param glyph2D the Glyph2D of the font
+     * @param code the character code
+     * @return the outline or null if there isn't any glyph for the given code
+     */
+    GeneralPath getPath(COSBase font, Glyph2D glyph2D, int code)
+    {
+        GlyphKey key = new GlyphKey(font, code);
+        synchronized (this)
+        {
+            if (glyphs.containsKey(key))
+            {
+                return glyphs.get(key);
+            }
+        }
+        GeneralPath path;
+        // Glyph2D implementations aren't thread-safe
+        synchronized (glyph2D)
+        {
+            path = glyph2D.getPathForCharacterCode(code);
+        }
+        synchronized (this)
+        {
+            glyphs.put(key, path);
+        }
+        return path;
+    }
+
+    /**
+     * Removes the outlines of the given font.
+     */
+    private void removeGlyphs(COSBase font)
+    {
+        Iterator<GlyphKey> keys = glyphs.keySet().iterator();
+        while (keys.hasNext())
+        {
+            if (keys.next().font == font)
+            {
+                keys.remove();
+            }
+        }
+    }
+
+    /**
+     * Returns the number of cached glyph outlines.
+     *
+     * @return the number of cached glyph outlines
+     */
+    synchronized int getGlyphCount()
+    {
+        return glyphs.size();
+    }
+
+    /**
+     * Removes all cached fonts and glyph outlines.
+     */
+    synchronized void clear()
+    {
+        fonts.clear();
+        glyphs.clear();
+    }
+
+    /**
+     * A character code of a font, fonts are compared by identity.
+     */
+    private static final class GlyphKey
+    {
+        private final COSBase font;
+        private final int code;
+
+        GlyphKey(COSBase font, int code)
+        {
+            this.font = font;
+            this.code = code;
+        }
+
+        @Override
+        public boolean equals(Object other)
+        {
+            if (!(other instanceof GlyphKey))
+            {
+                return false;
+            }
+            GlyphKey key = (GlyphKey) other;
+            return key.font == font && key.code == code;
+        }
+
+        @Override
+        public int hashCode()
+        {
+            return 31 * System.identityHashCode(font) + code;
+        }
+    }
+}
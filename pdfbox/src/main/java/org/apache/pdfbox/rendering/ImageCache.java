@@ -0,0 +1,214 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.pdfbox.rendering;
+
+import java.awt.image.BufferedImage;
+import java.awt.image.DataBuffer;
+import java.io.IOException;
+import java.lang.ref.SoftReference;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.apache.pdfbox.cos.COSStream;
+import org.apache.pdfbox.pdmodel.graphics.image.PDImageXObject;
+
+/**
+ * Decoded images of a document, so that an image XObject used on many pages (logos, letterheads,
+ * watermarks) is decoded only once by a {@link PDFRenderer}. Images are identified by their COS
+ * stream and kept in LRU order until the estimated size of all images exceeds the given limit.
+ * The images are softly referenced, so that they may be dropped earlier if memory gets low.
+ *
+ * The cache is thread-safe, as pages may be rendered concurrently.
+ */
+public final class ImageCache
+{
+    private final Map<COSStream, Entry> images =
+            new LinkedHashMap<COSStream, Entry>(16, 0.75f, true);
+    private long maxSize;
+    private long size;
+    private long hits;
+    private long misses;
+
+    /**
+     * Creates a new image cache.
+     *
+     * @param maxSize the maximum size of all cached images in bytes, 0 disables the cache
+     */
+    ImageCache(long maxSize)
+    {
+        this.maxSize = maxSize;
+    }
+
+    /**
+     * Returns the decoded image of the given image XObject, which is decoded if it isn't cached
+     * yet. The returned image is shared and must not be modified.
+     *
+     * @param image the image XObject
+     * @return the decoded image
+     * @throws IOException if the image could not be read
+     */
+    public BufferedImage getImage(PDImageXObject image) throws IOException
+    {
+        COSStream stream = image.getCOSStream();
+        synchronized (this)
+        {
+            if (maxSize <= 0)
+            {
+                stream = null;
+            }
+            Entry entry = stream != null ? images.get(stream) : null;
+            if (entry != null)
+            {
+                BufferedImage cached = entry.image.get();
+                if (cached != null)
+                {
+                    hits++;
+                    return cached;
+                }
+                // cleared by the garbage collector
+                images.remove(stream);
+                size -= entry.size;
+            }
+            if (stream != null)
+            {
+                misses++;
+            }
+        }
+        // decode outside of the lock, other pages may be rendered in the meantime
+        BufferedImage decoded = image.getImage();
+        if (stream == null)
+        {
+            // the cache is disabled
+            return decoded;
+        }
+        long imageSize = getSize(decoded);
+        synchronized (this)
+        {
+            if (imageSize <= maxSize)
+            {
+                Entry old = images.put(stream, new Entry(decoded, imageSize));
+                if (old != null)
+                {
+                    size -= old.size;
+                }
+                size += imageSize;
+                trim();
+            }
+        }
+        return decoded;
+    }
+
+    /**
+     * Returns the number of images which were found in the cache.
+     *
+     * @return the number of cache hits
+     */
+    public synchronized long getHitCount()
+    {
+        return hits;
+    }
+
+    /**
+     * Returns the number of images which had to be decoded.
+     *
+     * @return the number of cache misses
+     */
+    public synchronized long getMissCount()
+    {
+        return misses;
+    }
+
+    /**
+     * Returns the estimated size of all cached images in bytes.
+     *
+     * @return the size of the cached images
+     */
+    public synchronized long getSize()
+    {
+        return size;
+    }
+
+    /**
+     * Returns the maximum size of all cached images in bytes.
+     *
+     * @return the maximum size, 0 if the cache is disabled
+     */
+    public synchronized long getMaxSize()
+    {
+        return maxSize;
+    }
+
+    /**
+     * Sets the maximum size of all cached images in bytes, 0 disables the cache.
+     *
+     * @param maxSize the maximum size
+     */
+    public synchronized void setMaxSize(long maxSize)
+    {
+        this.maxSize = maxSize;
+        trim();
+    }
+
+    /**
+     * Removes all cached images, the hit and miss counters are kept.
+     */
+    public synchronized void clear()
+    {
+        images.clear();
+        size = 0;
+    }
+
+    /**
+     * Removes the least recently used images until the cache fits into its maximum size.
+     */
+    private void trim()
+    {
+        Iterator<Entry> iter = images.values().iterator();
+        while (size > maxSize && iter.hasNext())
+        {
+            size -= iter.next().size;
+            iter.remove();
+        }
+    }
+
+    /**
+     * Estimates the memory used by the pixels of the given image.
+     */
+    private static long getSize(BufferedImage image)
+    {
+        DataBuffer buffer = image.getRaster().getDataBuffer();
+        long bits = (long) buffer.getSize() * buffer.getNumBanks()
+                * DataBuffer.getDataTypeSize(buffer.getDataType());
+        return (bits + 7) / 8;
+    }
+
+    /**
+     * A softly referenced image together with its estimated size.
+     */
+    private static final class Entry
+    {
+        private final SoftReference<BufferedImage> image;
+        private final long size;
+
+        Entry(BufferedImage image, long size)
+        {
+            this.image = new SoftReference<BufferedImage>(image);
+            this.size = size;
+        }
+    }
+}
@@ -20,6 +20,12 @@ import java.awt.Color;
 import java.awt.Graphics2D;
 import java.awt.image.BufferedImage;
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
 
 import org.apache.pdfbox.pdmodel.PDDocument;
 import org.apache.pdfbox.pdmodel.PDPage;
@@ -34,16 +40,35 @@ import org.apache.pdfbox.pdmodel.common.PDRectangle;
  */
 public class PDFRenderer
 {
+    // limits of the glyph outline cache, which holds all outlines kept for rendering
+    private static final int MAX_CACHED_FONTS = 64;
+    private static final int MAX_CACHED_GLYPHS = 10000;
+
     protected final PDDocument document;
-    // TODO keep rendering state such as caches here
+    // TODO keep rendering state such as caches here, it has to be thread-safe
+    // as pages may be rendered concurrently, see renderImages()
+    private final GlyphCache glyphCache = new GlyphCache(MAX_CACHED_FONTS, MAX_CACHED_GLYPHS);
+    private final ImageCache imageCache;
 
     /**
-     * Creates a new PDFRenderer.
+     * Creates a new PDFRenderer which decodes the images of each page again.
      * @param document the document to render
      */
     public PDFRenderer(PDDocument document)
+    {
+        this(document, 0);
+    }
+
+    /**
+     * Creates a new PDFRenderer which keeps decoded images for other pages, see
+     * {@link #getImageCache()}.
+     * @param document the document to render
+     * @param imageCacheSize the maximum size of the decoded images in bytes, 0 disables the cache
+     */
+    public PDFRenderer(PDDocument document, long imageCacheSize)
     {
         this.document = document;
+        imageCache = new ImageCache(imageCacheSize);
     }
 
     /**
@@ -107,8 +132,112 @@ public class PDFRenderer
     public BufferedImage renderImage(int pageIndex, float scale, ImageType imageType)
             throws IOException
     {
-        PDPage page = document.getPage(pageIndex);
+        return renderImage(document.getPage(pageIndex), scale, imageType);
+    }
+
+    /**
+     * Returns the given range of pages as images at the given DPI. The pages are rendered
+     * concurrently by the given executor, each page by its own {@link PageDrawer}.
+     * @param firstPage the zero-based index of the first page to be converted
+     * @param lastPage the zero-based index of the last page to be converted (inclusive)
+     * @param dpi the DPI (dots per inch) to render at
+     * @param imageType the type of image to return
+     * @param executor the executor running the rendering of the pages
+     * @return the rendered page images in page order
+     * @throws IOException if the PDF cannot be read
+     */
+    public List<BufferedImage> renderImagesWithDPI(int firstPage, int lastPage, float dpi,
+                                                   ImageType imageType, ExecutorService executor)
+            throws IOException
+    {
+        return renderImages(firstPage, lastPage, dpi / 72f, imageType, executor);
+    }
+
+    /**
+     * Returns the given range of pages as images at the given scale. The pages are rendered
+     * concurrently by the given executor, each page by its own {@link PageDrawer}.
+     * The document must not be modified while the pages are rendered.
+     * @param firstPage the zero-based index of the first page to be converted
+     * @param lastPage the zero-based index of the last page to be converted (inclusive)
+     * @param scale the scaling factor, where 1 = 72 DPI
+     * @param imageType the type of image to return
+     * @param executor the executor running the rendering of the pages
+     * @return the rendered page images in page order
+     * @throws IOException if the PDF cannot be read
+     */
+    public List<BufferedImage> renderImages(int firstPage, int lastPage, final float scale,
+                                            final ImageType imageType, ExecutorService executor)
+            throws IOException
+    {
+        // look up the pages once instead of walking the page tree for every page
+        List<?> pages = document.getDocumentCatalog().getAllPages();
+        if (firstPage < 0 || lastPage >= pages.size() || firstPage > lastPage)
+        {
+            throw new IndexOutOfBoundsException("Invalid page range " + firstPage + "-" + lastPage
+                    + " for a document with " + pages.size() + " pages");
+        }
+
+        List<Future<BufferedImage>> futures = new ArrayList<Future<BufferedImage>>();
+        for (int i = firstPage; i <= lastPage; i++)
+        {
+            final PDPage page = (PDPage) pages.get(i);
+            futures.add(executor.submit(new Callable<BufferedImage>()
+            {
+                public BufferedImage call() throws IOException
+                {
+                    return renderImage(page, scale, imageType);
+                }
+            }));
+        }
 
+        List<BufferedImage> images = new ArrayList<BufferedImage>(futures.size());
+        try
+        {
+            for (Future<BufferedImage> future : futures)
+            {
+                images.add(future.get());
+            }
+        }
+        catch (InterruptedException e)
+        {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while rendering pages", e);
+        }
+        catch (ExecutionException e)
+        {
+            Throwable cause = e.getCause();
+            if (cause instanceof IOException)
+            {
+                throw (IOException) cause;
+            }
+            if (cause instanceof RuntimeException)
+            {
+                throw (RuntimeException) cause;
+            }
+            if (cause instanceof Error)
+            {
+                throw (Error) cause;
+            }
+            throw new IOException(cause);
+        }
+        finally
+        {
+            // don't render the remaining pages if one of them failed
+            if (images.size() < futures.size())
+            {
+                for (Future<BufferedImage> future : futures)
+                {
+                    future.cancel(true);
+                }
+            }
+        }
+        return images;
+    }
+
+    // renders the given page to an image
+    private BufferedImage renderImage(PDPage page, float scale, ImageType imageType)
+            throws IOException
+    {
         PDRectangle cropBox = page.findCropBox();
         float widthPt = cropBox.getWidth();
         float heightPt = cropBox.getHeight();
@@ -214,4 +343,24 @@ public class PDFRenderer
         drawer.drawPage(graphics, page, cropBox);
         drawer.dispose();
     }
+
+    /**
+     * Returns the cache of decoded image XObjects, which are shared by all pages of the document.
+     * The cache is disabled unless a size was given to the constructor, its size may be changed
+     * or the cache may be disabled by setting its size to 0.
+     * @return the image cache
+     */
+    public ImageCache getImageCache()
+    {
+        return imageCache;
+    }
+
+    /**
+     * Returns the glyph outlines shared by all pages of the document.
+     * @return the glyph cache
+     */
+    GlyphCache getGlyphCache()
+    {
+        return glyphCache;
+    }
 }
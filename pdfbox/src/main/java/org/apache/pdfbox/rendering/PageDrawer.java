@@ -34,7 +34,6 @@ import java.awt.geom.NoninvertibleTransformException;
 import java.awt.geom.Point2D;
 import java.io.IOException;
 import java.util.HashMap;
-import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 
@@ -100,7 +99,6 @@ public class PageDrawer extends PDFStreamEngine
 
     private GeneralPath linePath = new GeneralPath();
 
-    private Map<PDFont, Glyph2D> fontGlyph2D = new HashMap<PDFont, Glyph2D>();
     private Map<PDFont, Font> awtFonts = new HashMap<PDFont, Font>();
 
     private int pageHeight;
@@ -240,16 +238,6 @@ public class PageDrawer extends PDFStreamEngine
     public void dispose()
     {
         super.dispose();
-        if (fontGlyph2D != null)
-        {
-            Iterator<Glyph2D> iter = fontGlyph2D.values().iterator();
-            while (iter.hasNext())
-            {
-                iter.next().dispose();
-            }
-            fontGlyph2D.clear();
-            fontGlyph2D = null;
-        }
         if (awtFonts != null)
         {
             awtFonts.clear();
@@ -321,7 +309,7 @@ public class PageDrawer extends PDFStreamEngine
                             fontMatrix.getValue(2, 1));
                     at.concatenate(fontMatrixAT);
                     // Let PDFBox render the font if supported
-                    drawGlyph2D(glyph2D, text.getCodePoints(), at);
+                    drawGlyph2D(font, glyph2D, text.getCodePoints(), at);
                 }
                 else
                 {
@@ -340,17 +328,21 @@ public class PageDrawer extends PDFStreamEngine
     /**
      * Render the font using the Glyph2d interface.
      * 
+     * @param font the font to be used
      * @param glyph2D the Glyph2D implementation provided a GeneralPath for each glyph
      * @param codePoints the string to be rendered
      * @param at the transformation
      * @throws IOException if something went wrong
      */
-    private void drawGlyph2D(Glyph2D glyph2D, int[] codePoints, AffineTransform at) throws IOException
+    private void drawGlyph2D(PDFont font, Glyph2D glyph2D, int[] codePoints, AffineTransform at)
+            throws IOException
     {
         graphics.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+        GlyphCache glyphCache = renderer.getGlyphCache();
         for (int i = 0; i < codePoints.length; i++)
         {
-            GeneralPath path = glyph2D.getPathForCharacterCode(codePoints[i]);
+            // the glyph outlines are shared by all pages of the document
+            GeneralPath path = glyphCache.getPath(font.getCOSObject(), glyph2D, codePoints[i]);
             if (path != null)
             {
                 AffineTransform atInverse = null;
@@ -519,7 +511,8 @@ public class PageDrawer extends PDFStreamEngine
     }
 
     /**
-     * Provide a Glyph2D for the given font.
+     * Provide a Glyph2D for the given font. The Glyph2D instances are shared by all pages of the
+     * document, see {@link GlyphCache}.
      * 
      * @param font the font
      * @return the implementation of the Glyph2D interface for the given font
@@ -527,13 +520,10 @@ public class PageDrawer extends PDFStreamEngine
      */
     private Glyph2D createGlyph2D(PDFont font) throws IOException
     {
-        Glyph2D glyph2D = null;
+        GlyphCache glyphCache = renderer.getGlyphCache();
         // Is there already a Glyph2D for the given font?
-        if (fontGlyph2D.containsKey(font))
-        {
-            glyph2D = fontGlyph2D.get(font);
-        }
-        else
+        Glyph2D glyph2D = glyphCache.getGlyph2D(font.getCOSObject());
+        if (glyph2D == null)
         {
             // check if the given font is supported
             if (font instanceof PDTrueTypeFont)
@@ -602,7 +592,7 @@ public class PageDrawer extends PDFStreamEngine
             // cache the Glyph2D instance
             if (glyph2D != null)
             {
-                fontGlyph2D.put(font, glyph2D);
+                glyphCache.putGlyph2D(font.getCOSObject(), glyph2D);
             }
         }
         return glyph2D;
@@ -0,0 +1,251 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.pdfbox.util;
+
+import java.util.Arrays;
+
+/**
+ * The positions of the characters shown on a page, used by {@link PDFTextStripper} to find
+ * duplicate overlapping text. The positions are kept in a uniform grid of square cells, the
+ * size of which follows the tolerances of the lookups, so that a lookup only has to look at
+ * the characters of a few cells. Coordinates are stored as primitive floats in arrays shared
+ * by all cells, so adding a character doesn't create any objects.
+ *
+ * @version $Revision$
+ */
+final class CharacterGrid
+{
+
+    // a lookup must not cover more than this number of cells in each direction
+    private static final int MAX_CELLS_PER_LOOKUP = 4;
+
+    private float cellSize;
+
+    // the characters, a linked list per cell; index 0 marks the end of a list
+    private String[] characters = new String[256];
+    private int[] hashes = new int[256];
+    private float[] xs = new float[256];
+    private float[] ys = new float[256];
+    private int[] next = new int[256];
+    private int size;
+
+    // open addressing hash table from the cell to the first character of the cell
+    private long[] cellKeys = new long[256];
+    private int[] cellHeads = new int[256];
+    private int cellCount;
+
+    /**
+     * Returns the number of characters in the grid.
+     *
+     * @return the number of characters
+     */
+    int size()
+    {
+        return size;
+    }
+
+    /**
+     * Removes all characters from the grid.
+     */
+    void clear()
+    {
+        if (size > 0)
+        {
+            Arrays.fill(characters, 1, size + 1, null);
+            Arrays.fill(cellHeads, 0);
+            size = 0;
+            cellCount = 0;
+        }
+        cellSize = 0;
+    }
+
+    /**
+     * Tells whether the grid contains the same character at a position with
+     * <code>x - tolerance &lt;= x' &lt; x + tolerance</code> and
+     * <code>y - tolerance &lt;= y' &lt; y + tolerance</code>.
+     *
+     * @param character the character
+     * @param x the x coordinate
+     * @param y the y coordinate
+     * @param tolerance the tolerance
+     * @return true if there is such a character
+     */
+    boolean contains(String character, float x, float y, float tolerance)
+    {
+        if (size == 0 || !(tolerance > 0))
+        {
+            return false;
+        }
+        ensureCellSize(tolerance);
+        float minX = x - tolerance;
+        float maxX = x + tolerance;
+        float minY = y - tolerance;
+        float maxY = y + tolerance;
+        int hash = character.hashCode();
+        int minCellX = cell(minX);
+        int maxCellX = cell(maxX);
+        int minCellY = cell(minY);
+        int maxCellY = cell(maxY);
+        long cellsX = (long) maxCellX - minCellX + 1;
+        long cellsY = (long) maxCellY - minCellY + 1;
+        if (cellsX > size || cellsY > size || cellsX * cellsY > size)
+        {
+            // infinite or huge tolerance, looking at each character is cheaper
+            for (int i = 1; i <= size; i++)
+            {
+                if (matches(i, character, hash, minX, maxX, minY, maxY))
+                {
+                    return true;
+                }
+            }
+            return false;
+        }
+        for (long cellX = minCellX; cellX <= maxCellX; cellX++)
+        {
+            for (long cellY = minCellY; cellY <= maxCellY; cellY++)
+            {
+                int slot = findSlot(key((int) cellX, (int) cellY));
+                for (int i = cellHeads[slot]; i != 0; i = next[i])
+                {
+                    if (matches(i, character, hash, minX, maxX, minY, maxY))
+                    {
+                        return true;
+                    }
+                }
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Adds a character at the given position.
+     *
+     * @param character the character
+     * @param x the x coordinate
+     * @param y the y coordinate
+     */
+    void add(String character, float x, float y)
+    {
+        if (cellSize == 0)
+        {
+            cellSize = 1;
+        }
+        int index = ++size;
+        if (index == characters.length)
+        {
+            int length = characters.length * 2;
+            characters = Arrays.copyOf(characters, length);
+            hashes = Arrays.copyOf(hashes, length);
+            xs = Arrays.copyOf(xs, length);
+            ys = Arrays.copyOf(ys, length);
+            next = Arrays.copyOf(next, length);
+        }
+        characters[index] = character;
+        hashes[index] = character.hashCode();
+        xs[index] = x;
+        ys[index] = y;
+        link(index);
+    }
+
+    private boolean matches(int i, String character, int hash, float minX, float maxX,
+            float minY, float maxY)
+    {
+        float entryX = xs[i];
+        float entryY = ys[i];
+        return entryX >= minX && entryX < maxX && entryY >= minY && entryY < maxY
+                && hashes[i] == hash && character.equals(characters[i]);
+    }
+
+    /**
+     * Makes the cells large enough for a lookup with the given tolerance to cover only a few
+     * cells, the grid is rebuilt if the cells are enlarged.
+     */
+    private void ensureCellSize(float tolerance)
+    {
+        if (tolerance * 2 > cellSize * MAX_CELLS_PER_LOOKUP && !Float.isInfinite(tolerance))
+        {
+            cellSize = Math.max(tolerance * 2, cellSize * 2);
+            Arrays.fill(cellHeads, 0);
+            cellCount = 0;
+            for (int i = 1; i <= size; i++)
+            {
+                link(i);
+            }
+        }
+    }
+
+    private void link(int index)
+    {
+        long key = key(cell(xs[index]), cell(ys[index]));
+        int slot = findSlot(key);
+        if (cellHeads[slot] == 0)
+        {
+            if ((cellCount + 1) * 2 > cellKeys.length)
+            {
+                growCells();
+                slot = findSlot(key);
+            }
+            cellKeys[slot] = key;
+            cellCount++;
+        }
+        next[index] = cellHeads[slot];
+        cellHeads[slot] = index;
+    }
+
+    private void growCells()
+    {
+        long[] oldKeys = cellKeys;
+        int[] oldHeads = cellHeads;
+        cellKeys = new long[oldKeys.length * 2];
+        cellHeads = new int[oldHeads.length * 2];
+        for (int i = 0; i < oldKeys.length; i++)
+        {
+            if (oldHeads[i] != 0)
+            {
+                int slot = findSlot(oldKeys[i]);
+                cellKeys[slot] = oldKeys[i];
+                cellHeads[slot] = oldHeads[i];
+            }
+        }
+    }
+
+    /**
+     * Returns the slot of the given cell, or the empty slot where it has to be added.
+     */
+    private int findSlot(long key)
+    {
+        int mask = cellKeys.length - 1;
+        int hash = (int) (key >>> 32) * 0x9E3779B9 + (int) key * 0x85EBCA6B;
+        int slot = (hash ^ (hash >>> 16)) & mask;
+        while (cellHeads[slot] != 0 && cellKeys[slot] != key)
+        {
+            slot = (slot + 1) & mask;
+        }
+        return slot;
+    }
+
+    private int cell(float coordinate)
+    {
+        // the cast saturates for huge or infinite values, NaN ends up in cell 0
+        return (int) Math.floor(coordinate / cellSize);
+    }
+
+    private static long key(int cellX, int cellY)
+    {
+        return ((long) cellX << 32) | (cellY & 0xFFFFFFFFL);
+    }
+}
@@ -0,0 +1,283 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.pdfbox.util;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.TreeMap;
+
+import org.apache.pdfbox.cos.COSArray;
+import org.apache.pdfbox.cos.COSBase;
+import org.apache.pdfbox.cos.COSBoolean;
+import org.apache.pdfbox.cos.COSDictionary;
+import org.apache.pdfbox.cos.COSFloat;
+import org.apache.pdfbox.cos.COSInteger;
+import org.apache.pdfbox.cos.COSName;
+import org.apache.pdfbox.cos.COSNull;
+import org.apache.pdfbox.cos.COSObject;
+import org.apache.pdfbox.cos.COSStream;
+import org.apache.pdfbox.cos.COSString;
+import org.apache.pdfbox.pdmodel.PDDocument;
+
+/**
+ * The streams of a destination document by their content, used by the {@link PDFCloneUtility}
+ * to clone identical streams, like the fonts, images and ICC profiles shared by many merged
+ * documents, only once.
+ *
+ * The key of a stream is made of a digest of its encoded data and of the content of its
+ * dictionary, nested streams are described by their keys as well. Streams with dictionaries
+ * which are too deeply nested or too large to be compared, e.g. because they refer to a page,
+ * are not cached.
+ *
+ * @version $Revision$
+ */
+final class ClonedStreamCache
+{
+
+    // the limits of the description of a stream dictionary
+    private static final int MAX_DEPTH = 8;
+    private static final int MAX_OBJECTS = 1000;
+
+    private final PDDocument destination;
+    private final Map<String, COSStream> streams = new HashMap<String, COSStream>();
+    private final MessageDigest digest;
+    private final byte[] buffer = new byte[8192];
+
+    // the number of objects which may still be described for the current key
+    private int remainingObjects;
+
+    /**
+     * Creates a cache for the given destination document.
+     *
+     * @param destination the document which receives the cloned streams
+     */
+    ClonedStreamCache(PDDocument destination)
+    {
+        this.destination = destination;
+        try
+        {
+            digest = MessageDigest.getInstance("SHA-1");
+        }
+        catch (NoSuchAlgorithmException e)
+        {
+            // should never happen
+            throw new RuntimeException(e);
+        }
+    }
+
+    /**
+     * Returns the destination document of the cached streams.
+     *
+     * @return the destination document
+     */
+    PDDocument getDestination()
+    {
+        return destination;
+    }
+
+    /**
+     * Adds the streams which are already part of the destination document.
+     *
+     * @throws IOException if a stream can't be read
+     */
+    void addDocumentStreams() throws IOException
+    {
+        for (COSObject object : destination.getDocument().getObjects())
+        {
+            COSBase base = object.getObject();
+            if (base instanceof COSStream)
+            {
+                COSStream stream = (COSStream) base;
+                COSBase type = stream.getItem(COSName.TYPE);
+                if (COSName.XREF.equals(type) || COSName.OBJ_STM.equals(type))
+                {
+                    continue;
+                }
+                String key = getKey(stream);
+                if (key != null && !streams.containsKey(key))
+                {
+                    streams.put(key, stream);
+                }
+            }
+        }
+    }
+
+    /**
+     * Returns the cached stream with the given key.
+     *
+     * @param key the key of the stream
+     * @return the stream of the destination document, or null if there is none
+     */
+    COSStream get(String key)
+    {
+        return streams.get(key);
+    }
+
+    /**
+     * Adds a stream of the destination document.
+     *
+     * @param key the key of the stream
+     * @param stream the stream of the destination document
+     */
+    void put(String key, COSStream stream)
+    {
+        streams.put(key, stream);
+    }
+
+    /**
+     * Returns the key of the given stream, streams with the same key have the same content.
+     *
+     * @param stream the stream
+     * @return the key, or null if the stream can't be compared
+     * @throws IOException if the stream can't be read
+     */
+    String getKey(COSStream stream) throws IOException
+    {
+        StringBuilder key = new StringBuilder();
+        remainingObjects = MAX_OBJECTS;
+        if (describe(stream, key, 0))
+        {
+            return key.toString();
+        }
+        return null;
+    }
+
+    private boolean describe(COSBase object, StringBuilder key, int depth) throws IOException
+    {
+        if (depth > MAX_DEPTH || --remainingObjects < 0)
+        {
+            return false;
+        }
+        COSBase base = object;
+        if (base instanceof COSObject)
+        {
+            base = ((COSObject) base).getObject();
+        }
+        if (base == null || base instanceof COSNull)
+        {
+            key.append("null ");
+        }
+        else if (base instanceof COSStream)
+        {
+            key.append("stream ");
+            appendDigest((COSStream) base, key);
+            return describeEntries((COSDictionary) base, key, depth);
+        }
+        else if (base instanceof COSDictionary)
+        {
+            return describeEntries((COSDictionary) base, key, depth);
+        }
+        else if (base instanceof COSArray)
+        {
+            key.append("[ ");
+            for (COSBase item : (COSArray) base)
+            {
+                if (!describe(item, key, depth + 1))
+                {
+                    return false;
+                }
+            }
+            key.append("] ");
+        }
+        else if (base instanceof COSName)
+        {
+            // the length keeps names with delimiters apart
+            String name = ((COSName) base).getName();
+            key.append('/').append(name.length()).append(':').append(name).append(' ');
+        }
+        else if (base instanceof COSString)
+        {
+            key.append('<').append(((COSString) base).getHexString()).append("> ");
+        }
+        else if (base instanceof COSInteger)
+        {
+            key.append(((COSInteger) base).longValue()).append(' ');
+        }
+        else if (base instanceof COSFloat)
+        {
+            key.append(((COSFloat) base).floatValue()).append("f ");
+        }
+        else if (base instanceof COSBoolean)
+        {
+            key.append(((COSBoolean) base).getValue()).append(' ');
+        }
+        else
+        {
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * Describes the entries of a dictionary sorted by their keys, the length of a stream is
+     * left out as it is covered by the digest of the data.
+     */
+    private boolean describeEntries(COSDictionary dictionary, StringBuilder key, int depth)
+        throws IOException
+    {
+        Map<String, COSBase> entries = new TreeMap<String, COSBase>();
+        for (Map.Entry<COSName, COSBase> entry : dictionary.entrySet())
+        {
+            if (!(dictionary instanceof COSStream && COSName.LENGTH.equals(entry.getKey())))
+            {
+                entries.put(entry.getKey().getName(), entry.getValue());
+            }
+        }
+        key.append("<< ");
+        for (Map.Entry<String, COSBase> entry : entries.entrySet())
+        {
+            String name = entry.getKey();
+            key.append('/').append(name.length()).append(':').append(name).append(' ');
+            if (!describe(entry.getValue(), key, depth + 1))
+            {
+                return false;
+            }
+        }
+        key.append(">> ");
+        return true;
+    }
+
+    private void appendDigest(COSStream stream, StringBuilder key) throws IOException
+    {
+        digest.reset();
+        long length = 0;
+        InputStream input = stream.getFilteredStream();
+        try
+        {
+            int read;
+            while ((read = input.read(buffer)) != -1)
+            {
+                digest.update(buffer, 0, read);
+                length += read;
+            }
+        }
+        finally
+        {
+            input.close();
+        }
+        key.append(length).append(':');
+        for (byte b : digest.digest())
+        {
+            key.append(Character.forDigit((b >> 4) & 0xF, 16)).append(Character.forDigit(b & 0xF, 16));
+        }
+        key.append(' ');
+    }
+}
@@ -41,6 +41,8 @@ public class PDFCloneUtility
 
     private PDDocument destination;
     private Map<Object,COSBase> clonedVersion = new HashMap<Object,COSBase>();
+    // the streams of the destination by their content, null if identical streams are copied
+    private ClonedStreamCache streamCache = null;
 
     /**
      * Creates a new instance for the given target document.
@@ -60,6 +62,16 @@ public class PDFCloneUtility
         return this.destination;
     }
 
+    /**
+     * Sets the cache of the streams of the destination. A stream with the same content as a
+     * cached stream isn't copied, the cached stream is used instead.
+     * @param cache the cache of the streams of the destination, or null
+     */
+    void setStreamCache(ClonedStreamCache cache)
+    {
+        this.streamCache = cache;
+    }
+
     /**
      * Deep-clones the given object for inclusion into a different PDF document identified by
      * the destination parameter.
@@ -113,15 +125,29 @@ public class PDFCloneUtility
           else if( base instanceof COSStream )
           {
               COSStream originalStream = (COSStream)base;
-              PDStream stream = new PDStream( destination, originalStream.getFilteredStream(), true );
-              clonedVersion.put( base, stream.getStream() );
-              for( Map.Entry<COSName, COSBase> entry :  originalStream.entrySet() )
+              String key = streamCache != null ? streamCache.getKey( originalStream ) : null;
+              COSStream cachedStream = key != null ? streamCache.get( key ) : null;
+              if( cachedStream != null )
               {
-                  stream.getStream().setItem(
-                          entry.getKey(),
-                          cloneForNewDocument(entry.getValue()));
+                  // an identical stream is already part of the destination
+                  retval = cachedStream;
+              }
+              else
+              {
+                  PDStream stream = new PDStream( destination, originalStream.getFilteredStream(), true );
+                  clonedVersion.put( base, stream.getStream() );
+                  for( Map.Entry<COSName, COSBase> entry :  originalStream.entrySet() )
+                  {
+                      stream.getStream().setItem(
+                              entry.getKey(),
+                              cloneForNewDocument(entry.getValue()));
+                  }
+                  retval = stream.getStream();
+                  if( key != null )
+                  {
+                      streamCache.put( key, stream.getStream() );
+                  }
               }
-              retval = stream.getStream();
           }
           else if( base instanceof COSDictionary )
           {
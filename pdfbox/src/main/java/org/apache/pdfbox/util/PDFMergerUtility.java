@@ -67,6 +67,14 @@ public class PDFMergerUtility
     private String destinationFileName;
     private OutputStream destinationStream;
     private boolean ignoreAcroFormErrors = false;
+    private boolean deduplicateResources = false;
+    private boolean releaseSources = false;
+
+    // the streams of the destination by their content, if resources are deduplicated
+    private ClonedStreamCache streamCache = null;
+    // tells whether the destination refers to objects of the last appended source
+    // which haven't been cloned, so that the source must not be closed before saving
+    private boolean sourceReferenced = false;
 
     /**
      * Instantiate a new PDFMergerUtility.
@@ -171,6 +179,50 @@ public class PDFMergerUtility
         sources.addAll(sourcesList);
     }
 
+    /**
+     * Tells whether identical streams of the merged documents are only written once.
+     *
+     * @return true if identical streams are only written once
+     */
+    public boolean isDeduplicateResources()
+    {
+        return deduplicateResources;
+    }
+
+    /**
+     * Sets whether identical streams of the merged documents, like the fonts, images and
+     * ICC profiles shared by batch-generated documents, are only written once. The streams
+     * are compared by a digest of their data and by their dictionaries.
+     *
+     * @param deduplicate true if identical streams shall only be written once
+     */
+    public void setDeduplicateResources(boolean deduplicate)
+    {
+        deduplicateResources = deduplicate;
+    }
+
+    /**
+     * Tells whether each source document is closed as soon as it has been appended.
+     *
+     * @return true if the source documents are closed as soon as possible
+     */
+    public boolean isReleaseSources()
+    {
+        return releaseSources;
+    }
+
+    /**
+     * Sets whether each source document is closed as soon as it has been appended, instead of
+     * keeping all of them open until the merged document has been saved. Sources whose logical
+     * structure is merged stay open, as the merged structure refers to their objects.
+     *
+     * @param release true if the source documents shall be closed as soon as possible
+     */
+    public void setReleaseSources(boolean release)
+    {
+        releaseSources = release;
+    }
+
     /**
      * Merge the list of source documents, saving the result in the destination
      * file.
@@ -231,6 +283,12 @@ public class PDFMergerUtility
 
                     tobeclosed.add(source);
                     appendDocument(destination, source);
+                    if (releaseSources && !sourceReferenced)
+                    {
+                        // all pages and resources of the source have been copied
+                        tobeclosed.remove(source);
+                        source.close();
+                    }
                 }
                 if (destinationStream == null)
                 {
@@ -243,6 +301,7 @@ public class PDFMergerUtility
             }
             finally
             {
+                streamCache = null;
                 if (destination != null)
                 {
                     destination.close();
@@ -290,14 +349,29 @@ public class PDFMergerUtility
             destination.getDocument().setVersion(srcVersion);
         }
 
+        PDFCloneUtility cloner = new PDFCloneUtility(destination);
+        if (deduplicateResources)
+        {
+            if (streamCache == null || streamCache.getDestination() != destination)
+            {
+                streamCache = new ClonedStreamCache(destination);
+                streamCache.addDocumentStreams();
+            }
+            cloner.setStreamCache(streamCache);
+        }
+        sourceReferenced = false;
+
         if (destCatalog.getOpenAction() == null)
         {
-            destCatalog.setOpenAction(srcCatalog.getOpenAction());
+            destCatalog.getCOSDictionary().setItem(COSName.OPEN_ACTION,
+                    cloner.cloneForNewDocument(srcCatalog.getCOSDictionary().getDictionaryObject(
+                            COSName.OPEN_ACTION)));
         }
 
         // maybe there are some shared resources for all pages
         COSDictionary srcPages = (COSDictionary) srcCatalog.getCOSDictionary().getDictionaryObject(COSName.PAGES);
-        COSDictionary srcResources = (COSDictionary) srcPages.getDictionaryObject(COSName.RESOURCES);
+        COSDictionary srcResources = (COSDictionary) cloner.cloneForNewDocument(
+                srcPages.getDictionaryObject(COSName.RESOURCES));
         COSDictionary destPages = (COSDictionary) destCatalog.getCOSDictionary().getDictionaryObject(COSName.PAGES);
         COSDictionary destResources = (COSDictionary) destPages.getDictionaryObject(COSName.RESOURCES);
         if (srcResources != null)
@@ -312,16 +386,15 @@ public class PDFMergerUtility
             }
         }
 
-        PDFCloneUtility cloner = new PDFCloneUtility(destination);
-
         try
         {
             PDAcroForm destAcroForm = destCatalog.getAcroForm();
             PDAcroForm srcAcroForm = srcCatalog.getAcroForm();
             if (destAcroForm == null)
             {
-                cloner.cloneForNewDocument(srcAcroForm);
-                destCatalog.setAcroForm(srcAcroForm);
+                COSDictionary clonedAcroForm = (COSDictionary) cloner.cloneForNewDocument(srcAcroForm);
+                destCatalog.setAcroForm(clonedAcroForm == null ? null
+                        : new PDAcroForm(destination, clonedAcroForm));
             }
             else
             {
@@ -517,6 +590,8 @@ public class PDFMergerUtility
         }
         if (mergeStructTree)
         {
+            // the structure elements of the source are used as they are
+            sourceReferenced = true;
             updatePageReferences(srcNumbersArray, objMapping);
             for (int i = 0; i < srcNumbersArray.size() / 2; i++)
             {
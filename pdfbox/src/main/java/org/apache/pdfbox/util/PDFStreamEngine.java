@@ -17,12 +17,11 @@
 package org.apache.pdfbox.util;
 
 import java.io.IOException;
-import java.util.ArrayList;
+import java.io.InputStream;
 import java.util.Collections;
 import java.util.Enumeration;
 import java.util.HashMap;
 import java.util.HashSet;
-import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.Properties;
@@ -32,7 +31,6 @@ import java.util.Stack;
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
 import org.apache.pdfbox.cos.COSBase;
-import org.apache.pdfbox.cos.COSObject;
 import org.apache.pdfbox.cos.COSStream;
 import org.apache.pdfbox.pdfparser.PDFStreamParser;
 import org.apache.pdfbox.pdmodel.PDResources;
@@ -45,6 +43,7 @@ import org.apache.pdfbox.pdmodel.graphics.state.PDGraphicsState;
 import org.apache.pdfbox.pdmodel.graphics.color.PDColorSpace;
 import org.apache.pdfbox.pdmodel.graphics.PDXObject;
 import org.apache.pdfbox.text.TextPosition;
+import org.apache.pdfbox.util.operator.OperandStack;
 import org.apache.pdfbox.util.operator.OperatorProcessor;
 import org.apache.pdfbox.util.operator.PDFOperator;
 
@@ -78,6 +77,9 @@ public class PDFStreamEngine
     // skip malformed or otherwise unparseable input where possible
     private boolean forceParsing;
 
+    // keep the decoded streams in the scratch file of the document
+    private boolean cacheDecodedStreams = true;
+
     /**
      * Creates a new PDFStreamEngine.
      */
@@ -145,6 +147,30 @@ public class PDFStreamEngine
         forceParsing = forceParsingValue;
     }
 
+    /**
+     * Indicates if the decoded data of the processed streams is kept in the scratch file.
+     * 
+     * @return true if the decoded streams are kept
+     */
+    public boolean isCacheDecodedStreams()
+    {
+        return cacheDecodedStreams;
+    }
+
+    /**
+     * Enable/Disable keeping the decoded data of the processed streams in the scratch file
+     * of the document, which is the default. If disabled the streams are decoded while they
+     * are processed, see {@link COSStream#createUnfilteredInputStream()}, so processing all
+     * pages of a large document doesn't fill the scratch file. A stream which is processed
+     * again, e.g. a form used on every page, is decoded again.
+     * 
+     * @param cacheDecodedStreamsValue true keeps the decoded streams
+     */
+    public void setCacheDecodedStreams(boolean cacheDecodedStreamsValue)
+    {
+        cacheDecodedStreams = cacheDecodedStreamsValue;
+    }
+
     /**
      * Register a custom operator processor with the engine.
      * 
@@ -233,31 +259,22 @@ public class PDFStreamEngine
 
     private void processSubStream(COSStream cosStream) throws IOException
     {
-        List<COSBase> arguments = new ArrayList<COSBase>();
-        PDFStreamParser parser = new PDFStreamParser(cosStream, forceParsing);
+        // the operand stack is reused for every operator of this stream, operator processors
+        // must not keep a reference to it
+        OperandStack arguments = new OperandStack();
+        InputStream data = cacheDecodedStreams ? cosStream.getUnfilteredStream()
+                : cosStream.createUnfilteredInputStream();
+        PDFStreamParser parser = new PDFStreamParser(data, cosStream.getScratchFile(), forceParsing);
         try
         {
-            Iterator<Object> iter = parser.getTokenIterator();
-            while (iter.hasNext())
+            PDFOperator operator;
+            while ((operator = parser.parseNextOperator(arguments)) != null)
             {
-                Object next = iter.next();
                 if (LOG.isDebugEnabled())
                 {
-                    LOG.debug("processing substream token: " + next);
-                }
-                if (next instanceof COSObject)
-                {
-                    arguments.add(((COSObject) next).getObject());
-                }
-                else if (next instanceof PDFOperator)
-                {
-                    processOperator((PDFOperator) next, arguments);
-                    arguments = new ArrayList<COSBase>();
-                }
-                else
-                {
-                    arguments.add((COSBase) next);
+                    LOG.debug("processing substream operator: " + operator + " " + arguments);
                 }
+                processOperator(operator, arguments);
             }
         }
         finally
@@ -541,7 +558,14 @@ public class PDFStreamEngine
             if (processor != null)
             {
                 processor.setContext(this);
-                processor.process(operator, arguments);
+                if (arguments instanceof OperandStack)
+                {
+                    processor.process(operator, (OperandStack) arguments);
+                }
+                else
+                {
+                    processor.process(operator, arguments);
+                }
             }
             else
             {
@@ -731,6 +755,18 @@ public class PDFStreamEngine
         return totalCharCnt;
     }
 
+    /**
+     * Adds the character counts of another engine which processed a part of the document.
+     *
+     * @param valid the number of valid characters
+     * @param total the number of characters
+     */
+    void addCharCnt(int valid, int total)
+    {
+        validCharCnt += valid;
+        totalCharCnt += total;
+    }
+
     /**
      * Remove all cached resources.
      */
@@ -21,17 +21,15 @@ import java.io.StringWriter;
 import java.io.Writer;
 import java.util.ArrayList;
 import java.util.Collections;
-import java.util.HashMap;
 import java.util.Iterator;
 import java.util.LinkedList;
 import java.util.List;
-import java.util.Map;
 import java.util.Properties;
-import java.util.SortedMap;
-import java.util.SortedSet;
-import java.util.TreeMap;
-import java.util.TreeSet;
 import java.util.Vector;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
 import java.util.regex.Pattern;
 
 import org.apache.pdfbox.cos.COSDocument;
@@ -68,6 +66,9 @@ public class PDFTextStripper extends PDFStreamEngine
 
     private static final String thisClassName = PDFTextStripper.class.getSimpleName().toLowerCase();
 
+    // number of pages extracted by a single task when extracting text concurrently
+    private static final int PAGES_PER_TASK = 16;
+
     private static float DEFAULT_INDENT_THRESHOLD = 2.0f;
     private static float DEFAULT_DROP_THRESHOLD = 2.5f;
 
@@ -169,8 +170,7 @@ public class PDFTextStripper extends PDFStreamEngine
      */
     protected Vector<List<TextPosition>> charactersByArticle = new Vector<List<TextPosition>>();
 
-    private Map<String, TreeMap<Float, TreeSet<Float>>> characterListMapping =
-        new HashMap<String, TreeMap<Float, TreeSet<Float>>>();
+    private CharacterGrid characterListMapping = new CharacterGrid();
 
     /**
      * encoding that text will be written in (or null).
@@ -198,6 +198,13 @@ public class PDFTextStripper extends PDFStreamEngine
      */
     private boolean inParagraph;
 
+    /**
+     * Used when extracting text concurrently: true if inParagraph was read before it was set
+     * by the pages processed by this instance, and true if it was set.
+     */
+    private boolean paragraphStateRead;
+    private boolean paragraphStateWritten;
+
     /**
      * Instantiate a new PDFTextStripper object. This object will load
      * properties from PDFTextStripper.properties and will not do
@@ -212,6 +219,8 @@ public class PDFTextStripper extends PDFStreamEngine
                 "org/apache/pdfbox/resources/PDFTextStripper.properties", true ) );
         this.outputEncoding = null;
         normalize = new TextNormalize(this.outputEncoding);
+        // the content streams are usually read once
+        setCacheDecodedStreams( false );
     }
 
     /**
@@ -229,6 +238,7 @@ public class PDFTextStripper extends PDFStreamEngine
         super( props );
         this.outputEncoding = null;
         normalize = new TextNormalize(this.outputEncoding);
+        setCacheDecodedStreams( false );
     }
     /**
      * Instantiate a new PDFTextStripper object. This object will load
@@ -244,6 +254,7 @@ public class PDFTextStripper extends PDFStreamEngine
                 "org/apache/pdfbox/resources/PDFTextStripper.properties", true ));
         this.outputEncoding = encoding;
         normalize = new TextNormalize(this.outputEncoding);
+        setCacheDecodedStreams( false );
     }
 
     /**
@@ -292,6 +303,8 @@ public class PDFTextStripper extends PDFStreamEngine
         }
         startBookmark = null;
         endBookmark = null;
+        paragraphStateRead = false;
+        paragraphStateWritten = false;
     }
     
     /**
@@ -303,6 +316,43 @@ public class PDFTextStripper extends PDFStreamEngine
      * @throws IOException If the doc is in an invalid state.
      */
     public void writeText( PDDocument doc, Writer outputStream ) throws IOException
+    {
+        startText( doc, outputStream );
+        processPages( document.getDocumentCatalog().getAllPages() );
+        endDocument(document);
+    }
+
+    /**
+     * This will take a PDDocument and write the text of that document to the print writer.
+     * Ranges of pages are extracted concurrently by the given executor, each of them by its own
+     * instance created by {@link #createPageStripper()}. The text is written in page order and
+     * is the same as the one written by {@link #writeText(PDDocument, Writer)}. The pages are
+     * extracted one after the other if {@link #createPageStripper()} returns null.
+     *
+     * @param doc The document to get the data from.
+     * @param outputStream The location to put the text.
+     * @param executor The executor running the extraction of the pages.
+     *
+     * @throws IOException If the doc is in an invalid state.
+     */
+    public void writeText( PDDocument doc, Writer outputStream, ExecutorService executor )
+        throws IOException
+    {
+        startText( doc, outputStream );
+        @SuppressWarnings("unchecked")
+        List<COSObjectable> pages = document.getDocumentCatalog().getAllPages();
+        if( createPageStripper() != null )
+        {
+            processPagesConcurrently( pages, executor );
+        }
+        else
+        {
+            processPages( pages );
+        }
+        endDocument(document);
+    }
+
+    private void startText( PDDocument doc, Writer outputStream ) throws IOException
     {
         resetEngine();
         document = doc;
@@ -334,8 +384,6 @@ public class PDFTextStripper extends PDFStreamEngine
                 throw new IOException("Invalid password for encrypted document", e);
             }
         }
-        processPages( document.getDocumentCatalog().getAllPages() );
-        endDocument(document);
     }
 
     /**
@@ -346,6 +394,23 @@ public class PDFTextStripper extends PDFStreamEngine
      * @throws IOException If there is an error parsing the text.
      */
     protected void processPages( List<COSObjectable> pages ) throws IOException
+    {
+        findBookmarkPageNumbers( pages );
+        Iterator<COSObjectable> pageIter = pages.iterator();
+        while( pageIter.hasNext() )
+        {
+            PDPage nextPage = (PDPage)pageIter.next();
+            PDStream contentStream = nextPage.getContents();
+            currentPageNo++;
+            if( contentStream != null )
+            {
+                COSStream contents = contentStream.getStream();
+                processPage( nextPage, contents );
+            }
+        }
+    }
+
+    private void findBookmarkPageNumbers( List<COSObjectable> pages ) throws IOException
     {
         if( startBookmark != null )
         {
@@ -366,20 +431,204 @@ public class PDFTextStripper extends PDFStreamEngine
             startBookmarkPageNumber = 0;
             endBookmarkPageNumber = 0;
         }
-        Iterator<COSObjectable> pageIter = pages.iterator();
-        while( pageIter.hasNext() )
+    }
+
+    /**
+     * Processes the pages like {@link #processPages(List)}, but ranges of pages are extracted
+     * concurrently into buffers which are written to the output in page order.
+     *
+     * @param pages The pages object in the document.
+     * @param executor The executor running the extraction of the pages.
+     *
+     * @throws IOException If there is an error parsing the text.
+     */
+    private void processPagesConcurrently( List<COSObjectable> pages, ExecutorService executor )
+        throws IOException
+    {
+        findBookmarkPageNumbers( pages );
+        List<Integer> pageNumbers = new ArrayList<Integer>();
+        for( int i = 1; i <= pages.size(); i++ )
         {
-            PDPage nextPage = (PDPage)pageIter.next();
-            PDStream contentStream = nextPage.getContents();
-            currentPageNo++;
-            if( contentStream != null )
+            if( isPageInRange( i ) && ((PDPage)pages.get( i - 1 )).getContents() != null )
             {
-                COSStream contents = contentStream.getStream();
-                processPage( nextPage, contents );
+                pageNumbers.add( i );
+            }
+        }
+        List<Future<PageRangeText>> futures = new ArrayList<Future<PageRangeText>>();
+        boolean success = false;
+        try
+        {
+            for( int i = 0; i < pageNumbers.size(); i += PAGES_PER_TASK )
+            {
+                final List<Integer> range =
+                    pageNumbers.subList( i, Math.min( i + PAGES_PER_TASK, pageNumbers.size() ) );
+                final List<COSObjectable> allPages = pages;
+                futures.add( executor.submit( new Callable<PageRangeText>()
+                {
+                    public PageRangeText call() throws IOException
+                    {
+                        return extractPageRange( allPages, range, false );
+                    }
+                }));
+            }
+            for( int i = 0; i < futures.size(); i++ )
+            {
+                PageRangeText text = getPageRangeText( futures.get( i ) );
+                if( inParagraph && text.paragraphStateRead )
+                {
+                    // the text depends on the paragraph state left by the previous pages,
+                    // which wasn't known when the range was extracted
+                    List<Integer> range = pageNumbers.subList( i * PAGES_PER_TASK,
+                        Math.min( (i + 1) * PAGES_PER_TASK, pageNumbers.size() ) );
+                    text = extractPageRange( pages, range, true );
+                }
+                if( text.paragraphStateWritten )
+                {
+                    inParagraph = text.inParagraph;
+                }
+                output.write( text.text );
+                addCharCnt( text.validCharCnt, text.totalCharCnt );
+            }
+            currentPageNo = pages.size();
+            success = true;
+        }
+        finally
+        {
+            if( !success )
+            {
+                for( Future<PageRangeText> future : futures )
+                {
+                    future.cancel( true );
+                }
+            }
+        }
+    }
+
+    private PageRangeText getPageRangeText( Future<PageRangeText> future ) throws IOException
+    {
+        try
+        {
+            return future.get();
+        }
+        catch( InterruptedException e )
+        {
+            Thread.currentThread().interrupt();
+            throw new IOException( "Interrupted while extracting text", e );
+        }
+        catch( ExecutionException e )
+        {
+            Throwable cause = e.getCause();
+            if( cause instanceof IOException )
+            {
+                throw (IOException)cause;
+            }
+            if( cause instanceof RuntimeException )
+            {
+                throw (RuntimeException)cause;
+            }
+            if( cause instanceof Error )
+            {
+                throw (Error)cause;
             }
+            throw new IOException( cause );
         }
     }
 
+    /**
+     * Extracts the text of the given pages using a new page stripper.
+     *
+     * @param pages all pages of the document
+     * @param pageNumbers the one based numbers of the pages to be extracted
+     * @param inParagraphValue the paragraph state left by the previous pages
+     * @return the text of the pages
+     * @throws IOException If there is an error parsing the text.
+     */
+    private PageRangeText extractPageRange( List<COSObjectable> pages, List<Integer> pageNumbers,
+        boolean inParagraphValue ) throws IOException
+    {
+        PDFTextStripper stripper = createPageStripper();
+        copySettingsTo( stripper );
+        StringWriter buffer = new StringWriter();
+        stripper.output = buffer;
+        stripper.inParagraph = inParagraphValue;
+        for( Integer pageNumber : pageNumbers )
+        {
+            PDPage page = (PDPage)pages.get( pageNumber - 1 );
+            stripper.currentPageNo = pageNumber;
+            stripper.processPage( page, page.getContents().getStream() );
+        }
+        PageRangeText text = new PageRangeText();
+        text.text = buffer.toString();
+        text.inParagraph = stripper.inParagraph;
+        text.paragraphStateRead = stripper.paragraphStateRead;
+        text.paragraphStateWritten = stripper.paragraphStateWritten;
+        text.validCharCnt = stripper.getValidCharCnt();
+        text.totalCharCnt = stripper.getTotalCharCnt();
+        return text;
+    }
+
+    /**
+     * Creates the instance extracting a range of pages when the text is extracted concurrently,
+     * see {@link #writeText(PDDocument, Writer, ExecutorService)}. The settings of this instance
+     * are copied to the new one. Subclasses may override this method to return an instance of
+     * their own class, by default their pages are extracted one after the other as they may
+     * depend on state which isn't copied.
+     *
+     * @return a new instance of this class, or null if the text can't be extracted concurrently
+     * @throws IOException If there is an error loading the properties.
+     */
+    protected PDFTextStripper createPageStripper() throws IOException
+    {
+        if( getClass() != PDFTextStripper.class )
+        {
+            return null;
+        }
+        return new PDFTextStripper( outputEncoding );
+    }
+
+    private void copySettingsTo( PDFTextStripper stripper )
+    {
+        stripper.document = document;
+        stripper.setForceParsing( isForceParsing() );
+        stripper.setCacheDecodedStreams( isCacheDecodedStreams() );
+        stripper.lineSeparator = lineSeparator;
+        stripper.pageSeparator = pageSeparator;
+        stripper.wordSeparator = wordSeparator;
+        stripper.paragraphStart = paragraphStart;
+        stripper.paragraphEnd = paragraphEnd;
+        stripper.pageStart = pageStart;
+        stripper.pageEnd = pageEnd;
+        stripper.articleStart = articleStart;
+        stripper.articleEnd = articleEnd;
+        stripper.startPage = startPage;
+        stripper.endPage = endPage;
+        stripper.startBookmarkPageNumber = startBookmarkPageNumber;
+        stripper.endBookmarkPageNumber = endBookmarkPageNumber;
+        stripper.suppressDuplicateOverlappingText = suppressDuplicateOverlappingText;
+        stripper.shouldSeparateByBeads = shouldSeparateByBeads;
+        stripper.sortByPosition = sortByPosition;
+        stripper.addMoreFormatting = addMoreFormatting;
+        stripper.indentThreshold = indentThreshold;
+        stripper.dropThreshold = dropThreshold;
+        stripper.spacingTolerance = spacingTolerance;
+        stripper.averageCharTolerance = averageCharTolerance;
+        stripper.listOfPatterns = listOfPatterns;
+    }
+
+    /**
+     * The text of a range of pages together with the state needed to stitch it to the text of
+     * the previous pages.
+     */
+    private static final class PageRangeText
+    {
+        private String text;
+        private boolean inParagraph;
+        private boolean paragraphStateRead;
+        private boolean paragraphStateWritten;
+        private int validCharCnt;
+        private int totalCharCnt;
+    }
+
     private int getPageNumber( PDOutlineItem bookmark, List<COSObjectable> allPages ) throws IOException
     {
         int pageNumber = -1;
@@ -425,9 +674,7 @@ public class PDFTextStripper extends PDFStreamEngine
      */
     protected void processPage( PDPage page, COSStream content ) throws IOException
     {
-        if( currentPageNo >= startPage && currentPageNo <= endPage &&
-                (startBookmarkPageNumber == -1 || currentPageNo >= startBookmarkPageNumber ) &&
-                (endBookmarkPageNumber == -1 || currentPageNo <= endBookmarkPageNumber ))
+        if( isPageInRange( currentPageNo ) )
         {
             startPage( page );
             pageArticles = page.getThreadBeads();
@@ -456,6 +703,13 @@ public class PDFTextStripper extends PDFStreamEngine
         }
     }
 
+    private boolean isPageInRange( int pageNo )
+    {
+        return pageNo >= startPage && pageNo <= endPage &&
+                (startBookmarkPageNumber == -1 || pageNo >= startBookmarkPageNumber ) &&
+                (endBookmarkPageNumber == -1 || pageNo <= endBookmarkPageNumber );
+    }
+
     /**
      * Start a new article, which is typically defined as a column
      * on a single page (also referred to as a bead).  This assumes
@@ -899,12 +1153,6 @@ public class PDFTextStripper extends PDFStreamEngine
             String textCharacter = text.getCharacter();
             float textX = text.getX();
             float textY = text.getY();
-            TreeMap<Float, TreeSet<Float>> sameTextCharacters = characterListMapping.get( textCharacter );
-            if( sameTextCharacters == null )
-            {
-                sameTextCharacters = new TreeMap<Float, TreeSet<Float>>();
-                characterListMapping.put( textCharacter, sameTextCharacters );
-            }
             // RDD - Here we compute the value that represents the end of the rendered
             // text.  This value is used to determine whether subsequent text rendered
             // on the same line overwrites the current text.
@@ -916,30 +1164,10 @@ public class PDFTextStripper extends PDFStreamEngine
             // an amount to allow for kerning (a percentage of the width of the last
             // character).
             //
-            boolean suppressCharacter = false;
             float tolerance = (text.getWidth()/textCharacter.length())/3.0f;
-            
-            SortedMap<Float, TreeSet<Float>> xMatches =
-                sameTextCharacters.subMap(textX - tolerance, textX + tolerance );
-            for (TreeSet<Float> xMatch : xMatches.values()) 
+            if( !characterListMapping.contains( textCharacter, textX, textY, tolerance ) )
             {
-                SortedSet<Float> yMatches =
-                    xMatch.subSet(textY - tolerance , textY + tolerance );
-                if (!yMatches.isEmpty()) 
-                {
-                    suppressCharacter = true;
-                    break;
-                }
-            }
-            if( !suppressCharacter )
-            {
-                TreeSet<Float> ySet = sameTextCharacters.get(textX);
-                if (ySet == null) 
-                {
-                    ySet = new TreeSet<Float>();
-                    sameTextCharacters.put( textX,  ySet );
-                }
-                ySet.add( textY );
+                characterListMapping.add( textCharacter, textX, textY );
                 showCharacter = true;
             }
         }
@@ -1728,6 +1956,11 @@ public class PDFTextStripper extends PDFStreamEngine
      */
     protected void writeParagraphStart() throws IOException
     {
+        if (!paragraphStateWritten)
+        {
+            paragraphStateRead = true;
+        }
+        paragraphStateWritten = true;
         if (inParagraph) 
         {
             writeParagraphEnd();
@@ -1745,6 +1978,7 @@ public class PDFTextStripper extends PDFStreamEngine
     {
         output.write(getParagraphEnd());
         inParagraph = false;
+        paragraphStateWritten = true;
     }
 
     /**
@@ -0,0 +1,42 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.pdfbox.util;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * The destination of the documents created by {@link Splitter#split(
+ * org.apache.pdfbox.pdmodel.PDDocument, SplitDestination)}. Each split document is saved to
+ * its own output stream as soon as it is complete.
+ *
+ * @version $Revision$
+ */
+public interface SplitDestination
+{
+    /**
+     * Creates the output stream of a split document. The splitter closes the stream once the
+     * document has been saved.
+     *
+     * @param partNumber the number of the split document, zero based
+     *
+     * @return the stream to save the split document to
+     *
+     * @throws IOException if the stream can't be created
+     */
+    OutputStream createOutputStream(int partNumber) throws IOException;
+}
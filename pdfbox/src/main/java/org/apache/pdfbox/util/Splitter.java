@@ -20,6 +20,7 @@ import org.apache.pdfbox.pdmodel.PDDocument;
 import org.apache.pdfbox.pdmodel.PDPage;
 
 import java.io.IOException;
+import java.io.OutputStream;
 
 import java.util.ArrayList;
 import java.util.Iterator;
@@ -50,6 +51,10 @@ public class Splitter
     private int endPage = Integer.MAX_VALUE;
     private List<PDDocument> newDocuments = null;
 
+    // the destination of the split documents if they are saved as soon as they are complete
+    private SplitDestination destination = null;
+    private int partNumber = 0;
+
     /**
      * The current page number that we are processing, zero based.
      */
@@ -74,6 +79,39 @@ public class Splitter
         return newDocuments;
     }
 
+    /**
+     * This will take a document and split into several other documents, which are saved to the
+     * given destination. Each split document is saved and closed as soon as it is complete,
+     * so only one split document is kept in memory at a time.
+     *
+     * @param document The document to split.
+     * @param splitDestination The destination of the split documents.
+     *
+     * @throws IOException If there is an IOError
+     */
+    public void split( PDDocument document, SplitDestination splitDestination ) throws IOException
+    {
+        newDocuments = null;
+        pdfDocument = document;
+        destination = splitDestination;
+        partNumber = 0;
+        try
+        {
+            List<?> pages = pdfDocument.getDocumentCatalog().getAllPages();
+            processPages(pages);
+            saveCurrentDocument();
+        }
+        finally
+        {
+            if (currentDocument != null)
+            {
+                currentDocument.close();
+                currentDocument = null;
+            }
+            destination = null;
+        }
+    }
+
     /**
      * This will tell the splitting algorithm where to split the pages.  The default
      * is 1, so every page will become a new document.  If it was to then each document would
@@ -221,11 +259,48 @@ public class Splitter
      */
     protected void createNewDocument() throws IOException
     {
+        saveCurrentDocument();
         currentDocument = new PDDocument();
         currentDocument.setDocumentInformation(pdfDocument.getDocumentInformation());
         currentDocument.getDocumentCatalog().setViewerPreferences(
         pdfDocument.getDocumentCatalog().getViewerPreferences());
-        newDocuments.add(currentDocument);
+        if (newDocuments != null)
+        {
+            newDocuments.add(currentDocument);
+        }
+    }
+
+    /**
+     * Saves the current document to the destination and closes it, if the split documents
+     * are saved as soon as they are complete.
+     *
+     * @throws IOException If the document can't be saved.
+     */
+    private void saveCurrentDocument() throws IOException
+    {
+        if (destination == null || currentDocument == null)
+        {
+            return;
+        }
+        PDDocument document = currentDocument;
+        currentDocument = null;
+        try
+        {
+            OutputStream output = destination.createOutputStream(partNumber++);
+            try
+            {
+                document.save(output);
+            }
+            finally
+            {
+                output.close();
+            }
+        }
+        finally
+        {
+            // releases the copied page contents
+            document.close();
+        }
     }
 
 
@@ -20,7 +20,6 @@ import java.util.List;
 import java.io.IOException;
 
 import org.apache.pdfbox.cos.COSBase;
-import org.apache.pdfbox.cos.COSNumber;
 import org.apache.pdfbox.util.Matrix;
 
 /**
@@ -40,22 +39,27 @@ public class Concatenate extends OperatorProcessor
      */
     public void process(PDFOperator operator, List<COSBase> arguments) throws IOException
     {
+        process(operator, OperandStack.wrap(arguments));
+    }
 
-        //concatenate matrix to current transformation matrix
-        COSNumber a = (COSNumber) arguments.get(0);
-        COSNumber b = (COSNumber) arguments.get(1);
-        COSNumber c = (COSNumber) arguments.get(2);
-        COSNumber d = (COSNumber) arguments.get(3);
-        COSNumber e = (COSNumber) arguments.get(4);
-        COSNumber f = (COSNumber) arguments.get(5);
+    /**
+     * process : cm : Concatenate matrix to current transformation matrix.
+     * @param operator The operator that is being executed.
+     * @param arguments the operands of the operator
+     * @throws IOException If there is an error processing the operator.
+     */
+    @Override
+    public void process(PDFOperator operator, OperandStack arguments) throws IOException
+    {
 
+        //concatenate matrix to current transformation matrix
         Matrix newMatrix = new Matrix();
-        newMatrix.setValue(0, 0, a.floatValue());
-        newMatrix.setValue(0, 1, b.floatValue());
-        newMatrix.setValue(1, 0, c.floatValue());
-        newMatrix.setValue(1, 1, d.floatValue());
-        newMatrix.setValue(2, 0, e.floatValue());
-        newMatrix.setValue(2, 1, f.floatValue());
+        newMatrix.setValue(0, 0, arguments.getFloat(0));
+        newMatrix.setValue(0, 1, arguments.getFloat(1));
+        newMatrix.setValue(1, 0, arguments.getFloat(2));
+        newMatrix.setValue(1, 1, arguments.getFloat(3));
+        newMatrix.setValue(2, 0, arguments.getFloat(4));
+        newMatrix.setValue(2, 1, arguments.getFloat(5));
 
         //this line has changed
         context.getGraphicsState().setCurrentTransformationMatrix(
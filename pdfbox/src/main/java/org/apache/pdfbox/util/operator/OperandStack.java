@@ -0,0 +1,244 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.pdfbox.util.operator;
+
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.apache.pdfbox.cos.COSBase;
+import org.apache.pdfbox.cos.COSFloat;
+import org.apache.pdfbox.cos.COSInteger;
+import org.apache.pdfbox.cos.COSNumber;
+
+/**
+ * The operands of a content stream operator. Numeric operands are kept as primitive values
+ * together with a type tag, all other operands (names, strings, arrays, dictionaries) are kept
+ * as COS objects. Operator processors may read numbers with {@link #getFloat(int)} and friends,
+ * the {@link List} view creates the corresponding {@link COSNumber} only when it is asked for.
+ */
+public final class OperandStack extends AbstractList<COSBase>
+{
+    private static final byte OBJECT = 0;
+    private static final byte INTEGER = 1;
+    private static final byte REAL = 2;
+
+    private byte[] types = new byte[16];
+    private double[] values = new double[16];
+    private COSBase[] objects = new COSBase[16];
+    private int size;
+
+    /**
+     * Creates an empty operand stack.
+     */
+    public OperandStack()
+    {
+    }
+
+    /**
+     * Creates an operand stack holding the given operands.
+     *
+     * @param operands the operands
+     */
+    public OperandStack(List<COSBase> operands)
+    {
+        for (COSBase operand : operands)
+        {
+            push(operand);
+        }
+    }
+
+    /**
+     * Returns the given operands as operand stack, the list itself is returned if it already is one.
+     *
+     * @param operands the operands
+     * @return an operand stack holding the given operands
+     */
+    public static OperandStack wrap(List<COSBase> operands)
+    {
+        if (operands instanceof OperandStack)
+        {
+            return (OperandStack) operands;
+        }
+        return new OperandStack(operands);
+    }
+
+    /**
+     * Pushes an integer operand.
+     *
+     * @param value the value of the operand
+     */
+    public void pushInteger(long value)
+    {
+        ensureCapacity();
+        types[size] = INTEGER;
+        values[size] = value;
+        size++;
+        modCount++;
+    }
+
+    /**
+     * Pushes a real operand.
+     *
+     * @param value the value of the operand
+     */
+    public void pushReal(double value)
+    {
+        ensureCapacity();
+        types[size] = REAL;
+        values[size] = value;
+        size++;
+        modCount++;
+    }
+
+    /**
+     * Pushes an operand which isn't available as a primitive value.
+     *
+     * @param object the operand
+     */
+    public void push(COSBase object)
+    {
+        ensureCapacity();
+        types[size] = OBJECT;
+        objects[size] = object;
+        size++;
+        modCount++;
+    }
+
+    private void ensureCapacity()
+    {
+        if (size == types.length)
+        {
+            int capacity = size * 2;
+            types = Arrays.copyOf(types, capacity);
+            values = Arrays.copyOf(values, capacity);
+            objects = Arrays.copyOf(objects, capacity);
+        }
+    }
+
+    private void checkIndex(int index)
+    {
+        if (index < 0 || index >= size)
+        {
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+        }
+    }
+
+    /**
+     * Indicates if the operand at the given index is a number.
+     *
+     * @param index the index of the operand
+     * @return true if the operand is a number
+     */
+    public boolean isNumber(int index)
+    {
+        checkIndex(index);
+        return types[index] != OBJECT || objects[index] instanceof COSNumber;
+    }
+
+    /**
+     * Returns the numeric operand at the given index as double.
+     *
+     * @param index the index of the operand
+     * @return the value of the operand
+     * @throws ClassCastException if the operand isn't a number
+     */
+    public double getDouble(int index)
+    {
+        checkIndex(index);
+        if (types[index] == OBJECT)
+        {
+            return ((COSNumber) objects[index]).doubleValue();
+        }
+        return values[index];
+    }
+
+    /**
+     * Returns the numeric operand at the given index as float.
+     *
+     * @param index the index of the operand
+     * @return the value of the operand
+     * @throws ClassCastException if the operand isn't a number
+     */
+    public float getFloat(int index)
+    {
+        checkIndex(index);
+        if (types[index] == OBJECT)
+        {
+            return ((COSNumber) objects[index]).floatValue();
+        }
+        return (float) values[index];
+    }
+
+    /**
+     * Returns the numeric operand at the given index as int, reals are truncated.
+     *
+     * @param index the index of the operand
+     * @return the value of the operand
+     * @throws ClassCastException if the operand isn't a number
+     */
+    public int getInt(int index)
+    {
+        checkIndex(index);
+        if (types[index] == OBJECT)
+        {
+            return ((COSNumber) objects[index]).intValue();
+        }
+        return (int) values[index];
+    }
+
+    @Override
+    public COSBase get(int index)
+    {
+        checkIndex(index);
+        COSBase object = objects[index];
+        if (object == null && types[index] != OBJECT)
+        {
+            if (types[index] == INTEGER)
+            {
+                object = COSInteger.get((long) values[index]);
+            }
+            else
+            {
+                object = new COSFloat((float) values[index]);
+            }
+            objects[index] = object;
+        }
+        return object;
+    }
+
+    @Override
+    public boolean add(COSBase object)
+    {
+        push(object);
+        return true;
+    }
+
+    @Override
+    public int size()
+    {
+        return size;
+    }
+
+    @Override
+    public void clear()
+    {
+        Arrays.fill(objects, 0, size, null);
+        size = 0;
+        modCount++;
+    }
+}
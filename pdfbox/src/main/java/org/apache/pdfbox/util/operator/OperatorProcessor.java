@@ -62,4 +62,17 @@ public abstract class OperatorProcessor
      * @throws IOException if the operator cannot be processed
      */
     public abstract void process(PDFOperator operator, List<COSBase> operands) throws IOException;
+
+    /**
+     * Process the operator with operands as read by the content stream parser. Processors of
+     * operators with numeric operands may override this to read them as primitive values,
+     * the default implementation processes the operands as list.
+     * @param operator the operator to process
+     * @param operands the operands to use when processing
+     * @throws IOException if the operator cannot be processed
+     */
+    public void process(PDFOperator operator, OperandStack operands) throws IOException
+    {
+        process(operator, (List<COSBase>) operands);
+    }
 }
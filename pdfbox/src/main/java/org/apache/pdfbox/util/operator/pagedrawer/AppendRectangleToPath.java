@@ -21,8 +21,8 @@ import java.awt.geom.Point2D;
 import java.util.List;
 
 import org.apache.pdfbox.cos.COSBase;
-import org.apache.pdfbox.cos.COSNumber;
 import org.apache.pdfbox.rendering.PageDrawer;
+import org.apache.pdfbox.util.operator.OperandStack;
 import org.apache.pdfbox.util.operator.PDFOperator;
 import org.apache.pdfbox.util.operator.OperatorProcessor;
 
@@ -35,19 +35,20 @@ public final class AppendRectangleToPath extends OperatorProcessor
     @Override
     public void process(PDFOperator operator, List<COSBase> operands)
     {
-        PageDrawer drawer = (PageDrawer)context;
+        process(operator, OperandStack.wrap(operands));
+    }
 
-        COSNumber x = (COSNumber)operands.get(0);
-        COSNumber y = (COSNumber)operands.get(1);
-        COSNumber w = (COSNumber)operands.get(2);
-        COSNumber h = (COSNumber)operands.get(3);
+    @Override
+    public void process(PDFOperator operator, OperandStack operands)
+    {
+        PageDrawer drawer = (PageDrawer)context;
 
-        double x1 = x.doubleValue();
-        double y1 = y.doubleValue();
+        double x1 = operands.getDouble(0);
+        double y1 = operands.getDouble(1);
 
         // create a pair of coordinates for the transformation
-        double x2 = w.doubleValue() + x1;
-        double y2 = h.doubleValue() + y1;
+        double x2 = operands.getDouble(2) + x1;
+        double y2 = operands.getDouble(3) + y1;
 
         Point2D startCoords = drawer.transformedPoint(x1, y1);
         Point2D endCoords = drawer.transformedPoint(x2, y2);
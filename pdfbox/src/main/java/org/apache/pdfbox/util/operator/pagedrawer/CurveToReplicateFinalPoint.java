@@ -20,8 +20,8 @@ import java.util.List;
 import java.awt.geom.Point2D;
 
 import org.apache.pdfbox.cos.COSBase;
-import org.apache.pdfbox.cos.COSNumber;
 import org.apache.pdfbox.rendering.PageDrawer;
+import org.apache.pdfbox.util.operator.OperandStack;
 import org.apache.pdfbox.util.operator.PDFOperator;
 import org.apache.pdfbox.util.operator.OperatorProcessor;
 
@@ -34,15 +34,16 @@ public final class CurveToReplicateFinalPoint extends OperatorProcessor
     @Override
     public void process(PDFOperator operator, List<COSBase> operands)
     {
-        PageDrawer drawer = (PageDrawer)context;
+        process(operator, OperandStack.wrap(operands));
+    }
 
-        COSNumber x1 = (COSNumber)operands.get(0);
-        COSNumber y1 = (COSNumber)operands.get(1);
-        COSNumber x3 = (COSNumber)operands.get(2);
-        COSNumber y3 = (COSNumber)operands.get(3);
+    @Override
+    public void process(PDFOperator operator, OperandStack operands)
+    {
+        PageDrawer drawer = (PageDrawer)context;
 
-        Point2D point1 = drawer.transformedPoint(x1.doubleValue(), y1.doubleValue());
-        Point2D point3 = drawer.transformedPoint(x3.doubleValue(), y3.doubleValue());
+        Point2D point1 = drawer.transformedPoint(operands.getDouble(0), operands.getDouble(1));
+        Point2D point3 = drawer.transformedPoint(operands.getDouble(2), operands.getDouble(3));
 
         drawer.getLinePath().curveTo((float)point1.getX(), (float)point1.getY(), 
                                      (float)point3.getX(), (float)point3.getY(),
@@ -21,8 +21,8 @@ import java.awt.geom.Point2D;
 import java.util.List;
 
 import org.apache.pdfbox.cos.COSBase;
-import org.apache.pdfbox.cos.COSNumber;
 import org.apache.pdfbox.rendering.PageDrawer;
+import org.apache.pdfbox.util.operator.OperandStack;
 import org.apache.pdfbox.util.operator.PDFOperator;
 import org.apache.pdfbox.util.operator.OperatorProcessor;
 
@@ -34,18 +34,20 @@ public class CurveToReplicateInitialPoint extends OperatorProcessor
 {
     @Override
     public void process(PDFOperator operator, List<COSBase> operands)
+    {
+        process(operator, OperandStack.wrap(operands));
+    }
+
+    @Override
+    public void process(PDFOperator operator, OperandStack operands)
     {
         PageDrawer drawer = (PageDrawer)context;
 
-        COSNumber x2 = (COSNumber)operands.get(0 );
-        COSNumber y2 = (COSNumber)operands.get(1);
-        COSNumber x3 = (COSNumber)operands.get(2);
-        COSNumber y3 = (COSNumber)operands.get(3);
         GeneralPath path = drawer.getLinePath();
         Point2D currentPoint = path.getCurrentPoint();
 
-        Point2D point2 = drawer.transformedPoint(x2.doubleValue(), y2.doubleValue());
-        Point2D point3 = drawer.transformedPoint(x3.doubleValue(), y3.doubleValue());
+        Point2D point2 = drawer.transformedPoint(operands.getDouble(0), operands.getDouble(1));
+        Point2D point3 = drawer.transformedPoint(operands.getDouble(2), operands.getDouble(3));
 
         drawer.getLinePath().curveTo((float)currentPoint.getX(), (float)currentPoint.getY(),
                                      (float)point2.getX(),       (float)point2.getY(),
@@ -75,7 +75,8 @@ public final class Invoke extends OperatorProcessor
                 }
                 else
                 {
-                    awtImage = image.getImage();
+                    // repeated images are decoded only once per document
+                    awtImage = drawer.getRenderer().getImageCache().getImage(image);
                 }
                 Matrix ctm = drawer.getGraphicsState().getCurrentTransformationMatrix();
                 AffineTransform imageTransform = ctm.createAffineTransform();
@@ -20,8 +20,8 @@ import java.util.List;
 import java.awt.geom.Point2D;
 
 import org.apache.pdfbox.cos.COSBase;
-import org.apache.pdfbox.cos.COSNumber;
 import org.apache.pdfbox.rendering.PageDrawer;
+import org.apache.pdfbox.util.operator.OperandStack;
 import org.apache.pdfbox.util.operator.PDFOperator;
 import org.apache.pdfbox.util.operator.OperatorProcessor;
 
@@ -33,14 +33,17 @@ public class LineTo extends OperatorProcessor
 {
     @Override
     public void process(PDFOperator operator, List<COSBase> operands)
+    {
+        process(operator, OperandStack.wrap(operands));
+    }
+
+    @Override
+    public void process(PDFOperator operator, OperandStack operands)
     {
         PageDrawer drawer = (PageDrawer)context;
 
         // append straight line segment from the current point to the point
-        COSNumber x = (COSNumber)operands.get(0);
-        COSNumber y = (COSNumber)operands.get(1);
-
-        Point2D pos = drawer.transformedPoint(x.doubleValue(), y.doubleValue());
+        Point2D pos = drawer.transformedPoint(operands.getDouble(0), operands.getDouble(1));
         drawer.getLinePath().lineTo((float)pos.getX(), (float)pos.getY());
     }
 }
@@ -20,8 +20,8 @@ import java.awt.geom.Point2D;
 import java.util.List;
 
 import org.apache.pdfbox.cos.COSBase;
-import org.apache.pdfbox.cos.COSNumber;
 import org.apache.pdfbox.rendering.PageDrawer;
+import org.apache.pdfbox.util.operator.OperandStack;
 import org.apache.pdfbox.util.operator.PDFOperator;
 import org.apache.pdfbox.util.operator.OperatorProcessor;
 
@@ -33,11 +33,15 @@ public final class MoveTo extends OperatorProcessor
 {
     @Override
     public void process(PDFOperator operator, List<COSBase> operands)
+    {
+        process(operator, OperandStack.wrap(operands));
+    }
+
+    @Override
+    public void process(PDFOperator operator, OperandStack operands)
     {
         PageDrawer drawer = (PageDrawer)context;
-        COSNumber x = (COSNumber)operands.get(0);
-        COSNumber y = (COSNumber)operands.get(1);
-        Point2D pos = drawer.transformedPoint(x.doubleValue(), y.doubleValue());
+        Point2D pos = drawer.transformedPoint(operands.getDouble(0), operands.getDouble(1));
         drawer.getLinePath().moveTo((float)pos.getX(), (float)pos.getY());
     }
 }
@@ -0,0 +1,143 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.pdfbox.cos;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.Arrays;
+import java.util.zip.DeflaterOutputStream;
+
+import junit.framework.TestCase;
+
+import org.apache.pdfbox.io.RandomAccessBuffer;
+import org.apache.pdfbox.pdmodel.common.COSStreamArray;
+
+/**
+ * Tests the decoding of {@link COSStream}.
+ */
+public class TestCOSStream extends TestCase
+{
+    private static final byte[] DATA = "BT /F1 12 Tf 72 720 Td (Hello World) Tj ET".getBytes();
+
+    /**
+     * Tests that the data read once is decoded without writing it to the scratch file.
+     *
+     * @throws IOException if an error occurs
+     */
+    public void testCreateUnfilteredInputStream() throws IOException
+    {
+        COSStream stream = createFlateStream(DATA);
+        long scratchLength = stream.getScratchFile().length();
+
+        assertTrue(Arrays.equals(DATA, readAll(stream.createUnfilteredInputStream())));
+        assertTrue(Arrays.equals(DATA, readAll(stream.createUnfilteredInputStream())));
+        assertEquals(scratchLength, stream.getScratchFile().length());
+
+        // the decoded data is used once it is available
+        assertTrue(Arrays.equals(DATA, readAll(stream.getUnfilteredStream())));
+        scratchLength = stream.getScratchFile().length();
+        assertTrue(Arrays.equals(DATA, readAll(stream.createUnfilteredInputStream())));
+        assertEquals(scratchLength, stream.getScratchFile().length());
+    }
+
+    /**
+     * Tests that a stream with a filter which can't decode while reading is decoded to the
+     * scratch file, and that a stream without filters is read as is.
+     *
+     * @throws IOException if an error occurs
+     */
+    public void testCreateUnfilteredInputStreamFallback() throws IOException
+    {
+        // one run of 3 bytes, one repeated byte and the end of data
+        byte[] runLength = new byte[] { 2, 'a', 'b', 'c', -3, 'x', -128 };
+        COSStream stream = new COSStream(new RandomAccessBuffer());
+        stream.setItem(COSName.FILTER, COSName.RUN_LENGTH_DECODE);
+        OutputStream output = stream.createFilteredStream();
+        output.write(runLength);
+        output.close();
+        assertEquals("abcxxxx", new String(readAll(stream.createUnfilteredInputStream()), "US-ASCII"));
+
+        stream = new COSStream(new RandomAccessBuffer());
+        output = stream.createFilteredStream();
+        output.write(DATA);
+        output.close();
+        assertTrue(Arrays.equals(DATA, readAll(stream.createUnfilteredInputStream())));
+
+        stream = new COSStream(new RandomAccessBuffer());
+        assertEquals(0, readAll(stream.createUnfilteredInputStream()).length);
+    }
+
+    /**
+     * Tests that the streams of a content array are decoded while reading and separated,
+     * whether the first stream is filtered or not.
+     *
+     * @throws IOException if an error occurs
+     */
+    public void testStreamArrayCreateUnfilteredInputStream() throws IOException
+    {
+        COSStream plain = new COSStream(new RandomAccessBuffer());
+        OutputStream output = plain.createFilteredStream();
+        output.write("q Q".getBytes("US-ASCII"));
+        output.close();
+
+        COSArray array = new COSArray();
+        array.add(createFlateStream(DATA));
+        array.add(plain);
+        COSStreamArray streams = new COSStreamArray(array);
+        String expected = new String(DATA, "US-ASCII") + "\nq Q\n";
+        assertEquals(expected, new String(readAll(streams.createUnfilteredInputStream()), "US-ASCII"));
+        assertEquals(expected, new String(readAll(streams.getUnfilteredStream()), "US-ASCII"));
+
+        array = new COSArray();
+        array.add(plain);
+        array.add(createFlateStream(DATA));
+        streams = new COSStreamArray(array);
+        assertEquals("q Q\n" + new String(DATA, "US-ASCII") + "\n",
+                new String(readAll(streams.createUnfilteredInputStream()), "US-ASCII"));
+    }
+
+    private static COSStream createFlateStream(byte[] data) throws IOException
+    {
+        COSStream stream = new COSStream(new RandomAccessBuffer());
+        stream.setItem(COSName.FILTER, COSName.FLATE_DECODE);
+        OutputStream output = new DeflaterOutputStream(stream.createFilteredStream());
+        output.write(data);
+        output.close();
+        return stream;
+    }
+
+    private static byte[] readAll(InputStream input) throws IOException
+    {
+        try
+        {
+            ByteArrayOutputStream output = new ByteArrayOutputStream();
+            byte[] buffer = new byte[1000];
+            int read;
+            while ((read = input.read(buffer)) != -1)
+            {
+                output.write(buffer, 0, read);
+            }
+            return output.toByteArray();
+        }
+        finally
+        {
+            input.close();
+        }
+    }
+}
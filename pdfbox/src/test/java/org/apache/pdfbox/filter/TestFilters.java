@@ -20,13 +20,19 @@ import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.OutputStream;
 import java.util.Arrays;
 import java.util.Random;
+import java.util.zip.DeflaterOutputStream;
 
 import junit.framework.TestCase;
 
+import org.apache.pdfbox.cos.COSArray;
 import org.apache.pdfbox.cos.COSDictionary;
+import org.apache.pdfbox.cos.COSInteger;
 import org.apache.pdfbox.cos.COSName;
+import org.apache.pdfbox.cos.COSStream;
+import org.apache.pdfbox.io.RandomAccessBuffer;
 
 /**
  * This will test all of the filters in the PDFBox system.
@@ -142,4 +148,151 @@ public class TestFilters extends TestCase
                 + lzwFilter.getClass() + " does not match the original data",
                 Arrays.equals(baos.toByteArray(), decoded.toByteArray()));
     }
+
+    /**
+     * This will test the Flate filter with the PNG SUB and UP predictors.
+     *
+     * @throws IOException
+     */
+    public void testFlatePredictor() throws IOException
+    {
+        // 3 rows of 4 columns with 1 color of 8 bits
+        byte[] predicted = new byte[] {
+            1, 10, 1, 1, 1, // SUB:  10 11 12 13
+            2, 1, 2, 3, 4,  // UP:   11 13 15 17
+            2, 1, 1, 1, 1 };// UP:   12 14 16 18
+        byte[] expected = new byte[] { 10, 11, 12, 13, 11, 13, 15, 17, 12, 14, 16, 18 };
+
+        ByteArrayOutputStream encoded = new ByteArrayOutputStream();
+        DeflaterOutputStream deflater = new DeflaterOutputStream(encoded);
+        deflater.write(predicted);
+        deflater.close();
+
+        COSDictionary decodeParms = new COSDictionary();
+        decodeParms.setItem(COSName.PREDICTOR, COSInteger.get(15));
+        decodeParms.setItem(COSName.COLUMNS, COSInteger.get(4));
+        COSDictionary parameters = new COSDictionary();
+        parameters.setItem(COSName.DECODE_PARMS, decodeParms);
+
+        Filter flateFilter = FilterFactory.INSTANCE.getFilter(COSName.FLATE_DECODE);
+        ByteArrayOutputStream decoded = new ByteArrayOutputStream();
+        flateFilter.decode(new ByteArrayInputStream(encoded.toByteArray()), decoded, parameters, 0);
+        assertTrue(Arrays.equals(expected, decoded.toByteArray()));
+    }
+
+    /**
+     * This will test that the filters which decode while reading return the same data as
+     * when decoding to an output stream.
+     *
+     * @throws IOException If there is an exception while decoding.
+     */
+    public void testDecodeStream() throws IOException
+    {
+        byte[] original = createData();
+        COSName[] names = new COSName[] {
+            COSName.ASCII85_DECODE, COSName.ASCII_HEX_DECODE, COSName.FLATE_DECODE };
+        for (COSName name : names)
+        {
+            Filter filter = FilterFactory.INSTANCE.getFilter(name);
+            ByteArrayOutputStream encoded = new ByteArrayOutputStream();
+            filter.encode(new ByteArrayInputStream(original), encoded, new COSDictionary());
+
+            InputStream decoded = filter.decodeStream(
+                    new ByteArrayInputStream(encoded.toByteArray()), new COSDictionary(), 0);
+            assertNotNull(decoded);
+            assertTrue("Data decoded while reading through " + name.getName()
+                       + " does not match the original data",
+                       Arrays.equals(original, readAll(decoded)));
+        }
+    }
+
+    /**
+     * This will test that a stream with several filters is decoded without writing the
+     * output of the first filters to the scratch file, and that a filter which can't decode
+     * while reading is still applied.
+     *
+     * @throws IOException If there is an exception while decoding.
+     */
+    public void testPipelinedDecode() throws IOException
+    {
+        byte[] original = createData();
+        ByteArrayOutputStream deflated = new ByteArrayOutputStream();
+        DeflaterOutputStream deflater = new DeflaterOutputStream(deflated);
+        deflater.write(original);
+        deflater.close();
+        ByteArrayOutputStream encoded = new ByteArrayOutputStream();
+        FilterFactory.INSTANCE.getFilter(COSName.ASCII85_DECODE).encode(
+                new ByteArrayInputStream(deflated.toByteArray()), encoded, new COSDictionary());
+
+        COSArray filters = new COSArray();
+        filters.add(COSName.ASCII85_DECODE);
+        filters.add(COSName.FLATE_DECODE);
+        COSStream stream = new COSStream(new RandomAccessBuffer());
+        stream.setItem(COSName.FILTER, filters);
+        OutputStream output = stream.createFilteredStream();
+        output.write(encoded.toByteArray());
+        output.close();
+
+        assertTrue(Arrays.equals(original, readAll(stream.getUnfilteredStream())));
+        // only the encoded and the decoded data are in the scratch file
+        assertEquals(encoded.size() + original.length, stream.getScratchFile().length());
+
+        // the first filter uses a predictor, it can't decode while reading:
+        // 2 rows of 4 hex digits, the first one without prediction, the second one SUB
+        byte[] predicted = new byte[] { 0, '0', 'A', '0', 'B', 1, '0', 19, -19, 20 };
+        byte[] expected = new byte[] { 10, 11, 12, 13 };
+        deflated = new ByteArrayOutputStream();
+        deflater = new DeflaterOutputStream(deflated);
+        deflater.write(predicted);
+        deflater.close();
+
+        COSDictionary decodeParms = new COSDictionary();
+        decodeParms.setItem(COSName.PREDICTOR, COSInteger.get(15));
+        decodeParms.setItem(COSName.COLUMNS, COSInteger.get(4));
+        COSArray decodeParmsArray = new COSArray();
+        decodeParmsArray.add(decodeParms);
+        decodeParmsArray.add(new COSDictionary());
+        filters = new COSArray();
+        filters.add(COSName.FLATE_DECODE);
+        filters.add(COSName.ASCII_HEX_DECODE);
+        stream = new COSStream(new RandomAccessBuffer());
+        stream.setItem(COSName.FILTER, filters);
+        stream.setItem(COSName.DECODE_PARMS, decodeParmsArray);
+        output = stream.createFilteredStream();
+        output.write(deflated.toByteArray());
+        output.close();
+
+        assertTrue(Arrays.equals(expected, readAll(stream.getUnfilteredStream())));
+    }
+
+    private static byte[] createData()
+    {
+        Random random = new Random(42);
+        byte[] data = new byte[20000];
+        for (int i = 0; i < data.length; i++)
+        {
+            // compressible, but not trivially so
+            data[i] = (byte) (random.nextInt(8) + i / 1000);
+        }
+        return data;
+    }
+
+    private static byte[] readAll(InputStream input) throws IOException
+    {
+        try
+        {
+            ByteArrayOutputStream output = new ByteArrayOutputStream();
+            byte[] buffer = new byte[1000];
+            int read;
+            while ((read = input.read(buffer)) != -1)
+            {
+                output.write(buffer, 0, read);
+            }
+            return output.toByteArray();
+        }
+        finally
+        {
+            input.close();
+        }
+    }
 }
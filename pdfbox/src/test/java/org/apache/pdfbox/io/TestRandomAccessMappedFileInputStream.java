@@ -0,0 +1,144 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.pdfbox.io;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+
+import junit.framework.TestCase;
+
+/**
+ * This is a unit test for {@link RandomAccessMappedFileInputStream}.
+ *
+ */
+public class TestRandomAccessMappedFileInputStream extends TestCase
+{
+
+    private static final int FILE_SIZE = 1000;
+
+    private File file;
+
+    @Override
+    protected void setUp() throws Exception
+    {
+        file = File.createTempFile("pdfbox", ".bin");
+        FileOutputStream out = new FileOutputStream(file);
+        try
+        {
+            for (int i = 0; i < FILE_SIZE; i++)
+            {
+                out.write(i % 251);
+            }
+        }
+        finally
+        {
+            out.close();
+        }
+    }
+
+    @Override
+    protected void tearDown() throws Exception
+    {
+        file.delete();
+    }
+
+    /**
+     * Reads the whole file byte by byte using small segments, so that several
+     * segment boundaries are crossed.
+     *
+     * @throws IOException is thrown if something went wrong.
+     */
+    public void testReadAcrossSegments() throws IOException
+    {
+        RandomAccessMappedFileInputStream input = new RandomAccessMappedFileInputStream(file, 6);
+        try
+        {
+            assertEquals(FILE_SIZE, input.length());
+            for (int i = 0; i < FILE_SIZE; i++)
+            {
+                assertEquals(i % 251, input.read());
+            }
+            assertEquals(-1, input.read());
+            assertEquals(FILE_SIZE, input.getPosition());
+        }
+        finally
+        {
+            input.close();
+        }
+    }
+
+    /**
+     * Tests seeking and reading into a byte array.
+     *
+     * @throws IOException is thrown if something went wrong.
+     */
+    public void testSeekAndArrayRead() throws IOException
+    {
+        RandomAccessMappedFileInputStream input = new RandomAccessMappedFileInputStream(file, 6);
+        try
+        {
+            input.seek(500);
+            byte[] buffer = new byte[100];
+            int total = 0;
+            while (total < buffer.length)
+            {
+                int read = input.read(buffer, total, buffer.length - total);
+                assertTrue(read > 0);
+                total += read;
+            }
+            for (int i = 0; i < buffer.length; i++)
+            {
+                assertEquals((500 + i) % 251, buffer[i] & 0xff);
+            }
+            assertEquals(600, input.getPosition());
+
+            input.seek(FILE_SIZE - 1);
+            assertEquals((FILE_SIZE - 1) % 251, input.read());
+            assertEquals(-1, input.read(buffer, 0, buffer.length));
+
+            input.seek(10);
+            assertEquals(990, input.skip(2000));
+            assertEquals(FILE_SIZE, input.getPosition());
+        }
+        finally
+        {
+            input.close();
+        }
+    }
+
+    /**
+     * Reading from a closed stream has to fail.
+     *
+     * @throws IOException is thrown if something went wrong.
+     */
+    public void testReadAfterClose() throws IOException
+    {
+        RandomAccessMappedFileInputStream input = new RandomAccessMappedFileInputStream(file);
+        input.close();
+        try
+        {
+            input.read();
+            fail("IOException expected");
+        }
+        catch (IOException e)
+        {
+            // expected
+        }
+    }
+}
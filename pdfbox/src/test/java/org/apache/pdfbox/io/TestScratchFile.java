@@ -0,0 +1,181 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.pdfbox.io;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.Arrays;
+
+import junit.framework.TestCase;
+
+import org.apache.pdfbox.cos.COSStream;
+
+/**
+ * This is a unit test for {@link ScratchFile}.
+ * @version $Revision$
+ */
+public class TestScratchFile extends TestCase
+{
+
+    /**
+     * Tests that the data is read back as written, in memory and in the temporary file.
+     * @throws IOException if an I/O error occurs
+     */
+    public void testReadWrite() throws IOException
+    {
+        // 2 pages in memory, the rest on disk
+        ScratchFile scratchFile = new ScratchFile(null, 8192);
+        try
+        {
+            byte[] data = createData(30000, 1);
+            scratchFile.write(data, 0, 10000);
+            scratchFile.write(data[10000]);
+            scratchFile.write(data, 10001, data.length - 10001);
+            assertEquals(data.length, scratchFile.length());
+            assertEquals(8192, scratchFile.getMemoryBytes());
+            assertTrue(scratchFile.getDiskBytes() > 0);
+            assertEquals(data.length, scratchFile.getLiveBytes());
+
+            byte[] read = new byte[data.length];
+            scratchFile.seek(0);
+            assertEquals(data.length, scratchFile.read(read, 0, read.length));
+            assertTrue(Arrays.equals(data, read));
+            assertEquals(-1, scratchFile.read());
+
+            scratchFile.seek(9000);
+            assertEquals(data[9000] & 0xff, scratchFile.read());
+            assertEquals(9001, scratchFile.getPosition());
+        }
+        finally
+        {
+            scratchFile.close();
+        }
+    }
+
+    /**
+     * Tests that the pages of released data are used again.
+     * @throws IOException if an I/O error occurs
+     */
+    public void testRelease() throws IOException
+    {
+        ScratchFile scratchFile = new ScratchFile(null, 0);
+        try
+        {
+            byte[] first = createData(20000, 1);
+            byte[] second = createData(20000, 2);
+            scratchFile.write(first, 0, first.length);
+            scratchFile.write(second, 0, second.length);
+            long storage = scratchFile.getDiskBytes();
+
+            scratchFile.release(0, first.length);
+            assertEquals(second.length, scratchFile.getLiveBytes());
+            for (int i = 0; i < 10; i++)
+            {
+                scratchFile.write(first, 0, first.length);
+                scratchFile.release(scratchFile.length() - first.length, first.length);
+            }
+            // the storage doesn't grow by the size of each write, pages shared with the second
+            // data are kept though
+            assertTrue(scratchFile.getDiskBytes() < storage + first.length);
+            assertEquals(second.length, scratchFile.getLiveBytes());
+            assertEquals(scratchFile.getDiskBytes() - second.length, scratchFile.getDeadBytes());
+
+            byte[] read = new byte[second.length];
+            scratchFile.seek(first.length);
+            assertEquals(second.length, scratchFile.read(read, 0, read.length));
+            assertTrue(Arrays.equals(second, read));
+        }
+        finally
+        {
+            scratchFile.close();
+        }
+    }
+
+    /**
+     * Tests that a write fails if the maximum size is exceeded.
+     * @throws IOException if an I/O error occurs
+     */
+    public void testMaxStorage() throws IOException
+    {
+        ScratchFile scratchFile = new ScratchFile(null, -1, 8192);
+        try
+        {
+            byte[] data = createData(8192, 1);
+            scratchFile.write(data, 0, data.length);
+            try
+            {
+                scratchFile.write(1);
+                fail("the maximum size was exceeded");
+            }
+            catch (IOException expected)
+            {
+                // expected
+            }
+            scratchFile.release(0, data.length);
+            scratchFile.write(data, 0, data.length);
+        }
+        finally
+        {
+            scratchFile.close();
+        }
+    }
+
+    /**
+     * Tests that the space of replaced stream data is reused.
+     * @throws IOException if an I/O error occurs
+     */
+    public void testReplaceStreamData() throws IOException
+    {
+        ScratchFile scratchFile = new ScratchFile();
+        try
+        {
+            COSStream stream = new COSStream(scratchFile);
+            byte[] data = createData(50000, 1);
+            for (int i = 0; i < 10; i++)
+            {
+                OutputStream output = stream.createUnfilteredStream();
+                output.write(data);
+                output.close();
+            }
+            assertEquals(data.length, scratchFile.getLiveBytes());
+            // the replaced data is released once the new data has been written
+            assertTrue(scratchFile.getMemoryBytes() < 3 * data.length);
+
+            InputStream input = stream.getUnfilteredStream();
+            ByteArrayOutputStream read = new ByteArrayOutputStream();
+            IOUtils.copy(input, read);
+            input.close();
+            assertTrue(Arrays.equals(data, read.toByteArray()));
+        }
+        finally
+        {
+            scratchFile.close();
+        }
+    }
+
+    private static byte[] createData(int length, int seed)
+    {
+        byte[] data = new byte[length];
+        for (int i = 0; i < length; i++)
+        {
+            data[i] = (byte) (i * seed + i / 7);
+        }
+        return data;
+    }
+}
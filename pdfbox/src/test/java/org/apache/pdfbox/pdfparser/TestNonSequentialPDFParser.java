@@ -21,15 +21,25 @@
 
 package org.apache.pdfbox.pdfparser;
 
+import static org.junit.Assert.assertArrayEquals;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotNull;
 
+import java.io.ByteArrayOutputStream;
 import java.io.File;
 import java.io.FileInputStream;
 import java.io.FilenameFilter;
 import java.io.IOException;
-
+import java.io.InputStream;
+import java.util.List;
+
+import org.apache.pdfbox.cos.COSBase;
+import org.apache.pdfbox.cos.COSDocument;
+import org.apache.pdfbox.cos.COSObject;
+import org.apache.pdfbox.cos.COSStream;
+import org.apache.pdfbox.io.IOUtils;
 import org.apache.pdfbox.io.RandomAccessBuffer;
+import org.apache.pdfbox.persistence.util.COSObjectKey;
 import org.junit.Before;
 import org.junit.Test;
 
@@ -86,7 +96,44 @@ public class TestNonSequentialPDFParser {
 		executeParserTest(nsp);
 	}
 
-	
+	@Test
+	public void testNonSequentialPDFParserLazyStreams() throws IOException {
+		NonSequentialPDFParser nsp = new NonSequentialPDFParser(new File(PATH_OF_PDF), null, "");
+		nsp.parse();
+		NonSequentialPDFParser lazyNsp = new NonSequentialPDFParser(new File(PATH_OF_PDF), null, "", true);
+		lazyNsp.setLazyStreams(true);
+		lazyNsp.parse();
+		COSDocument doc = nsp.getDocument();
+		COSDocument lazyDoc = lazyNsp.getDocument();
+		try {
+			assertNotNull(lazyDoc.getStreamSource());
+			List<COSObject> objects = doc.getObjects();
+			assertEquals(objects.size(), lazyDoc.getObjects().size());
+			for (COSObject object : objects) {
+				COSBase base = object.getObject();
+				if (base instanceof COSStream) {
+					COSStream stream = (COSStream) base;
+					COSStream lazyStream = (COSStream) lazyDoc.getObjectFromPool(
+							new COSObjectKey(object)).getObject();
+					assertArrayEquals(toByteArray(stream.getFilteredStream()),
+							toByteArray(lazyStream.getFilteredStream()));
+					assertArrayEquals(toByteArray(stream.getUnfilteredStream()),
+							toByteArray(lazyStream.getUnfilteredStream()));
+				}
+			}
+		} finally {
+			doc.close();
+			lazyDoc.close();
+		}
+	}
+
+	private byte[] toByteArray(InputStream input) throws IOException {
+		ByteArrayOutputStream output = new ByteArrayOutputStream();
+		IOUtils.copy(input, output);
+		input.close();
+		return output.toByteArray();
+	}
+
 	private void executeParserTest(NonSequentialPDFParser nsp) throws IOException {
 	  nsp.parse();
 		assertNotNull(nsp.getDocument());
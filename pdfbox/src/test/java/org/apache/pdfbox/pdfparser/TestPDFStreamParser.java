@@ -0,0 +1,120 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.pdfbox.pdfparser;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import junit.framework.TestCase;
+
+import org.apache.pdfbox.cos.COSBase;
+import org.apache.pdfbox.cos.COSFloat;
+import org.apache.pdfbox.cos.COSInteger;
+import org.apache.pdfbox.cos.COSName;
+import org.apache.pdfbox.cos.COSNumber;
+import org.apache.pdfbox.cos.COSString;
+import org.apache.pdfbox.util.operator.OperandStack;
+import org.apache.pdfbox.util.operator.PDFOperator;
+
+/**
+ * Test for the operator by operator parsing of content streams.
+ */
+public class TestPDFStreamParser extends TestCase
+{
+    /**
+     * Operands are handed out together with their operator, reusing the given list.
+     *
+     * @throws IOException if something went wrong
+     */
+    public void testParseNextOperator() throws IOException
+    {
+        PDFStreamParser parser = createParser("q 1 0 0 1 10 20 cm /F1 12 Tf Q 5 6");
+        List<COSBase> arguments = new ArrayList<COSBase>();
+        try
+        {
+            assertEquals("q", parser.parseNextOperator(arguments).getOperation());
+            assertTrue(arguments.isEmpty());
+
+            assertEquals("cm", parser.parseNextOperator(arguments).getOperation());
+            assertEquals(6, arguments.size());
+            assertEquals(20, ((COSNumber) arguments.get(5)).intValue());
+
+            PDFOperator operator = parser.parseNextOperator(arguments);
+            assertEquals("Tf", operator.getOperation());
+            assertEquals(2, arguments.size());
+            assertEquals(COSName.getPDFName("F1"), arguments.get(0));
+            assertEquals(12f, ((COSNumber) arguments.get(1)).floatValue());
+
+            assertEquals("Q", parser.parseNextOperator(arguments).getOperation());
+            assertTrue(arguments.isEmpty());
+
+            // trailing operands without an operator are dropped
+            assertNull(parser.parseNextOperator(arguments));
+            assertTrue(arguments.isEmpty());
+        }
+        finally
+        {
+            parser.close();
+        }
+    }
+
+    /**
+     * Numeric operands are pushed as primitive values and are available as COS objects as well.
+     *
+     * @throws IOException if something went wrong
+     */
+    public void testParseNextOperatorPrimitive() throws IOException
+    {
+        PDFStreamParser parser = createParser("10 -20.5 .25 -.5 m 1234567890123456789 (a) 3 Tj 4.50 w");
+        OperandStack operands = new OperandStack();
+        try
+        {
+            assertEquals("m", parser.parseNextOperator(operands).getOperation());
+            assertEquals(4, operands.size());
+            assertEquals(10, operands.getInt(0));
+            assertEquals(-20.5, operands.getDouble(1));
+            assertEquals(0.25f, operands.getFloat(2));
+            assertEquals(-0.5f, operands.getFloat(3));
+            assertEquals(COSInteger.get(10), operands.get(0));
+            assertEquals(new COSFloat(-20.5f), operands.get(1));
+
+            assertEquals("Tj", parser.parseNextOperator(operands).getOperation());
+            assertEquals(3, operands.size());
+            assertEquals(1234567890123456789L, ((COSInteger) operands.get(0)).longValue());
+            assertTrue(operands.isNumber(0));
+            assertFalse(operands.isNumber(1));
+            assertEquals(new COSString("a"), operands.get(1));
+            assertEquals(3, operands.getInt(2));
+
+            assertEquals("w", parser.parseNextOperator(operands).getOperation());
+            assertEquals(4.5f, operands.getFloat(0));
+
+            assertNull(parser.parseNextOperator(operands));
+        }
+        finally
+        {
+            parser.close();
+        }
+    }
+
+    private PDFStreamParser createParser(String content) throws IOException
+    {
+        return new PDFStreamParser(new ByteArrayInputStream(content.getBytes("ISO-8859-1")), null);
+    }
+}
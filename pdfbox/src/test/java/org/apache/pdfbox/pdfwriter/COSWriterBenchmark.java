@@ -0,0 +1,116 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.pdfbox.pdfwriter;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+
+import org.apache.pdfbox.cos.COSArray;
+import org.apache.pdfbox.cos.COSDictionary;
+import org.apache.pdfbox.cos.COSInteger;
+import org.apache.pdfbox.cos.COSName;
+import org.apache.pdfbox.cos.COSString;
+import org.apache.pdfbox.pdmodel.PDDocument;
+import org.apache.pdfbox.pdmodel.PDPage;
+
+/**
+ * Measures the save throughput of a document with many small objects, as written by
+ * {@link COSWriter} to a file and to memory.
+ * Usage: COSWriterBenchmark [pages] [annotations per page] [rounds]
+ *
+ * @version $Revision$
+ */
+public class COSWriterBenchmark
+{
+
+    private COSWriterBenchmark()
+    {
+    }
+
+    /**
+     * Runs the benchmark.
+     * @param args the number of pages, the number of annotations per page and the number of
+     * rounds
+     * @throws IOException if the document can't be saved
+     */
+    public static void main(String[] args) throws IOException
+    {
+        int pages = args.length > 0 ? Integer.parseInt(args[0]) : 5000;
+        int annotations = args.length > 1 ? Integer.parseInt(args[1]) : 20;
+        int rounds = args.length > 2 ? Integer.parseInt(args[2]) : 10;
+        PDDocument document = createDocument(pages, annotations);
+        int objects = pages * (annotations + 1);
+        File file = File.createTempFile("COSWriterBenchmark", ".pdf");
+        try
+        {
+            for (int round = 0; round < rounds; round++)
+            {
+                long start = System.nanoTime();
+                document.save(file);
+                long fileTime = System.nanoTime() - start;
+
+                start = System.nanoTime();
+                ByteArrayOutputStream output = new ByteArrayOutputStream();
+                document.save(output);
+                long memoryTime = System.nanoTime() - start;
+
+                System.out.println("file: " + fileTime / 1000000 + " ms"
+                        + " (" + objects * 1000000000L / fileTime + " objects/s)"
+                        + ", memory: " + memoryTime / 1000000 + " ms"
+                        + " (" + objects * 1000000000L / memoryTime + " objects/s)"
+                        + ", " + output.size() + " bytes");
+            }
+        }
+        finally
+        {
+            document.close();
+            file.delete();
+        }
+    }
+
+    /**
+     * Creates a document with link annotations on each page, every annotation is written as an
+     * indirect object.
+     */
+    private static PDDocument createDocument(int pages, int annotations) throws IOException
+    {
+        PDDocument document = new PDDocument();
+        for (int i = 0; i < pages; i++)
+        {
+            PDPage page = new PDPage();
+            COSArray annots = new COSArray();
+            for (int j = 0; j < annotations; j++)
+            {
+                COSDictionary annot = new COSDictionary();
+                annot.setItem(COSName.TYPE, COSName.ANNOT);
+                annot.setName(COSName.SUBTYPE, "Link");
+                COSArray rect = new COSArray();
+                rect.add(COSInteger.get(72));
+                rect.add(COSInteger.get(700 - j * 30));
+                rect.add(COSInteger.get(300 + i % 100));
+                rect.add(COSInteger.get(720 - j * 30));
+                annot.setItem(COSName.RECT, rect);
+                annot.setItem(COSName.CONTENTS, new COSString("Link " + i + "." + j));
+                annots.add(annot);
+            }
+            page.getCOSDictionary().setItem(COSName.ANNOTS, annots);
+            document.addPage(page);
+        }
+        return document;
+    }
+}
@@ -153,4 +153,40 @@ public class TestPDDocument extends TestCase
         assertEquals(1, loadDoc.getNumberOfPages());
         loadDoc.close();
     }
+
+    /**
+     * Test document save with object streams and a cross-reference stream, and load with
+     * both parsers.
+     */
+    public void testSaveLoadCompressed() throws IOException
+    {
+        // Create PDF with two blank pages
+        PDDocument document = new PDDocument();
+        document.addPage(new PDPage());
+        document.addPage(new PDPage());
+        document.getDocumentInformation().setTitle("compressed");
+
+        // Save
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        document.save(baos, true);
+        document.close();
+
+        // Verify content
+        byte[] pdf = baos.toByteArray();
+        assertEquals("%PDF-1.5", new String(Arrays.copyOfRange(pdf, 0, 8), "UTF-8"));
+        String content = new String(pdf, "ISO-8859-1");
+        assertTrue(content.contains("/ObjStm"));
+        assertTrue(content.contains("/XRef"));
+        assertFalse(content.contains("trailer"));
+
+        // Load
+        PDDocument loadDoc = PDDocument.load(new ByteArrayInputStream(pdf), new RandomAccessBuffer());
+        assertEquals(2, loadDoc.getNumberOfPages());
+        assertEquals("compressed", loadDoc.getDocumentInformation().getTitle());
+        loadDoc.close();
+        loadDoc = PDDocument.loadNonSeq(new ByteArrayInputStream(pdf), new RandomAccessBuffer());
+        assertEquals(2, loadDoc.getNumberOfPages());
+        assertEquals("compressed", loadDoc.getDocumentInformation().getTitle());
+        loadDoc.close();
+    }
 }
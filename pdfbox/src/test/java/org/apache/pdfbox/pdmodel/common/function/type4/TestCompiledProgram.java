@@ -0,0 +1,118 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.pdfbox.pdmodel.common.function.type4;
+
+import java.util.Stack;
+
+import junit.framework.TestCase;
+
+/**
+ * Tests that compiled programs return the same results as the interpreted instruction sequences.
+ *
+ * @version $Revision$
+ */
+public class TestCompiledProgram extends TestCase
+{
+
+    private static final String[] PROGRAMS = {
+        "5 6 add", "5 0.23 add", "2147483645 2147483645 add", "-2147483648 neg", "-3 neg 2.5 neg",
+        "-3 abs 2.1 abs -2.1 abs -7.5 abs", "0 1 atan 1 0 atan -100 0 atan 4 4 atan",
+        "3.2 ceiling -4.8 ceiling 99 ceiling", "0 cos 90 cos", "-47.8 cvi 520.9 cvi 7 cvi",
+        "-47.8 cvr 7 cvr", "3 2 div 4 2 div", "9 0.5 exp -9 -1 exp", "3.2 floor -4.8 floor 99 floor",
+        "3 2 idiv 4 2 idiv -5 2 idiv", "10 ln 100 log", "5 3 mod -5 3 mod", "5 6 mul 1.5 2 mul",
+        "3.2 round 6.5 round -4.8 round -6.5 round 99 round", "0 sin 90 sin", "100 sqrt 2 sqrt",
+        "5 3 sub 5 0.5 sub -2147483647 10 sub", "3.2 truncate -4.8 truncate 99 truncate",
+        "true true and true false and 99 1 and 52 7 and", "7 3 bitshift 142 -3 bitshift",
+        "4.0 4 eq true true eq true 1 eq 4 5 ne false false ne", "4.2 4 ge 4 4 gt 3 4.5 le 5 4 lt",
+        "true not false not 52 not", "true false or 17 5 or true false xor 7 3 xor",
+        "1 2 3 3 copy 1 0 copy", "1 2 dup exch", "1 2 3 4 2 index 0 index", "1 2 3 pop",
+        "1 2 3 3 -1 roll", "1 2 3 3 1 roll", "1 2 3 4 5 3 2 roll", "1 2 3 2 5 roll 1 2 3 0 roll",
+        "{ dup 0.5 gt { 1 sub } { 2 mul } ifelse }",
+        "{ dup 0.25 lt { pop 0 0 1 } { dup 0.75 lt { 1 exch sub 0.5 } if 0.3 } ifelse }",
+        "{ 360 mul sin 2 div exch 360 mul sin 2 div add }",
+    };
+
+    /**
+     * Checks the compiled programs against the interpreter.
+     * @throws Exception if an error occurs
+     */
+    public void testSameResults() throws Exception
+    {
+        float[][] inputs = { {}, {0.1f}, {0.6f}, {0.1f, 0.3f}, {0.9f, 0.7f} };
+        for (String text : PROGRAMS)
+        {
+            InstructionSequence instructions = InstructionSequenceBuilder.parse(text);
+            CompiledProgram program = CompiledProgram.compile(instructions);
+            assertNotNull(text, program);
+            for (float[] input : inputs)
+            {
+                ExecutionContext context = new ExecutionContext(new Operators());
+                PrimitiveStack stack = new PrimitiveStack();
+                for (float value : input)
+                {
+                    context.getStack().push(value);
+                    stack.pushReal(value);
+                }
+                try
+                {
+                    instructions.execute(context);
+                }
+                catch (RuntimeException e)
+                {
+                    // not a valid program for this input
+                    continue;
+                }
+                program.execute(stack);
+                Stack<Object> expected = context.getStack();
+                assertEquals(text, expected.size(), stack.size());
+                for (int i = 0; i < expected.size(); i++)
+                {
+                    assertEquals(text, expected.get(i), stack.get(i));
+                }
+            }
+        }
+    }
+
+    /**
+     * Procs used as data and unknown names are left to the interpreter.
+     * @throws Exception if an error occurs
+     */
+    public void testUnsupported() throws Exception
+    {
+        assertNull(CompiledProgram.compile(InstructionSequenceBuilder.parse("{ 1 } { 2 } exch")));
+        assertNull(CompiledProgram.compile(InstructionSequenceBuilder.parse("{ 1 } { 2 } if")));
+        assertNull(CompiledProgram.compile(InstructionSequenceBuilder.parse("1 2 foo")));
+    }
+
+    /**
+     * Operand type errors are reported like by the interpreter.
+     * @throws Exception if an error occurs
+     */
+    public void testTypeCheck() throws Exception
+    {
+        PrimitiveStack stack = new PrimitiveStack();
+        try
+        {
+            CompiledProgram.compile(InstructionSequenceBuilder.parse("1.5 2 idiv")).execute(stack);
+            fail("ClassCastException expected");
+        }
+        catch (ClassCastException e)
+        {
+            // expected
+        }
+    }
+}
@@ -0,0 +1,106 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.pdfbox.pdmodel.common.function.type4;
+
+/**
+ * Compares the time needed to evaluate type 4 functions by the interpreter and by the compiled
+ * program. Usage: Type4Benchmark [evaluations] [rounds]
+ *
+ * @version $Revision$
+ */
+public class Type4Benchmark
+{
+
+    private static final String[] FUNCTIONS = {
+        // tint transform of a separation color space
+        "{ dup 0.84 mul exch 0.0 exch dup 0.44 mul exch 0.21 mul }",
+        // spot function like shading with conditionals
+        "{ dup 0.25 lt { pop 0 0 1 } { dup 0.75 lt { 1 exch sub 0.5 } if 0.3 } ifelse }",
+        // trigonometric function
+        "{ 360 mul sin 2 div exch 360 mul sin 2 div add }",
+    };
+
+    private Type4Benchmark()
+    {
+    }
+
+    /**
+     * Runs the benchmark.
+     * @param args the number of evaluations per round and the number of rounds
+     */
+    public static void main(String[] args)
+    {
+        int evaluations = args.length > 0 ? Integer.parseInt(args[0]) : 1000000;
+        int rounds = args.length > 1 ? Integer.parseInt(args[1]) : 5;
+        for (String function : FUNCTIONS)
+        {
+            InstructionSequence instructions = InstructionSequenceBuilder.parse(function);
+            CompiledProgram program = CompiledProgram.compile(instructions);
+            System.out.println(function);
+            for (int round = 0; round < rounds; round++)
+            {
+                long interpreted = interpret(instructions, evaluations);
+                long compiled = execute(program, evaluations);
+                System.out.println("  interpreted: " + interpreted / evaluations + " ns/eval"
+                        + ", compiled: " + compiled / evaluations + " ns/eval");
+            }
+        }
+    }
+
+    private static long interpret(InstructionSequence instructions, int evaluations)
+    {
+        Operators operators = new Operators();
+        float sum = 0;
+        long start = System.nanoTime();
+        for (int i = 0; i < evaluations; i++)
+        {
+            ExecutionContext context = new ExecutionContext(operators);
+            context.getStack().push((i % 100) / 100f);
+            context.getStack().push((i % 7) / 7f);
+            instructions.execute(context);
+            sum += context.popReal();
+        }
+        long time = System.nanoTime() - start;
+        // keep the JIT from dropping the evaluation
+        if (sum == Float.MIN_VALUE)
+        {
+            System.out.println(sum);
+        }
+        return time;
+    }
+
+    private static long execute(CompiledProgram program, int evaluations)
+    {
+        PrimitiveStack stack = new PrimitiveStack();
+        float sum = 0;
+        long start = System.nanoTime();
+        for (int i = 0; i < evaluations; i++)
+        {
+            stack.clear();
+            stack.pushReal((i % 100) / 100f);
+            stack.pushReal((i % 7) / 7f);
+            program.execute(stack);
+            sum += stack.popReal();
+        }
+        long time = System.nanoTime() - start;
+        if (sum == Float.MIN_VALUE)
+        {
+            System.out.println(sum);
+        }
+        return time;
+    }
+}
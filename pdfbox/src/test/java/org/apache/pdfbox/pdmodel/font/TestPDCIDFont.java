@@ -0,0 +1,154 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.pdfbox.pdmodel.font;
+
+import java.io.IOException;
+
+import junit.framework.TestCase;
+
+import org.apache.pdfbox.cos.COSArray;
+import org.apache.pdfbox.cos.COSDictionary;
+import org.apache.pdfbox.cos.COSFloat;
+import org.apache.pdfbox.cos.COSInteger;
+import org.apache.pdfbox.cos.COSName;
+
+/**
+ * Tests the widths of {@link PDCIDFont}.
+ *
+ * @version $Revision$
+ */
+public class TestPDCIDFont extends TestCase
+{
+
+    /**
+     * Tests the widths of ranges and of arrays of a W array.
+     */
+    public void testWidths()
+    {
+        // 1 65535 500 overridden by [ 10 [ 600 600 700 ] ]
+        COSArray w = new COSArray();
+        w.add(COSInteger.get(10));
+        COSArray array = new COSArray();
+        array.add(COSInteger.get(600));
+        array.add(COSInteger.get(600));
+        array.add(new COSFloat(700.5f));
+        w.add(array);
+        w.add(COSInteger.get(20));
+        w.add(COSInteger.get(30));
+        w.add(COSInteger.get(250));
+        PDCIDFont font = createFont(w, 900);
+
+        assertEquals(900f, font.getFontWidth(9));
+        assertEquals(600f, font.getFontWidth(10));
+        assertEquals(600f, font.getFontWidth(11));
+        assertEquals(700.5f, font.getFontWidth(12));
+        assertEquals(900f, font.getFontWidth(13));
+        assertEquals(250f, font.getFontWidth(20));
+        assertEquals(250f, font.getFontWidth(30));
+        assertEquals(900f, font.getFontWidth(31));
+        assertEquals(900f, font.getFontWidth(-1));
+    }
+
+    /**
+     * Tests that a code of overlapping ranges given in any order has the width of the last
+     * range.
+     */
+    public void testOverlappingWidths()
+    {
+        COSArray w = new COSArray();
+        addRange(w, 1, 65535, 500);
+        addRange(w, 100, 200, 1000);
+        addRange(w, 50, 150, 250);
+        addRange(w, 120, 130, 750);
+        PDCIDFont font = createFont(w, 900);
+
+        assertEquals(900f, font.getFontWidth(0));
+        assertEquals(500f, font.getFontWidth(1));
+        assertEquals(500f, font.getFontWidth(49));
+        assertEquals(250f, font.getFontWidth(50));
+        assertEquals(250f, font.getFontWidth(119));
+        assertEquals(750f, font.getFontWidth(120));
+        assertEquals(750f, font.getFontWidth(130));
+        assertEquals(250f, font.getFontWidth(150));
+        assertEquals(1000f, font.getFontWidth(151));
+        assertEquals(1000f, font.getFontWidth(200));
+        assertEquals(500f, font.getFontWidth(201));
+        assertEquals(500f, font.getFontWidth(65535));
+        assertEquals(900f, font.getFontWidth(65536));
+    }
+
+    /**
+     * Tests that the widths of a font are read again when they are replaced.
+     *
+     * @throws IOException if an error occurs
+     */
+    public void testSetFontWidths() throws IOException
+    {
+        PDCIDFont font = createFont(null, 1000);
+        assertEquals(1000f, font.getFontWidth(5));
+        font.setFontWidths("5 300 6 300 7 400");
+        assertEquals(300f, font.getFontWidth(5));
+        assertEquals(300f, font.getFontWidth(6));
+        assertEquals(400f, font.getFontWidth(7));
+        assertEquals(1000f, font.getFontWidth(8));
+    }
+
+    /**
+     * Tests the widths of a simple font as floats.
+     */
+    public void testWidthValues()
+    {
+        COSDictionary dictionary = new COSDictionary();
+        dictionary.setItem(COSName.TYPE, COSName.FONT);
+        dictionary.setItem(COSName.SUBTYPE, COSName.TYPE1);
+        dictionary.setInt(COSName.FIRST_CHAR, 32);
+        dictionary.setInt(COSName.LAST_CHAR, 34);
+        COSArray widths = new COSArray();
+        widths.add(COSInteger.get(250));
+        widths.add(new COSFloat(333.5f));
+        // one width is missing
+        dictionary.setItem(COSName.WIDTHS, widths);
+        PDFont font = new PDType1Font(dictionary);
+
+        float[] values = font.getWidthValues();
+        assertEquals(2, values.length);
+        assertEquals(333.5f, values[1]);
+        assertEquals(250f, font.getFontWidth(32));
+        assertEquals(333.5f, font.getFontWidth(33));
+        assertEquals(-1f, font.getFontWidth(34));
+    }
+
+    private static void addRange(COSArray w, int first, int last, int width)
+    {
+        w.add(COSInteger.get(first));
+        w.add(COSInteger.get(last));
+        w.add(COSInteger.get(width));
+    }
+
+    private static PDCIDFont createFont(COSArray w, int defaultWidth)
+    {
+        COSDictionary dictionary = new COSDictionary();
+        dictionary.setItem(COSName.TYPE, COSName.FONT);
+        dictionary.setItem(COSName.SUBTYPE, COSName.CID_FONT_TYPE2);
+        dictionary.setInt(COSName.DW, defaultWidth);
+        if (w != null)
+        {
+            dictionary.setItem(COSName.W, w);
+        }
+        return new PDCIDFontType2Font(dictionary);
+    }
+}
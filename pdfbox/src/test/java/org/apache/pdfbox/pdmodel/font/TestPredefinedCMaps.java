@@ -0,0 +1,113 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.pdfbox.pdmodel.font;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.List;
+
+import junit.framework.TestCase;
+
+import org.apache.fontbox.cmap.CMap;
+import org.apache.fontbox.cmap.CMapParser;
+import org.apache.fontbox.cmap.CodespaceRange;
+import org.apache.fontbox.cmap.CompiledCMap;
+
+/**
+ * This will test that the predefined CMaps, which are precompiled during the build, map the
+ * same codes as the parsed ones.
+ *
+ * @version $Revision$
+ */
+public class TestPredefinedCMaps extends TestCase
+{
+
+    private static final File PREDEFINED_CMAPS =
+            new File("src/main/resources/org/apache/pdfbox/resources/cmap");
+
+    /**
+     * Each predefined CMap is the same after being compiled and read again.
+     * @throws IOException If something went wrong
+     */
+    public void testCompiledCMaps() throws IOException
+    {
+        File[] files = PREDEFINED_CMAPS.listFiles();
+        assertNotNull(files);
+        int count = 0;
+        for (File file : files)
+        {
+            if (!file.isFile() || file.getName().endsWith(CompiledCMap.SUFFIX))
+            {
+                continue;
+            }
+            CMap parsed = new CMapParser().parse(file);
+            ByteArrayOutputStream output = new ByteArrayOutputStream();
+            CompiledCMap.write(parsed, output);
+            CMap compiled = CompiledCMap.read(new ByteArrayInputStream(output.toByteArray()));
+            assertSameCMap(file.getName(), parsed, compiled);
+            count++;
+        }
+        assertTrue(count > 0);
+    }
+
+    private static void assertSameCMap(String name, CMap parsed, CMap compiled)
+    {
+        assertEquals(name, parsed.getName(), compiled.getName());
+        assertEquals(name, parsed.getVersion(), compiled.getVersion());
+        assertEquals(name, parsed.getType(), compiled.getType());
+        assertEquals(name, parsed.getWMode(), compiled.getWMode());
+        assertEquals(name, parsed.getRegistry(), compiled.getRegistry());
+        assertEquals(name, parsed.getOrdering(), compiled.getOrdering());
+        assertEquals(name, parsed.getSupplement(), compiled.getSupplement());
+        assertEquals(name, parsed.getSpaceMapping(), compiled.getSpaceMapping());
+        assertEquals(name, parsed.hasOneByteMappings(), compiled.hasOneByteMappings());
+        assertEquals(name, parsed.hasTwoByteMappings(), compiled.hasTwoByteMappings());
+        assertEquals(name, parsed.hasCIDMappings(), compiled.hasCIDMappings());
+
+        List<CodespaceRange> parsedRanges = parsed.getCodeSpaceRanges();
+        List<CodespaceRange> compiledRanges = compiled.getCodeSpaceRanges();
+        assertEquals(name, parsedRanges.size(), compiledRanges.size());
+        for (int i = 0; i < parsedRanges.size(); i++)
+        {
+            assertTrue(name, Arrays.equals(parsedRanges.get(i).getStart(),
+                    compiledRanges.get(i).getStart()));
+            assertTrue(name, Arrays.equals(parsedRanges.get(i).getEnd(),
+                    compiledRanges.get(i).getEnd()));
+        }
+
+        byte[] oneByte = new byte[1];
+        for (int code = 0; code < 256; code++)
+        {
+            oneByte[0] = (byte) code;
+            assertEquals(name, parsed.lookup(code, 1), compiled.lookup(code, 1));
+            assertEquals(name, parsed.lookupCID(oneByte, 0, 1), compiled.lookupCID(oneByte, 0, 1));
+        }
+        byte[] twoBytes = new byte[2];
+        for (int code = 0; code < 65536; code++)
+        {
+            twoBytes[0] = (byte) (code >> 8);
+            twoBytes[1] = (byte) code;
+            assertEquals(name, parsed.lookup(code, 2), compiled.lookup(code, 2));
+            assertEquals(name, parsed.lookupCID(twoBytes, 0, 2),
+                    compiled.lookupCID(twoBytes, 0, 2));
+            assertEquals(name, parsed.lookupCID(code), compiled.lookupCID(code));
+        }
+    }
+}
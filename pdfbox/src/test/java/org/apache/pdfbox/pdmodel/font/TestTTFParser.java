@@ -20,6 +20,9 @@ import java.io.IOException;
 import java.io.InputStream;
 import org.apache.fontbox.ttf.CMAPEncodingEntry;
 import org.apache.fontbox.ttf.CMAPTable;
+import org.apache.fontbox.ttf.GlyphData;
+import org.apache.fontbox.ttf.GlyphDescription;
+import org.apache.fontbox.ttf.GlyphTable;
 import org.apache.fontbox.ttf.NameRecord;
 import org.apache.fontbox.ttf.PostScriptTable;
 import org.apache.fontbox.ttf.TTFParser;
@@ -126,4 +129,57 @@ public class TestTTFParser
             }
         }
     }
+
+    /**
+     * Test that glyphs read on demand are the same as the glyphs read all at once.
+     * 
+     * @throws IOException if an error occurs.
+     */
+    @Test
+    public void testGlyphsReadOnDemand() throws IOException
+    {
+        TTFParser parser = new TTFParser();
+        TrueTypeFont lazy = parser.parseTTF(TestTTFParser.class.getClassLoader().getResourceAsStream(
+                "org/apache/pdfbox/resources/ttf/ArialMT.ttf"));
+        TrueTypeFont all = parser.parseTTF(TestTTFParser.class.getClassLoader().getResourceAsStream(
+                "org/apache/pdfbox/resources/ttf/ArialMT.ttf"));
+        GlyphData[] glyphs = all.getGlyph().getGlyphs();
+        GlyphTable glyphTable = lazy.getGlyph();
+        Assert.assertEquals(glyphs.length, glyphTable.getNumberOfGlyphs());
+        Assert.assertNull(glyphTable.getGlyph(-1));
+        Assert.assertNull(glyphTable.getGlyph(glyphs.length));
+
+        int composites = 0;
+        // read backwards, so that composite glyphs are read before their components
+        for (int gid = glyphs.length - 1; gid >= 0; gid--)
+        {
+            GlyphData glyph = glyphTable.getGlyph(gid);
+            if (glyphs[gid] == null)
+            {
+                Assert.assertNull(glyph);
+                continue;
+            }
+            Assert.assertNotNull(glyph);
+            Assert.assertEquals(glyphs[gid].getBoundingBox().toString(), glyph.getBoundingBox().toString());
+            GlyphDescription expected = glyphs[gid].getDescription();
+            GlyphDescription description = glyph.getDescription();
+            if (description.isComposite())
+            {
+                composites++;
+            }
+            Assert.assertEquals(expected.getContourCount(), description.getContourCount());
+            Assert.assertEquals(expected.getPointCount(), description.getPointCount());
+            for (int i = 0; i < expected.getPointCount(); i++)
+            {
+                Assert.assertEquals(expected.getXCoordinate(i), description.getXCoordinate(i));
+                Assert.assertEquals(expected.getYCoordinate(i), description.getYCoordinate(i));
+                Assert.assertEquals(expected.getFlags(i), description.getFlags(i));
+            }
+            for (int i = 0; i < expected.getContourCount(); i++)
+            {
+                Assert.assertEquals(expected.getEndPtOfContours(i), description.getEndPtOfContours(i));
+            }
+        }
+        Assert.assertTrue(composites > 0);
+    }
 }
@@ -0,0 +1,164 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.pdfbox.pdmodel.graphics.color;
+
+import java.awt.Point;
+import java.awt.image.BufferedImage;
+import java.awt.image.DataBuffer;
+import java.awt.image.Raster;
+import java.awt.image.WritableRaster;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Random;
+
+import junit.framework.TestCase;
+
+import org.apache.pdfbox.cos.COSArray;
+import org.apache.pdfbox.cos.COSDictionary;
+import org.apache.pdfbox.cos.COSInteger;
+import org.apache.pdfbox.cos.COSName;
+import org.apache.pdfbox.cos.COSStream;
+import org.apache.pdfbox.cos.COSString;
+import org.apache.pdfbox.io.RandomAccessBuffer;
+
+/**
+ * Tests that the conversion of images in Indexed, Separation and DeviceN color spaces using
+ * lookup tables gives the same result as the conversion pixel by pixel.
+ *
+ * @version $Revision$
+ */
+public class TestSpecialColorSpaceImages extends TestCase
+{
+
+    private static final int WIDTH = 37;
+    private static final int HEIGHT = 23;
+
+    /**
+     * Tests an Indexed color space with samples greater than hival.
+     * @throws IOException if an error occurs
+     */
+    public void testIndexed() throws IOException
+    {
+        COSArray array = new COSArray();
+        array.add(COSName.INDEXED);
+        array.add(COSName.DEVICERGB);
+        array.add(COSInteger.get(3));
+        array.add(new COSString(new byte[] { 0, 0, 0, (byte) 255, 0, 0, 0, (byte) 128, 0,
+                10, 20, (byte) 250 }));
+        checkConversion(new PDIndexed(array), 1);
+    }
+
+    /**
+     * Tests a Separation color space with an RGB alternate color space.
+     * @throws IOException if an error occurs
+     */
+    public void testSeparation() throws IOException
+    {
+        COSArray array = new COSArray();
+        array.add(COSName.SEPARATION);
+        array.add(COSName.getPDFName("Spot"));
+        array.add(COSName.DEVICERGB);
+        array.add(createFunction("{ dup 0.84 mul exch 1 exch sub dup 0.44 mul }",
+                new float[] { 0, 1 }, new float[] { 0, 1, 0, 1, 0, 1 }));
+        checkConversion(new PDSeparation(array), 1);
+    }
+
+    /**
+     * Tests DeviceN color spaces with one and three colorants.
+     * @throws IOException if an error occurs
+     */
+    public void testDeviceN() throws IOException
+    {
+        COSArray names = new COSArray();
+        names.add(COSName.getPDFName("Spot"));
+        COSArray array = new COSArray();
+        array.add(COSName.DEVICEN);
+        array.add(names);
+        array.add(COSName.DEVICERGB);
+        array.add(createFunction("{ dup 0.5 mul 1 2 index sub }",
+                new float[] { 0, 1 }, new float[] { 0, 1, 0, 1, 0, 1 }));
+        checkConversion(new PDDeviceN(array), 1);
+
+        names = new COSArray();
+        names.add(COSName.getPDFName("A"));
+        names.add(COSName.getPDFName("B"));
+        names.add(COSName.getPDFName("C"));
+        array = new COSArray();
+        array.add(COSName.DEVICEN);
+        array.add(names);
+        array.add(COSName.DEVICERGB);
+        array.add(createFunction("{ exch 0.5 mul exch }",
+                new float[] { 0, 1, 0, 1, 0, 1 }, new float[] { 0, 1, 0, 1, 0, 1 }));
+        checkConversion(new PDDeviceN(array), 3);
+    }
+
+    /**
+     * Converts random samples, and samples with only a few colors, once with a plain banded
+     * raster and once with a child raster, which is converted pixel by pixel.
+     */
+    private void checkConversion(PDColorSpace colorSpace, int numComponents) throws IOException
+    {
+        Random random = new Random(42);
+        for (int colors : new int[] { 3, 256 })
+        {
+            WritableRaster raster = Raster.createBandedRaster(DataBuffer.TYPE_BYTE, WIDTH, HEIGHT,
+                    numComponents, new Point(0, 0));
+            int[] samples = new int[numComponents];
+            for (int y = 0; y < HEIGHT; y++)
+            {
+                for (int x = 0; x < WIDTH; x++)
+                {
+                    for (int c = 0; c < numComponents; c++)
+                    {
+                        samples[c] = random.nextInt(colors) * 255 / (colors - 1);
+                    }
+                    raster.setPixel(x, y, samples);
+                }
+            }
+            WritableRaster child = raster.createWritableChild(0, 0, WIDTH, HEIGHT, 0, 0, null);
+            BufferedImage expected = colorSpace.toRGBImage(child);
+            BufferedImage image = colorSpace.toRGBImage(raster);
+            for (int y = 0; y < HEIGHT; y++)
+            {
+                for (int x = 0; x < WIDTH; x++)
+                {
+                    assertEquals(expected.getRGB(x, y), image.getRGB(x, y));
+                }
+            }
+        }
+    }
+
+    private static COSStream createFunction(String function, float[] domain, float[] range)
+            throws IOException
+    {
+        COSDictionary dict = new COSDictionary();
+        dict.setInt("FunctionType", 4);
+        COSArray domainArray = new COSArray();
+        domainArray.setFloatArray(domain);
+        dict.setItem("Domain", domainArray);
+        COSArray rangeArray = new COSArray();
+        rangeArray.setFloatArray(range);
+        dict.setItem("Range", rangeArray);
+
+        COSStream functionStream = new COSStream(dict, new RandomAccessBuffer());
+        OutputStream out = functionStream.createUnfilteredStream();
+        byte[] data = function.getBytes("US-ASCII");
+        out.write(data, 0, data.length);
+        out.flush();
+        return functionStream;
+    }
+}
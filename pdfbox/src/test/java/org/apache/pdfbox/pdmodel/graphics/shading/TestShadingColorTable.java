@@ -0,0 +1,147 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.pdfbox.pdmodel.graphics.shading;
+
+import java.awt.geom.AffineTransform;
+import java.awt.image.Raster;
+import java.io.IOException;
+
+import junit.framework.TestCase;
+
+import org.apache.pdfbox.cos.COSArray;
+import org.apache.pdfbox.cos.COSBoolean;
+import org.apache.pdfbox.cos.COSDictionary;
+import org.apache.pdfbox.cos.COSFloat;
+import org.apache.pdfbox.cos.COSInteger;
+import org.apache.pdfbox.cos.COSName;
+import org.apache.pdfbox.pdmodel.common.function.PDFunction;
+
+/**
+ * Tests that the colors looked up in the {@link ShadingColorTable} of axial and radial shadings
+ * are those of their functions.
+ *
+ * @version $Revision$
+ */
+public class TestShadingColorTable extends TestCase
+{
+
+    // the table has one step per pixel, so that the steepest channel of the function changes by
+    // less than 2 per half a step
+    private static final int SIZE = 400;
+
+    /**
+     * Tests the colors of an axial shading.
+     *
+     * @throws IOException if an error occurs
+     */
+    public void testAxialShading() throws IOException
+    {
+        COSDictionary dictionary = createShading(2, 0, 0, SIZE, 0);
+        PDShadingType2 shading = new PDShadingType2(dictionary);
+        AxialShadingContext context = new AxialShadingContext(shading, null,
+                new AffineTransform(), null, SIZE);
+        Raster raster = context.getRaster(0, 0, SIZE, 1);
+        PDFunction function = shading.getFunction();
+        for (int x = 0; x < SIZE; x++)
+        {
+            float t = (float) x / SIZE;
+            assertColor(raster, x, 0, shading, function.eval(new float[] { t }));
+        }
+    }
+
+    /**
+     * Tests the colors of a radial shading.
+     *
+     * @throws IOException if an error occurs
+     */
+    public void testRadialShading() throws IOException
+    {
+        // concentric circles, the radius grows from 0 to SIZE / 2
+        COSDictionary dictionary = createShading(3, SIZE / 2, SIZE / 2, 0, SIZE / 2, SIZE / 2,
+                SIZE / 2);
+        PDShadingType3 shading = new PDShadingType3(dictionary);
+        RadialShadingContext context = new RadialShadingContext(shading, null,
+                new AffineTransform(), null, SIZE);
+        Raster raster = context.getRaster(0, 0, SIZE, SIZE);
+        PDFunction function = shading.getFunction();
+        int checked = 0;
+        for (int y = 0; y < SIZE; y++)
+        {
+            for (int x = 0; x < SIZE; x++)
+            {
+                double t = Math.hypot(x - SIZE / 2, y - SIZE / 2) / (SIZE / 2);
+                if (t <= 1)
+                {
+                    assertColor(raster, x, y, shading, function.eval(new float[] { (float) t }));
+                    checked++;
+                }
+            }
+        }
+        assertTrue(checked > SIZE * SIZE / 2);
+    }
+
+    private static void assertColor(Raster raster, int x, int y, PDShading shading,
+            float[] values) throws IOException
+    {
+        int rgb = ShadingColorTable.convertToRGB(shading.getColorSpace(), values);
+        int[] pixel = raster.getPixel(x, y, (int[]) null);
+        assertEquals("pixel " + x + "," + y, rgb >> 16 & 0xFF, pixel[0], 2);
+        assertEquals("pixel " + x + "," + y, rgb >> 8 & 0xFF, pixel[1], 2);
+        assertEquals("pixel " + x + "," + y, rgb & 0xFF, pixel[2], 2);
+        assertEquals(255, pixel[3]);
+    }
+
+    /**
+     * Creates a DeviceRGB shading dictionary with the given coords and an exponential
+     * function which isn't linear.
+     */
+    private static COSDictionary createShading(int type, int... coords)
+    {
+        COSDictionary function = new COSDictionary();
+        function.setInt(COSName.FUNCTION_TYPE, 2);
+        function.setItem(COSName.DOMAIN, toArray(0, 1));
+        function.setItem(COSName.C0, toArray(1, 0.2f, 0));
+        function.setItem(COSName.C1, toArray(0, 0.8f, 1));
+        function.setFloat(COSName.N, 2);
+
+        COSDictionary shading = new COSDictionary();
+        shading.setInt(COSName.SHADING_TYPE, type);
+        shading.setItem(COSName.COLORSPACE, COSName.DEVICERGB);
+        COSArray coordsArray = new COSArray();
+        for (int coord : coords)
+        {
+            coordsArray.add(COSInteger.get(coord));
+        }
+        shading.setItem(COSName.COORDS, coordsArray);
+        shading.setItem(COSName.FUNCTION, function);
+        COSArray extend = new COSArray();
+        extend.add(COSBoolean.TRUE);
+        extend.add(COSBoolean.TRUE);
+        shading.setItem(COSName.EXTEND, extend);
+        return shading;
+    }
+
+    private static COSArray toArray(float... values)
+    {
+        COSArray array = new COSArray();
+        for (float value : values)
+        {
+            array.add(new COSFloat(value));
+        }
+        return array;
+    }
+}
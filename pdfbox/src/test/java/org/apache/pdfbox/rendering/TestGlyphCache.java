@@ -0,0 +1,116 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.pdfbox.rendering;
+
+import java.awt.geom.GeneralPath;
+
+import junit.framework.TestCase;
+
+import org.apache.pdfbox.cos.COSDictionary;
+import org.apache.pdfbox.pdfviewer.font.Glyph2D;
+
+/**
+ * Test for the glyph outline cache shared by the pages of a document.
+ */
+public class TestGlyphCache extends TestCase
+{
+    /**
+     * Outlines are created once per font and code and evicted in LRU order.
+     */
+    public void testGetPath()
+    {
+        GlyphCache cache = new GlyphCache(2, 2);
+        COSDictionary font1 = new COSDictionary();
+        COSDictionary font2 = new COSDictionary();
+        CountingGlyph2D glyph2D = new CountingGlyph2D();
+
+        GeneralPath path = cache.getPath(font1, glyph2D, 65);
+        assertSame(path, cache.getPath(font1, glyph2D, 65));
+        assertEquals(1, glyph2D.count);
+
+        // same code, but another font
+        cache.getPath(font2, glyph2D, 65);
+        assertEquals(2, glyph2D.count);
+        assertEquals(2, cache.getGlyphCount());
+
+        // font1/65 is the least recently used one
+        cache.getPath(font2, glyph2D, 66);
+        assertEquals(2, cache.getGlyphCount());
+        cache.getPath(font1, glyph2D, 65);
+        assertEquals(4, glyph2D.count);
+
+        // missing glyphs are cached as well
+        cache.getPath(font1, glyph2D, -1);
+        cache.getPath(font1, glyph2D, -1);
+        assertEquals(5, glyph2D.count);
+    }
+
+    /**
+     * Glyph2D instances are kept per font dictionary.
+     */
+    public void testGetGlyph2D()
+    {
+        GlyphCache cache = new GlyphCache(1, 10);
+        COSDictionary font1 = new COSDictionary();
+        COSDictionary font2 = new COSDictionary();
+        Glyph2D glyph2D = new CountingGlyph2D();
+
+        cache.putGlyph2D(font1, glyph2D);
+        assertSame(glyph2D, cache.getGlyph2D(font1));
+        assertNull(cache.getGlyph2D(font2));
+        cache.putGlyph2D(font2, new CountingGlyph2D());
+        assertNull(cache.getGlyph2D(font1));
+    }
+
+    /**
+     * The outlines of an evicted font are dropped with its Glyph2D.
+     */
+    public void testEvictFont()
+    {
+        GlyphCache cache = new GlyphCache(1, 10);
+        COSDictionary font1 = new COSDictionary();
+        COSDictionary font2 = new COSDictionary();
+        CountingGlyph2D glyph2D = new CountingGlyph2D();
+
+        cache.putGlyph2D(font1, glyph2D);
+        cache.getPath(font1, glyph2D, 65);
+        cache.getPath(font1, glyph2D, 66);
+        cache.putGlyph2D(font2, new CountingGlyph2D());
+        cache.getPath(font2, glyph2D, 65);
+        assertEquals(1, cache.getGlyphCount());
+    }
+
+    private static class CountingGlyph2D implements Glyph2D
+    {
+        private int count;
+
+        public GeneralPath getPathForCharacterCode(int code)
+        {
+            count++;
+            return code < 0 ? null : new GeneralPath();
+        }
+
+        public int getNumberOfGlyphs()
+        {
+            return 0;
+        }
+
+        public void dispose()
+        {
+        }
+    }
+}
@@ -0,0 +1,100 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.pdfbox.rendering;
+
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+
+import junit.framework.TestCase;
+
+import org.apache.pdfbox.pdmodel.PDDocument;
+import org.apache.pdfbox.pdmodel.graphics.image.LosslessFactory;
+import org.apache.pdfbox.pdmodel.graphics.image.PDImageXObject;
+
+/**
+ * Test for the cache of decoded images used when rendering.
+ */
+public class TestImageCache extends TestCase
+{
+    /**
+     * Images are decoded once and evicted in LRU order if the cache is full.
+     *
+     * @throws IOException if something went wrong
+     */
+    public void testGetImage() throws IOException
+    {
+        PDDocument document = new PDDocument();
+        try
+        {
+            PDImageXObject image1 = createImage(document);
+            PDImageXObject image2 = createImage(document);
+            // room for one image of 10x10 RGB pixels
+            ImageCache cache = new ImageCache(300);
+
+            BufferedImage decoded = cache.getImage(image1);
+            assertEquals(10, decoded.getWidth());
+            // another XObject of the same stream, as created for each page
+            PDImageXObject sameImage = new PDImageXObject(image1.getPDStream(), null);
+            assertSame(decoded, cache.getImage(sameImage));
+            assertEquals(1, cache.getHitCount());
+            assertEquals(1, cache.getMissCount());
+            assertEquals(300, cache.getSize());
+
+            // doesn't fit, image1 is evicted
+            assertNotSame(decoded, cache.getImage(image2));
+            assertEquals(300, cache.getSize());
+            assertNotSame(decoded, cache.getImage(new PDImageXObject(image1.getPDStream(), null)));
+            assertEquals(3, cache.getMissCount());
+
+            // disabled cache
+            cache.setMaxSize(0);
+            assertEquals(0, cache.getSize());
+            cache.getImage(image1);
+            assertEquals(1, cache.getHitCount());
+            assertEquals(3, cache.getMissCount());
+        }
+        finally
+        {
+            document.close();
+        }
+    }
+
+    /**
+     * The image cache of a renderer is only enabled if a size is given.
+     *
+     * @throws IOException if something went wrong
+     */
+    public void testRendererCacheSize() throws IOException
+    {
+        PDDocument document = new PDDocument();
+        try
+        {
+            assertEquals(0, new PDFRenderer(document).getImageCache().getMaxSize());
+            assertEquals(1000, new PDFRenderer(document, 1000).getImageCache().getMaxSize());
+        }
+        finally
+        {
+            document.close();
+        }
+    }
+
+    private static PDImageXObject createImage(PDDocument document) throws IOException
+    {
+        BufferedImage image = new BufferedImage(10, 10, BufferedImage.TYPE_INT_RGB);
+        return LosslessFactory.createFromImage(document, image);
+    }
+}
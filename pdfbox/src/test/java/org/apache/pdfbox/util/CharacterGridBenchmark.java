@@ -0,0 +1,169 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.pdfbox.util;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+/**
+ * Compares the time needed per glyph to suppress duplicate overlapping text on a dense page
+ * by the {@link CharacterGrid} and by the sorted maps used before.
+ * Usage: CharacterGridBenchmark [glyphs per page] [rounds]
+ *
+ * @version $Revision$
+ */
+public class CharacterGridBenchmark
+{
+
+    private CharacterGridBenchmark()
+    {
+    }
+
+    /**
+     * Runs the benchmark.
+     * @param args the number of glyphs per page and the number of rounds
+     */
+    public static void main(String[] args)
+    {
+        int glyphs = args.length > 0 ? Integer.parseInt(args[0]) : 50000;
+        int rounds = args.length > 1 ? Integer.parseInt(args[1]) : 10;
+        String[] characters = new String[glyphs];
+        float[] xs = new float[glyphs];
+        float[] ys = new float[glyphs];
+        float[] tolerances = new float[glyphs];
+        createPage(characters, xs, ys, tolerances);
+        CharacterGrid grid = new CharacterGrid();
+        TreeMapCharacters treeMap = new TreeMapCharacters();
+        for (int round = 0; round < rounds; round++)
+        {
+            long start = System.nanoTime();
+            int shownByTreeMap = 0;
+            for (int i = 0; i < glyphs; i++)
+            {
+                if (treeMap.add(characters[i], xs[i], ys[i], tolerances[i]))
+                {
+                    shownByTreeMap++;
+                }
+            }
+            treeMap.clear();
+            long treeMapTime = System.nanoTime() - start;
+
+            start = System.nanoTime();
+            int shownByGrid = 0;
+            for (int i = 0; i < glyphs; i++)
+            {
+                if (!grid.contains(characters[i], xs[i], ys[i], tolerances[i]))
+                {
+                    grid.add(characters[i], xs[i], ys[i]);
+                    shownByGrid++;
+                }
+            }
+            grid.clear();
+            long gridTime = System.nanoTime() - start;
+
+            if (shownByGrid != shownByTreeMap)
+            {
+                throw new IllegalStateException(shownByGrid + " != " + shownByTreeMap);
+            }
+            System.out.println("tree map: " + treeMapTime / glyphs + " ns/glyph"
+                    + ", grid: " + gridTime / glyphs + " ns/glyph"
+                    + " (" + shownByGrid + " of " + glyphs + " glyphs shown)");
+        }
+    }
+
+    /**
+     * Creates lines of text where every glyph is drawn twice with a small offset, as done by
+     * some producers to simulate bold text.
+     */
+    private static void createPage(String[] characters, float[] xs, float[] ys,
+            float[] tolerances)
+    {
+        String text = "The quick brown fox jumps over the lazy dog. 0123456789";
+        float x = 0;
+        float y = 0;
+        for (int i = 0; i < characters.length; i += 2)
+        {
+            String character = String.valueOf(text.charAt(i / 2 % text.length()));
+            float width = 4 + (character.charAt(0) & 3);
+            for (int j = i; j < i + 2 && j < characters.length; j++)
+            {
+                characters[j] = character;
+                xs[j] = x + (j - i) * 0.3f;
+                ys[j] = y;
+                tolerances[j] = width / 3;
+            }
+            x += width;
+            if (x > 3000)
+            {
+                x = 0;
+                y += 10;
+            }
+        }
+    }
+
+    /**
+     * The lookup of duplicate overlapping text PDFTextStripper used before the
+     * {@link CharacterGrid}.
+     */
+    static class TreeMapCharacters
+    {
+        private final Map<String, TreeMap<Float, TreeSet<Float>>> characterListMapping =
+            new HashMap<String, TreeMap<Float, TreeSet<Float>>>();
+
+        /**
+         * Adds the character unless the same character is already at a position within the
+         * tolerance.
+         *
+         * @return true if the character was added
+         */
+        boolean add(String textCharacter, float textX, float textY, float tolerance)
+        {
+            TreeMap<Float, TreeSet<Float>> sameTextCharacters =
+                characterListMapping.get(textCharacter);
+            if (sameTextCharacters == null)
+            {
+                sameTextCharacters = new TreeMap<Float, TreeSet<Float>>();
+                characterListMapping.put(textCharacter, sameTextCharacters);
+            }
+            SortedMap<Float, TreeSet<Float>> xMatches =
+                sameTextCharacters.subMap(textX - tolerance, textX + tolerance);
+            for (TreeSet<Float> xMatch : xMatches.values())
+            {
+                if (!xMatch.subSet(textY - tolerance, textY + tolerance).isEmpty())
+                {
+                    return false;
+                }
+            }
+            TreeSet<Float> ySet = sameTextCharacters.get(textX);
+            if (ySet == null)
+            {
+                ySet = new TreeSet<Float>();
+                sameTextCharacters.put(textX, ySet);
+            }
+            ySet.add(textY);
+            return true;
+        }
+
+        void clear()
+        {
+            characterListMapping.clear();
+        }
+    }
+}
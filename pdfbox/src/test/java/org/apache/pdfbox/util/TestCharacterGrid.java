@@ -0,0 +1,80 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.pdfbox.util;
+
+import java.util.Random;
+
+import junit.framework.TestCase;
+
+/**
+ * Test for the grid used to find duplicate overlapping text.
+ *
+ * @version $Revision$
+ */
+public class TestCharacterGrid extends TestCase
+{
+
+    /**
+     * The grid finds the same duplicates as the sorted maps used before.
+     */
+    public void testSameAsTreeMap()
+    {
+        Random random = new Random(42);
+        String[] alphabet = { "a", "b", "c", "fi" };
+        CharacterGrid grid = new CharacterGrid();
+        CharacterGridBenchmark.TreeMapCharacters treeMap =
+            new CharacterGridBenchmark.TreeMapCharacters();
+        for (int page = 0; page < 20; page++)
+        {
+            // small and large tolerances, so that the cells are enlarged while adding
+            float maxTolerance = page % 2 == 0 ? 1 : 50;
+            for (int i = 0; i < 5000; i++)
+            {
+                String character = alphabet[random.nextInt(alphabet.length)];
+                float x = random.nextInt(2000) / 4f - 100;
+                float y = random.nextInt(2000) / 4f - 100;
+                float tolerance = random.nextFloat() * maxTolerance;
+                boolean added = !grid.contains(character, x, y, tolerance);
+                if (added)
+                {
+                    grid.add(character, x, y);
+                }
+                assertEquals(treeMap.add(character, x, y, tolerance), added);
+            }
+            grid.clear();
+            treeMap.clear();
+            assertEquals(0, grid.size());
+        }
+    }
+
+    /**
+     * The tolerance is applied as a half open interval around the position.
+     */
+    public void testBounds()
+    {
+        CharacterGrid grid = new CharacterGrid();
+        grid.add("a", 10, 20);
+        assertTrue(grid.contains("a", 9.5f, 19.5f, 1));
+        assertTrue(grid.contains("a", 11, 21, 1));
+        assertFalse(grid.contains("a", 9, 19, 1));
+        assertFalse(grid.contains("b", 10, 20, 1));
+        assertFalse(grid.contains("a", 10, 20, 0));
+        assertTrue(grid.contains("a", 1000, 1000, Float.POSITIVE_INFINITY));
+        grid.add("b", 1e38f, -1e38f);
+        assertTrue(grid.contains("b", 1e38f, -1e38f, 1e32f));
+    }
+}
@@ -0,0 +1,149 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.pdfbox.util;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import junit.framework.TestCase;
+
+import org.apache.pdfbox.cos.COSBase;
+import org.apache.pdfbox.cos.COSDictionary;
+import org.apache.pdfbox.cos.COSName;
+import org.apache.pdfbox.cos.COSStream;
+import org.apache.pdfbox.pdmodel.PDDocument;
+import org.apache.pdfbox.pdmodel.PDPage;
+
+/**
+ * Tests the {@link PDFMergerUtility}.
+ *
+ * @version $Revision$
+ */
+public class TestPDFMergerUtility extends TestCase
+{
+
+    /**
+     * Merges documents sharing an image, which is written once if resources are deduplicated.
+     *
+     * @throws IOException if an error occurs
+     */
+    public void testDeduplicateResources() throws IOException
+    {
+        byte[] merged = merge(false);
+        byte[] deduplicated = merge(true);
+        assertTrue(deduplicated.length < merged.length);
+
+        assertEquals(6, countImages(merged));
+        assertEquals(4, countImages(deduplicated));
+    }
+
+    private byte[] merge(boolean deduplicate) throws IOException
+    {
+        PDFMergerUtility merger = new PDFMergerUtility();
+        for (int i = 0; i < 3; i++)
+        {
+            merger.addSource(new ByteArrayInputStream(createDocument(i)));
+        }
+        merger.setDeduplicateResources(deduplicate);
+        merger.setReleaseSources(deduplicate);
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        merger.setDestinationStream(output);
+        merger.mergeDocuments();
+        return output.toByteArray();
+    }
+
+    /**
+     * Counts the distinct image streams of the pages, and checks that the merged document
+     * contains the pages of all sources.
+     */
+    private static int countImages(byte[] pdf) throws IOException
+    {
+        PDDocument document = PDDocument.load(new ByteArrayInputStream(pdf));
+        try
+        {
+            List<PDPage> pages = document.getDocumentCatalog().getAllPages();
+            assertEquals(6, pages.size());
+            Set<COSBase> images = new HashSet<COSBase>();
+            for (PDPage page : pages)
+            {
+                COSDictionary xobjects = (COSDictionary) page.getResources().getCOSDictionary()
+                        .getDictionaryObject(COSName.XOBJECT);
+                for (COSName name : xobjects.keySet())
+                {
+                    images.add(xobjects.getDictionaryObject(name));
+                }
+            }
+            return images.size();
+        }
+        finally
+        {
+            document.close();
+        }
+    }
+
+    /**
+     * Creates a document of two pages, each showing a logo which is the same in all documents
+     * and a number which is different in each document.
+     */
+    private static byte[] createDocument(int number) throws IOException
+    {
+        PDDocument document = new PDDocument();
+        try
+        {
+            COSStream logo = createImage(document, new byte[] { 1, 2, 3, 4, 5, 6, 7, 8, 9 });
+            COSStream numberImage = createImage(document, new byte[] { (byte) number });
+            for (int i = 0; i < 2; i++)
+            {
+                PDPage page = new PDPage();
+                COSDictionary xobjects = new COSDictionary();
+                xobjects.setItem("Logo", logo);
+                xobjects.setItem("Number", numberImage);
+                COSDictionary resources = new COSDictionary();
+                resources.setItem(COSName.XOBJECT, xobjects);
+                page.getCOSDictionary().setItem(COSName.RESOURCES, resources);
+                document.addPage(page);
+            }
+            ByteArrayOutputStream output = new ByteArrayOutputStream();
+            document.save(output);
+            return output.toByteArray();
+        }
+        finally
+        {
+            document.close();
+        }
+    }
+
+    private static COSStream createImage(PDDocument document, byte[] samples) throws IOException
+    {
+        COSStream image = document.getDocument().createCOSStream();
+        image.setItem(COSName.TYPE, COSName.XOBJECT);
+        image.setItem(COSName.SUBTYPE, COSName.IMAGE);
+        image.setInt(COSName.WIDTH, samples.length);
+        image.setInt(COSName.HEIGHT, 1);
+        image.setInt(COSName.BITS_PER_COMPONENT, 8);
+        image.setItem(COSName.COLORSPACE, COSName.DEVICEGRAY);
+        OutputStream output = image.createUnfilteredStream();
+        output.write(samples);
+        output.close();
+        return image;
+    }
+}
@@ -19,6 +19,7 @@ package org.apache.pdfbox.util;
 
 import org.apache.pdfbox.ParallelParameterized;
 import org.apache.pdfbox.pdmodel.PDDocument;
+import org.apache.pdfbox.rendering.ImageType;
 import org.apache.pdfbox.rendering.PDFRenderer;
 import org.junit.Test;
 import org.junit.runner.RunWith;
@@ -31,6 +32,11 @@ import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
 
 /**
  * Functional test for PDF rendering. This test simply tries to render
@@ -84,4 +90,40 @@ public class TestRendering
 
         document.close();
     }
+
+    @Test
+    public void renderConcurrently() throws IOException
+    {
+        File file = new File(INPUT_DIR, fileName);
+        PDDocument document = PDDocument.load(file);
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try
+        {
+            PDFRenderer renderer = new PDFRenderer(document);
+            int pageCount = document.getNumberOfPages();
+            List<BufferedImage> images = renderer.renderImages(0, pageCount - 1, 1, ImageType.RGB,
+                                                               executor);
+            assertEquals(pageCount, images.size());
+
+            // pages rendered concurrently have to be the same as the ones rendered one by one
+            for (int i = 0; i < pageCount; i++)
+            {
+                BufferedImage expected = renderer.renderImage(i);
+                BufferedImage actual = images.get(i);
+                assertEquals(expected.getWidth(), actual.getWidth());
+                assertEquals(expected.getHeight(), actual.getHeight());
+                assertArrayEquals(getPixels(expected), getPixels(actual));
+            }
+        }
+        finally
+        {
+            executor.shutdown();
+            document.close();
+        }
+    }
+
+    private int[] getPixels(BufferedImage image)
+    {
+        return image.getRGB(0, 0, image.getWidth(), image.getHeight(), null, 0, image.getWidth());
+    }
 }
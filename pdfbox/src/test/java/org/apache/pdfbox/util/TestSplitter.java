@@ -0,0 +1,156 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.pdfbox.util;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.List;
+
+import junit.framework.TestCase;
+
+import org.apache.pdfbox.pdmodel.PDDocument;
+import org.apache.pdfbox.pdmodel.PDPage;
+
+/**
+ * Tests the {@link Splitter}, which saves each split document to a {@link SplitDestination}.
+ *
+ * @version $Revision$
+ */
+public class TestSplitter extends TestCase
+{
+
+    /**
+     * Splits a document of five pages into documents of two pages.
+     *
+     * @throws IOException if an error occurs
+     */
+    public void testSplitToDestination() throws IOException
+    {
+        PDDocument document = createDocument(5);
+        final List<ByteArrayOutputStream> outputs = new ArrayList<ByteArrayOutputStream>();
+        try
+        {
+            Splitter splitter = new Splitter();
+            splitter.setSplitAtPage(2);
+            splitter.split(document, new SplitDestination()
+            {
+                public OutputStream createOutputStream(int partNumber)
+                {
+                    assertEquals(outputs.size(), partNumber);
+                    // the previous part has been saved before the next one is requested
+                    for (ByteArrayOutputStream output : outputs)
+                    {
+                        assertTrue(output.size() > 0);
+                    }
+                    ByteArrayOutputStream output = new ByteArrayOutputStream();
+                    outputs.add(output);
+                    return output;
+                }
+            });
+        }
+        finally
+        {
+            document.close();
+        }
+
+        assertEquals(3, outputs.size());
+        int[] pageCounts = { 2, 2, 1 };
+        for (int i = 0; i < outputs.size(); i++)
+        {
+            PDDocument part = PDDocument.load(new ByteArrayInputStream(outputs.get(i).toByteArray()));
+            try
+            {
+                assertEquals(pageCounts[i], part.getNumberOfPages());
+            }
+            finally
+            {
+                part.close();
+            }
+        }
+    }
+
+    /**
+     * Splits a range of pages, the documents are the same as the ones returned by
+     * {@link Splitter#split(PDDocument)}.
+     *
+     * @throws IOException if an error occurs
+     */
+    public void testSplitRangeToDestination() throws IOException
+    {
+        PDDocument document = createDocument(7);
+        final List<ByteArrayOutputStream> outputs = new ArrayList<ByteArrayOutputStream>();
+        List<PDDocument> documents = null;
+        try
+        {
+            Splitter splitter = new Splitter();
+            splitter.setStartPage(2);
+            splitter.setEndPage(6);
+            splitter.setSplitAtPage(3);
+            documents = splitter.split(document);
+
+            splitter = new Splitter();
+            splitter.setStartPage(2);
+            splitter.setEndPage(6);
+            splitter.setSplitAtPage(3);
+            splitter.split(document, new SplitDestination()
+            {
+                public OutputStream createOutputStream(int partNumber)
+                {
+                    ByteArrayOutputStream output = new ByteArrayOutputStream();
+                    outputs.add(output);
+                    return output;
+                }
+            });
+
+            assertEquals(documents.size(), outputs.size());
+            for (int i = 0; i < outputs.size(); i++)
+            {
+                PDDocument part = PDDocument.load(
+                        new ByteArrayInputStream(outputs.get(i).toByteArray()));
+                try
+                {
+                    assertEquals(documents.get(i).getNumberOfPages(), part.getNumberOfPages());
+                }
+                finally
+                {
+                    part.close();
+                }
+            }
+        }
+        finally
+        {
+            document.close();
+            for (int i = 0; documents != null && i < documents.size(); i++)
+            {
+                documents.get(i).close();
+            }
+        }
+    }
+
+    private static PDDocument createDocument(int pages) throws IOException
+    {
+        PDDocument document = new PDDocument();
+        for (int i = 0; i < pages; i++)
+        {
+            document.addPage(new PDPage());
+        }
+        return document;
+    }
+}
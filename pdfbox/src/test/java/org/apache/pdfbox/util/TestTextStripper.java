@@ -25,7 +25,10 @@ import java.io.InputStreamReader;
 import java.io.LineNumberReader;
 import java.io.OutputStream;
 import java.io.OutputStreamWriter;
+import java.io.StringWriter;
 import java.io.Writer;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
 import junit.framework.Test;
 import junit.framework.TestCase;
@@ -392,6 +395,106 @@ public class TestTextStripper extends TestCase
             }
     }
 
+    /**
+     * Test that the text extracted concurrently is the same as the one extracted sequentially.
+     *
+     * @throws Exception when there is an exception
+     */
+    public void testConcurrentExtract() throws Exception
+    {
+        File[] testFiles = new File("src/test/resources/input").listFiles(new FilenameFilter()
+        {
+            public boolean accept(File dir, String name)
+            {
+                return name.endsWith(".pdf");
+            }
+        });
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try
+        {
+            for (File file : testFiles)
+            {
+                PDDocument document = PDDocument.load(file);
+                try
+                {
+                    for (boolean sort : new boolean[] { false, true })
+                    {
+                        PDFTextStripper sequential = new PDFTextStripper(encoding);
+                        sequential.setSortByPosition(sort);
+                        sequential.setAddMoreFormatting(true);
+                        StringWriter expected = new StringWriter();
+                        sequential.writeText(document, expected);
+
+                        PDFTextStripper concurrent = new PDFTextStripper(encoding);
+                        concurrent.setSortByPosition(sort);
+                        concurrent.setAddMoreFormatting(true);
+                        StringWriter actual = new StringWriter();
+                        concurrent.writeText(document, actual, executor);
+
+                        assertEquals(file.getName(), expected.toString(), actual.toString());
+                        assertEquals(sequential.getTotalCharCnt(), concurrent.getTotalCharCnt());
+                    }
+                }
+                finally
+                {
+                    document.close();
+                }
+            }
+        }
+        finally
+        {
+            executor.shutdown();
+        }
+    }
+
+    /**
+     * Test that subclasses which don't create page strippers extract their pages sequentially
+     * when an executor is given.
+     *
+     * @throws Exception when there is an exception
+     */
+    public void testConcurrentExtractSubclass() throws Exception
+    {
+        File file = new File("src/test/resources/input/FC60_Times.pdf");
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        PDDocument document = PDDocument.load(file);
+        try
+        {
+            PDFTextStripper sequential = new UpperCaseTextStripper(encoding);
+            StringWriter expected = new StringWriter();
+            sequential.writeText(document, expected);
+
+            PDFTextStripper concurrent = new UpperCaseTextStripper(encoding);
+            StringWriter actual = new StringWriter();
+            concurrent.writeText(document, actual, executor);
+
+            assertTrue(expected.toString().length() > 0);
+            assertEquals(expected.toString().toUpperCase(), expected.toString());
+            assertEquals(expected.toString(), actual.toString());
+        }
+        finally
+        {
+            document.close();
+            executor.shutdown();
+        }
+    }
+
+    /**
+     * A stripper writing its text in upper case.
+     */
+    private static class UpperCaseTextStripper extends PDFTextStripper
+    {
+        UpperCaseTextStripper(String encoding) throws IOException
+        {
+            super(encoding);
+        }
+
+        protected void writeString(String text) throws IOException
+        {
+            super.writeString(text.toUpperCase());
+        }
+    }
+
     /**
      * Set the tests in the suite for this test class.
      *
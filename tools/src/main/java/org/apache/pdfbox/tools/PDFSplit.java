@@ -19,13 +19,12 @@ package org.apache.pdfbox.tools;
 import java.io.File;
 import java.io.IOException;
 import java.io.FileOutputStream;
-
-import java.util.List;
+import java.io.OutputStream;
 
 import org.apache.pdfbox.pdmodel.encryption.InvalidPasswordException;
 import org.apache.pdfbox.pdmodel.PDDocument;
-import org.apache.pdfbox.pdfwriter.COSWriter;
 import org.apache.pdfbox.pdmodel.encryption.StandardDecryptionMaterial;
+import org.apache.pdfbox.util.SplitDestination;
 import org.apache.pdfbox.util.Splitter;
 
 /**
@@ -126,7 +125,6 @@ public class PDFSplit
         else
         {
             PDDocument document = null;
-            List<PDDocument> documents = null;
             try
             {
                 if (useNonSeqParser) 
@@ -192,14 +190,15 @@ public class PDFSplit
                     }
                 }
                     
-                documents = splitter.split( document );
-                for( int i=0; i<documents.size(); i++ )
+                // each split document is written as soon as it is complete
+                final String prefix = pdfFile.substring(0, pdfFile.length()-4 );
+                splitter.split( document, new SplitDestination()
                 {
-                    PDDocument doc = documents.get( i );
-                    String fileName = pdfFile.substring(0, pdfFile.length()-4 ) + "-" + i + ".pdf";
-                    writeDocument( doc, fileName );
-                    doc.close();
-                }
+                    public OutputStream createOutputStream(int partNumber) throws IOException
+                    {
+                        return new FileOutputStream( prefix + "-" + partNumber + ".pdf" );
+                    }
+                });
 
             }
             finally
@@ -208,34 +207,6 @@ public class PDFSplit
                 {
                     document.close();
                 }
-                for( int i=0; documents != null && i<documents.size(); i++ )
-                {
-                    PDDocument doc = (PDDocument)documents.get( i );
-                    doc.close();
-                }
-            }
-        }
-    }
-
-    private static final void writeDocument( PDDocument doc, String fileName ) throws IOException
-    {
-        FileOutputStream output = null;
-        COSWriter writer = null;
-        try
-        {
-            output = new FileOutputStream( fileName );
-            writer = new COSWriter( output );
-            writer.write( doc );
-        }
-        finally
-        {
-            if( output != null )
-            {
-                output.close();
-            }
-            if( writer != null )
-            {
-                writer.close();
             }
         }
     }